@@ -0,0 +1,25 @@
+package com.konkerlabs.platform.registry.api.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * A page of results, serialized as a plain list. The cursor to the next page is returned
+ * in the next field of the response.
+ */
+public class PagedList<T> extends ArrayList<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String next;
+
+    public PagedList(Collection<? extends T> items, String next) {
+        super(items);
+        this.next = next;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+}
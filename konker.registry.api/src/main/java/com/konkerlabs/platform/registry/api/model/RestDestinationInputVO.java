@@ -72,4 +72,16 @@ public class RestDestinationInputVO {
 			position = 9)
 	protected boolean active;
 
+	@ApiModelProperty(
+			value = "Number of events forwarded together as a JSON array, only for FORWARD_MESSAGE destinations. Events are sent one by one below 2",
+			example = "100",
+			position = 10)
+	protected Integer batchSize;
+
+	@ApiModelProperty(
+			value = "Milliseconds an incomplete batch waits for more events before it is sent",
+			example = "1000",
+			position = 11)
+	protected Integer batchLinger;
+
 }
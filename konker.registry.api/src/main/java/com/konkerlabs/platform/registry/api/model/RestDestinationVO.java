@@ -30,6 +30,8 @@ public class RestDestinationVO extends RestDestinationInputVO
 		this.serviceUsername = restDestination.getServiceUsername();
 		this.servicePassword = restDestination.getServicePassword();
 		this.active = restDestination.isActive();
+		this.batchSize = restDestination.getBatchSize();
+		this.batchLinger = restDestination.getBatchLinger();
 	}
 
 	@Override
@@ -45,6 +47,8 @@ public class RestDestinationVO extends RestDestinationInputVO
 		vo.setType(model.getType());
 		vo.setBody(model.getBody());
 		vo.setActive(model.isActive());
+		vo.setBatchSize(model.getBatchSize());
+		vo.setBatchLinger(model.getBatchLinger());
 		return vo;
 	}
 
@@ -60,6 +64,8 @@ public class RestDestinationVO extends RestDestinationInputVO
 		model.setType(this.getType());
 		model.setBody(this.getBody());
 		model.setActive(this.isActive());
+		model.setBatchSize(this.getBatchSize());
+		model.setBatchLinger(this.getBatchLinger());
 		return model;
 	}
 }
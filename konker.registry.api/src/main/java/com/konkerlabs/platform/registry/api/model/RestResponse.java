@@ -32,6 +32,8 @@ public class RestResponse<T> {
     @JsonInclude(Include.ALWAYS)
     @ApiModelProperty(value = "the response")
     private T result;
+    @ApiModelProperty(value = "the cursor to the next page of results, absent on the last page")
+    private String next;
 
     public void setStatus(Status status) {
         this.status = status.name().toLowerCase();
@@ -31,6 +31,8 @@ public class RestTransformationVO
     private String name;
     @ApiModelProperty(value = "description", example = "this transformation does that", position = 2)
     private String description;
+    @ApiModelProperty(value = "seconds a step response is reused for events that lead to the same request, no caching when empty or zero", example = "300", position = 3)
+    private Integer responseCacheTtl;
 
     @Singular
     private List<RestTransformationStepVO> steps = new LinkedList<>();
@@ -43,6 +45,7 @@ public class RestTransformationVO
         r.setGuid(t.getGuid());
         r.setName(t.getName());
         r.setDescription(t.getDescription());
+        r.setResponseCacheTtl(t.getResponseCacheTtl());
         r.setSteps(new RestTransformationStepVO().apply(t.getSteps()));
         return r;
     }
@@ -51,6 +54,7 @@ public class RestTransformationVO
     public Transformation patchDB(Transformation t) {
         t.setDescription(this.getDescription());
         t.setName(this.getName());
+        t.setResponseCacheTtl(this.getResponseCacheTtl());
         t.setSteps(this.getSteps().stream()
                 .map(i -> {
                             return new RestTransformationStep(new HashMap<String, Object>() {{
@@ -20,9 +20,12 @@ import com.konkerlabs.platform.registry.api.exceptions.BadServiceResponseExcepti
 import com.konkerlabs.platform.registry.api.exceptions.NotFoundResponseException;
 import com.konkerlabs.platform.registry.api.model.EventVO;
 import com.konkerlabs.platform.registry.api.model.EventsFilter;
+import com.konkerlabs.platform.registry.api.model.PagedList;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.EventPage;
 import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.events.api.EventRepository;
 import com.konkerlabs.platform.registry.business.services.api.ApplicationService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
@@ -58,7 +61,9 @@ public class OutgoingEventsRestController extends AbstractRestController impleme
             @ApiParam(value = "The sort order", allowableValues = "newest,oldest")
             @RequestParam(required = false, defaultValue = "newest") String sort,
             @ApiParam(value = "The number of results returned", allowableValues = "range[1, 10000]")
-            @RequestParam(required = false, defaultValue = "100") Integer limit
+            @RequestParam(required = false, defaultValue = "100") Integer limit,
+            @ApiParam(value = "Pages through the results, limit at a time: empty for the first page, then the next field of the previous page")
+            @RequestParam(required = false) String cursor
         ) throws BadServiceResponseException, BadRequestResponseException, NotFoundResponseException {
 
         Tenant tenant = user.getTenant();
@@ -80,6 +85,16 @@ public class OutgoingEventsRestController extends AbstractRestController impleme
         Instant startingTimestamp = filter.getStartingTimestamp();
         Instant endTimestamp = filter.getEndTimestamp();
 
+        if (cursor != null) {
+            ServiceResponse<EventPage> pageResponse = deviceEventService.findOutgoingPage(tenant, application, deviceGuid, channel, startingTimestamp, endTimestamp, ascending, limit, cursor.isEmpty() ? null : cursor);
+
+            if (!pageResponse.isOk()) {
+                throw new BadServiceResponseException(user, pageResponse, validationsCode);
+            } else {
+                return new PagedList<>(new EventVO().apply(pageResponse.getResult().getEvents()), pageResponse.getResult().getNext());
+            }
+        }
+
         ServiceResponse<List<Event>> restDestinationResponse = deviceEventService.findOutgoingBy(tenant, application, deviceGuid, channel, startingTimestamp, endTimestamp, ascending, limit);
 
         if (!restDestinationResponse.isOk()) {
@@ -99,6 +114,8 @@ public class OutgoingEventsRestController extends AbstractRestController impleme
     	for (ApplicationService.Validations value : ApplicationService.Validations.values()) {
     		validationsCode.add(value.getCode());
     	}
+
+    	validationsCode.add(EventRepository.Validations.CURSOR_INVALID.getCode());
     }
 
 }
@@ -111,6 +111,8 @@ public class RestDestinationController extends AbstractRestController implements
                 .type(restDestinationForm.getType())
                 .body(restDestinationForm.getBody())
                 .active(true)
+                .batchSize(restDestinationForm.getBatchSize())
+                .batchLinger(restDestinationForm.getBatchLinger())
                 .build();
 
         ServiceResponse<RestDestination> restDestinationResponse = restDestinationService.register(tenant, application, restDestination);
@@ -157,6 +159,8 @@ public class RestDestinationController extends AbstractRestController implements
         restDestinationFromDB.setType(restDestinationForm.getType());
         restDestinationFromDB.setBody(restDestinationForm.getBody());
         restDestinationFromDB.setActive(restDestinationForm.isActive());
+        restDestinationFromDB.setBatchSize(restDestinationForm.getBatchSize());
+        restDestinationFromDB.setBatchLinger(restDestinationForm.getBatchLinger());
 
         ServiceResponse<RestDestination> updateResponse = restDestinationService.update(tenant, application, restDestinationGuid, restDestinationFromDB);
 
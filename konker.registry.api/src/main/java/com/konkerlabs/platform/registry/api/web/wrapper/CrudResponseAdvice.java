@@ -25,6 +25,7 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 
 import com.konkerlabs.platform.registry.api.exceptions.BadServiceResponseException;
 import com.konkerlabs.platform.registry.api.exceptions.NotFoundResponseException;
+import com.konkerlabs.platform.registry.api.model.PagedList;
 import com.konkerlabs.platform.registry.api.model.RestResponseBuilder;
 
 @ControllerAdvice(basePackages = "com.konkerlabs.platform.registry.api.web.controller")
@@ -58,7 +59,11 @@ public class CrudResponseAdvice implements ResponseBodyAdvice<Object> {
             }
         }
         response.setStatusCode(httpStatus);
-        return RestResponseBuilder.ok().withHttpStatus(httpStatus).withResult(body).getResponse();
+        RestResponseBuilder<Object> builder = RestResponseBuilder.ok().withHttpStatus(httpStatus).withResult(body);
+        if (body instanceof PagedList) {
+            builder.withNext(((PagedList<?>) body).getNext());
+        }
+        return builder.getResponse();
 
     }
 
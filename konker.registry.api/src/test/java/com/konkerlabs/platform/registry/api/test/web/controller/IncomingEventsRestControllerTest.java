@@ -9,6 +9,7 @@ import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Event.EventActor;
+import com.konkerlabs.platform.registry.business.model.EventPage;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.services.api.ApplicationService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
@@ -234,6 +235,36 @@ public class IncomingEventsRestControllerTest extends WebLayerTestContext {
 
     }
 
+    @Test
+    public void shouldListEventsPage() throws Exception {
+
+        List<Event> incomingEvents = new ArrayList<>();
+        incomingEvents.add(event1);
+        incomingEvents.add(event2);
+
+        when(deviceEventService.findIncomingPage(org.mockito.Matchers.any(Tenant.class), org.mockito.Matchers.any(Application.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(String.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.isNull(Instant.class), org.mockito.Matchers.eq(false), org.mockito.Matchers.eq(2), org.mockito.Matchers.eq("c1")))
+                .thenReturn(ServiceResponseBuilder.<EventPage>ok().withResult(EventPage.builder().events(incomingEvents).next("c2").build()).build());
+
+        when(applicationService.getByApplicationName(tenant, application.getName()))
+                .thenReturn(ServiceResponseBuilder.<Application>ok().withResult(application).build());
+
+        getMockMvc().perform(MockMvcRequestBuilders.get("/" + application.getName() + "/incomingEvents")
+                                                   .param("limit", "2")
+                                                   .param("cursor", "c1")
+                                                   .contentType("application/json")
+                                                   .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/json;charset=UTF-8"))
+                    .andExpect(jsonPath("$.code", is(HttpStatus.OK.value())))
+                    .andExpect(jsonPath("$.status", is("success")))
+                    .andExpect(jsonPath("$.result", hasSize(2)))
+                    .andExpect(jsonPath("$.result[0].payload", is(JSON.parse(PAYLOAD1))))
+                    .andExpect(jsonPath("$.result[1].payload", is(JSON.parse(PAYLOAD2))))
+                    .andExpect(jsonPath("$.next", is("c2")))
+                    ;
+
+    }
+
     @Test
     public void shouldListEventsWithInvalidLimit() throws Exception {
     	when(applicationService.getByApplicationName(tenant, application.getName()))
@@ -1,8 +1,11 @@
 package org.konker.registry.cassandraetl.services;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,6 +15,7 @@ import org.springframework.stereotype.Service;
 import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.EventBatchResult;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.repositories.ApplicationRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
@@ -21,6 +25,8 @@ import com.konkerlabs.platform.registry.business.repositories.events.EventReposi
 @Service
 public class EventsCassandraToMongoService {
 
+    private static final int BATCH_SIZE = 1000;
+
     private Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
     @Autowired
@@ -70,31 +76,42 @@ public class EventsCassandraToMongoService {
         String deviceGuid = null;
         String channel = null;
         boolean ascending = false;
-        Integer limit = null;
 
         LOGGER.info("Tenant {} Application {}", tenant.getName(), application.getName());
 
-        List<Event> incomingEvents = cassandraEventsRepository.findIncomingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit);
-        LOGGER.info("\tIncoming events: {}", incomingEvents.size());
-
-        for (Event event : incomingEvents) {
-            mongoEventsRepository.saveIncoming(tenant, application, event);
-        }
-
-        if (incomingEvents.size() > 0) {
-            LOGGER.info("\tCompleted!");
-        }
-
-        List<Event> outgoingEvents = cassandraEventsRepository.findOutgoingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit);
-        LOGGER.info("\tOutgoing events: {}", outgoingEvents.size());
-
-        for (Event event : outgoingEvents) {
-            mongoEventsRepository.saveOutgoing(tenant, application, event);
+        int count = 0;
+        try (Stream<Event> incomingEvents = cassandraEventsRepository.streamIncomingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending)) {
+            List<Event> batch = new ArrayList<>(BATCH_SIZE);
+            for (Iterator<Event> events = incomingEvents.iterator(); events.hasNext();) {
+                batch.add(events.next());
+                if (batch.size() == BATCH_SIZE || !events.hasNext()) {
+                    count += batch.size();
+                    EventBatchResult result = mongoEventsRepository.saveIncomingBatch(tenant, application, batch);
+                    if (!result.getFailures().isEmpty()) {
+                        LOGGER.warn("\tIncoming events not migrated: {}", result.getFailures().size());
+                    }
+                    batch.clear();
+                }
+            }
         }
-
-        if (outgoingEvents.size() > 0) {
-            LOGGER.info("\tCompleted!");
+        LOGGER.info("\tIncoming events: {}", count);
+
+        count = 0;
+        try (Stream<Event> outgoingEvents = cassandraEventsRepository.streamOutgoingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending)) {
+            List<Event> batch = new ArrayList<>(BATCH_SIZE);
+            for (Iterator<Event> events = outgoingEvents.iterator(); events.hasNext();) {
+                batch.add(events.next());
+                if (batch.size() == BATCH_SIZE || !events.hasNext()) {
+                    count += batch.size();
+                    EventBatchResult result = mongoEventsRepository.saveOutgoingBatch(tenant, application, batch);
+                    if (!result.getFailures().isEmpty()) {
+                        LOGGER.warn("\tOutgoing events not migrated: {}", result.getFailures().size());
+                    }
+                    batch.clear();
+                }
+            }
         }
+        LOGGER.info("\tOutgoing events: {}", count);
 
     }
 
@@ -1,8 +1,10 @@
 package org.konker.registry.cassandraetl.services;
 
 import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +23,8 @@ import com.konkerlabs.platform.registry.business.repositories.events.EventReposi
 @Service
 public class EventsMongoToCassandraService {
 
+    private static final int PROGRESS_INTERVAL = 2500;
+
     private Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
     @Autowired
@@ -70,35 +74,30 @@ public class EventsMongoToCassandraService {
         String deviceGuid = null;
         String channel = null;
         boolean ascending = true;
-        Integer limit = 2500;
 
         LOGGER.info("Tenant {} Application {}", tenant.getName(), application.getName());
 
-        List<Event> incomingEvents = mongoEventsRepository.findIncomingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit);
-
         int count = 0;
-        while (!incomingEvents.isEmpty()) {
-            count += incomingEvents.size();
-            LOGGER.info("\tIncoming event ts: {}", incomingEvents.get(0).getTimestamp());
-            for (Event event : incomingEvents) {
+        try (Stream<Event> incomingEvents = mongoEventsRepository.streamIncomingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending)) {
+            for (Iterator<Event> events = incomingEvents.iterator(); events.hasNext();) {
+                Event event = events.next();
+                if (count++ % PROGRESS_INTERVAL == 0) {
+                    LOGGER.info("\tIncoming event ts: {}", event.getTimestamp());
+                }
                 cassandraEventsRepository.saveIncoming(tenant, application, event);
             }
-            Event lastEvent = incomingEvents.get(incomingEvents.size() - 1);
-            incomingEvents = mongoEventsRepository.findIncomingBy(tenant, application, deviceGuid, channel, lastEvent.getTimestamp(), endInstant, ascending, limit);
         }
         LOGGER.info("\tTotal Incoming: {}", count);
 
-        List<Event> outgoingEvents = mongoEventsRepository.findOutgoingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, limit);
-
         count = 0;
-        while (!outgoingEvents.isEmpty()) {
-            count += outgoingEvents.size();
-            LOGGER.info("\tOutgoing event ts: {}", outgoingEvents.get(0).getTimestamp());
-            for (Event event : outgoingEvents) {
+        try (Stream<Event> outgoingEvents = mongoEventsRepository.streamOutgoingBy(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending)) {
+            for (Iterator<Event> events = outgoingEvents.iterator(); events.hasNext();) {
+                Event event = events.next();
+                if (count++ % PROGRESS_INTERVAL == 0) {
+                    LOGGER.info("\tOutgoing event ts: {}", event.getTimestamp());
+                }
                 cassandraEventsRepository.saveOutgoing(tenant, application, event);
             }
-            Event lastEvent = outgoingEvents.get(outgoingEvents.size() - 1);
-            outgoingEvents = mongoEventsRepository.findOutgoingBy(tenant, application, deviceGuid, channel, lastEvent.getTimestamp(), endInstant, ascending, limit);
         }
         LOGGER.info("\tTotal Outgoing: {}", count);
 
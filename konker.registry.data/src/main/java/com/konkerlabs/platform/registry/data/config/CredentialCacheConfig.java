@@ -0,0 +1,31 @@
+package com.konkerlabs.platform.registry.data.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class CredentialCacheConfig {
+
+    private boolean enabled;
+    private long maxSize;
+    private long expireAfterWrite;
+
+    public CredentialCacheConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("credentialCache.enabled", true);
+        defaultMap.put("credentialCache.maxSize", 10000);
+        defaultMap.put("credentialCache.expireAfterWrite", 300);
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+        setEnabled(config.getBoolean("credentialCache.enabled"));
+        setMaxSize(config.getLong("credentialCache.maxSize"));
+        setExpireAfterWrite(config.getLong("credentialCache.expireAfterWrite"));
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.konkerlabs.platform.registry.data.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class HttpGatewayConfig {
+
+    private boolean pooled;
+    private int maxConnectionsPerHost;
+    private int maxQueuedRequestsPerHost;
+    private int idleTimeout;
+    private int threads;
+    private int maxResponseSize;
+
+    public HttpGatewayConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        // pooled, asynchronous requests through Jetty instead of one blocking RestTemplate call each
+        defaultMap.put("httpGateway.pooled", false);
+        defaultMap.put("httpGateway.maxConnectionsPerHost", 64);
+        defaultMap.put("httpGateway.maxQueuedRequestsPerHost", 1024);
+        // milliseconds an idle keep-alive connection stays in the pool
+        defaultMap.put("httpGateway.idleTimeout", 60000);
+        // only parse responses and run callbacks, requests in flight do not hold a thread
+        defaultMap.put("httpGateway.threads", 32);
+        defaultMap.put("httpGateway.maxResponseSize", 2 * 1024 * 1024);
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+        setPooled(config.getBoolean("httpGateway.pooled"));
+        setMaxConnectionsPerHost(config.getInt("httpGateway.maxConnectionsPerHost"));
+        setMaxQueuedRequestsPerHost(config.getInt("httpGateway.maxQueuedRequestsPerHost"));
+        setIdleTimeout(config.getInt("httpGateway.idleTimeout"));
+        setThreads(config.getInt("httpGateway.threads"));
+        setMaxResponseSize(config.getInt("httpGateway.maxResponseSize"));
+    }
+
+}
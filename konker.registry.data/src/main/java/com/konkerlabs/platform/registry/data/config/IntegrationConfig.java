@@ -6,8 +6,13 @@ import java.util.Map;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import com.konkerlabs.platform.registry.integration.gateways.HttpGateway;
+import com.konkerlabs.platform.registry.integration.gateways.HttpGatewayImpl;
+import com.konkerlabs.platform.registry.integration.gateways.PooledHttpGatewayImpl;
+
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
@@ -37,7 +42,20 @@ public class IntegrationConfig {
 
     @Bean
     public RestTemplate enrichmentRestTemplate() {
-        return new RestTemplate();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(getTimeoutDefault());
+        requestFactory.setReadTimeout(getTimeoutDefault());
+        return new RestTemplate(requestFactory);
+    }
+
+    @Bean
+    public HttpGateway httpGateway() {
+        HttpGatewayConfig httpGatewayConfig = new HttpGatewayConfig();
+        if (httpGatewayConfig.isPooled()) {
+            return new PooledHttpGatewayImpl(httpGatewayConfig, getTimeoutDefault());
+        } else {
+            return new HttpGatewayImpl();
+        }
     }
 
 }
@@ -1,20 +1,30 @@
 package com.konkerlabs.platform.registry.data.config;
 
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.MessageListener;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.Connection;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionListener;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.util.StringUtils;
 
+import com.konkerlabs.platform.registry.integration.endpoints.BatchingMessageListener;
+import com.konkerlabs.platform.registry.integration.endpoints.DeviceEventRabbitEndpoint;
+import com.konkerlabs.platform.registry.integration.gateways.BatchingRabbitPublisher;
+import com.konkerlabs.platform.registry.integration.gateways.RabbitSpillBuffer;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
@@ -30,6 +40,22 @@ public class RabbitMQConfig {
     private String username;
     private String password;
     private String virtualHost;
+    private Integer listenerConcurrentConsumers;
+    private Integer listenerMaxConcurrentConsumers;
+    private Integer listenerPrefetchCount;
+    private boolean listenerBatchEnabled;
+    private Integer listenerBatchSize;
+    private Long listenerBatchLinger;
+    private boolean publisherBatchEnabled;
+    private Integer publisherBatchSize;
+    private Integer publisherMaxInFlight;
+    private Integer publisherBacklog;
+    private Long publisherConfirmTimeout;
+    private boolean spillEnabled;
+    private String spillDirectory;
+    private Long spillSegmentSize;
+    private Long spillMaxSize;
+    private Long spillRetryInterval;
 
     public static final String MSG_HEADER_APIKEY = "apiKey";
 
@@ -43,6 +69,26 @@ public class RabbitMQConfig {
         defaultMap.put("rabbitmq.username", "");
         defaultMap.put("rabbitmq.password", "");
         defaultMap.put("rabbitmq.virtualHost", "");
+        defaultMap.put("rabbitmq.listener.concurrentConsumers", 1);
+        defaultMap.put("rabbitmq.listener.maxConcurrentConsumers", 1);
+        defaultMap.put("rabbitmq.listener.prefetchCount", 1);
+        defaultMap.put("rabbitmq.listener.batch.enabled", false);
+        defaultMap.put("rabbitmq.listener.batch.size", 100);
+        defaultMap.put("rabbitmq.listener.batch.linger", 50);
+        defaultMap.put("rabbitmq.publisher.batch.enabled", false);
+        defaultMap.put("rabbitmq.publisher.batch.size", 100);
+        // messages published and not yet confirmed by the broker
+        defaultMap.put("rabbitmq.publisher.maxInFlight", 1000);
+        // messages waiting to be published, senders fall back to a direct send beyond it
+        defaultMap.put("rabbitmq.publisher.backlog", 10000);
+        defaultMap.put("rabbitmq.publisher.confirmTimeout", 10000);
+        // outgoing messages are kept on local disk while the broker is unreachable; each
+        // instance needs a directory of its own, a directory in use by another one is refused
+        defaultMap.put("rabbitmq.spill.enabled", false);
+        defaultMap.put("rabbitmq.spill.directory", Paths.get(System.getProperty("java.io.tmpdir"), "konker-rabbitmq-spill").toString());
+        defaultMap.put("rabbitmq.spill.segmentSize", "16M");
+        defaultMap.put("rabbitmq.spill.maxSize", "512M");
+        defaultMap.put("rabbitmq.spill.retryInterval", 5000);
 
         Config defaultConf = ConfigFactory.parseMap(defaultMap);
         Config config = ConfigFactory.load().withFallback(defaultConf);
@@ -51,6 +97,22 @@ public class RabbitMQConfig {
         setUsername(config.getString("rabbitmq.username"));
         setPassword(config.getString("rabbitmq.password"));
         setVirtualHost(config.getString("rabbitmq.virtualHost"));
+        setListenerConcurrentConsumers(config.getInt("rabbitmq.listener.concurrentConsumers"));
+        setListenerMaxConcurrentConsumers(config.getInt("rabbitmq.listener.maxConcurrentConsumers"));
+        setListenerPrefetchCount(config.getInt("rabbitmq.listener.prefetchCount"));
+        setListenerBatchEnabled(config.getBoolean("rabbitmq.listener.batch.enabled"));
+        setListenerBatchSize(config.getInt("rabbitmq.listener.batch.size"));
+        setListenerBatchLinger(config.getLong("rabbitmq.listener.batch.linger"));
+        setPublisherBatchEnabled(config.getBoolean("rabbitmq.publisher.batch.enabled"));
+        setPublisherBatchSize(config.getInt("rabbitmq.publisher.batch.size"));
+        setPublisherMaxInFlight(config.getInt("rabbitmq.publisher.maxInFlight"));
+        setPublisherBacklog(config.getInt("rabbitmq.publisher.backlog"));
+        setPublisherConfirmTimeout(config.getLong("rabbitmq.publisher.confirmTimeout"));
+        setSpillEnabled(config.getBoolean("rabbitmq.spill.enabled"));
+        setSpillDirectory(config.getString("rabbitmq.spill.directory"));
+        setSpillSegmentSize(config.getBytes("rabbitmq.spill.segmentSize"));
+        setSpillMaxSize(config.getBytes("rabbitmq.spill.maxSize"));
+        setSpillRetryInterval(config.getLong("rabbitmq.spill.retryInterval"));
     }
 
     @Bean
@@ -74,12 +136,114 @@ public class RabbitMQConfig {
         return rabbitTemplate;
     }
 
+    @Bean
+    public BatchingRabbitPublisher batchingRabbitPublisher() {
+        com.rabbitmq.client.ConnectionFactory connectionFactory = new com.rabbitmq.client.ConnectionFactory();
+        connectionFactory.setHost(getHostname());
+        connectionFactory.setAutomaticRecoveryEnabled(false);
+        if (StringUtils.hasText(getUsername())) {
+            connectionFactory.setUsername(getUsername());
+            connectionFactory.setPassword(getPassword());
+        }
+        if (StringUtils.hasText(getVirtualHost())) {
+            connectionFactory.setVirtualHost(getVirtualHost());
+        }
+
+        if (isPublisherBatchEnabled()) {
+            LOGGER.info("Batching publisher: size {}, max in flight {}", getPublisherBatchSize(), getPublisherMaxInFlight());
+        }
+
+        return new BatchingRabbitPublisher(
+                connectionFactory,
+                isPublisherBatchEnabled(),
+                getPublisherBatchSize(),
+                getPublisherMaxInFlight(),
+                getPublisherBacklog(),
+                getPublisherConfirmTimeout());
+    }
+
+    @Bean
+    public RabbitSpillBuffer rabbitSpillBuffer(ConnectionFactory connectionFactory, RabbitTemplate rabbitTemplate) {
+        if (isSpillEnabled()) {
+            LOGGER.info("Spill directory: {}, max size {} bytes", getSpillDirectory(), getSpillMaxSize());
+        }
+
+        RabbitSpillBuffer spillBuffer = new RabbitSpillBuffer(
+                isSpillEnabled(),
+                Paths.get(getSpillDirectory()),
+                getSpillSegmentSize().intValue(),
+                getSpillMaxSize(),
+                getSpillRetryInterval());
+        spillBuffer.startReplay(rabbitTemplate::send);
+
+        connectionFactory.addConnectionListener(new ConnectionListener() {
+            @Override
+            public void onCreate(Connection connection) {
+                spillBuffer.replaySoon();
+            }
+
+            @Override
+            public void onClose(Connection connection) {
+            }
+        });
+
+        return spillBuffer;
+    }
+
     @Bean
     public AmqpAdmin amqpAdmin() {
         RabbitAdmin rabbitAdmin = new RabbitAdmin(connectionFactory());
         return rabbitAdmin;
     }
 
+    @Bean
+    public SimpleMessageListenerContainer dataPubListenerContainer(ConnectionFactory connectionFactory,
+                                                                   DeviceEventRabbitEndpoint deviceEventRabbitEndpoint) {
+        BatchingMessageListener batchingListener = isListenerBatchEnabled()
+                ? new BatchingMessageListener(
+                        getListenerBatchSize(),
+                        getListenerBatchLinger(),
+                        getListenerMaxConcurrentConsumers(),
+                        deviceEventRabbitEndpoint::onDataPub)
+                : null;
+
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory) {
+            @Override
+            protected void doShutdown() {
+                // pending batches are processed and acknowledged while the channels are open
+                if (batchingListener != null) {
+                    batchingListener.flushAll();
+                }
+                super.doShutdown();
+            }
+
+            @Override
+            public void destroy() {
+                super.destroy();
+                if (batchingListener != null) {
+                    batchingListener.close();
+                }
+            }
+        };
+        container.setQueueNames("data.pub");
+        container.setConcurrentConsumers(getListenerConcurrentConsumers());
+        container.setMaxConcurrentConsumers(
+                Math.max(getListenerConcurrentConsumers(), getListenerMaxConcurrentConsumers()));
+        container.setPrefetchCount(getListenerPrefetchCount());
+
+        if (batchingListener != null) {
+            LOGGER.info("data.pub batch listener: size {}, linger {} ms", getListenerBatchSize(), getListenerBatchLinger());
+
+            container.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+            container.setPrefetchCount(Math.max(getListenerPrefetchCount(), getListenerBatchSize()));
+            container.setMessageListener(batchingListener);
+        } else {
+            container.setMessageListener((MessageListener) deviceEventRabbitEndpoint::onDataPub);
+        }
+
+        return container;
+    }
+
     @Bean
     public Queue dataPubQueue() {
 
@@ -0,0 +1,47 @@
+package com.konkerlabs.platform.registry.data.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class RestDestinationCircuitConfig {
+
+    private int maxConcurrentRequests;
+    private int windowSize;
+    private int minimumRequests;
+    private int failureRateThreshold;
+    private int openDuration;
+    private int halfOpenRequests;
+    private int dropReportInterval;
+
+    public RestDestinationCircuitConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        // requests in flight to a single destination, any further event is dropped
+        defaultMap.put("restDestinationCircuit.maxConcurrentRequests", 32);
+        // the failure rate is taken over the last windowSize requests, once there are minimumRequests of them
+        defaultMap.put("restDestinationCircuit.windowSize", 50);
+        defaultMap.put("restDestinationCircuit.minimumRequests", 20);
+        defaultMap.put("restDestinationCircuit.failureRateThreshold", 50);
+        // seconds the circuit stays open before halfOpenRequests trial requests are let through
+        defaultMap.put("restDestinationCircuit.openDuration", 30);
+        defaultMap.put("restDestinationCircuit.halfOpenRequests", 3);
+        // seconds between the tenant log entries counting the events dropped for a destination
+        defaultMap.put("restDestinationCircuit.dropReportInterval", 60);
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+        setMaxConcurrentRequests(config.getInt("restDestinationCircuit.maxConcurrentRequests"));
+        setWindowSize(config.getInt("restDestinationCircuit.windowSize"));
+        setMinimumRequests(config.getInt("restDestinationCircuit.minimumRequests"));
+        setFailureRateThreshold(config.getInt("restDestinationCircuit.failureRateThreshold"));
+        setOpenDuration(config.getInt("restDestinationCircuit.openDuration"));
+        setHalfOpenRequests(config.getInt("restDestinationCircuit.halfOpenRequests"));
+        setDropReportInterval(config.getInt("restDestinationCircuit.dropReportInterval"));
+    }
+
+}
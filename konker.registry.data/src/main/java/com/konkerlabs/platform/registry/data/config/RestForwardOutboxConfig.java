@@ -0,0 +1,60 @@
+package com.konkerlabs.platform.registry.data.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class RestForwardOutboxConfig {
+
+    private boolean enabled;
+    private int drainInterval;
+    private int drainThreads;
+    private int batchSize;
+    private int initialBackoff;
+    private int maxBackoff;
+    private int maxAge;
+    private int maxAttempts;
+    private int maxPendingPerDestination;
+    private int leaseDuration;
+    private int writeQueueCapacity;
+
+    public RestForwardOutboxConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("restOutbox.enabled", true);
+        // seconds between drain rounds, 0 leaves draining to whoever calls drain()
+        defaultMap.put("restOutbox.drainInterval", 5);
+        defaultMap.put("restOutbox.drainThreads", 4);
+        // forwards delivered to a destination before its drainer moves on to the next one waiting
+        defaultMap.put("restOutbox.batchSize", 100);
+        // seconds, doubled on every failed attempt up to maxBackoff
+        defaultMap.put("restOutbox.initialBackoff", 5);
+        defaultMap.put("restOutbox.maxBackoff", 600);
+        // seconds a forward is retried for before it is discarded
+        defaultMap.put("restOutbox.maxAge", 86400);
+        defaultMap.put("restOutbox.maxAttempts", 200);
+        defaultMap.put("restOutbox.maxPendingPerDestination", 10000);
+        // seconds a drainer holds a forward before another instance may take it over
+        defaultMap.put("restOutbox.leaseDuration", 60);
+        defaultMap.put("restOutbox.writeQueueCapacity", 10000);
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+        setEnabled(config.getBoolean("restOutbox.enabled"));
+        setDrainInterval(config.getInt("restOutbox.drainInterval"));
+        setDrainThreads(config.getInt("restOutbox.drainThreads"));
+        setBatchSize(config.getInt("restOutbox.batchSize"));
+        setInitialBackoff(config.getInt("restOutbox.initialBackoff"));
+        setMaxBackoff(config.getInt("restOutbox.maxBackoff"));
+        setMaxAge(config.getInt("restOutbox.maxAge"));
+        setMaxAttempts(config.getInt("restOutbox.maxAttempts"));
+        setMaxPendingPerDestination(config.getInt("restOutbox.maxPendingPerDestination"));
+        setLeaseDuration(config.getInt("restOutbox.leaseDuration"));
+        setWriteQueueCapacity(config.getInt("restOutbox.writeQueueCapacity"));
+    }
+
+}
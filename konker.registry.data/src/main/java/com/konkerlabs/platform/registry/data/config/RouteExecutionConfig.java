@@ -0,0 +1,37 @@
+package com.konkerlabs.platform.registry.data.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class RouteExecutionConfig {
+
+    private int threads;
+    private int queueCapacity;
+    private int maxConcurrencyPerTenant;
+    private int overflowCapacity;
+
+    public RouteExecutionConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        // routes block on HTTP, Rabbit and Mongo, so there are far more threads than cores
+        defaultMap.put("routeExecution.threads", 64);
+        defaultMap.put("routeExecution.queueCapacity", 10000);
+        // routes of a tenant running at once; the rest wait in that tenant's own queue
+        defaultMap.put("routeExecution.maxConcurrencyPerTenant", 16);
+        // continuations waiting for a full pool; those past it are dropped
+        defaultMap.put("routeExecution.overflowCapacity", 1000);
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+        setThreads(config.getInt("routeExecution.threads"));
+        setQueueCapacity(config.getInt("routeExecution.queueCapacity"));
+        setMaxConcurrencyPerTenant(config.getInt("routeExecution.maxConcurrencyPerTenant"));
+        setOverflowCapacity(config.getInt("routeExecution.overflowCapacity"));
+    }
+
+}
@@ -33,6 +33,7 @@ import org.springframework.security.web.authentication.www.BasicAuthenticationFi
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
 import com.konkerlabs.platform.registry.data.security.KonkerBasicAuthenticationFilter;
 import com.konkerlabs.platform.registry.data.security.KonkerParamsAuthenticationFilter;
+import com.konkerlabs.platform.registry.data.security.VerifiedCredentialCache;
 import com.konkerlabs.platform.security.managers.PasswordManager;
 
 @Configuration
@@ -58,13 +59,24 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private DeviceRegisterService deviceRegisterService;
 
+    private CredentialCacheConfig credentialCacheConfig = new CredentialCacheConfig();
+
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
+        VerifiedCredentialCache credentialCache = credentialCacheConfig.isEnabled() ? verifiedCredentialCache() : null;
+
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
         authenticationProvider.setUserDetailsService(detailsService);
         authenticationProvider.setPasswordEncoder(new PlaintextPasswordEncoder() {
             @Override
             public boolean isPasswordValid(String encPass, String rawPass, Object salt) {
+                if (credentialCache != null) {
+                    return credentialCache.isPasswordValid(encPass, rawPass, this::validatePassword);
+                }
+                return validatePassword(encPass, rawPass);
+            }
+
+            private boolean validatePassword(String encPass, String rawPass) {
                 try {
                     return new PasswordManager().validatePassword(rawPass, encPass);
                 } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
@@ -76,6 +88,13 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         auth.authenticationProvider(authenticationProvider);
     }
 
+    @Bean
+    public VerifiedCredentialCache verifiedCredentialCache() {
+        return new VerifiedCredentialCache(
+                credentialCacheConfig.getMaxSize(),
+                credentialCacheConfig.getExpireAfterWrite());
+    }
+
     @Override
     protected void configure(HttpSecurity http) throws Exception {
 
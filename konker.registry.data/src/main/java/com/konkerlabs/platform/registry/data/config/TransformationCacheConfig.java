@@ -0,0 +1,26 @@
+package com.konkerlabs.platform.registry.data.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class TransformationCacheConfig {
+
+    private long maxSize;
+
+    public TransformationCacheConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        // step responses kept across all transformations, the TTL is set on each transformation
+        defaultMap.put("transformationCache.maxSize", 10000);
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+        setMaxSize(config.getLong("transformationCache.maxSize"));
+    }
+
+}
@@ -1,7 +1,7 @@
 package com.konkerlabs.platform.registry.data.security;
 
 import com.konkerlabs.platform.registry.business.model.Device;
-import com.konkerlabs.platform.registry.business.repositories.DeviceRepository;
+import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -12,11 +12,11 @@ import org.springframework.stereotype.Service;
 public class DeviceUserDetailsService implements UserDetailsService {
 
     @Autowired
-    private DeviceRepository deviceRepository;
+    private DeviceRegisterService deviceRegisterService;
 
     @Override
     public UserDetails loadUserByUsername(String apiKey) throws UsernameNotFoundException {
-        Device device = deviceRepository.findByApiKey(apiKey);
+        Device device = deviceRegisterService.findByApiKey(apiKey);
 
         if (device == null || !device.isActive()) {
             throw new UsernameNotFoundException("authentication.credentials.invalid");
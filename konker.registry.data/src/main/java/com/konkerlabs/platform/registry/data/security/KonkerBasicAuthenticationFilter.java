@@ -45,13 +45,13 @@ public class KonkerBasicAuthenticationFilter extends BasicAuthenticationFilter {
 		if (!Optional.ofNullable(device).isPresent() &&
 				request.getRequestURI().contains("pub/")) {
 			String aux = request.getRequestURI().substring(request.getRequestURI().indexOf("pub/") + 4);
-			uriApiKey = aux.substring(0, aux.indexOf("/"));
+			uriApiKey = extractApiKey(aux);
 			device = deviceRegisterService.findByApiKey(uriApiKey);
 
 		} else if (!Optional.ofNullable(device).isPresent() &&
 				request.getRequestURI().contains("sub/")) {
 			String aux = request.getRequestURI().substring(request.getRequestURI().indexOf("sub/") + 4);
-			uriApiKey = aux.substring(0, aux.indexOf("/"));
+			uriApiKey = extractApiKey(aux);
 			device = deviceRegisterService.findByApiKey(uriApiKey);
 		}
 
@@ -78,6 +78,11 @@ public class KonkerBasicAuthenticationFilter extends BasicAuthenticationFilter {
 		}
 	}
 
+	private String extractApiKey(String path) {
+		int end = path.indexOf("/");
+		return end < 0 ? path : path.substring(0, end);
+	}
+
 	private String[] extractAndDecodeHeader(String header, HttpServletRequest request)
 			throws IOException {
 
@@ -0,0 +1,86 @@
+package com.konkerlabs.platform.registry.data.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Remembers device credentials that were recently verified, so repeated requests from
+ * the same device do not run the password hash derivation again.
+ *
+ * Entries are keyed by the stored security hash, which changes whenever the device
+ * credentials are regenerated, and only keep a digest of the verified secret.
+ */
+@ManagedResource(objectName = "com.konkerlabs.platform.registry.data:type=VerifiedCredentialCache")
+public class VerifiedCredentialCache {
+
+    private final Cache<String, byte[]> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedCredentialCache(long maxSize, long expireAfterWriteSeconds) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public boolean isPasswordValid(String securityHash, String rawPassword,
+                                   BiPredicate<String, String> verifier) {
+        if (securityHash == null || rawPassword == null) {
+            return verifier.test(securityHash, rawPassword);
+        }
+
+        byte[] digest = digest(securityHash, rawPassword);
+        byte[] verified = cache.getIfPresent(securityHash);
+
+        if (verified != null && MessageDigest.isEqual(verified, digest)) {
+            hits.increment();
+            return true;
+        }
+
+        misses.increment();
+        boolean valid = verifier.test(securityHash, rawPassword);
+        if (valid) {
+            cache.put(securityHash, digest);
+        }
+
+        return valid;
+    }
+
+    @ManagedOperation
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @ManagedAttribute
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @ManagedAttribute
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @ManagedAttribute
+    public long getSize() {
+        return cache.size();
+    }
+
+    private byte[] digest(String securityHash, String rawPassword) {
+        return DigestUtils.sha256((securityHash + ':' + rawPassword).getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -1,11 +1,9 @@
 package com.konkerlabs.platform.registry.data.services.publishers;
 
 import com.konkerlabs.platform.registry.business.model.*;
-import com.konkerlabs.platform.registry.business.repositories.DeviceModelRepository;
-import com.konkerlabs.platform.registry.business.services.LocationTreeUtils;
-import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
-import com.konkerlabs.platform.registry.business.services.api.LocationSearchService;
-import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import com.konkerlabs.platform.registry.business.services.ModelLocationCache;
+import com.konkerlabs.platform.registry.business.services.ModelLocationCache.Membership;
+import com.konkerlabs.platform.registry.business.services.ModelLocationDeviceIndex;
 import com.konkerlabs.platform.registry.data.services.api.DeviceLogEventService;
 import com.konkerlabs.platform.registry.data.services.publishers.api.EventPublisher;
 import com.konkerlabs.platform.registry.integration.gateways.RabbitGateway;
@@ -32,10 +30,9 @@ public class EventPublisherModelLocation implements EventPublisher {
     public static final String DEVICE_MQTT_CHANNEL = "channel";
 
     private RabbitGateway rabbitGateway;
-    private DeviceRegisterService deviceRegisterService;
+    private ModelLocationDeviceIndex modelLocationDeviceIndex;
     private DeviceLogEventService deviceLogEventService;
-    private DeviceModelRepository deviceModelRepository;
-    private LocationSearchService locationSearchService;
+    private ModelLocationCache modelLocationCache;
     private EventPublisherDevice eventPublisherDevice;
 
     @Autowired
@@ -44,8 +41,8 @@ public class EventPublisherModelLocation implements EventPublisher {
     }
 
     @Autowired
-    public void setDeviceRegisterService(DeviceRegisterService deviceRegisterService) {
-        this.deviceRegisterService = deviceRegisterService;
+    public void setModelLocationDeviceIndex(ModelLocationDeviceIndex modelLocationDeviceIndex) {
+        this.modelLocationDeviceIndex = modelLocationDeviceIndex;
     }
 
     @Autowired
@@ -54,13 +51,8 @@ public class EventPublisherModelLocation implements EventPublisher {
     }
 
     @Autowired
-    public void setDeviceModelRepository(DeviceModelRepository deviceModelRepository) {
-        this.deviceModelRepository = deviceModelRepository;
-    }
-
-    @Autowired
-    public void setLocationSearchService(LocationSearchService locationSearchService) {
-        this.locationSearchService = locationSearchService;
+    public void setModelLocationCache(ModelLocationCache modelLocationCache) {
+        this.modelLocationCache = modelLocationCache;
     }
 
     @Autowired
@@ -86,51 +78,15 @@ public class EventPublisherModelLocation implements EventPublisher {
                 .orElseThrow(() -> new IllegalArgumentException("Application cannot be null"));
 
 
-        String uriPath = destinationUri.getPath();
-        if (uriPath.startsWith("/")) {
-            uriPath = uriPath.substring(1);
-        }
-
-        String guids[] = uriPath.split("/");
-        if (guids.length < 2) {
-            LOGGER.warn("Invalid model location URI: {}", uriPath);
-            return;
-        }
-
-        String deviceModelGuid = guids[0];
-        String locationGuid = guids[1];
-
-        DeviceModel deviceModel = deviceModelRepository.findByTenantIdApplicationNameAndGuid(tenant.getId(), application.getName(), deviceModelGuid);
-        Optional.ofNullable(deviceModel)
-                .orElseThrow(() -> new IllegalArgumentException("Device model cannot be null"));
-
-        ServiceResponse<Location> locationService = locationSearchService.findByGuid(tenant, application, locationGuid);
-        if (!locationService.isOk()) {
-            Optional.ofNullable(deviceModel)
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid location"));
-        }
-
-        Location location = locationService.getResult();
-        locationService = locationSearchService.findByName(tenant, application, location.getName(), true);
-        if (!locationService.isOk()) {
-            Optional.ofNullable(deviceModel)
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid location tree"));
-        }
-
-        List<Location> nodes = LocationTreeUtils.getNodesList(locationService.getResult());
-
-        ServiceResponse<List<Device>> devicesResponse = deviceRegisterService.findAll(tenant, application);
-        if (devicesResponse.isOk()) {
-            List<Device> devices = devicesResponse.getResult();
-            devices.parallelStream().forEach((outgoingDevice) -> {
-                if (matchesModelLocation(outgoingDevice, deviceModel, nodes) &&
-                        !isIncomingDevice(outgoingEvent, outgoingDevice)) {
-                    if (outgoingDevice.isActive()) {
-                        eventPublisherDevice.sendMessage(outgoingEvent, data, outgoingDevice);
-                    }
-                }
-            });
-        }
+        Membership membership = modelLocationCache.getMembership(tenant, application, destinationUri)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid model location"));
+
+        List<Device> devices = modelLocationDeviceIndex.getActiveDevices(tenant, application, membership);
+        devices.parallelStream().forEach((outgoingDevice) -> {
+            if (!isIncomingDevice(outgoingEvent, outgoingDevice)) {
+                eventPublisherDevice.sendMessage(outgoingEvent, data, outgoingDevice);
+            }
+        });
 
     }
 
@@ -138,25 +94,4 @@ public class EventPublisherModelLocation implements EventPublisher {
         return outgoingEvent.getIncoming().getDeviceGuid().equals(outgoingDevice.getGuid());
     }
 
-    private boolean matchesModelLocation(Device outgoingDevice, DeviceModel deviceModel, List<Location> nodes) {
-
-        if (outgoingDevice.getDeviceModel() == null) {
-            return false;
-        }
-
-        if (!outgoingDevice.getDeviceModel().getName().equals(deviceModel.getName())) {
-            return false;
-        }
-
-        for (Location locations: nodes) {
-            String deviceLocation = outgoingDevice.getLocation().getName();
-            if (locations.getName().equals(outgoingDevice.getLocation().getName())) {
-                return true;
-            }
-        }
-
-        return false;
-
-    }
-
 }
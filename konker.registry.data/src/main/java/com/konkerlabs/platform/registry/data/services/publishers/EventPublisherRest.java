@@ -5,6 +5,11 @@ import java.net.URI;
 import java.text.MessageFormat;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,7 +34,6 @@ import com.konkerlabs.platform.registry.data.services.publishers.api.EventPublis
 import com.konkerlabs.platform.registry.integration.exceptions.IntegrationException;
 import com.konkerlabs.platform.registry.integration.gateways.HttpGateway;
 import com.konkerlabs.platform.utilities.expressions.ExpressionEvaluationService;
-import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
 
 @Service(RESTDestinationURIDealer.REST_DESTINATION_URI_SCHEME)
 @Scope(BeanDefinition.SCOPE_SINGLETON)
@@ -40,18 +44,22 @@ public class EventPublisherRest implements EventPublisher {
 
     private HttpGateway httpGateway;
     private RestDestinationService restDestinationService;
-    private JsonParsingService jsonParsingService;
     private ExpressionEvaluationService expressionEvaluationService;
+    private RestDestinationCircuitBreaker circuitBreaker;
+    private RestForwardOutbox outbox;
+    private final RestForwardBatcher batcher = new RestForwardBatcher(this::deliver);
 
     @Autowired
     public EventPublisherRest(HttpGateway httpGateway,
                               RestDestinationService restDestinationService,
-                              JsonParsingService jsonParsingService,
-                              ExpressionEvaluationService expressionEvaluationService) {
+                              ExpressionEvaluationService expressionEvaluationService,
+                              RestDestinationCircuitBreaker circuitBreaker,
+                              RestForwardOutbox outbox) {
         this.httpGateway = httpGateway;
         this.restDestinationService = restDestinationService;
-        this.jsonParsingService = jsonParsingService;
         this.expressionEvaluationService = expressionEvaluationService;
+        this.circuitBreaker = circuitBreaker;
+        this.outbox = outbox;
     }
 
     @Override
@@ -83,21 +91,19 @@ public class EventPublisherRest implements EventPublisher {
             try {
 
                 String serviceURI = evaluateExpressionIfNecessary(
-                        restDestination.getServiceURI(), outgoingEvent.getPayload()
+                        restDestination.getServiceURI(), outgoingEvent
                 );
 
-                httpGateway.request(
-                        HttpMethod.resolve(
-                                Optional.ofNullable(restDestination.getMethod()).isPresent() ?
-                                        restDestination.getMethod() : "POST"),
-                        getHeaders(restDestination),
-                        URI.create(UriUtils.encodeQuery(serviceURI, "UTF-8")), MediaType.APPLICATION_JSON,
-                        () -> "FORWARD_MESSAGE".equals(restDestination.getType().name()) ? outgoingEvent.getPayload() : restDestination.getBody(),
-                        restDestination.getServiceUsername(),
-                        restDestination.getServicePassword()
-                );
+                URI requestUri = URI.create(UriUtils.encodeQuery(serviceURI, "UTF-8"));
+                String body = "FORWARD_MESSAGE".equals(restDestination.getType().name()) ? outgoingEvent.getPayload() : restDestination.getBody();
+
+                if (restDestination.isBatched()) {
+                    batcher.add(restDestination, requestUri, body);
+                } else {
+                    deliver(restDestination, requestUri, body);
+                }
 //                eventRepository.saveIncoming(tenant,outgoingEvent);
-            } catch (IllegalArgumentException | JsonProcessingException | IntegrationException | UnsupportedEncodingException e) {
+            } catch (IllegalArgumentException | JsonProcessingException | UnsupportedEncodingException e) {
                 LOGGER.error("Failed to forward event to its destination",
                         tenant.toURI(),
                         tenant.getLogLevel(),
@@ -111,7 +117,65 @@ public class EventPublisherRest implements EventPublisher {
         }
     }
 
-	private HttpHeaders getHeaders(RestDestination restDestination) {
+    @PreDestroy
+    public void flushBatches() {
+        batcher.close(10, TimeUnit.SECONDS);
+    }
+
+    private CompletableFuture<?> deliver(RestDestination restDestination, URI requestUri, String body) {
+        if (outbox.hasBacklog(restDestination)) {
+            outbox.enqueue(restDestination, requestUri, body);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Optional<RestDestinationCircuitBreaker.Permit> permit = circuitBreaker.tryAcquire(restDestination);
+        if (!permit.isPresent()) {
+            outbox.enqueue(restDestination, requestUri, body);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<String> response;
+        try {
+            response = httpGateway.requestAsync(
+                    methodOf(restDestination),
+                    headersOf(restDestination),
+                    requestUri, MediaType.APPLICATION_JSON,
+                    () -> body,
+                    restDestination.getServiceUsername(),
+                    restDestination.getServicePassword()
+            );
+        } catch (RuntimeException e) {
+            permit.get().onFailure();
+            throw e;
+        }
+
+        return response.whenComplete((result, error) -> {
+            if (error != null) {
+                permit.get().onFailure();
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof IntegrationException && !((IntegrationException) cause).isRetryable()) {
+                    outbox.discard(restDestination, (IntegrationException) cause);
+                    return;
+                }
+
+                LOGGER.error("Failed to forward event to its destination",
+                        restDestination.getTenant().toURI(),
+                        restDestination.getTenant().getLogLevel(),
+                        cause);
+                outbox.enqueue(restDestination, requestUri, body);
+            } else {
+                permit.get().onSuccess();
+            }
+        });
+    }
+
+    static HttpMethod methodOf(RestDestination restDestination) {
+        return HttpMethod.resolve(
+                Optional.ofNullable(restDestination.getMethod()).isPresent() ?
+                        restDestination.getMethod() : "POST");
+    }
+
+	static HttpHeaders headersOf(RestDestination restDestination) {
 		HttpHeaders headers = new HttpHeaders();
 		if (restDestination.getHeaders() != null) {
 			for (String key : restDestination.getHeaders().keySet()) {
@@ -121,9 +185,9 @@ public class EventPublisherRest implements EventPublisher {
 		return headers;
 	}
 
-    private String evaluateExpressionIfNecessary(String template, String json) throws JsonProcessingException {
+    private String evaluateExpressionIfNecessary(String template, Event event) throws JsonProcessingException {
         if (ExpressionEvaluationService.EXPRESSION_TEMPLATE_PATTERN.matcher(template).matches())
-            return expressionEvaluationService.evaluateTemplate(template, jsonParsingService.toMap(json));
+            return expressionEvaluationService.evaluateTemplate(template, event.getParsedPayload().getMap());
         else return template;
     }
 }
@@ -0,0 +1,40 @@
+package com.konkerlabs.platform.registry.data.services.publishers;
+
+import java.util.Date;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * An outgoing event that could not be delivered to its REST destination yet. The
+ * destination's method, headers and credentials are looked up again on every attempt.
+ */
+@Data
+@Builder
+@Document(collection = PendingRestForward.COLLECTION)
+@CompoundIndexes({
+        @CompoundIndex(name = "destination_created", def = "{'destinationGuid': 1, 'createdAt': 1}") })
+public class PendingRestForward {
+
+    public static final String COLLECTION = "restForwardOutbox";
+
+    @Id
+    private String id;
+    private String tenantId;
+    private String applicationName;
+    private String destinationGuid;
+    private String uri;
+    private String body;
+    private int attempts;
+    private Date createdAt;
+    @Indexed
+    private Date nextAttemptAt;
+    private Date leasedUntil;
+
+}
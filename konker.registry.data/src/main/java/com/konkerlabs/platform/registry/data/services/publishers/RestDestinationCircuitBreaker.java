@@ -0,0 +1,261 @@
+package com.konkerlabs.platform.registry.data.services.publishers;
+
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.konkerlabs.platform.registry.business.model.RestDestination;
+import com.konkerlabs.platform.registry.data.config.RestDestinationCircuitConfig;
+
+/**
+ * Bulkhead and circuit breaker for each REST destination, keyed by its GUID.
+ *
+ * A destination may only have a limited number of requests in flight. Its circuit opens
+ * when too many of its latest requests failed, and after a while lets a few trial
+ * requests through, closing again only if all of them succeed. Events that cannot get a
+ * permit are not sent right away, instead of waiting on a destination that is not keeping
+ * up; the ones that end up dropped are counted in the tenant log.
+ */
+@Component
+@ManagedResource(objectName = "com.konkerlabs.platform.registry.data:type=RestDestinationCircuitBreaker")
+public class RestDestinationCircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestDestinationCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final RestDestinationCircuitConfig config;
+    private final LongSupplier nanoClock;
+    private final Map<String, Circuit> circuits = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public RestDestinationCircuitBreaker() {
+        this(new RestDestinationCircuitConfig(), System::nanoTime);
+    }
+
+    public RestDestinationCircuitBreaker(RestDestinationCircuitConfig config, LongSupplier nanoClock) {
+        this.config = config;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns a permit to send one request to the destination, or nothing if the event
+     * must not be sent now. The outcome of the request must be reported on the permit.
+     */
+    public Optional<Permit> tryAcquire(RestDestination destination) {
+        Circuit circuit = circuits.computeIfAbsent(destination.getGuid(), guid -> new Circuit());
+        Optional<Permit> permit = circuit.tryAcquire(destination);
+
+        if (!permit.isPresent()) {
+            rejected.increment();
+        }
+
+        return permit;
+    }
+
+    /**
+     * Counts an event that will not be delivered to the destination.
+     */
+    public void recordDrop(RestDestination destination) {
+        dropped.increment();
+        circuits.computeIfAbsent(destination.getGuid(), guid -> new Circuit()).countDrop(destination);
+    }
+
+    @ManagedOperation
+    public String getState(String guid) {
+        return Optional.ofNullable(circuits.get(guid))
+                .map(Circuit::getState)
+                .orElse(State.CLOSED)
+                .name();
+    }
+
+    /**
+     * GUIDs of the destinations whose circuit is not closed, with its state.
+     */
+    @ManagedAttribute
+    public Map<String, String> getOpenCircuits() {
+        return circuits.entrySet()
+                .stream()
+                .filter(entry -> entry.getValue().getState() != State.CLOSED)
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getState().name()));
+    }
+
+    @ManagedAttribute
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @ManagedAttribute
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public class Permit {
+
+        private final Circuit circuit;
+        private final RestDestination destination;
+        private final boolean trial;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Circuit circuit, RestDestination destination, boolean trial) {
+            this.circuit = circuit;
+            this.destination = destination;
+            this.trial = trial;
+        }
+
+        public void onSuccess() {
+            if (released.compareAndSet(false, true)) {
+                circuit.release(destination, trial, true);
+            }
+        }
+
+        public void onFailure() {
+            if (released.compareAndSet(false, true)) {
+                circuit.release(destination, trial, false);
+            }
+        }
+
+    }
+
+    private class Circuit {
+
+        private final boolean[] failures = new boolean[Math.max(1, config.getWindowSize())];
+        private int next;
+        private int recorded;
+        private int failed;
+
+        private State state = State.CLOSED;
+        private long openedAt;
+        private int inFlight;
+        private int trialsInFlight;
+        private int trialsSucceeded;
+
+        private long droppedSinceReport;
+        private long lastReport;
+
+        synchronized State getState() {
+            return state;
+        }
+
+        synchronized Optional<Permit> tryAcquire(RestDestination destination) {
+            if (state == State.OPEN && elapsed(openedAt) >= TimeUnit.SECONDS.toNanos(config.getOpenDuration())) {
+                state = State.HALF_OPEN;
+                trialsInFlight = 0;
+                trialsSucceeded = 0;
+            }
+
+            if (state == State.OPEN || inFlight >= config.getMaxConcurrentRequests()) {
+                return Optional.empty();
+            }
+
+            boolean trial = state == State.HALF_OPEN;
+            if (trial) {
+                if (trialsInFlight + trialsSucceeded >= config.getHalfOpenRequests()) {
+                    return Optional.empty();
+                }
+                trialsInFlight++;
+            }
+
+            inFlight++;
+            return Optional.of(new Permit(this, destination, trial));
+        }
+
+        synchronized void release(RestDestination destination, boolean trial, boolean succeeded) {
+            inFlight--;
+
+            if (trial) {
+                trialsInFlight--;
+                if (state != State.HALF_OPEN) {
+                    return;
+                }
+
+                if (!succeeded) {
+                    open(destination, "a trial request failed");
+                } else if (++trialsSucceeded >= config.getHalfOpenRequests()) {
+                    close(destination);
+                }
+            } else if (state == State.CLOSED) {
+                record(!succeeded);
+                if (recorded >= config.getMinimumRequests()
+                        && failed * 100 >= config.getFailureRateThreshold() * recorded) {
+                    open(destination, MessageFormat.format("{0} of its last {1} requests failed", failed, recorded));
+                }
+            }
+        }
+
+        synchronized void countDrop(RestDestination destination) {
+            droppedSinceReport++;
+            if (lastReport == 0 || elapsed(lastReport) >= TimeUnit.SECONDS.toNanos(config.getDropReportInterval())) {
+                reportDrops(destination);
+            }
+        }
+
+        private void record(boolean failure) {
+            if (recorded == failures.length) {
+                failed -= failures[next] ? 1 : 0;
+            } else {
+                recorded++;
+            }
+
+            failures[next] = failure;
+            failed += failure ? 1 : 0;
+            next = (next + 1) % failures.length;
+        }
+
+        private void open(RestDestination destination, String reason) {
+            state = State.OPEN;
+            openedAt = nanoClock.getAsLong();
+
+            LOGGER.warn(MessageFormat.format("REST destination \"{0}\" is failing, {1}. Outgoing events will be held back for {2} seconds",
+                    destination.getName(), reason, config.getOpenDuration()),
+                    destination.toURI(),
+                    destination.getTenant().getLogLevel());
+        }
+
+        private void close(RestDestination destination) {
+            state = State.CLOSED;
+            next = 0;
+            recorded = 0;
+            failed = 0;
+
+            LOGGER.info(MessageFormat.format("REST destination \"{0}\" has recovered", destination.getName()),
+                    destination.toURI(),
+                    destination.getTenant().getLogLevel());
+            if (droppedSinceReport > 0) {
+                reportDrops(destination);
+            }
+        }
+
+        private void reportDrops(RestDestination destination) {
+            LOGGER.warn(MessageFormat.format("{0} outgoing events to REST destination \"{1}\" have been dropped, circuit {2}",
+                    droppedSinceReport, destination.getName(), state.name().toLowerCase().replace('_', '-')),
+                    destination.toURI(),
+                    destination.getTenant().getLogLevel());
+
+            droppedSinceReport = 0;
+            lastReport = nanoClock.getAsLong();
+        }
+
+        private long elapsed(long since) {
+            return nanoClock.getAsLong() - since;
+        }
+
+    }
+
+}
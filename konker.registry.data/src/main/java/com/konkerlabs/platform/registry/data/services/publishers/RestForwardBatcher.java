@@ -0,0 +1,169 @@
+package com.konkerlabs.platform.registry.data.services.publishers;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.konkerlabs.platform.registry.business.model.RestDestination;
+
+/**
+ * Buffers the events of batching REST destinations and hands them over as a single JSON
+ * array once the batch is full or has waited for the destination's linger time.
+ *
+ * Batches are kept per destination and request URI, since the URI of a destination may
+ * depend on the event being forwarded.
+ */
+public class RestForwardBatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestForwardBatcher.class);
+
+    public static final int DEFAULT_LINGER = 1000;
+
+    @FunctionalInterface
+    public interface Sender {
+        CompletableFuture<?> send(RestDestination destination, URI uri, String body);
+    }
+
+    private final Sender sender;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rest-forward-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RestForwardBatcher(Sender sender) {
+        this.sender = sender;
+    }
+
+    public void add(RestDestination destination, URI uri, String payload) {
+        String key = destination.getGuid() + ' ' + uri;
+        AtomicReference<Batch> full = new AtomicReference<>();
+
+        batches.compute(key, (k, batch) -> {
+            if (batch == null) {
+                Batch created = new Batch(destination, uri);
+                long linger = Optional.ofNullable(destination.getBatchLinger()).filter(value -> value > 0).orElse(DEFAULT_LINGER);
+                try {
+                    created.linger = scheduler.schedule(() -> flush(k, created), linger, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // shutting down, the event goes out right away
+                }
+                batch = created;
+            }
+
+            batch.payloads.add(payload);
+            if (batch.linger != null && batch.payloads.size() < destination.getBatchSize()) {
+                return batch;
+            }
+
+            if (batch.linger != null) {
+                batch.linger.cancel(false);
+            }
+            full.set(batch);
+            return null;
+        });
+
+        if (full.get() != null) {
+            send(full.get());
+        }
+    }
+
+    /**
+     * Sends every pending batch, waiting up to the given time for them to be delivered.
+     */
+    public void close(long timeout, TimeUnit unit) {
+        scheduler.shutdownNow();
+
+        List<CompletableFuture<?>> sent = new ArrayList<>();
+        for (String key : new ArrayList<>(batches.keySet())) {
+            Batch batch = batches.remove(key);
+            if (batch != null) {
+                sent.add(send(batch));
+            }
+        }
+
+        try {
+            CompletableFuture.allOf(sent.toArray(new CompletableFuture[sent.size()])).get(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            LOGGER.warn("Timed out delivering the pending REST batches on shutdown");
+        } catch (Exception e) {
+            LOGGER.warn("Failed to deliver the pending REST batches on shutdown", e);
+        }
+    }
+
+    public int getPendingCount() {
+        return batches.values().stream().mapToInt(batch -> batch.payloads.size()).sum();
+    }
+
+    private void flush(String key, Batch batch) {
+        if (batches.remove(key, batch)) {
+            send(batch);
+        }
+    }
+
+    private CompletableFuture<?> send(Batch batch) {
+        try {
+            return sender.send(batch.destination, batch.uri, toJsonArray(batch.payloads));
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to forward event batch to its destination",
+                    batch.destination.toURI(),
+                    batch.destination.getTenant().getLogLevel(),
+                    e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private String toJsonArray(List<String> payloads) {
+        ArrayNode array = mapper.createArrayNode();
+        for (String payload : payloads) {
+            array.add(toJson(payload));
+        }
+        return array.toString();
+    }
+
+    private JsonNode toJson(String payload) {
+        try {
+            JsonNode node = mapper.readTree(payload);
+            return node != null ? node : TextNode.valueOf(payload);
+        } catch (Exception e) {
+            return TextNode.valueOf(payload);
+        }
+    }
+
+    private static class Batch {
+
+        private final RestDestination destination;
+        private final URI uri;
+        private final List<String> payloads = new ArrayList<>();
+        private ScheduledFuture<?> linger;
+
+        private Batch(RestDestination destination, URI uri) {
+            this.destination = destination;
+            this.uri = uri;
+        }
+
+    }
+
+}
@@ -0,0 +1,463 @@
+package com.konkerlabs.platform.registry.data.services.publishers;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+import java.net.URI;
+import java.text.MessageFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.MediaType;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.konkerlabs.platform.registry.business.model.RestDestination;
+import com.konkerlabs.platform.registry.business.repositories.RestDestinationRepository;
+import com.konkerlabs.platform.registry.data.config.RestForwardOutboxConfig;
+import com.konkerlabs.platform.registry.integration.exceptions.IntegrationException;
+import com.konkerlabs.platform.registry.integration.gateways.HttpGateway;
+
+/**
+ * Mongo backed outbox for the events that could not be forwarded to a REST destination.
+ *
+ * Forwards are delivered in the order they were queued, one destination at a time per
+ * drainer. A destination is drained for as long as its forwards keep being delivered,
+ * handing its drainer over to the other destinations waiting after every
+ * <code>restOutbox.batchSize</code> forwards. When the oldest forward of a destination
+ * fails it is retried with exponential backoff, holding back the ones queued behind it,
+ * until it succeeds or gets too old; forwards refused with a client error are discarded
+ * right away, as retrying them would not help. While a destination has forwards waiting,
+ * new events for it are queued too so that they do not overtake them. Forwards are
+ * written from a queue of their own, so callers never wait on Mongo.
+ */
+@Component
+@ManagedResource(objectName = "com.konkerlabs.platform.registry.data:type=RestForwardOutbox")
+public class RestForwardOutbox {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestForwardOutbox.class);
+
+    private static final String DESTINATION_GUID = "destinationGuid";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private HttpGateway httpGateway;
+    @Autowired
+    private RestDestinationRepository restDestinationRepository;
+    @Autowired
+    private RestDestinationCircuitBreaker circuitBreaker;
+
+    private final RestForwardOutboxConfig config;
+
+    private final Set<String> backlogged = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> pendingWrites = new ConcurrentHashMap<>();
+    // forwards stored for each destination, counted from the collection once and then kept up to date
+    private final Map<String, AtomicLong> pendingForwards = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> draining = new ConcurrentHashMap<>();
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    private ThreadPoolExecutor writer;
+    private ExecutorService drainers;
+    private ScheduledExecutorService scheduler;
+
+    public RestForwardOutbox() {
+        this(new RestForwardOutboxConfig());
+    }
+
+    public RestForwardOutbox(RestForwardOutboxConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getWriteQueueCapacity())),
+                daemonThreads("rest-outbox-writer"));
+        drainers = Executors.newFixedThreadPool(config.getDrainThreads(), daemonThreads("rest-outbox-drainer"));
+
+        try {
+            // registers the entity, which creates its indexes before the collection is first queried
+            mongoTemplate.getConverter().getMappingContext().getPersistentEntity(PendingRestForward.class);
+
+            for (Object guid : mongoTemplate.getCollection(PendingRestForward.COLLECTION).distinct(DESTINATION_GUID)) {
+                backlogged.add((String) guid);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to load the destinations with pending forwards", e);
+        }
+
+        if (config.getDrainInterval() > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("rest-outbox"));
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    startDraining();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Failed to drain the REST forward outbox", e);
+                }
+            }, config.getDrainInterval(), config.getDrainInterval(), TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Optional.ofNullable(scheduler).ifPresent(ExecutorService::shutdownNow);
+        Optional.ofNullable(drainers).ifPresent(ExecutorService::shutdownNow);
+        if (writer != null) {
+            writer.shutdown();
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Tells whether the destination has forwards waiting, in which case new events for it
+     * must be queued behind them.
+     */
+    public boolean hasBacklog(RestDestination destination) {
+        return backlogged.contains(destination.getGuid());
+    }
+
+    /**
+     * Queues an event for the destination, or drops it if the outbox is disabled or the
+     * destination already has too many forwards waiting.
+     */
+    public void enqueue(RestDestination destination, URI uri, String body) {
+        if (!config.isEnabled()) {
+            circuitBreaker.recordDrop(destination);
+            return;
+        }
+
+        String guid = destination.getGuid();
+        Date now = new Date();
+        PendingRestForward forward = PendingRestForward.builder()
+                .tenantId(destination.getTenant().getId())
+                .applicationName(destination.getApplication().getName())
+                .destinationGuid(guid)
+                .uri(uri.toString())
+                .body(body)
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
+
+        AtomicInteger writes = pendingWrites.computeIfAbsent(guid, key -> new AtomicInteger());
+        synchronized (writes) {
+            writes.incrementAndGet();
+            backlogged.add(guid);
+        }
+
+        try {
+            writer.execute(() -> {
+                try {
+                    write(destination, forward);
+                } finally {
+                    writes.decrementAndGet();
+                }
+                if (scheduler != null) {
+                    startDraining(guid);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            writes.decrementAndGet();
+            circuitBreaker.recordDrop(destination);
+        }
+    }
+
+    /**
+     * Delivers the forwards that are due, waiting until every destination is done.
+     */
+    public void drain() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        try {
+            CompletableFuture.allOf(startDraining().toArray(new CompletableFuture[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.error("Failed to drain the REST forward outbox", e.getCause());
+        }
+    }
+
+    /**
+     * Discards an event the destination refused for good, counting it in the tenant log.
+     */
+    public void discard(RestDestination destination, IntegrationException e) {
+        discarded.increment();
+        LOGGER.warn(MessageFormat.format("Outgoing event to REST destination \"{0}\" has been discarded, it was refused with status {1}",
+                destination.getName(), e.getStatusCode()),
+                destination.toURI(),
+                destination.getTenant().getLogLevel());
+    }
+
+    @ManagedAttribute
+    public long getQueuedCount() {
+        return queued.sum();
+    }
+
+    @ManagedAttribute
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    @ManagedAttribute
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    @ManagedAttribute
+    public int getBackloggedDestinations() {
+        return backlogged.size();
+    }
+
+    @ManagedAttribute
+    public int getWriteQueueSize() {
+        return writer != null ? writer.getQueue().size() : 0;
+    }
+
+    private void write(RestDestination destination, PendingRestForward forward) {
+        try {
+            AtomicLong pending = pendingOf(forward.getDestinationGuid());
+            if (pending.get() >= config.getMaxPendingPerDestination()) {
+                circuitBreaker.recordDrop(destination);
+                return;
+            }
+
+            mongoTemplate.insert(forward);
+            pending.incrementAndGet();
+            queued.increment();
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to queue outgoing event",
+                    destination.toURI(),
+                    destination.getTenant().getLogLevel(),
+                    e);
+            circuitBreaker.recordDrop(destination);
+        }
+    }
+
+    /**
+     * Starts draining every destination with forwards due, and the backlogged ones so that
+     * they are let go once empty, returning futures completed when each of them is done.
+     */
+    private List<CompletableFuture<Void>> startDraining() {
+        List<?> due = mongoTemplate.getCollection(PendingRestForward.COLLECTION)
+                .distinct(DESTINATION_GUID, query(where("nextAttemptAt").lte(new Date())).getQueryObject());
+
+        return Stream.concat(due.stream().map(String.class::cast), backlogged.stream())
+                .distinct()
+                .map(this::startDraining)
+                .collect(Collectors.toList());
+    }
+
+    private CompletableFuture<Void> startDraining(String guid) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        CompletableFuture<Void> running = draining.putIfAbsent(guid, done);
+        if (running != null) {
+            return running;
+        }
+
+        submit(guid, done);
+        return done;
+    }
+
+    private void submit(String guid, CompletableFuture<Void> done) {
+        try {
+            drainers.execute(() -> drainDestination(guid, done));
+        } catch (RejectedExecutionException e) {
+            finish(guid, done);
+        }
+    }
+
+    private void drainDestination(String guid, CompletableFuture<Void> done) {
+        try {
+            int sent = 0;
+            while (deliverOldest(guid)) {
+                if (++sent >= config.getBatchSize()) {
+                    // keeps going after the destinations already waiting for a drainer
+                    submit(guid, done);
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Failed to drain the REST forward outbox", e);
+        }
+
+        finish(guid, done);
+    }
+
+    private void finish(String guid, CompletableFuture<Void> done) {
+        try {
+            AtomicInteger writes = pendingWrites.computeIfAbsent(guid, key -> new AtomicInteger());
+            synchronized (writes) {
+                if (writes.get() == 0
+                        && !mongoTemplate.exists(query(where(DESTINATION_GUID).is(guid)), PendingRestForward.class)) {
+                    backlogged.remove(guid);
+                }
+            }
+        } finally {
+            draining.remove(guid, done);
+            done.complete(null);
+        }
+    }
+
+    private AtomicLong pendingOf(String guid) {
+        return pendingForwards.computeIfAbsent(guid, key -> new AtomicLong(
+                mongoTemplate.count(query(where(DESTINATION_GUID).is(key)), PendingRestForward.class)));
+    }
+
+    private void removed(String guid, long count) {
+        // other instances may have stored some of them, so the count never goes below zero
+        pendingOf(guid).updateAndGet(pending -> Math.max(0, pending - count));
+    }
+
+    /**
+     * Tries to deliver the oldest forward of the destination, telling whether the next one
+     * may follow.
+     */
+    private boolean deliverOldest(String guid) {
+        Date now = new Date();
+
+        PendingRestForward oldest = mongoTemplate.findOne(
+                query(where(DESTINATION_GUID).is(guid)).with(new Sort(Sort.Direction.ASC, "createdAt")),
+                PendingRestForward.class);
+        if (oldest == null
+                || oldest.getNextAttemptAt().after(now)
+                || (oldest.getLeasedUntil() != null && oldest.getLeasedUntil().after(now))) {
+            return false;
+        }
+
+        PendingRestForward leased = mongoTemplate.findAndModify(
+                query(where("_id").is(oldest.getId()).and("leasedUntil").is(oldest.getLeasedUntil())),
+                new Update().set("leasedUntil", new Date(now.getTime() + TimeUnit.SECONDS.toMillis(config.getLeaseDuration()))),
+                PendingRestForward.class);
+        if (leased == null) {
+            return false;
+        }
+
+        RestDestination destination = restDestinationRepository.getByTenantAndGUID(
+                oldest.getTenantId(), oldest.getApplicationName(), guid);
+        if (destination == null || !destination.isActive()) {
+            long removed = mongoTemplate.remove(query(where(DESTINATION_GUID).is(guid)), PendingRestForward.class).getN();
+            removed(guid, removed);
+            discarded.add(removed);
+            LOGGER.info("Discarded {} pending forwards of REST destination {}, it no longer accepts events", removed, guid);
+            return false;
+        }
+
+        if (isExpired(oldest, now)) {
+            mongoTemplate.remove(oldest);
+            removed(guid, 1);
+            discarded.increment();
+            LOGGER.warn(MessageFormat.format("Outgoing event to REST destination \"{0}\" has been discarded after {1} attempts",
+                    destination.getName(), oldest.getAttempts()),
+                    destination.toURI(),
+                    destination.getTenant().getLogLevel());
+            return true;
+        }
+
+        Optional<RestDestinationCircuitBreaker.Permit> permit = circuitBreaker.tryAcquire(destination);
+        if (!permit.isPresent()) {
+            mongoTemplate.updateFirst(query(where("_id").is(oldest.getId())),
+                    new Update().unset("leasedUntil"), PendingRestForward.class);
+            return false;
+        }
+
+        try {
+            httpGateway.request(
+                    EventPublisherRest.methodOf(destination),
+                    EventPublisherRest.headersOf(destination),
+                    URI.create(oldest.getUri()), MediaType.APPLICATION_JSON,
+                    oldest::getBody,
+                    destination.getServiceUsername(),
+                    destination.getServicePassword());
+        } catch (IntegrationException | RuntimeException e) {
+            permit.get().onFailure();
+
+            if (e instanceof IntegrationException && !((IntegrationException) e).isRetryable()) {
+                mongoTemplate.remove(oldest);
+                removed(guid, 1);
+                discard(destination, (IntegrationException) e);
+                return true;
+            }
+
+            int attempts = oldest.getAttempts() + 1;
+            mongoTemplate.updateFirst(query(where("_id").is(oldest.getId())),
+                    new Update().set("attempts", attempts)
+                            .set("nextAttemptAt", new Date(now.getTime() + backoff(attempts)))
+                            .unset("leasedUntil"),
+                    PendingRestForward.class);
+            LOGGER.debug(MessageFormat.format("Retry {0} of outgoing event to REST destination \"{1}\" failed",
+                    attempts, destination.getName()),
+                    destination.toURI(),
+                    destination.getTenant().getLogLevel());
+            return false;
+        }
+
+        permit.get().onSuccess();
+        mongoTemplate.remove(oldest);
+        removed(guid, 1);
+        delivered.increment();
+        return true;
+    }
+
+    private boolean isExpired(PendingRestForward forward, Date now) {
+        return forward.getAttempts() >= config.getMaxAttempts()
+                || now.getTime() - forward.getCreatedAt().getTime() > TimeUnit.SECONDS.toMillis(config.getMaxAge());
+    }
+
+    /**
+     * Milliseconds to wait after the given number of failed attempts, give or take 20%.
+     */
+    private long backoff(int attempts) {
+        long seconds = Math.min(config.getMaxBackoff(),
+                (long) config.getInitialBackoff() << Math.min(attempts - 1, 30));
+        return TimeUnit.SECONDS.toMillis(seconds) * (80 + ThreadLocalRandom.current().nextInt(41)) / 100;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
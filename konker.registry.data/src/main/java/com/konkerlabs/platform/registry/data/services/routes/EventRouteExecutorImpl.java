@@ -4,38 +4,37 @@ import static com.konkerlabs.platform.registry.data.services.publishers.EventPub
 
 import java.io.IOException;
 import java.text.MessageFormat;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Future;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.expression.spel.SpelEvaluationException;
-import org.springframework.scheduling.annotation.AsyncResult;
 import org.springframework.stereotype.Service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Device;
-import com.konkerlabs.platform.registry.business.model.DeviceModel;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.EventRoute;
-import com.konkerlabs.platform.registry.business.model.Location;
 import com.konkerlabs.platform.registry.business.model.Tenant;
-import com.konkerlabs.platform.registry.business.repositories.DeviceModelRepository;
-import com.konkerlabs.platform.registry.business.services.LocationTreeUtils;
+import com.konkerlabs.platform.registry.business.services.EventRouteIndex;
+import com.konkerlabs.platform.registry.business.services.ModelLocationCache;
 import com.konkerlabs.platform.registry.business.services.api.EventRouteService;
-import com.konkerlabs.platform.registry.business.services.api.LocationSearchService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
 import com.konkerlabs.platform.registry.data.services.publishers.api.EventPublisher;
 import com.konkerlabs.platform.registry.data.services.routes.api.EventRouteExecutor;
 import com.konkerlabs.platform.registry.data.services.routes.api.EventTransformationService;
 import com.konkerlabs.platform.utilities.expressions.ExpressionEvaluationService;
-import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
 
 @Service
 public class EventRouteExecutorImpl implements EventRouteExecutor {
@@ -45,68 +44,88 @@ public class EventRouteExecutorImpl implements EventRouteExecutor {
     @Autowired
     private EventRouteService eventRouteService;
     @Autowired
+    private EventRouteIndex eventRouteIndex;
+    @Autowired
     private ApplicationContext applicationContext;
     @Autowired
     private ExpressionEvaluationService evaluationService;
     @Autowired
-    private JsonParsingService jsonParsingService;
-    @Autowired
     private EventTransformationService eventTransformationService;
     @Autowired
-    private LocationSearchService locationSearchService;
+    private ModelLocationCache modelLocationCache;
     @Autowired
-    private DeviceModelRepository deviceModelRepository;
+    private RouteExecutionPool routeExecutionPool;
 
     @Override
-    public Future<List<Event>> execute(Event event, Device device) {
+    public CompletableFuture<List<Event>> execute(Event event, Device device) {
 
-        List<Event> outEvents = new ArrayList<Event>();
+        Tenant tenant = device.getTenant();
+        Application application = device.getApplication();
 
-        ServiceResponse<List<EventRoute>> serviceRoutes = eventRouteService.getAll(device.getTenant(), device.getApplication());
+        ServiceResponse<List<EventRoute>> serviceRoutes = eventRouteIndex.getMatching(tenant, application,
+                device.toURI(), event.getIncoming().getChannel(),
+                () -> eventRouteService.getAll(tenant, application));
         if (!serviceRoutes.isOk()) {
             LOGGER.error("Error listing application events routes", device.toURI(), device.getTenant().getLogLevel());
-            return new AsyncResult<List<Event>>(outEvents);
+            return CompletableFuture.completedFuture(Collections.emptyList());
         }
 
         List<EventRoute> eventRoutes = serviceRoutes.getResult();
         if (eventRoutes.isEmpty()) {
-            return new AsyncResult<List<Event>>(outEvents);
+            return CompletableFuture.completedFuture(Collections.emptyList());
         }
 
-        eventRoutes.parallelStream().forEach((eventRoute) -> {
-            processEventRoute(event, device, outEvents, eventRoute);
-        });
-
-        return new AsyncResult<List<Event>>(outEvents);
+        // routes are submitted from the consumer, which runs them itself when the pool is full
+        Executor executor = routeExecutionPool.forTenant(tenant.getId());
+        Executor continuations = routeExecutionPool.continuationsForTenant(tenant.getId());
+        List<CompletableFuture<Optional<Event>>> routeResults = eventRoutes.stream()
+                .map(eventRoute -> CompletableFuture.supplyAsync(
+                        () -> processEventRoute(event, device, eventRoute, continuations), executor)
+                        .thenCompose(Function.identity())
+                        .exceptionally(e -> {
+                            logRouteFailure(eventRoute, e instanceof CompletionException ? e.getCause() : e);
+                            return Optional.empty();
+                        }))
+                .collect(Collectors.toList());
+
+        return CompletableFuture.allOf(routeResults.toArray(new CompletableFuture[routeResults.size()]))
+                .thenApply(done -> routeResults.stream()
+                        .map(CompletableFuture::join)
+                        .filter(Optional::isPresent)
+                        .map(Optional::get)
+                        .collect(Collectors.toList()));
     }
 
-    private void processEventRoute(Event event, Device device, List<Event> outEvents, EventRoute eventRoute) {
+    private CompletableFuture<Optional<Event>> processEventRoute(Event event, Device device, EventRoute eventRoute, Executor continuations) {
 
         if (isEventRouteDeviceMatch(eventRoute, device)) {
 
             String incomingPayload = event.getPayload();
 
             if (!eventRoute.isActive())
-                return;
+                return CompletableFuture.completedFuture(Optional.empty());
             if (!eventRoute.getIncoming().getData().get(DEVICE_MQTT_CHANNEL).equals(event.getIncoming().getChannel())) {
                 LOGGER.debug("Non matching channel for incoming event: {}", event, eventRoute.getTenant().toURI(), eventRoute.getTenant().getLogLevel());
-                return;
+                return CompletableFuture.completedFuture(Optional.empty());
             }
 
             try {
                 if (isFilterExpressionMatch(event, eventRoute)) {
                     if (Optional.ofNullable(eventRoute.getTransformation()).isPresent()) {
-                        Optional<Event> transformed = eventTransformationService.transform(
-                                event, eventRoute.getTransformation());
-                        if (transformed.isPresent()) {
-                            forwardEvent(eventRoute, transformed.get());
-                            outEvents.add(transformed.get());
-                        } else {
-                            logEventWithInvalidTransformation(event, eventRoute);
-                        }
+                        // the transformation completes on the HTTP client's threads, which must never
+                        // forward themselves, even when the route pool is full
+                        return eventTransformationService.transformAsync(event, eventRoute.getTransformation())
+                                .thenApplyAsync(transformed -> {
+                                    if (transformed.isPresent()) {
+                                        forwardEvent(eventRoute, transformed.get());
+                                    } else {
+                                        logEventWithInvalidTransformation(event, eventRoute);
+                                    }
+                                    return transformed;
+                                }, continuations);
                     } else {
                         forwardEvent(eventRoute, event);
-                        outEvents.add(event);
+                        return CompletableFuture.completedFuture(Optional.of(event));
                     }
                 } else {
                     logEventFilterMismatch(event, eventRoute);
@@ -122,6 +141,7 @@ public class EventRouteExecutorImpl implements EventRouteExecutor {
 
         }
 
+        return CompletableFuture.completedFuture(Optional.empty());
     }
 
     private boolean isEventRouteDeviceMatch(EventRoute eventRoute, Device device) {
@@ -133,49 +153,9 @@ public class EventRouteExecutorImpl implements EventRouteExecutor {
 
         // match model location actor
         if (eventRoute.getIncoming().isModelLocation()) {
-
-            if (device.getDeviceModel() == null || device.getLocation() == null){
-                return false;
-            }
-
-            String uriPath = eventRoute.getIncoming().getUri().getPath();
-            if (uriPath.startsWith("/")) {
-                uriPath = uriPath.substring(1);
-            }
-
-            String guids[] = uriPath.split("/");
-            if (guids.length < 2) {
-                LOGGER.warn("Invalid model location URI: {}", uriPath);
-                return false;
-            }
-
-            Tenant tenant = device.getTenant();
-            Application application = device.getApplication();
-
-            // match device model?
-            DeviceModel deviceModel = deviceModelRepository.findByTenantIdApplicationNameAndGuid(tenant.getId(), application.getName(), guids[0]);
-            if (deviceModel == null || !deviceModel.getGuid().equals(device.getDeviceModel().getGuid())) {
-                return false;
-            }
-
-            // match location?
-            ServiceResponse<Location> locationService = locationSearchService.findByGuid(tenant, application, guids[1]);
-            if (!locationService.isOk()) {
-                return false;
-            }
-
-            Location location = locationService.getResult();
-            locationService = locationSearchService.findByName(tenant, application, location.getName(), true);
-            if (!locationService.isOk()) {
-                return false;
-            }
-
-            List<Location> nodes = LocationTreeUtils.getNodesList(locationService.getResult());
-            for (Location node : nodes) {
-                if (node.getGuid().equals(device.getLocation().getGuid())) {
-                    return true;
-                }
-            }
+            return modelLocationCache.getMembership(device.getTenant(), device.getApplication(), eventRoute.getIncoming().getUri())
+                    .map(membership -> membership.contains(device))
+                    .orElse(false);
         }
 
         return false;
@@ -186,7 +166,7 @@ public class EventRouteExecutorImpl implements EventRouteExecutor {
                 .filter(filter -> !filter.isEmpty());
 
         if (expression.isPresent()) {
-            Map<String, Object> objectMap = jsonParsingService.toMap(event.getPayload());
+            Map<String, Object> objectMap = event.getParsedPayload().getMap();
             return evaluationService.evaluateConditional(expression.get(), objectMap);
         } else
             return true;
@@ -201,6 +181,11 @@ public class EventRouteExecutorImpl implements EventRouteExecutor {
                 eventRoute.getApplication());
     }
 
+    private void logRouteFailure(EventRoute eventRoute, Throwable e) {
+        LOGGER.error(MessageFormat.format("Error executing route \"{0}\"", eventRoute.getName()),
+                eventRoute.toURI(), eventRoute.getTenant().getLogLevel(), e);
+    }
+
     private void logEventFilterMismatch(Event event, EventRoute eventRoute) {
         LOGGER.debug(MessageFormat.format("Dropped route \"{0}\", not matching pattern with content \"{1}\". Message payload: {2} ",
                 eventRoute.getName(), eventRoute.getFilteringExpression(), event.getPayload()),
@@ -6,10 +6,8 @@ import com.konkerlabs.platform.registry.business.model.RestTransformationStep;
 import com.konkerlabs.platform.registry.business.model.Transformation;
 import com.konkerlabs.platform.registry.business.model.TransformationStep;
 import com.konkerlabs.platform.registry.data.services.routes.api.EventTransformationService;
-import com.konkerlabs.platform.registry.integration.exceptions.IntegrationException;
 import com.konkerlabs.platform.registry.integration.gateways.HttpGateway;
 import com.konkerlabs.platform.utilities.expressions.ExpressionEvaluationService;
-import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,54 +23,65 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Component
 public class EventTransformationServiceImpl implements EventTransformationService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EventTransformationService.class);
 
-    @Autowired
-    private JsonParsingService jsonParsingService;
     @Autowired
     private ExpressionEvaluationService evaluationService;
     @Autowired
     private HttpGateway httpGateway;
+    @Autowired
+    private TransformationResponseCache responseCache;
 
     @Override
     public Optional<Event> transform(Event original, Transformation transformation) {
+        return transformAsync(original, transformation).join();
+    }
+
+    @Override
+    public CompletableFuture<Optional<Event>> transformAsync(Event original, Transformation transformation) {
         Optional.ofNullable(original)
             .orElseThrow(() -> new IllegalArgumentException("Event cannot be null"));
         Optional.ofNullable(transformation)
                 .orElseThrow(() -> new IllegalArgumentException("Transformation cannot be null"));
 
-        Optional<Event> transformed = Optional.of(
+        CompletableFuture<Optional<Event>> transformed = CompletableFuture.completedFuture(Optional.of(
             Event.builder()
                 .incoming(original.getIncoming())
                 .payload(original.getPayload())
                 .timestamp(original.getTimestamp())
                 .build()
-        );
-
-        for (TransformationStep step : transformation.getSteps()) {
-            if (transformed.isPresent())
-                transformed = Optional.ofNullable(applyStep(transformed.get(),step));
-            else break;
+        ));
+
+        for (int i = 0; i < transformation.getSteps().size(); i++) {
+            TransformationStep step = transformation.getSteps().get(i);
+            int index = i;
+            transformed = transformed.thenCompose(event -> event.isPresent() ?
+                    applyStep(event.get(), transformation, index, step) :
+                    CompletableFuture.completedFuture(Optional.empty()));
         }
 
         return transformed;
     }
 
-    private Event applyStep(Event event, TransformationStep step) {
+    private CompletableFuture<Optional<Event>> applyStep(Event event, Transformation transformation, int index, TransformationStep step) {
         try {
+            Map<String, Object> payload = event.getParsedPayload().getMap();
+
             String stepUrl = evaluationService
                     .evaluateTemplate(
                             (String) step.getAttributes().get(RestTransformationStep.REST_URL_ATTRIBUTE_NAME),
-                            jsonParsingService.toMap(event.getPayload()));
+                            payload);
 
             String stepMethod = evaluationService
                     .evaluateTemplate(
                             (String) step.getAttributes().get(RestTransformationStep.REST_ATTRIBUTE_METHOD),
-                            jsonParsingService.toMap(event.getPayload()));
+                            payload);
 
             if(StringUtils.isEmpty(stepMethod)){
                 stepMethod = HttpMethod.POST.name();
@@ -86,33 +95,41 @@ public class EventTransformationServiceImpl implements EventTransformationServic
                         });
                     });
 
-            String stepResponse = httpGateway.request(
-                    HttpMethod.resolve(stepMethod),
-                    headers,
-                    new URI(stepUrl), MediaType.APPLICATION_JSON,
-                    () -> event.getPayload(),
-                    (String) step.getAttributes().get(RestTransformationStep.REST_USERNAME_ATTRIBUTE_NAME),
-                    (String) step.getAttributes().get(RestTransformationStep.REST_PASSWORD_ATTRIBUTE_NAME));
-
-            if (isValidResponse(stepResponse))
-                return Event.builder()
-                        .incoming(event.getIncoming())
-                        .timestamp(event.getTimestamp())
-                        .payload(stepResponse).build();
-            else
-                return null;
+            HttpMethod method = HttpMethod.resolve(stepMethod);
+            URI uri = new URI(stepUrl);
+
+            return responseCache.get(transformation, index, stepMethod, stepUrl, event.getPayload(),
+                    () -> httpGateway.requestAsync(
+                            method,
+                            headers,
+                            uri, MediaType.APPLICATION_JSON,
+                            () -> event.getPayload(),
+                            (String) step.getAttributes().get(RestTransformationStep.REST_USERNAME_ATTRIBUTE_NAME),
+                            (String) step.getAttributes().get(RestTransformationStep.REST_PASSWORD_ATTRIBUTE_NAME)))
+                    .handle((stepResponse, error) -> {
+                        if (error != null) {
+                            LOGGER.error("Failed to request step URL",
+                                    error instanceof CompletionException ? error.getCause() : error);
+                            return Optional.<Event>empty();
+                        }
+
+                        if (isValidResponse(stepResponse))
+                            return Optional.of(Event.builder()
+                                    .incoming(event.getIncoming())
+                                    .timestamp(event.getTimestamp())
+                                    .payload(stepResponse).build());
+                        else
+                            return Optional.<Event>empty();
+                    });
         } catch (JsonProcessingException e) {
             LOGGER.error("Malformed JSON", e);
-            return null;
+            return CompletableFuture.completedFuture(Optional.empty());
         } catch (ParseException|EvaluationException e) {
             LOGGER.error("Malformed URL template", e);
-            return null;
-        } catch (IntegrationException e) {
-            LOGGER.error("Failed to request step URL", e);
-            return null;
+            return CompletableFuture.completedFuture(Optional.empty());
         } catch (URISyntaxException e) {
             LOGGER.error("Failed to encode step URL", e);
-            return null;
+            return CompletableFuture.completedFuture(Optional.empty());
         }
     }
 
@@ -0,0 +1,237 @@
+package com.konkerlabs.platform.registry.data.services.routes;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.konkerlabs.platform.registry.data.config.RouteExecutionConfig;
+
+/**
+ * Bounded thread pool that runs event routes, sized for blocking I/O.
+ *
+ * Each tenant may only have a limited number of routes running or queued in the shared
+ * pool at a time; the rest wait in a queue of their own and are handed to the pool as
+ * the tenant's earlier routes finish, so a busy tenant cannot take every thread. The
+ * routes waiting in all tenants' queues count against the same capacity as the shared
+ * queue. When either is full the submitting thread runs the route itself, slowing
+ * intake down. Threads that must never run routes, such as the HTTP client's, submit
+ * through {@link #continuationsForTenant(String)} instead: when the pool is full their
+ * tasks wait in a bounded overflow queue, which the pool's threads empty before taking
+ * new work, and are dropped once it is full.
+ */
+@Component
+@ManagedResource(objectName = "com.konkerlabs.platform.registry.data:type=RouteExecutionPool")
+public class RouteExecutionPool {
+
+    private final ThreadPoolExecutor pool;
+    private final int maxConcurrencyPerTenant;
+    private final int waitingCapacity;
+    private final int overflowCapacity;
+    private final Map<String, TenantLane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Queue<Runnable> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger overflowSize = new AtomicInteger();
+
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder overflowDropped = new LongAdder();
+
+    public RouteExecutionPool() {
+        this(new RouteExecutionConfig());
+    }
+
+    public RouteExecutionPool(RouteExecutionConfig config) {
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.maxConcurrencyPerTenant = Math.max(1, config.getMaxConcurrencyPerTenant());
+        this.waitingCapacity = Math.max(1, config.getQueueCapacity());
+        this.overflowCapacity = Math.max(1, config.getOverflowCapacity());
+        this.pool = new ThreadPoolExecutor(config.getThreads(), config.getThreads(),
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "route-execution-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns an executor that runs tasks in this pool on behalf of the given tenant.
+     */
+    public Executor forTenant(String tenantKey) {
+        TenantLane lane = laneOf(tenantKey);
+        return task -> lane.submit(task, true);
+    }
+
+    /**
+     * Returns an executor for tasks of the given tenant that are submitted from threads
+     * which must not run them, even when the pool is full.
+     */
+    public Executor continuationsForTenant(String tenantKey) {
+        TenantLane lane = laneOf(tenantKey);
+        return task -> lane.submit(task, false);
+    }
+
+    @ManagedAttribute
+    public int getPoolSize() {
+        return pool.getPoolSize();
+    }
+
+    @ManagedAttribute
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    @ManagedAttribute
+    public int getQueueSize() {
+        return pool.getQueue().size();
+    }
+
+    @ManagedAttribute
+    public long getCompletedTaskCount() {
+        return pool.getCompletedTaskCount();
+    }
+
+    @ManagedAttribute
+    public long getDeferredCount() {
+        return deferred.sum();
+    }
+
+    @ManagedAttribute
+    public long getCallerRunsCount() {
+        return callerRuns.sum();
+    }
+
+    @ManagedAttribute
+    public long getOverflowedCount() {
+        return overflowed.sum();
+    }
+
+    @ManagedAttribute
+    public long getOverflowDroppedCount() {
+        return overflowDropped.sum();
+    }
+
+    @ManagedAttribute
+    public int getOverflowSize() {
+        return overflowSize.get();
+    }
+
+    @ManagedAttribute
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private TenantLane laneOf(String tenantKey) {
+        return lanes.computeIfAbsent(String.valueOf(tenantKey), key -> new TenantLane());
+    }
+
+    private void dispatch(Runnable task, boolean callerMayRun) {
+        try {
+            pool.execute(() -> {
+                task.run();
+                for (Runnable next = overflow.poll(); next != null; next = overflow.poll()) {
+                    overflowSize.decrementAndGet();
+                    next.run();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (pool.isShutdown()) {
+                return;
+            }
+
+            runElsewhere(task, callerMayRun);
+        }
+    }
+
+    private void runElsewhere(Runnable task, boolean callerMayRun) {
+        if (callerMayRun) {
+            callerRuns.increment();
+            task.run();
+        } else if (overflowSize.incrementAndGet() <= overflowCapacity) {
+            overflowed.increment();
+            overflow.add(task);
+        } else {
+            overflowSize.decrementAndGet();
+            overflowDropped.increment();
+        }
+    }
+
+    private class TenantLane {
+
+        private final Queue<Runnable> queued = new ArrayDeque<>();
+        private int running;
+
+        void submit(Runnable task, boolean callerMayRun) {
+            boolean admitted;
+            synchronized (this) {
+                if (running < maxConcurrencyPerTenant) {
+                    running++;
+                    admitted = true;
+                } else if (waiting.incrementAndGet() <= waitingCapacity) {
+                    deferred.increment();
+                    queued.add(task);
+                    return;
+                } else {
+                    waiting.decrementAndGet();
+                    admitted = false;
+                }
+            }
+
+            if (admitted) {
+                dispatch(() -> runAndHandOver(task), callerMayRun);
+            } else {
+                // every tenant's queue together is full, so the route cannot wait its turn
+                runElsewhere(task, callerMayRun);
+            }
+        }
+
+        private void runAndHandOver(Runnable task) {
+            try {
+                task.run();
+            } finally {
+                Runnable next;
+                synchronized (this) {
+                    next = queued.poll();
+                    if (next == null) {
+                        running--;
+                    } else {
+                        waiting.decrementAndGet();
+                    }
+                }
+
+                if (next != null) {
+                    // handed over from one of the pool's threads, which may run it
+                    Runnable nextTask = next;
+                    dispatch(() -> runAndHandOver(nextTask), true);
+                }
+            }
+        }
+
+    }
+
+}
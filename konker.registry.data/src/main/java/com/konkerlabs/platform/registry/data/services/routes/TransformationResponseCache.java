@@ -0,0 +1,132 @@
+package com.konkerlabs.platform.registry.data.services.routes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.konkerlabs.platform.registry.business.model.Transformation;
+import com.konkerlabs.platform.registry.data.config.TransformationCacheConfig;
+
+/**
+ * Responses of transformation steps, for the transformations that opt in with a response
+ * cache TTL.
+ *
+ * A response is keyed by the transformation, the step, the method, the evaluated URL and
+ * a hash of the request body. Events that lead to a request already in flight wait for
+ * its response instead of sending their own. Failed requests are not cached, and a step
+ * that is changed keeps its cached responses until they expire.
+ */
+@Component
+@ManagedResource(objectName = "com.konkerlabs.platform.registry.data:type=TransformationResponseCache")
+public class TransformationResponseCache {
+
+    private final LongSupplier nanoClock;
+    private final Cache<String, CachedResponse> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TransformationResponseCache() {
+        this(new TransformationCacheConfig(), System::nanoTime);
+    }
+
+    public TransformationResponseCache(TransformationCacheConfig config, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(Transformation.MAX_RESPONSE_CACHE_TTL, TimeUnit.SECONDS)
+                .build();
+    }
+
+    public CompletableFuture<String> get(Transformation transformation, int step, String method, String url,
+                                         String body, Supplier<CompletableFuture<String>> request) {
+        int ttl = transformation.getResponseCacheTtl() != null ? transformation.getResponseCacheTtl() : 0;
+        if (ttl <= 0) {
+            return request.get();
+        }
+
+        String key = keyOf(transformation, step, method, url, body);
+        long now = nanoClock.getAsLong();
+        AtomicBoolean load = new AtomicBoolean();
+
+        CachedResponse cached = cache.asMap().compute(key, (k, current) -> {
+            if (current != null && current.expiresAt - now > 0) {
+                return current;
+            }
+            load.set(true);
+            return new CachedResponse(new CompletableFuture<>(), now + TimeUnit.SECONDS.toNanos(ttl));
+        });
+
+        if (!load.get()) {
+            hits.increment();
+            return cached.response;
+        }
+
+        misses.increment();
+        try {
+            request.get().whenComplete((response, error) -> {
+                if (error != null) {
+                    cache.asMap().remove(key, cached);
+                    cached.response.completeExceptionally(error);
+                } else {
+                    cached.response.complete(response);
+                }
+            });
+        } catch (RuntimeException e) {
+            cache.asMap().remove(key, cached);
+            cached.response.completeExceptionally(e);
+        }
+
+        return cached.response;
+    }
+
+    @ManagedOperation
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @ManagedAttribute
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @ManagedAttribute
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @ManagedAttribute
+    public long getSize() {
+        return cache.size();
+    }
+
+    private String keyOf(Transformation transformation, int step, String method, String url, String body) {
+        return transformation.getGuid() + ' ' + step + ' ' + method + ' ' + url + ' '
+                + Hashing.sha256().hashString(body != null ? body : "", StandardCharsets.UTF_8);
+    }
+
+    private static class CachedResponse {
+
+        private final CompletableFuture<String> response;
+        private final long expiresAt;
+
+        private CachedResponse(CompletableFuture<String> response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+}
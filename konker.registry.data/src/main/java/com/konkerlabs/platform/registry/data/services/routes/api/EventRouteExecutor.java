@@ -1,16 +1,17 @@
 package com.konkerlabs.platform.registry.data.services.routes.api;
 
 import java.util.List;
-import java.util.concurrent.Future;
-
-import org.springframework.scheduling.annotation.Async;
+import java.util.concurrent.CompletableFuture;
 
 import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
 
 public interface EventRouteExecutor {
 
-    @Async
-    Future<List<Event>> execute(Event incomingEvent, Device device);
+    /**
+     * Runs the routes matching the event in the route execution pool and completes with
+     * the events they forwarded once all of them have finished.
+     */
+    CompletableFuture<List<Event>> execute(Event incomingEvent, Device device);
 
 }
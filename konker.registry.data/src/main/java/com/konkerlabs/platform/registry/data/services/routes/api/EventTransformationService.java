@@ -4,9 +4,16 @@ import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Transformation;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public interface EventTransformationService {
 
     Optional<Event> transform(Event original, Transformation transformation);
 
+    /**
+     * Applies the transformation steps one after another without waiting on their requests;
+     * completes with an empty result as soon as a step fails.
+     */
+    CompletableFuture<Optional<Event>> transformAsync(Event original, Transformation transformation);
+
 }
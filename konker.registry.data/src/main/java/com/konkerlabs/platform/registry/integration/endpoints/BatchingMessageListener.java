@@ -0,0 +1,162 @@
+package com.konkerlabs.platform.registry.integration.endpoints;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.ChannelAwareMessageListener;
+
+import com.rabbitmq.client.Channel;
+
+/**
+ * Groups the messages delivered on each consumer channel into batches and hands them
+ * to a delegate in one call. A batch is flushed when it reaches the configured size or
+ * when its linger time expires. The delegate returns the messages it failed to process:
+ * the others are acknowledged, and each failed message is requeued once and rejected
+ * without requeue when it fails again, so the queue dead-letters it if configured to.
+ *
+ * Must be used with a container in manual acknowledge mode and a prefetch count of at
+ * least the batch size. Batches still pending when a channel closes are never acknowledged,
+ * so the broker redelivers them; the container should call {@link #flushAll()} before its
+ * consumers stop and {@link #close()} once it is destroyed.
+ */
+public class BatchingMessageListener implements ChannelAwareMessageListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchingMessageListener.class);
+
+    private final int batchSize;
+    private final long lingerMillis;
+    private final Function<List<Message>, List<Message>> delegate;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<Channel, Batch> batches = new ConcurrentHashMap<>();
+
+    public BatchingMessageListener(int batchSize, long lingerMillis, int lingerThreads,
+                                   Function<List<Message>, List<Message>> delegate) {
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.delegate = delegate;
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, lingerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "data-pub-linger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, Channel channel) throws Exception {
+        Batch batch = batches.computeIfAbsent(channel, Batch::new);
+
+        synchronized (batch) {
+            batch.messages.add(message);
+            batch.lastDeliveryTag = message.getMessageProperties().getDeliveryTag();
+
+            if (batch.messages.size() >= batchSize) {
+                flush(batch);
+            } else if (batch.lingerTask == null) {
+                batch.lingerTask = scheduler.schedule(() -> flush(batch), lingerMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Hands every pending batch to the delegate right away.
+     */
+    public void flushAll() {
+        batches.values().forEach(this::flush);
+    }
+
+    /**
+     * Flushes the pending batches and stops the linger timers.
+     */
+    public void close() {
+        flushAll();
+        scheduler.shutdownNow();
+    }
+
+    private void flush(Batch batch) {
+        synchronized (batch) {
+            if (batch.lingerTask != null) {
+                batch.lingerTask.cancel(false);
+                batch.lingerTask = null;
+            }
+
+            if (!batch.channel.isOpen()) {
+                batches.remove(batch.channel);
+                LOGGER.warn("Channel closed, {} messages will be redelivered", batch.messages.size());
+                batch.messages.clear();
+                return;
+            }
+
+            if (batch.messages.isEmpty()) {
+                return;
+            }
+
+            List<Message> messages = new ArrayList<>(batch.messages);
+            long deliveryTag = batch.lastDeliveryTag;
+            batch.messages.clear();
+
+            List<Message> failed;
+            try {
+                failed = delegate.apply(messages);
+            } catch (RuntimeException e) {
+                LOGGER.error("Exception processing batch of {} messages", messages.size(), e);
+                failed = messages;
+            }
+
+            try {
+                if (failed == null || failed.isEmpty()) {
+                    batch.channel.basicAck(deliveryTag, true);
+                } else {
+                    acknowledge(batch.channel, messages, new HashSet<>(failed));
+                }
+            } catch (IOException e) {
+                LOGGER.error("Failed to acknowledge batch of {} messages", messages.size(), e);
+            }
+        }
+    }
+
+    private void acknowledge(Channel channel, List<Message> messages, Set<Message> failed) throws IOException {
+        int rejected = 0;
+        for (Message message : messages) {
+            MessageProperties properties = message.getMessageProperties();
+            if (failed.contains(message)) {
+                // a message that already failed once is not requeued again, so it cannot loop
+                boolean requeue = !Boolean.TRUE.equals(properties.isRedelivered());
+                channel.basicNack(properties.getDeliveryTag(), false, requeue);
+                if (!requeue) {
+                    rejected++;
+                }
+            } else {
+                channel.basicAck(properties.getDeliveryTag(), false);
+            }
+        }
+        LOGGER.warn("{} of {} messages failed, {} of them rejected after redelivery",
+                failed.size(), messages.size(), rejected);
+    }
+
+    private static class Batch {
+        private final Channel channel;
+        private final List<Message> messages = new ArrayList<>();
+        private long lastDeliveryTag;
+        private ScheduledFuture<?> lingerTask;
+
+        Batch(Channel channel) {
+            this.channel = channel;
+        }
+    }
+
+}
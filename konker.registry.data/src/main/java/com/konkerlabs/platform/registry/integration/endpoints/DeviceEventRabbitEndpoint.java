@@ -1,20 +1,30 @@
 package com.konkerlabs.platform.registry.integration.endpoints;
 
 import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
+import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
 import com.konkerlabs.platform.registry.data.config.RabbitMQConfig;
 import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor;
+import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor.IncomingEvent;
+import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor.Messages;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessageProperties;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+/**
+ * Consumes the "data.pub" queue. The listener container is declared in
+ * {@link RabbitMQConfig}, which delivers either one message per call or
+ * whole batches, depending on the configured listener mode.
+ */
 @Service
 public class DeviceEventRabbitEndpoint {
 
@@ -27,16 +37,75 @@ public class DeviceEventRabbitEndpoint {
         this.deviceEventProcessor = deviceEventProcessor;
     }
 
-    @RabbitListener(queues = "data.pub")
     public void onDataPub(Message message) {
 
+        IncomingEvent incomingEvent = toIncomingEvent(message);
+        if (incomingEvent == null) {
+            return;
+        }
+
+        try {
+            deviceEventProcessor.process(
+                    incomingEvent.getApiKey(),
+                    incomingEvent.getChannel(),
+                    incomingEvent.getPayload(),
+                    incomingEvent.getTimestamp());
+        } catch (BusinessException be) {
+            LOGGER.error("BusinessException processing message", be);
+        }
+
+    }
+
+    /**
+     * Processes a batch of messages. Invalid messages are dropped, as in single message
+     * mode, so only the messages that failed for another reason are returned, to be
+     * delivered again.
+     *
+     * @return the messages that could not be processed
+     */
+    public List<Message> onDataPub(List<Message> messages) {
+
+        List<Message> accepted = new ArrayList<>(messages.size());
+        List<IncomingEvent> incomingEvents = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            IncomingEvent incomingEvent = toIncomingEvent(message);
+            if (incomingEvent != null) {
+                accepted.add(message);
+                incomingEvents.add(incomingEvent);
+            }
+        }
+
+        List<Message> failed = new ArrayList<>();
+        if (incomingEvents.isEmpty()) {
+            return failed;
+        }
+
+        List<ServiceResponse<Event>> responses = deviceEventProcessor.process(incomingEvents);
+        for (int i = 0; i < responses.size(); i++) {
+            ServiceResponse<Event> response = responses.get(i);
+            if (response.isOk()) {
+                continue;
+            }
+            if (response.getResponseMessages().containsKey(Messages.PROCESSING_FAILED.getCode())) {
+                failed.add(accepted.get(i));
+            } else {
+                LOGGER.error("BusinessException processing message: {}", response.getResponseMessages().keySet());
+            }
+        }
+
+        return failed;
+
+    }
+
+    private IncomingEvent toIncomingEvent(Message message) {
+
         if (LOGGER.isDebugEnabled())
             LOGGER.debug("A message has arrived -> " + message.toString());
 
         MessageProperties properties = message.getMessageProperties();
         if (properties == null || properties.getHeaders().isEmpty()) {
             LOGGER.error("MessageProperties is empty");
-            return;
+            return null;
         }
 
         String apiKey = (String) properties.getHeaders().get(RabbitMQConfig.MSG_HEADER_APIKEY);
@@ -48,22 +117,22 @@ public class DeviceEventRabbitEndpoint {
 
         if (!StringUtils.hasText(apiKey)) {
             LOGGER.error("Apikey not found.");
-            return;
+            return null;
         }
         if (!StringUtils.hasText(channel)) {
             LOGGER.error("Channel not found.");
-            return;
+            return null;
         }
         if (epochMilli != null) {
             timestamp = Instant.ofEpochMilli(epochMilli);
         }
 
-        try {
-            deviceEventProcessor.process(apiKey, channel, payload, timestamp);
-        } catch (BusinessException be) {
-            LOGGER.error("BusinessException processing message", be);
-        }
-
+        return IncomingEvent.builder()
+                .apiKey(apiKey)
+                .channel(channel)
+                .payload(payload)
+                .timestamp(timestamp)
+                .build();
     }
 
 }
@@ -1,6 +1,8 @@
 package com.konkerlabs.platform.registry.integration.endpoints;
 
+import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -27,7 +29,12 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.async.DeferredResult;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
@@ -38,9 +45,10 @@ import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
 import com.konkerlabs.platform.registry.data.services.JedisTaskService;
 import com.konkerlabs.platform.registry.integration.gateways.HttpGateway;
 import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor;
+import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor.IncomingEvent;
 import com.konkerlabs.platform.registry.integration.serializers.EventJsonView;
 import com.konkerlabs.platform.registry.integration.serializers.EventVO;
-import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 
 import lombok.Builder;
 import lombok.Data;
@@ -54,7 +62,9 @@ public class DeviceEventRestEndpoint {
         INVALID_WAITTIME("integration.rest.invalid.waitTime"),
         INVALID_CHANNEL_PATTERN("integration.rest.invalid.channel"),
     	DEVICE_NOT_FOUND("integration.event_processor.channel.not_found"),
-    	INVALID_REQUEST_ORIGIN("integration.rest.invalid_requrest_origin");
+    	INVALID_REQUEST_ORIGIN("integration.rest.invalid_requrest_origin"),
+    	INVALID_BULK_ITEM("integration.rest.invalid.bulk_item"),
+    	INVALID_BULK_SIZE("integration.rest.invalid.bulk_size");
 
         private String code;
 
@@ -67,9 +77,20 @@ public class DeviceEventRestEndpoint {
         }
     }
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final int BULK_CHUNK_SIZE = 100;
+    // the whole body is read and checked before any event is stored
+    private static final int BULK_MAX_ITEMS = 10000;
+
+    private static final Pattern INVALID_CHANNEL_CHARS = Pattern.compile("[^A-Za-z0-9_-]");
+
+    private static final String BULK_ITEM_CHANNEL = "channel";
+    private static final String BULK_ITEM_TIMESTAMP = "timestamp";
+    private static final String BULK_ITEM_PAYLOAD = "payload";
+
     private ApplicationContext applicationContext;
     private DeviceEventProcessor deviceEventProcessor;
-    private JsonParsingService jsonParsingService;
     private DeviceEventService deviceEventService;
     private DeviceRegisterService deviceRegisterService;
     private Executor executor;
@@ -79,7 +100,6 @@ public class DeviceEventRestEndpoint {
     @Autowired
     public DeviceEventRestEndpoint(ApplicationContext applicationContext,
                                    DeviceEventProcessor deviceEventProcessor,
-                                   JsonParsingService jsonParsingService,
                                    DeviceEventService deviceEventService,
                                    DeviceRegisterService deviceRegisterService,
                                    Executor executor,
@@ -87,7 +107,6 @@ public class DeviceEventRestEndpoint {
                                    DeviceConfigSetupService deviceConfigSetupService) {
         this.applicationContext = applicationContext;
         this.deviceEventProcessor = deviceEventProcessor;
-        this.jsonParsingService = jsonParsingService;
         this.deviceEventService = deviceEventService;
         this.deviceRegisterService = deviceRegisterService;
         this.executor = executor;
@@ -127,8 +146,7 @@ public class DeviceEventRestEndpoint {
     	}
 
 
-    	if(Optional.ofNullable(channel).isPresent() &&
-    			(channel.length() > 32 || Pattern.compile("[^A-Za-z0-9_-]").matcher(channel).find())){
+    	if(Optional.ofNullable(channel).isPresent() && !isValidChannel(channel)){
             deferredResult.setErrorResult(applicationContext.getMessage(Messages.INVALID_CHANNEL_PATTERN.getCode(), null, locale));
             httpResponse.setStatus(HttpStatus.BAD_REQUEST.value());
             return deferredResult;
@@ -175,7 +193,8 @@ public class DeviceEventRestEndpoint {
                                                  @AuthenticationPrincipal Device principal,
                                                  @RequestBody String body,
                                                  Locale locale) {
-        if (!jsonParsingService.isValid(body))
+        ParsedJson payload = new ParsedJson(body);
+        if (!payload.isValid())
             return new ResponseEntity<EventResponse>(buildResponse(Messages.INVALID_REQUEST_BODY.getCode(),locale), HttpStatus.BAD_REQUEST);
 
         if (!principal.getApiKey().equals(apiKey))
@@ -185,7 +204,7 @@ public class DeviceEventRestEndpoint {
 			return new ResponseEntity<EventResponse>(buildResponse(Messages.INVALID_REQUEST_ORIGIN.getCode(), locale), HttpStatus.FORBIDDEN);
 
         try {
-            deviceEventProcessor.process(apiKey,channel,body);
+            deviceEventProcessor.process(apiKey,channel,payload);
         } catch (BusinessException e) {
             return new ResponseEntity<EventResponse>(buildResponse(e.getMessage(),locale),HttpStatus.BAD_REQUEST);
         }
@@ -196,6 +215,151 @@ public class DeviceEventRestEndpoint {
         		HttpStatus.OK);
     }
 
+    /**
+     * Publishes many events in one request. The body is a JSON array or a newline delimited
+     * stream of items like <code>{"channel": "temp", "timestamp": 1490001001000, "payload": {...}}</code>.
+     * Channel may be omitted when the <code>channel</code> parameter is given, and timestamp
+     * (epoch millis) defaults to the time of arrival.
+     *
+     * The whole body is read and every item checked before any event is stored, so a
+     * malformed body stores nothing. Otherwise the valid items are stored and the result of
+     * each item is returned, in the order of the body.
+     */
+    @RequestMapping(value = "pub/{apiKey}",
+            method = RequestMethod.POST)
+    public ResponseEntity<BulkEventResponse> onBulkEvent(HttpServletRequest servletRequest,
+                                                         @PathVariable("apiKey") String apiKey,
+                                                         @RequestParam(name = "channel", required = false) String channel,
+                                                         @AuthenticationPrincipal Device principal,
+                                                         Locale locale) throws IOException {
+
+        if (!principal.getApiKey().equals(apiKey))
+            return new ResponseEntity<BulkEventResponse>(buildBulkResponse(Messages.INVALID_RESOURCE.getCode(), locale), HttpStatus.NOT_FOUND);
+
+        if (servletRequest.getHeader(HttpGateway.KONKER_VERSION_HEADER) != null)
+            return new ResponseEntity<BulkEventResponse>(buildBulkResponse(Messages.INVALID_REQUEST_ORIGIN.getCode(), locale), HttpStatus.FORBIDDEN);
+
+        List<JsonNode> items = new ArrayList<>();
+        try (MappingIterator<JsonNode> values = OBJECT_MAPPER.readerFor(JsonNode.class)
+                .readValues(servletRequest.getInputStream())) {
+            while (values.hasNextValue()) {
+                if (items.size() == BULK_MAX_ITEMS)
+                    return new ResponseEntity<BulkEventResponse>(buildBulkResponse(Messages.INVALID_BULK_SIZE.getCode(), locale), HttpStatus.PAYLOAD_TOO_LARGE);
+                items.add(values.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            return new ResponseEntity<BulkEventResponse>(buildBulkResponse(Messages.INVALID_REQUEST_BODY.getCode(), locale), HttpStatus.BAD_REQUEST);
+        }
+
+        List<BulkItemResult> results = new ArrayList<>(items.size());
+        List<IncomingEvent> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        List<Integer> chunkIndexes = new ArrayList<>(BULK_CHUNK_SIZE);
+
+        for (int index = 0; index < items.size(); index++) {
+            JsonNode item = items.get(index);
+            String invalid = validateItem(item, channel);
+
+            if (invalid != null) {
+                results.add(buildItemResult(index, invalid, locale));
+            } else {
+                chunk.add(toIncomingEvent(apiKey, channel, item));
+                chunkIndexes.add(index);
+                if (chunk.size() >= BULK_CHUNK_SIZE) {
+                    processChunk(chunk, chunkIndexes, results, locale);
+                }
+            }
+        }
+
+        processChunk(chunk, chunkIndexes, results, locale);
+        results.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+
+        long accepted = results.stream().filter(result -> result.getCode().equals(String.valueOf(HttpStatus.OK.value()))).count();
+
+        BulkEventResponse response = BulkEventResponse.builder()
+                .code(String.valueOf(HttpStatus.OK.value()))
+                .message(HttpStatus.OK.name())
+                .build();
+
+        response.setTotal(results.size());
+        response.setAccepted((int) accepted);
+        response.setRejected(results.size() - (int) accepted);
+        response.setResults(results);
+
+        return new ResponseEntity<BulkEventResponse>(response, HttpStatus.OK);
+    }
+
+    /**
+     * @return the code of the reason the item is refused, or null if it is valid
+     */
+    private String validateItem(JsonNode item, String defaultChannel) {
+        if (item == null || !item.isObject() || !item.hasNonNull(BULK_ITEM_PAYLOAD))
+            return Messages.INVALID_BULK_ITEM.getCode();
+
+        JsonNode timestamp = item.get(BULK_ITEM_TIMESTAMP);
+        if (timestamp != null && !timestamp.isNull() && !timestamp.canConvertToLong())
+            return Messages.INVALID_BULK_ITEM.getCode();
+
+        String channel = item.hasNonNull(BULK_ITEM_CHANNEL) ? item.get(BULK_ITEM_CHANNEL).asText() : defaultChannel;
+        if (channel == null || channel.isEmpty())
+            return DeviceEventProcessor.Messages.CHANNEL_MISSING.getCode();
+        if (!isValidChannel(channel))
+            return Messages.INVALID_CHANNEL_PATTERN.getCode();
+
+        return null;
+    }
+
+    private boolean isValidChannel(String channel) {
+        return channel.length() <= 32 && !INVALID_CHANNEL_CHARS.matcher(channel).find();
+    }
+
+    private IncomingEvent toIncomingEvent(String apiKey, String defaultChannel, JsonNode item) {
+        JsonNode timestamp = item.get(BULK_ITEM_TIMESTAMP);
+
+        return IncomingEvent.builder()
+                .apiKey(apiKey)
+                .channel(item.hasNonNull(BULK_ITEM_CHANNEL) ? item.get(BULK_ITEM_CHANNEL).asText() : defaultChannel)
+                .payload(item.get(BULK_ITEM_PAYLOAD).toString())
+                .timestamp(timestamp != null && !timestamp.isNull() ? Instant.ofEpochMilli(timestamp.asLong()) : Instant.now())
+                .build();
+    }
+
+    private void processChunk(List<IncomingEvent> chunk, List<Integer> chunkIndexes,
+                              List<BulkItemResult> results, Locale locale) {
+        if (chunk.isEmpty())
+            return;
+
+        List<ServiceResponse<Event>> responses = deviceEventProcessor.process(new ArrayList<>(chunk));
+        for (int i = 0; i < responses.size(); i++) {
+            ServiceResponse<Event> response = responses.get(i);
+            if (response.isOk()) {
+                results.add(BulkItemResult.builder()
+                        .index(chunkIndexes.get(i))
+                        .code(String.valueOf(HttpStatus.OK.value()))
+                        .message(HttpStatus.OK.name())
+                        .build());
+            } else {
+                results.add(buildItemResult(chunkIndexes.get(i),
+                        response.getResponseMessages().keySet().iterator().next(), locale));
+            }
+        }
+
+        chunk.clear();
+        chunkIndexes.clear();
+    }
+
+    private BulkItemResult buildItemResult(int index, String message, Locale locale) {
+        return BulkItemResult.builder()
+                .index(index)
+                .code(message)
+                .message(applicationContext.getMessage(message, null, locale)).build();
+    }
+
+    private BulkEventResponse buildBulkResponse(String message, Locale locale) {
+        return BulkEventResponse.builder()
+                .code(message)
+                .message(applicationContext.getMessage(message, null, locale)).build();
+    }
+
     @RequestMapping(
             value = { "cfg/{apiKey}" },
             method = RequestMethod.GET,
@@ -244,4 +408,24 @@ public class DeviceEventRestEndpoint {
         private String code;
         private String message;
     }
+
+    @Data
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class BulkEventResponse {
+        private String code;
+        private String message;
+        private Integer total;
+        private Integer accepted;
+        private Integer rejected;
+        private List<BulkItemResult> results;
+    }
+
+    @Data
+    @Builder
+    static class BulkItemResult {
+        private int index;
+        private String code;
+        private String message;
+    }
 }
@@ -3,12 +3,41 @@ package com.konkerlabs.platform.registry.integration.exceptions;
 public class IntegrationException extends Exception {
     private static final long serialVersionUID = -8633271049261013566L;
 
+    private final Integer statusCode;
+
     public IntegrationException(String message) {
-        super(message);
+        this(message, null, null);
     }
 
     public IntegrationException(String message, Throwable rootCause) {
+        this(message, rootCause, null);
+    }
+
+    public IntegrationException(String message, Integer statusCode) {
+        this(message, null, statusCode);
+    }
+
+    public IntegrationException(String message, Throwable rootCause, Integer statusCode) {
         super(message, rootCause);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * HTTP status code of the response that was refused, if any.
+     */
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Tells whether the same request may succeed later. Client errors will not, except
+     * for timeouts and throttling.
+     */
+    public boolean isRetryable() {
+        return statusCode == null
+                || statusCode / 100 != 4
+                || statusCode == 408
+                || statusCode == 429;
     }
 
 }
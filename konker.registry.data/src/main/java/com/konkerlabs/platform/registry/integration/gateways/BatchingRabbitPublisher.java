@@ -0,0 +1,359 @@
+package com.konkerlabs.platform.registry.integration.gateways;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+
+/**
+ * Publishes outgoing messages in batches over a dedicated connection, using publisher
+ * confirms instead of a round trip per message.
+ *
+ * Messages are queued and sent by a single thread, which publishes whatever is waiting,
+ * up to a batch at a time, on its own channel. The broker confirms them asynchronously and
+ * at most a fixed number of messages may wait for a confirm; beyond that the sender waits,
+ * and the channel is reopened if no confirm arrives in time. Messages the broker rejects,
+ * or that were not confirmed when the channel closed, are queued again, so a message may
+ * reach its consumers more than once.
+ */
+@ManagedResource(objectName = "com.konkerlabs.platform.registry.data:type=BatchingRabbitPublisher")
+public class BatchingRabbitPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchingRabbitPublisher.class);
+
+    private static final long RECONNECT_DELAY = 1000;
+
+    private final ConnectionFactory connectionFactory;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long confirmTimeout;
+    private final Semaphore window;
+    private final BlockingDeque<Outgoing> queue;
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder republished = new LongAdder();
+    private final LongAdder confirmLatency = new LongAdder();
+    private final AtomicLong maxConfirmLatency = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile Session session;
+    private Connection connection;
+    private Thread sender;
+
+    public BatchingRabbitPublisher(ConnectionFactory connectionFactory, boolean enabled, int batchSize,
+                                   int maxInFlight, int backlog, long confirmTimeout) {
+        this.connectionFactory = connectionFactory;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.confirmTimeout = confirmTimeout;
+        this.window = new Semaphore(Math.max(1, maxInFlight));
+        this.queue = new LinkedBlockingDeque<>(Math.max(1, backlog));
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        running = true;
+        sender = new Thread(this::run, "rabbit-publisher");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (sender == null) {
+            return;
+        }
+
+        sender.interrupt();
+        sender.join(TimeUnit.SECONDS.toMillis(10));
+        closeSession();
+        if (connection != null && connection.isOpen()) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close the publishing connection", e);
+            }
+        }
+        if (!queue.isEmpty()) {
+            LOGGER.warn("{} outgoing messages were not published before shutdown", queue.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a message for the default exchange, telling whether it was accepted. Messages
+     * are not accepted while the publisher is disabled or its backlog is full.
+     */
+    public boolean publish(String routingKey, Message message) {
+        if (!running) {
+            return false;
+        }
+
+        AMQP.BasicProperties properties = propertiesConverter.fromMessageProperties(message.getMessageProperties(), "UTF-8");
+        return queue.offer(new Outgoing(routingKey, properties, message.getBody(), System.nanoTime()));
+    }
+
+    @ManagedAttribute
+    public int getBacklog() {
+        return queue.size();
+    }
+
+    @ManagedAttribute
+    public int getInFlight() {
+        Session current = session;
+        return current != null ? current.unconfirmed.size() : 0;
+    }
+
+    @ManagedAttribute
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    @ManagedAttribute
+    public long getConfirmedCount() {
+        return confirmed.sum();
+    }
+
+    @ManagedAttribute
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @ManagedAttribute
+    public long getRepublishedCount() {
+        return republished.sum();
+    }
+
+    /**
+     * Mean time from queueing a message to its confirm, in milliseconds.
+     */
+    @ManagedAttribute
+    public double getAverageConfirmLatency() {
+        long count = confirmed.sum();
+        return count == 0 ? 0 : confirmLatency.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @ManagedAttribute
+    public long getMaxConfirmLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(maxConfirmLatency.get());
+    }
+
+    private void run() {
+        List<Outgoing> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                Outgoing first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                requeue(batch);
+                return;
+            } catch (IOException | TimeoutException | RuntimeException e) {
+                LOGGER.error("Failed to publish {} outgoing messages, retrying", batch.size(), e);
+                requeue(batch);
+                closeSession();
+                sleep(RECONNECT_DELAY);
+            }
+            batch.clear();
+        }
+    }
+
+    private void send(List<Outgoing> batch) throws IOException, TimeoutException, InterruptedException {
+        Session current = openSession();
+
+        while (!batch.isEmpty()) {
+            if (!window.tryAcquire(confirmTimeout, TimeUnit.MILLISECONDS)) {
+                throw new TimeoutException("No confirm from the broker in " + confirmTimeout + " ms");
+            }
+
+            Outgoing outgoing = batch.get(0);
+            long sequence = current.channel.getNextPublishSeqNo();
+            current.unconfirmed.put(sequence, outgoing);
+            try {
+                current.channel.basicPublish("", outgoing.routingKey, outgoing.properties, outgoing.body);
+            } catch (IOException | RuntimeException e) {
+                if (current.unconfirmed.remove(sequence) != null) {
+                    window.release();
+                }
+                throw e;
+            }
+
+            batch.remove(0);
+            published.increment();
+        }
+    }
+
+    private Session openSession() throws IOException, TimeoutException {
+        Session current = session;
+        if (current != null && current.channel.isOpen()) {
+            return current;
+        }
+
+        closeSession();
+        if (connection == null || !connection.isOpen()) {
+            connection = connectionFactory.newConnection("konker-publisher");
+        }
+
+        Channel channel = connection.createChannel();
+        channel.confirmSelect();
+        current = new Session(channel);
+        channel.addConfirmListener(current);
+        session = current;
+        return current;
+    }
+
+    /**
+     * Drops the current channel, queueing its unconfirmed messages again.
+     */
+    private void closeSession() {
+        Session current = session;
+        session = null;
+        if (current == null) {
+            return;
+        }
+
+        List<Outgoing> unconfirmed = new ArrayList<>();
+        Map.Entry<Long, Outgoing> entry;
+        while ((entry = current.unconfirmed.pollFirstEntry()) != null) {
+            window.release();
+            unconfirmed.add(entry.getValue());
+        }
+        republished.add(unconfirmed.size());
+        requeue(unconfirmed);
+
+        try {
+            if (current.channel.isOpen()) {
+                current.channel.close();
+            }
+        } catch (IOException | TimeoutException | RuntimeException e) {
+            LOGGER.debug("Failed to close the publishing channel", e);
+        }
+    }
+
+    private void requeue(List<Outgoing> messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (!queue.offerFirst(messages.get(i))) {
+                LOGGER.error("Publisher backlog is full, outgoing message has been dropped");
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static class Outgoing {
+
+        private final String routingKey;
+        private final AMQP.BasicProperties properties;
+        private final byte[] body;
+        private final long queuedAt;
+
+        private Outgoing(String routingKey, AMQP.BasicProperties properties, byte[] body, long queuedAt) {
+            this.routingKey = routingKey;
+            this.properties = properties;
+            this.body = body;
+            this.queuedAt = queuedAt;
+        }
+
+    }
+
+    private class Session implements ConfirmListener {
+
+        private final Channel channel;
+        private final ConcurrentNavigableMap<Long, Outgoing> unconfirmed = new ConcurrentSkipListMap<>();
+
+        private Session(Channel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void handleAck(long deliveryTag, boolean multiple) {
+            long now = System.nanoTime();
+            for (Outgoing outgoing : confirm(deliveryTag, multiple)) {
+                long latency = now - outgoing.queuedAt;
+                confirmed.increment();
+                confirmLatency.add(latency);
+                maxConfirmLatency.accumulateAndGet(latency, Math::max);
+            }
+        }
+
+        @Override
+        public void handleNack(long deliveryTag, boolean multiple) {
+            List<Outgoing> nacked = confirm(deliveryTag, multiple);
+            rejected.add(nacked.size());
+            requeue(nacked);
+        }
+
+        private List<Outgoing> confirm(long deliveryTag, boolean multiple) {
+            List<Outgoing> outgoing = new ArrayList<>();
+            if (multiple) {
+                Map.Entry<Long, Outgoing> entry;
+                while ((entry = unconfirmed.firstEntry()) != null && entry.getKey() <= deliveryTag) {
+                    if (unconfirmed.remove(entry.getKey(), entry.getValue())) {
+                        outgoing.add(entry.getValue());
+                    }
+                }
+            } else {
+                Outgoing removed = unconfirmed.remove(deliveryTag);
+                if (removed != null) {
+                    outgoing.add(removed);
+                }
+            }
+
+            window.release(outgoing.size());
+            return outgoing;
+        }
+
+    }
+
+}
@@ -2,13 +2,12 @@ package com.konkerlabs.platform.registry.integration.gateways;
 
 
 import com.konkerlabs.platform.registry.integration.exceptions.IntegrationException;
-import org.apache.http.Header;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 
 import java.net.URI;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 
@@ -24,4 +23,27 @@ public interface HttpGateway {
                        String user,
                        String password) throws IntegrationException;
 
+    /**
+     * Same as {@link #request}, but completes the returned future with the response body
+     * instead of waiting for it, or exceptionally with an {@link IntegrationException}.
+     * Invalid arguments are still rejected before the request is made.
+     *
+     * Implementations without a non-blocking client make the request on the calling thread.
+     */
+    default <T> CompletableFuture<String> requestAsync(HttpMethod method,
+                                                        HttpHeaders headers,
+                                                        URI uri,
+                                                        MediaType mediaType,
+                                                        Supplier<T> body,
+                                                        String user,
+                                                        String password) {
+        CompletableFuture<String> response = new CompletableFuture<>();
+        try {
+            response.complete(request(method, headers, uri, mediaType, body, user, password));
+        } catch (IntegrationException e) {
+            response.completeExceptionally(e);
+        }
+        return response;
+    }
+
 }
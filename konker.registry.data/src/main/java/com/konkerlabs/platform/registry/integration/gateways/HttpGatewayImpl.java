@@ -14,28 +14,23 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
-import org.springframework.stereotype.Component;
-import org.springframework.util.Base64Utils;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import com.konkerlabs.platform.registry.data.config.IntegrationConfig;
 import com.konkerlabs.platform.registry.integration.exceptions.IntegrationException;
 
-@Component
+/**
+ * {@link HttpGateway} over the blocking {@link RestTemplate}, whose timeouts are set where
+ * the template is created.
+ */
 public class HttpGatewayImpl implements HttpGateway {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpGatewayImpl.class);
 
-    @Autowired
-    private IntegrationConfig integrationConfig;
-    
     @Autowired
     private RestTemplate restTemplate;
 
-    private HttpHeaders defaultHeaders;
-
     @Override
     public <T> String request(
             HttpMethod method,
@@ -46,43 +41,19 @@ public class HttpGatewayImpl implements HttpGateway {
             String username,
             String password) throws IntegrationException {
 
-        Optional.ofNullable(method)
-                .orElseThrow(() -> new IllegalStateException("HTTP method must be provided"));
-
-        Optional.ofNullable(uri)
-                .orElseThrow(() -> new IllegalStateException("Service URI must be provided"));
+        HttpGatewayRequests.validate(method, uri, username, password);
 
         Optional.ofNullable(restTemplate)
                 .orElseThrow(() -> new IllegalStateException("RestTemplate must be provided"));
 
-        Optional.ofNullable(headers).orElse(new HttpHeaders());
-
-        if ((username != null && password == null) || username == null && password != null) {
-            throw new IllegalStateException("Username and Password must be both provided together");
-        }
-
         try {
 
-            Optional.ofNullable(defaultHeaders).ifPresent(item -> {
-                item.entrySet().forEach(header->{
-                    headers.put(header.getKey(), header.getValue());
-                });
-            });
-
-            if ((username != null && !username.trim().isEmpty()) || (password != null && !password.trim().isEmpty())) {
-                String encodedCredentials = Base64Utils
-                        .encodeToString(format("{0}:{1}", username, password).getBytes());
-
-                headers.add("Authorization", format("Basic {0}", encodedCredentials));
-            }
-
             HttpEntity<String> entity = new HttpEntity(
                     Optional.ofNullable(body).orElse(() -> null).get(),
-                    headers
+                    HttpGatewayRequests.headersFor(headers, mediaType, username, password)
             );
 
             LOGGER.debug("Requesting {} from {}.", method, uri);
-            setUp(null, mediaType);
             ResponseEntity<String> exchange = restTemplate.exchange(uri, method, entity, String.class);
 
             if (exchange.getStatusCode().is2xxSuccessful()) {
@@ -92,28 +63,22 @@ public class HttpGatewayImpl implements HttpGateway {
                         method,
                         uri,
                         exchange.getStatusCode(),
-                        exchange.getBody()));
+                        exchange.getBody()),
+                        exchange.getStatusCode().value());
 
+        } catch (HttpStatusCodeException hsce) {
+            throw new IntegrationException(
+                    format("Exception while requesting {0} from {1}. Status Code: {2}. Message: {3}.",
+                            method,
+                            uri,
+                            hsce.getStatusCode(),
+                            hsce.getResponseBodyAsString()),
+                    hsce,
+                    hsce.getStatusCode().value());
         } catch (RestClientException rce) {
             throw new IntegrationException(
                     format("Exception while requesting {0} from {1}", method, uri), rce);
         }
     }
 
-    private void setUp(Optional<Integer> timeout, MediaType mediaType) {
-
-        defaultHeaders = new HttpHeaders();
-        defaultHeaders.setContentType(mediaType);
-        defaultHeaders.add(KONKER_VERSION_HEADER, "0.1");
-
-        Integer clientTimeout =
-                Optional.ofNullable(timeout).isPresent() ?
-                        timeout.get() :
-                        integrationConfig.getTimeoutDefault();
-
-        Optional.ofNullable(restTemplate.getRequestFactory()).ifPresent(item -> {
-            ((SimpleClientHttpRequestFactory) item).setReadTimeout(clientTimeout);
-            ((SimpleClientHttpRequestFactory) item).setConnectTimeout(clientTimeout);
-        });
-    }
 }
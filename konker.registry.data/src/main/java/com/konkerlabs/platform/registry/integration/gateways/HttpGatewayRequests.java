@@ -0,0 +1,53 @@
+package com.konkerlabs.platform.registry.integration.gateways;
+
+import static java.text.MessageFormat.format;
+
+import java.net.URI;
+import java.util.Optional;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.util.Base64Utils;
+
+/**
+ * Argument checks and headers shared by the {@link HttpGateway} implementations.
+ */
+final class HttpGatewayRequests {
+
+    private HttpGatewayRequests() {
+    }
+
+    static void validate(HttpMethod method, URI uri, String username, String password) {
+        Optional.ofNullable(method)
+                .orElseThrow(() -> new IllegalStateException("HTTP method must be provided"));
+
+        Optional.ofNullable(uri)
+                .orElseThrow(() -> new IllegalStateException("Service URI must be provided"));
+
+        if ((username != null && password == null) || username == null && password != null) {
+            throw new IllegalStateException("Username and Password must be both provided together");
+        }
+    }
+
+    /**
+     * Builds the headers of a single request, leaving the caller's headers untouched.
+     */
+    static HttpHeaders headersFor(HttpHeaders headers, MediaType mediaType, String username, String password) {
+        HttpHeaders requestHeaders = new HttpHeaders();
+        Optional.ofNullable(headers).ifPresent(requestHeaders::putAll);
+
+        Optional.ofNullable(mediaType).ifPresent(requestHeaders::setContentType);
+        requestHeaders.set(HttpGateway.KONKER_VERSION_HEADER, "0.1");
+
+        if ((username != null && !username.trim().isEmpty()) || (password != null && !password.trim().isEmpty())) {
+            String encodedCredentials = Base64Utils
+                    .encodeToString(format("{0}:{1}", username, password).getBytes());
+
+            requestHeaders.set("Authorization", format("Basic {0}", encodedCredentials));
+        }
+
+        return requestHeaders;
+    }
+
+}
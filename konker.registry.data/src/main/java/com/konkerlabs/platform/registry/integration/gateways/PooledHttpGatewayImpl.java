@@ -0,0 +1,174 @@
+package com.konkerlabs.platform.registry.integration.gateways;
+
+import static java.text.MessageFormat.format;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Result;
+import org.eclipse.jetty.client.util.BufferingResponseListener;
+import org.eclipse.jetty.client.util.StringContentProvider;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.konkerlabs.platform.registry.data.config.HttpGatewayConfig;
+import com.konkerlabs.platform.registry.integration.exceptions.IntegrationException;
+
+/**
+ * {@link HttpGateway} over Jetty's non-blocking HTTP client.
+ *
+ * Connections are kept alive and reused per host, with at most
+ * <code>httpGateway.maxConnectionsPerHost</code> open to each one; further requests wait
+ * in that host's queue, and are rejected once it holds
+ * <code>httpGateway.maxQueuedRequestsPerHost</code>. No thread is held while a request
+ * is in flight. HTTPS destinations must present a certificate valid for their host name,
+ * as they did with the blocking gateway.
+ */
+public class PooledHttpGatewayImpl implements HttpGateway {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PooledHttpGatewayImpl.class);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long timeout;
+    private final int maxResponseSize;
+
+    public PooledHttpGatewayImpl(HttpGatewayConfig config, int timeout) {
+        this(config, timeout, new SslContextFactory());
+    }
+
+    public PooledHttpGatewayImpl(HttpGatewayConfig config, int timeout, SslContextFactory sslContextFactory) {
+        this.timeout = timeout;
+        this.maxResponseSize = config.getMaxResponseSize();
+
+        QueuedThreadPool executor = new QueuedThreadPool(config.getThreads());
+        executor.setName("http-gateway");
+        executor.setDaemon(true);
+
+        // Jetty leaves host name verification off unless an algorithm is set
+        sslContextFactory.setEndpointIdentificationAlgorithm("HTTPS");
+        // this Jetty release predates TLS 1.3, and its handshakes may stall on JDKs that offer it
+        sslContextFactory.addExcludeProtocols("TLSv1.3");
+
+        httpClient = new HttpClient(sslContextFactory);
+        httpClient.setExecutor(executor);
+        httpClient.setMaxConnectionsPerDestination(config.getMaxConnectionsPerHost());
+        httpClient.setMaxRequestsQueuedPerDestination(config.getMaxQueuedRequestsPerHost());
+        httpClient.setIdleTimeout(config.getIdleTimeout());
+        httpClient.setConnectTimeout(timeout);
+
+        try {
+            httpClient.start();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to start HTTP client", e);
+        }
+    }
+
+    @Override
+    public <T> String request(
+            HttpMethod method,
+            HttpHeaders headers,
+            URI uri,
+            MediaType mediaType,
+            Supplier<T> body,
+            String username,
+            String password) throws IntegrationException {
+
+        try {
+            return requestAsync(method, headers, uri, mediaType, body, username, password).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IntegrationException(format("Interrupted while requesting {0} from {1}", method, uri), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IntegrationException) {
+                throw (IntegrationException) e.getCause();
+            }
+            throw new IntegrationException(format("Exception while requesting {0} from {1}", method, uri), e.getCause());
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<String> requestAsync(
+            HttpMethod method,
+            HttpHeaders headers,
+            URI uri,
+            MediaType mediaType,
+            Supplier<T> body,
+            String username,
+            String password) {
+
+        HttpGatewayRequests.validate(method, uri, username, password);
+
+        CompletableFuture<String> response = new CompletableFuture<>();
+
+        Request request = httpClient.newRequest(uri)
+                .method(method.name())
+                .timeout(timeout, TimeUnit.MILLISECONDS);
+
+        HttpGatewayRequests.headersFor(headers, mediaType, username, password)
+                .forEach((name, values) -> values.forEach(value -> request.header(name, value)));
+
+        try {
+            Optional<String> content = contentOf(body);
+            content.ifPresent(item -> request.content(new StringContentProvider(item, StandardCharsets.UTF_8)));
+        } catch (JsonProcessingException e) {
+            response.completeExceptionally(new IntegrationException(
+                    format("Exception while requesting {0} from {1}", method, uri), e));
+            return response;
+        }
+
+        LOGGER.debug("Requesting {} from {}.", method, uri);
+        request.send(new BufferingResponseListener(maxResponseSize) {
+            @Override
+            public void onComplete(Result result) {
+                if (result.isFailed()) {
+                    response.completeExceptionally(new IntegrationException(
+                            format("Exception while requesting {0} from {1}", method, uri), result.getFailure()));
+                } else if (result.getResponse().getStatus() / 100 == 2) {
+                    response.complete(getContentAsString());
+                } else {
+                    response.completeExceptionally(new IntegrationException(
+                            format("Exception while requesting {0} from {1}. Status Code: {2}. Message: {3}.",
+                                    method,
+                                    uri,
+                                    String.valueOf(result.getResponse().getStatus()),
+                                    getContentAsString()),
+                            result.getResponse().getStatus()));
+                }
+            }
+        });
+
+        return response;
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        httpClient.stop();
+    }
+
+    private <T> Optional<String> contentOf(Supplier<T> body) throws JsonProcessingException {
+        Object value = Optional.ofNullable(body).orElse(() -> null).get();
+        if (value == null || value instanceof String) {
+            return Optional.ofNullable((String) value);
+        }
+
+        return Optional.of(objectMapper.writeValueAsString(value));
+    }
+
+}
@@ -18,6 +18,10 @@ public class RabbitGateway {
 
     @Autowired
     private RabbitTemplate rabbitTemplate;
+    @Autowired(required = false)
+    private BatchingRabbitPublisher batchingPublisher;
+    @Autowired(required = false)
+    private RabbitSpillBuffer spillBuffer;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RabbitGateway.class);
 
@@ -30,8 +34,8 @@ public class RabbitGateway {
 
             Message message = new Message(payload.getBytes("UTF-8"), properties);
 
-            rabbitTemplate.convertAndSend("data.sub", message);
-        } catch (AmqpException | UnsupportedEncodingException ex) {
+            send("data.sub", message);
+        } catch (UnsupportedEncodingException ex) {
             LOGGER.error("AmqpException while sending message to RabbitMQ...", ex);
         }
     }
@@ -44,11 +48,33 @@ public class RabbitGateway {
 
             Message message = new Message(config.getBytes("UTF-8"), properties);
 
-            rabbitTemplate.convertAndSend("mgmt.config.sub", message);
-        } catch (AmqpException | UnsupportedEncodingException ex) {
+            send("mgmt.config.sub", message);
+        } catch (UnsupportedEncodingException ex) {
             LOGGER.error("AmqpException while sending message to RabbitMQ...", ex);
         }
 
     }
 
+    /**
+     * Sends a message, keeping it on local disk to be replayed later if the broker cannot
+     * be reached. While older messages are still waiting there, new ones go after them.
+     */
+    private void send(String routingKey, Message message) {
+        if (spillBuffer != null && spillBuffer.hasPending() && spillBuffer.append(routingKey, message)) {
+            return;
+        }
+
+        try {
+            if (batchingPublisher == null || !batchingPublisher.publish(routingKey, message)) {
+                rabbitTemplate.convertAndSend(routingKey, message);
+            }
+        } catch (AmqpException ex) {
+            if (spillBuffer != null && spillBuffer.append(routingKey, message)) {
+                LOGGER.debug("RabbitMQ is unreachable, outgoing message has been spilled to disk", ex);
+            } else {
+                LOGGER.error("AmqpException while sending message to RabbitMQ...", ex);
+            }
+        }
+    }
+
 }
@@ -0,0 +1,478 @@
+package com.konkerlabs.platform.registry.integration.gateways;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Append-only buffer on local disk for the outgoing messages that could not be sent
+ * while the broker was unreachable.
+ *
+ * Messages are written to memory mapped segment files of a fixed size, and the buffer
+ * holds at most a configured number of bytes; messages beyond it are dropped. They are
+ * replayed in the order they were written, whenever a connection to the broker is made
+ * and periodically while any are left. A replayed message is marked in its segment, and
+ * a segment is deleted once all of its messages were replayed, so a restart only replays
+ * what was not sent yet. A message may be sent twice if the process stops between
+ * sending it and marking it.
+ *
+ * Each record is its length followed by the routing key, the headers and the body. The
+ * length is written last, so a record that was not completely written is never read, and
+ * it is negated once the record is replayed.
+ *
+ * The directory belongs to a single buffer: it is locked while the buffer is open, and
+ * opening a buffer on a directory locked by another process fails.
+ */
+@ManagedResource(objectName = "com.konkerlabs.platform.registry.data:type=RabbitSpillBuffer")
+public class RabbitSpillBuffer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RabbitSpillBuffer.class);
+
+    private static final String SEGMENT_PREFIX = "spill-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String LOCK_FILE = "spill.lock";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final long retryInterval;
+
+    private FileChannel lockChannel;
+    private FileLock lock;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long nextSegment;
+    private long pending;
+
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private final AtomicBoolean replayScheduled = new AtomicBoolean();
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private ScheduledExecutorService replayer;
+    private volatile BiConsumer<String, Message> sender;
+
+    public RabbitSpillBuffer(boolean enabled, Path directory, int segmentSize, long maxSize, long retryInterval) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = (int) Math.max(1, maxSize / segmentSize);
+        this.retryInterval = retryInterval;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        lock();
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                                && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        for (Path file : files) {
+            Segment segment = new Segment(file, sequenceOf(file));
+            segment.recover();
+            nextSegment = Math.max(nextSegment, segment.sequence + 1);
+
+            if (segment.pending == 0 && file != files.get(files.size() - 1)) {
+                segment.delete();
+            } else {
+                segments.add(segment);
+                pending += segment.pending;
+            }
+        }
+
+        if (pending > 0) {
+            LOGGER.warn("{} outgoing messages spilled to {} will be replayed", pending, directory);
+        }
+    }
+
+    private void lock() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+
+        if (lock == null) {
+            lockChannel.close();
+            lockChannel = null;
+            throw new IOException("Spill directory " + directory + " is in use by another process");
+        }
+    }
+
+    /**
+     * Starts replaying the buffered messages through the given sender, which must throw
+     * if the message could not be sent.
+     */
+    public void startReplay(BiConsumer<String, Message> sender) {
+        if (!enabled) {
+            return;
+        }
+
+        this.sender = sender;
+        replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rabbit-spill-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        replayer.scheduleWithFixedDelay(this::replay, retryInterval, retryInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Replays the buffered messages as soon as possible, for instance once the broker is
+     * reachable again.
+     */
+    public void replaySoon() {
+        if (replayer != null && hasPending() && replayScheduled.compareAndSet(false, true)) {
+            replayer.execute(() -> {
+                replayScheduled.set(false);
+                replay();
+            });
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (replayer != null) {
+            replayer.shutdownNow();
+        }
+        for (Segment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+
+        if (lockChannel != null) {
+            try {
+                lock.release();
+                lockChannel.close();
+            } catch (IOException e) {
+                LOGGER.warn("Could not release the lock of {}", directory, e);
+            }
+            lock = null;
+            lockChannel = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean hasPending() {
+        return pending > 0;
+    }
+
+    /**
+     * Writes a message to the buffer, telling whether it was accepted. Messages are not
+     * accepted while the buffer is disabled or full.
+     */
+    public synchronized boolean append(String routingKey, Message message) {
+        if (!enabled) {
+            return false;
+        }
+
+        try {
+            byte[] record = encode(routingKey, message);
+            if (record.length + Integer.BYTES > segmentSize) {
+                dropped.increment();
+                LOGGER.error("Outgoing message of {} bytes is too large to be spilled, it has been dropped", record.length);
+                return false;
+            }
+
+            Segment segment = segments.peekLast();
+            if (segment == null || segment.writePosition + Integer.BYTES + record.length > segmentSize) {
+                if (segments.size() >= maxSegments) {
+                    dropped.increment();
+                    return false;
+                }
+                segment = new Segment(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegment, SEGMENT_SUFFIX)), nextSegment);
+                nextSegment++;
+                segments.add(segment);
+            }
+
+            segment.write(record);
+            pending++;
+            spilled.increment();
+            return true;
+        } catch (IOException e) {
+            dropped.increment();
+            LOGGER.error("Failed to spill outgoing message", e);
+            return false;
+        }
+    }
+
+    /**
+     * Sends the buffered messages in order, stopping at the first one that cannot be sent.
+     */
+    @ManagedOperation
+    public int replay() {
+        if (sender == null || !replaying.compareAndSet(false, true)) {
+            return 0;
+        }
+
+        int sent = 0;
+        try {
+            while (true) {
+                Record record = next();
+                if (record == null) {
+                    break;
+                }
+
+                sender.accept(record.routingKey, record.message);
+                consume(record);
+                sent++;
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Failed to replay spilled outgoing messages", e);
+        } catch (IOException e) {
+            LOGGER.error("Failed to read spilled outgoing message", e);
+        } finally {
+            replaying.set(false);
+        }
+
+        if (sent > 0) {
+            LOGGER.info("Replayed {} spilled outgoing messages", sent);
+        }
+        return sent;
+    }
+
+    @ManagedAttribute
+    public synchronized long getPendingCount() {
+        return pending;
+    }
+
+    @ManagedAttribute
+    public long getSpilledCount() {
+        return spilled.sum();
+    }
+
+    @ManagedAttribute
+    public long getReplayedCount() {
+        return replayed.sum();
+    }
+
+    @ManagedAttribute
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @ManagedAttribute
+    public synchronized long getDiskUsage() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    private synchronized Record next() throws IOException {
+        for (Segment segment : segments) {
+            Record record = segment.peek();
+            if (record != null) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void consume(Record record) {
+        record.segment.consume(record);
+        pending--;
+        replayed.increment();
+
+        while (segments.size() > 1 && segments.peekFirst().isDrained()) {
+            segments.pollFirst().delete();
+        }
+    }
+
+    private static byte[] encode(String routingKey, Message message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(routingKey);
+
+            Map<String, Object> headers = message.getMessageProperties().getHeaders();
+            out.writeShort(headers.size());
+            for (Map.Entry<String, Object> header : headers.entrySet()) {
+                out.writeUTF(header.getKey());
+                out.writeUTF(String.valueOf(header.getValue()));
+            }
+
+            out.writeInt(message.getBody().length);
+            out.write(message.getBody());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Record decode(Segment segment, int position, byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            String routingKey = in.readUTF();
+
+            MessageProperties properties = new MessageProperties();
+            int headers = in.readUnsignedShort();
+            for (int i = 0; i < headers; i++) {
+                properties.setHeader(in.readUTF(), in.readUTF());
+            }
+
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new Record(segment, position, routingKey, new Message(body, properties));
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private class Segment {
+
+        private final Path file;
+        private final long sequence;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+        private int readPosition;
+        private int pending;
+
+        private Segment(Path file, long sequence) throws IOException {
+            this.file = file;
+            this.sequence = sequence;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+
+        /**
+         * Finds where reading and writing left off in an existing segment.
+         */
+        private void recover() {
+            int position = 0;
+            readPosition = -1;
+            while (position + Integer.BYTES <= segmentSize) {
+                int length = buffer.getInt(position);
+                if (length == 0 || position + Integer.BYTES + Math.abs(length) > segmentSize) {
+                    break;
+                }
+                if (length > 0) {
+                    pending++;
+                    if (readPosition < 0) {
+                        readPosition = position;
+                    }
+                }
+                position += Integer.BYTES + Math.abs(length);
+            }
+
+            writePosition = position;
+            if (readPosition < 0) {
+                readPosition = position;
+            }
+        }
+
+        private void write(byte[] record) {
+            int position = writePosition;
+            buffer.position(position + Integer.BYTES);
+            buffer.put(record);
+            buffer.putInt(position, record.length);
+            writePosition = position + Integer.BYTES + record.length;
+            pending++;
+        }
+
+        private Record peek() throws IOException {
+            while (readPosition < writePosition) {
+                int length = buffer.getInt(readPosition);
+                if (length > 0) {
+                    byte[] bytes = new byte[length];
+                    buffer.position(readPosition + Integer.BYTES);
+                    buffer.get(bytes);
+                    return decode(this, readPosition, bytes);
+                }
+                readPosition += Integer.BYTES + Math.abs(length);
+            }
+            return null;
+        }
+
+        private void consume(Record record) {
+            int length = buffer.getInt(record.position);
+            buffer.putInt(record.position, -length);
+            readPosition = record.position + Integer.BYTES + length;
+            pending--;
+        }
+
+        private boolean isDrained() {
+            return pending == 0;
+        }
+
+        private void close() {
+            buffer.force();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close spill segment {}", file, e);
+            }
+        }
+
+        private void delete() {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.warn("Failed to delete spill segment {}", file, e);
+            }
+        }
+
+    }
+
+    private static class Record {
+
+        private final Segment segment;
+        private final int position;
+        private final String routingKey;
+        private final Message message;
+
+        private Record(Segment segment, int position, String routingKey, Message message) {
+            this.segment = segment;
+            this.position = position;
+            this.routingKey = routingKey;
+            this.message = message;
+        }
+
+    }
+
+}
@@ -2,6 +2,10 @@ package com.konkerlabs.platform.registry.integration.processors;
 
 import java.text.MessageFormat;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
@@ -16,8 +20,15 @@ import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
 import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
 import com.konkerlabs.platform.registry.data.services.api.DeviceLogEventService;
 import com.konkerlabs.platform.registry.data.services.routes.api.EventRouteExecutor;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Component
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
@@ -27,7 +38,8 @@ public class DeviceEventProcessor {
         APIKEY_MISSING("integration.event_processor.api_key.missing"),
         CHANNEL_MISSING("integration.event_processor.channel.missing"),
         DEVICE_NOT_FOUND("integration.event_processor.channel.not_found"),
-        INVALID_PAYLOAD("integration.event_processor.payload.invalid");
+        INVALID_PAYLOAD("integration.event_processor.payload.invalid"),
+        PROCESSING_FAILED("integration.event_processor.processing.failed");
 
         private String code;
 
@@ -62,6 +74,18 @@ public class DeviceEventProcessor {
     }
 
     public void process(String apiKey, String channel, String payload, Instant timestamp) throws BusinessException {
+        resolveAndProcess(apiKey, channel, new ParsedJson(payload), timestamp);
+    }
+
+    /**
+     * Processes an event whose payload was already parsed, e.g. for validation, so the
+     * rest of the pipeline reuses that parse.
+     */
+    public void process(String apiKey, String channel, ParsedJson payload) throws BusinessException {
+        resolveAndProcess(apiKey, channel, payload, Instant.now());
+    }
+
+    private void resolveAndProcess(String apiKey, String channel, ParsedJson payload, Instant timestamp) throws BusinessException {
 
         Optional.ofNullable(apiKey).filter(s -> !s.isEmpty())
                 .orElseThrow(() -> new BusinessException(Messages.APIKEY_MISSING.getCode()));
@@ -72,6 +96,54 @@ public class DeviceEventProcessor {
         Device device = Optional.ofNullable(deviceRegisterService.findByApiKey(apiKey))
                 .orElseThrow(() -> new BusinessException(Messages.DEVICE_NOT_FOUND.getCode()));
 
+        processEvent(device, channel, payload, timestamp);
+    }
+
+    /**
+     * Processes a batch of incoming events, resolving each distinct device only once.
+     * Failures are reported per item instead of aborting the whole batch; unexpected ones
+     * are reported as {@link Messages#PROCESSING_FAILED}, as processing them again may succeed.
+     * An event is reported as processed once it is stored, even if routing it then fails.
+     *
+     * @return one response per incoming event, in the same order
+     */
+    public List<ServiceResponse<Event>> process(List<IncomingEvent> incomingEvents) {
+
+        List<ServiceResponse<Event>> responses = new ArrayList<>(incomingEvents.size());
+        Map<String, Optional<Device>> devices = new HashMap<>();
+
+        for (IncomingEvent incomingEvent : incomingEvents) {
+            try {
+                Optional.ofNullable(incomingEvent.getApiKey()).filter(s -> !s.isEmpty())
+                        .orElseThrow(() -> new BusinessException(Messages.APIKEY_MISSING.getCode()));
+
+                Optional.ofNullable(incomingEvent.getChannel()).filter(s -> !s.isEmpty())
+                        .orElseThrow(() -> new BusinessException(Messages.CHANNEL_MISSING.getCode()));
+
+                Device device = devices
+                        .computeIfAbsent(incomingEvent.getApiKey(),
+                                apiKey -> Optional.ofNullable(deviceRegisterService.findByApiKey(apiKey)))
+                        .orElseThrow(() -> new BusinessException(Messages.DEVICE_NOT_FOUND.getCode()));
+
+                Event event = processEvent(device,
+                        incomingEvent.getChannel(),
+                        new ParsedJson(incomingEvent.getPayload()),
+                        incomingEvent.getTimestamp());
+
+                responses.add(ServiceResponseBuilder.<Event>ok().withResult(event).build());
+            } catch (BusinessException e) {
+                responses.add(ServiceResponseBuilder.<Event>error().withMessage(e.getMessage()).build());
+            } catch (RuntimeException e) {
+                LOGGER.error("Exception processing incoming event of channel {}", incomingEvent.getChannel(), e);
+                responses.add(ServiceResponseBuilder.<Event>error().withMessage(Messages.PROCESSING_FAILED.getCode()).build());
+            }
+        }
+
+        return responses;
+    }
+
+    private Event processEvent(Device device, String channel, ParsedJson payload, Instant timestamp) throws BusinessException {
+
         Event event = Event.builder()
                 .incoming(
                         Event.EventActor.builder()
@@ -85,17 +157,27 @@ public class DeviceEventProcessor {
                                 .build()
                 )
                 .timestamp(timestamp)
-                .payload(payload)
+                .payload(payload.getJson())
+                .parsedPayload(payload)
                 .build();
         if (device.isActive()) {
 
             ServiceResponse<Event> logResponse = deviceLogEventService.logIncomingEvent(device, event);
             if (logResponse.isOk()) {
-                eventRouteExecutor.execute(event, device);
+                try {
+                    eventRouteExecutor.execute(event, device);
+                } catch (RuntimeException e) {
+                    // the event is stored, processing it again would store it twice
+                    LOGGER.error(MessageFormat.format("Could not route incoming message: [Device: {0}]",
+                            device.toURI()),
+                            event.getIncoming().toURI(),
+                            device.getLogLevel(),
+                            e);
+                }
             } else {
                 LOGGER.error(MessageFormat.format("Could not log incoming message. Probably invalid payload.: [Device: {0}] - [Payload: {1}]",
                         device.toURI(),
-                        payload),
+                        payload.getJson()),
                 		event.getIncoming().toURI(),
                 		device.getLogLevel()
                 );
@@ -105,11 +187,22 @@ public class DeviceEventProcessor {
         } else {
             LOGGER.debug(MessageFormat.format(EVENT_DROPPED,
                     device.toURI(),
-                    payload),
+                    payload.getJson()),
             		event.getIncoming().toURI(),
             		device.getLogLevel());
         }
 
+        return event;
+    }
 
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IncomingEvent {
+        private String apiKey;
+        private String channel;
+        private String payload;
+        private Instant timestamp;
     }
 }
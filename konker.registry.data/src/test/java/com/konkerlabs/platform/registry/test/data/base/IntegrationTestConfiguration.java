@@ -8,6 +8,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
 import com.konkerlabs.platform.registry.data.config.IntegrationConfig;
+import com.konkerlabs.platform.registry.integration.gateways.HttpGateway;
+import com.konkerlabs.platform.registry.integration.gateways.HttpGatewayImpl;
 
 @Configuration
 @ComponentScan(basePackages = "com.konkerlabs.platform.registry.integration", lazyInit = true)
@@ -19,4 +21,10 @@ public class IntegrationTestConfiguration extends IntegrationConfig {
         return mock(RestTemplate.class);
     }
 
+    @Override
+    @Bean
+    public HttpGateway httpGateway() {
+        return new HttpGatewayImpl();
+    }
+
 }
\ No newline at end of file
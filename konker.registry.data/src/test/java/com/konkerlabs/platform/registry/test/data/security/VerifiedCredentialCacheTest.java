@@ -0,0 +1,69 @@
+package com.konkerlabs.platform.registry.test.data.security;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.konkerlabs.platform.registry.data.security.VerifiedCredentialCache;
+
+public class VerifiedCredentialCacheTest {
+
+    private static final String THE_SECURITY_HASH = "PBKDF2WithHmac$SHA1$1000$c2FsdA==$aGFzaA==";
+    private static final String ANOTHER_SECURITY_HASH = "PBKDF2WithHmac$SHA1$1000$c2FsdDI=$aGFzaDI=";
+    private static final String THE_PASSWORD = "vKyCY2VXjHWC";
+
+    private VerifiedCredentialCache subject;
+    private AtomicInteger verifications;
+    private BiPredicate<String, String> verifier;
+
+    @Before
+    public void setUp() {
+        subject = new VerifiedCredentialCache(10, 60);
+        verifications = new AtomicInteger();
+        verifier = (securityHash, rawPassword) -> {
+            verifications.incrementAndGet();
+            return THE_PASSWORD.equals(rawPassword);
+        };
+    }
+
+    @Test
+    public void shouldVerifyOnlyOnceForTheSameCredentials() {
+        assertThat(subject.isPasswordValid(THE_SECURITY_HASH, THE_PASSWORD, verifier), equalTo(true));
+        assertThat(subject.isPasswordValid(THE_SECURITY_HASH, THE_PASSWORD, verifier), equalTo(true));
+
+        assertThat(verifications.get(), equalTo(1));
+        assertThat(subject.getHitCount(), equalTo(1L));
+        assertThat(subject.getMissCount(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldNotCacheInvalidPasswords() {
+        assertThat(subject.isPasswordValid(THE_SECURITY_HASH, "wrong", verifier), equalTo(false));
+        assertThat(subject.isPasswordValid(THE_SECURITY_HASH, "wrong", verifier), equalTo(false));
+
+        assertThat(verifications.get(), equalTo(2));
+        assertThat(subject.getHitCount(), equalTo(0L));
+    }
+
+    @Test
+    public void shouldVerifyAgainWhenAnotherPasswordIsUsed() {
+        subject.isPasswordValid(THE_SECURITY_HASH, THE_PASSWORD, verifier);
+
+        assertThat(subject.isPasswordValid(THE_SECURITY_HASH, "wrong", verifier), equalTo(false));
+        assertThat(verifications.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldVerifyAgainWhenCredentialsAreRegenerated() {
+        subject.isPasswordValid(THE_SECURITY_HASH, THE_PASSWORD, verifier);
+        subject.isPasswordValid(ANOTHER_SECURITY_HASH, THE_PASSWORD, verifier);
+
+        assertThat(verifications.get(), equalTo(2));
+    }
+
+}
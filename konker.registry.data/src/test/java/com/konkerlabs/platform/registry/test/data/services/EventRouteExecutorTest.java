@@ -10,6 +10,8 @@ import com.konkerlabs.platform.registry.business.repositories.ApplicationReposit
 import com.konkerlabs.platform.registry.business.repositories.DeviceModelRepository;
 import com.konkerlabs.platform.registry.business.repositories.LocationRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
+import com.konkerlabs.platform.registry.business.services.EventRouteIndex;
+import com.konkerlabs.platform.registry.business.services.ModelLocationCache;
 import com.konkerlabs.platform.registry.config.EventStorageConfig;
 import com.konkerlabs.platform.registry.config.PubServerConfig;
 import com.konkerlabs.platform.registry.data.services.routes.api.EventRouteExecutor;
@@ -41,6 +43,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.function.Supplier;
@@ -86,6 +89,10 @@ public class EventRouteExecutorTest extends BusinessLayerTestSupport {
     private DeviceModelRepository deviceModelRepository;
     @Autowired
     private LocationRepository locationRepository;
+    @Autowired
+    private EventRouteIndex eventRouteIndex;
+    @Autowired
+    private ModelLocationCache modelLocationCache;
 
     private Tenant tenant;
     private Application application;
@@ -106,6 +113,9 @@ public class EventRouteExecutorTest extends BusinessLayerTestSupport {
 
     @Before
     public void setUp() throws Exception {
+        eventRouteIndex.invalidateAll();
+        modelLocationCache.invalidateAll();
+
         event = spy(Event.builder()
                 .incoming(
                         Event.EventActor.builder()
@@ -142,7 +152,7 @@ public class EventRouteExecutorTest extends BusinessLayerTestSupport {
         locationChild = locationRepository.save(locationChild);
 
         when(
-                httpGateway.request(
+                httpGateway.requestAsync(
                         eq(HttpMethod.POST),
                         Mockito.any(HttpHeaders.class),
                         Mockito.any(URI.class),
@@ -151,7 +161,7 @@ public class EventRouteExecutorTest extends BusinessLayerTestSupport {
                         Mockito.anyString(),
                         Mockito.anyString()
                 )
-        ).thenReturn(transformationResponse);
+        ).thenReturn(CompletableFuture.completedFuture(transformationResponse));
     }
 
     @After
@@ -3,11 +3,9 @@ package com.konkerlabs.platform.registry.test.data.services.publishers;
 import com.konkerlabs.platform.registry.business.model.*;
 import com.konkerlabs.platform.registry.business.model.behaviors.URIDealer;
 import com.konkerlabs.platform.registry.business.repositories.ApplicationRepository;
-import com.konkerlabs.platform.registry.business.repositories.DeviceModelRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
-import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
-import com.konkerlabs.platform.registry.business.services.api.LocationSearchService;
-import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
+import com.konkerlabs.platform.registry.business.services.ModelLocationCache;
+import com.konkerlabs.platform.registry.business.services.ModelLocationDeviceIndex;
 import com.konkerlabs.platform.registry.config.EventStorageConfig;
 import com.konkerlabs.platform.registry.config.PubServerConfig;
 import com.konkerlabs.platform.registry.data.config.RabbitMQConfig;
@@ -81,16 +79,13 @@ public class EventPublisherModelLocationTest extends BusinessLayerTestSupport {
     private EventPublisher subject;
 
     @Mock
-    private DeviceRegisterService deviceRegisterService;
+    private ModelLocationDeviceIndex modelLocationDeviceIndex;
 
     @Mock
     private DeviceLogEventService deviceLogEventService;
 
     @Mock
-    private DeviceModelRepository deviceModelRepository;
-
-    @Mock
-    private LocationSearchService locationSearchService;
+    private ModelLocationCache modelLocationCache;
 
     @Mock
     private EventPublisherDevice eventPublisherDevice;
@@ -122,10 +117,9 @@ public class EventPublisherModelLocationTest extends BusinessLayerTestSupport {
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
 
-        ((EventPublisherModelLocation)subject).setDeviceRegisterService(deviceRegisterService);
+        ((EventPublisherModelLocation)subject).setModelLocationDeviceIndex(modelLocationDeviceIndex);
         ((EventPublisherModelLocation)subject).setDeviceLogEventService(deviceLogEventService);
-        ((EventPublisherModelLocation)subject).setDeviceModelRepository(deviceModelRepository);
-        ((EventPublisherModelLocation)subject).setLocationSearchService(locationSearchService);
+        ((EventPublisherModelLocation)subject).setModelLocationCache(modelLocationCache);
         ((EventPublisherModelLocation)subject).setEventPublisherDevice(eventPublisherDevice);
 
         tenant = Tenant.builder()
@@ -176,8 +170,8 @@ public class EventPublisherModelLocationTest extends BusinessLayerTestSupport {
     @After
     public void tearDown() throws Exception {
         Mockito.reset(deviceLogEventService);
-        Mockito.reset(deviceModelRepository);
-        Mockito.reset(locationSearchService);
+        Mockito.reset(modelLocationCache);
+        Mockito.reset(modelLocationDeviceIndex);
         Mockito.reset(eventPublisherDevice);
         Mockito.reset(rabbitTemplate);
     }
@@ -237,45 +231,26 @@ public class EventPublisherModelLocationTest extends BusinessLayerTestSupport {
     @Test
     public void shouldSendMessages() throws Exception {
 
-        List<Location> children = new ArrayList<>();
-        children.add(locationSP);
-        locationBR.setChildren(children);
-
         List<Device> devices = new ArrayList<>();
 
         devices.add(Device.builder().deviceModel(deviceModel).location(locationBR).active(true).build());
-        devices.add(Device.builder().deviceModel(deviceModel).location(locationBR).active(true).build());
-        // inactive device
-        devices.add(Device.builder().deviceModel(deviceModel).location(locationBR).active(false).build());
+        devices.add(Device.builder().deviceModel(deviceModel).location(locationSP).active(true).build());
         // same device
         devices.add(Device.builder().deviceModel(deviceModel).location(locationBR).guid(event.getIncoming().getDeviceGuid()).active(true).build());
-        // other location
-        devices.add(Device.builder().deviceModel(deviceModel).location(Location.builder().guid("jp").name("JP").build()).active(true).build());
-        // other model
-        devices.add(Device.builder().deviceModel(DeviceModel.builder().guid("dqfAnF7b").name("dqfAnF7b").build()).location(locationBR).active(true).build());
 
-        when(
-                deviceModelRepository.findByTenantIdApplicationNameAndGuid(Mockito.anyString(), Mockito.anyString(), Mockito.anyString())
-        ).thenReturn(
-                deviceModel
-        );
+        ModelLocationCache.Membership membership = new ModelLocationCache.Membership(deviceModel, locationBR.getGuid(),
+                new HashSet<>(Arrays.asList(locationBR.getGuid(), locationSP.getGuid())));
 
         when(
-                locationSearchService.findByGuid(Mockito.any(Tenant.class), Mockito.any(Application.class), Mockito.anyString())
+                modelLocationCache.getMembership(Mockito.any(Tenant.class), Mockito.any(Application.class), Mockito.any(URI.class))
         ).thenReturn(
-                ServiceResponseBuilder.<Location>ok().withResult(locationBR).build()
+                Optional.of(membership)
         );
 
         when(
-                locationSearchService.findByName(Mockito.any(Tenant.class), Mockito.any(Application.class), Mockito.anyString(), Mockito.anyBoolean())
+                modelLocationDeviceIndex.getActiveDevices(Mockito.any(Tenant.class), Mockito.any(Application.class), eq(membership))
         ).thenReturn(
-                ServiceResponseBuilder.<Location>ok().withResult(locationBR).build()
-        );
-
-        when(
-                deviceRegisterService.findAll(Mockito.any(Tenant.class), Mockito.any(Application.class))
-        ).thenReturn(
-                ServiceResponseBuilder.<List<Device>>ok().withResult(devices).build()
+                devices
         );
 
         destinationUri = new URIDealer() {
@@ -300,4 +275,16 @@ public class EventPublisherModelLocationTest extends BusinessLayerTestSupport {
         verify(eventPublisherDevice, Mockito.times(2)).sendMessage(Mockito.any(Event.class), Mockito.any(Map.class), Mockito.any(Device.class));
     }
 
+    @Test
+    public void shouldRaiseAnExceptionIfModelLocationIsInvalid() throws Exception {
+        when(
+                modelLocationCache.getMembership(Mockito.any(Tenant.class), Mockito.any(Application.class), Mockito.any(URI.class))
+        ).thenReturn(Optional.empty());
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Invalid model location");
+
+        subject.send(event,destinationUri,data,tenant,application);
+    }
+
 }
\ No newline at end of file
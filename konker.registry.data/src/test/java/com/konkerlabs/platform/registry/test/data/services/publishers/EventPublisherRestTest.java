@@ -1,14 +1,18 @@
 package com.konkerlabs.platform.registry.test.data.services.publishers;
 
 import static info.solidsoft.mockito.java8.LambdaMatcher.argLambda;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.net.URI;
 import java.text.MessageFormat;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
 
 import com.konkerlabs.platform.registry.business.repositories.events.api.EventRepository;
 import org.junit.After;
@@ -38,7 +42,9 @@ import com.konkerlabs.platform.registry.business.model.behaviors.URIDealer;
 import com.konkerlabs.platform.registry.business.repositories.ApplicationRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
 import com.konkerlabs.platform.registry.business.services.api.RestDestinationService;
+import com.konkerlabs.platform.registry.data.services.publishers.RestForwardOutbox;
 import com.konkerlabs.platform.registry.data.services.publishers.api.EventPublisher;
+import com.konkerlabs.platform.registry.integration.exceptions.IntegrationException;
 import com.konkerlabs.platform.registry.integration.gateways.HttpGateway;
 import com.konkerlabs.platform.registry.test.data.base.BusinessLayerTestSupport;
 import com.konkerlabs.platform.registry.test.data.base.BusinessTestConfiguration;
@@ -75,6 +81,8 @@ public class EventPublisherRestTest extends BusinessLayerTestSupport {
     private EventRepository eventRepository;
     @Autowired
     private HttpGateway httpGateway;
+    @Autowired
+    private RestForwardOutbox outbox;
 
     private Tenant tenant;
     private Application application;
@@ -126,6 +134,9 @@ public class EventPublisherRestTest extends BusinessLayerTestSupport {
 //                .channel(DEVICE_MQTT_CHANNEL)
                 .payload(validEventPayload)
                 .timestamp(Instant.now()).build();
+
+        when(httpGateway.requestAsync(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
     }
 
     @After
@@ -213,7 +224,7 @@ public class EventPublisherRestTest extends BusinessLayerTestSupport {
 
         subject.send(event, destinationUri, null, tenant, application);
 
-        verify(httpGateway, never()).request(any(), any(), any(), any(), any(), any(), any());
+        verify(httpGateway, never()).requestAsync(any(), any(), any(), any(), any(), any(), any());
         verify(eventRepository, never()).saveIncoming(tenant, application, event);
     }
 
@@ -223,7 +234,7 @@ public class EventPublisherRestTest extends BusinessLayerTestSupport {
 
         subject.send(event, destinationUri, null, tenant, application);
 
-        verify(httpGateway, never()).request(any(), any(), any(), any(), any(), any(), any());
+        verify(httpGateway, never()).requestAsync(any(), any(), any(), any(), any(), any(), any());
         verify(eventRepository, never()).saveIncoming(tenant, application, event);
     }
 
@@ -233,7 +244,7 @@ public class EventPublisherRestTest extends BusinessLayerTestSupport {
 
         InOrder inOrder = Mockito.inOrder(eventRepository, httpGateway);
 
-        inOrder.verify(httpGateway).request(
+        inOrder.verify(httpGateway).requestAsync(
                 eq(HttpMethod.POST),
                 eq(new HttpHeaders()),
                 eq(URI.create(destination.getServiceURI().replaceAll("\\@\\{.*}", "value"))),
@@ -244,4 +255,17 @@ public class EventPublisherRestTest extends BusinessLayerTestSupport {
         );
 //        inOrder.verify(eventRepository).saveIncoming(eq(tenant),eq(event));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldNotQueueEventsRefusedWithAClientError() throws Exception {
+        CompletableFuture<String> refused = new CompletableFuture<>();
+        refused.completeExceptionally(new IntegrationException("Bad Request", 400));
+        when(httpGateway.requestAsync(any(), any(), any(), any(), any(), any(), any())).thenReturn(refused);
+
+        long discarded = outbox.getDiscardedCount();
+        subject.send(event, destinationUri, null, tenant, application);
+
+        assertThat(outbox.hasBacklog(destination), equalTo(false));
+        assertThat(outbox.getDiscardedCount(), equalTo(discarded + 1));
+    }
+}
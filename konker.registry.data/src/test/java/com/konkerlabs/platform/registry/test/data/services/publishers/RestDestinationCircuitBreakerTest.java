@@ -0,0 +1,121 @@
+package com.konkerlabs.platform.registry.test.data.services.publishers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasEntry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.konkerlabs.platform.registry.business.model.RestDestination;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.model.enumerations.LogLevel;
+import com.konkerlabs.platform.registry.data.config.RestDestinationCircuitConfig;
+import com.konkerlabs.platform.registry.data.services.publishers.RestDestinationCircuitBreaker;
+import com.konkerlabs.platform.registry.data.services.publishers.RestDestinationCircuitBreaker.Permit;
+
+public class RestDestinationCircuitBreakerTest {
+
+    private AtomicLong clock;
+    private RestDestinationCircuitBreaker subject;
+    private RestDestination destination;
+    private RestDestination otherDestination;
+
+    @Before
+    public void setUp() {
+        RestDestinationCircuitConfig config = new RestDestinationCircuitConfig();
+        config.setMaxConcurrentRequests(2);
+        config.setWindowSize(4);
+        config.setMinimumRequests(4);
+        config.setFailureRateThreshold(50);
+        config.setOpenDuration(30);
+        config.setHalfOpenRequests(1);
+        config.setDropReportInterval(60);
+
+        clock = new AtomicLong(1);
+        subject = new RestDestinationCircuitBreaker(config, clock::get);
+
+        Tenant tenant = Tenant.builder().domainName("konker").logLevel(LogLevel.WARNING).build();
+        destination = RestDestination.builder().tenant(tenant).name("slow").guid("dda64780-eb81-11e5-958b-a73dab8b32ee").build();
+        otherDestination = RestDestination.builder().tenant(tenant).name("fast").guid("e6d8e466-eb81-11e5-8a7c-eb0c7d7c235c").build();
+    }
+
+    @Test
+    public void shouldLimitTheRequestsInFlightToADestination() {
+        Permit first = subject.tryAcquire(destination).get();
+        subject.tryAcquire(destination).get();
+
+        assertThat(subject.tryAcquire(destination).isPresent(), equalTo(false));
+        assertThat(subject.tryAcquire(otherDestination).isPresent(), equalTo(true));
+        assertThat(subject.getRejectedCount(), equalTo(1L));
+
+        first.onSuccess();
+        assertThat(subject.tryAcquire(destination).isPresent(), equalTo(true));
+    }
+
+    @Test
+    public void shouldCountDroppedEvents() {
+        subject.recordDrop(destination);
+        subject.recordDrop(destination);
+
+        assertThat(subject.getDroppedCount(), equalTo(2L));
+        assertThat(subject.getState(destination.getGuid()), equalTo("CLOSED"));
+    }
+
+    @Test
+    public void shouldOpenTheCircuitWhenTheFailureRateIsReached() {
+        complete(destination, true, false, true, false);
+
+        assertThat(subject.getState(destination.getGuid()), equalTo("OPEN"));
+        assertThat(subject.getOpenCircuits(), hasEntry(destination.getGuid(), "OPEN"));
+        assertThat(subject.tryAcquire(destination).isPresent(), equalTo(false));
+        assertThat(subject.getState(otherDestination.getGuid()), equalTo("CLOSED"));
+    }
+
+    @Test
+    public void shouldKeepTheCircuitClosedBelowTheFailureRate() {
+        complete(destination, true, true, true, false);
+
+        assertThat(subject.getState(destination.getGuid()), equalTo("CLOSED"));
+    }
+
+    @Test
+    public void shouldCloseTheCircuitAfterASuccessfulTrial() {
+        complete(destination, false, false, false, false);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        Permit trial = subject.tryAcquire(destination).get();
+        assertThat(subject.getState(destination.getGuid()), equalTo("HALF_OPEN"));
+        assertThat(subject.tryAcquire(destination).isPresent(), equalTo(false));
+
+        trial.onSuccess();
+        assertThat(subject.getState(destination.getGuid()), equalTo("CLOSED"));
+        assertThat(subject.tryAcquire(destination).isPresent(), equalTo(true));
+    }
+
+    @Test
+    public void shouldReopenTheCircuitAfterAFailedTrial() {
+        complete(destination, false, false, false, false);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        subject.tryAcquire(destination).get().onFailure();
+
+        assertThat(subject.getState(destination.getGuid()), equalTo("OPEN"));
+        assertThat(subject.tryAcquire(destination).isPresent(), equalTo(false));
+    }
+
+    private void complete(RestDestination destination, boolean... outcomes) {
+        for (boolean succeeded : outcomes) {
+            Permit permit = subject.tryAcquire(destination).get();
+            if (succeeded) {
+                permit.onSuccess();
+            } else {
+                permit.onFailure();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.konkerlabs.platform.registry.test.data.services.publishers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.konkerlabs.platform.registry.business.model.RestDestination;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.model.enumerations.LogLevel;
+import com.konkerlabs.platform.registry.data.services.publishers.RestForwardBatcher;
+
+public class RestForwardBatcherTest {
+
+    private static final URI SERVICE_URI = URI.create("http://host/service");
+
+    private List<String> sent;
+    private RestForwardBatcher subject;
+    private RestDestination destination;
+
+    @Before
+    public void setUp() {
+        sent = new CopyOnWriteArrayList<>();
+        subject = new RestForwardBatcher((destination, uri, body) -> {
+            sent.add(body);
+            return CompletableFuture.completedFuture(null);
+        });
+
+        Tenant tenant = Tenant.builder().domainName("konker").logLevel(LogLevel.WARNING).build();
+        destination = RestDestination.builder()
+                .tenant(tenant)
+                .guid("dda64780-eb81-11e5-958b-a73dab8b32ee")
+                .batchSize(3)
+                .batchLinger(60000)
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        subject.close(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldSendABatchWhenItIsFull() {
+        subject.add(destination, SERVICE_URI, "{\"temperature\": 21}");
+        subject.add(destination, SERVICE_URI, "{\"temperature\": 22}");
+        assertThat(sent, empty());
+
+        subject.add(destination, SERVICE_URI, "{\"temperature\": 23}");
+
+        assertThat(sent, contains("[{\"temperature\":21},{\"temperature\":22},{\"temperature\":23}]"));
+        assertThat(subject.getPendingCount(), equalTo(0));
+    }
+
+    @Test
+    public void shouldSendAnIncompleteBatchAfterItsLingerTime() throws Exception {
+        destination.setBatchLinger(50);
+
+        subject.add(destination, SERVICE_URI, "{\"temperature\": 21}");
+
+        for (int i = 0; i < 100 && sent.isEmpty(); i++) {
+            Thread.sleep(10);
+        }
+        assertThat(sent, contains("[{\"temperature\":21}]"));
+    }
+
+    @Test
+    public void shouldKeepABatchForEachRequestUri() {
+        subject.add(destination, SERVICE_URI, "{\"temperature\": 21}");
+        subject.add(destination, URI.create("http://host/other"), "{\"temperature\": 22}");
+        subject.add(destination, SERVICE_URI, "{\"temperature\": 23}");
+
+        assertThat(sent, empty());
+        assertThat(subject.getPendingCount(), equalTo(3));
+    }
+
+    @Test
+    public void shouldSendThePendingBatchesOnClose() {
+        subject.add(destination, SERVICE_URI, "{\"temperature\": 21}");
+        subject.add(destination, SERVICE_URI, "not json");
+
+        subject.close(1, TimeUnit.SECONDS);
+
+        assertThat(sent, contains("[{\"temperature\":21},\"not json\"]"));
+    }
+
+}
@@ -0,0 +1,222 @@
+package com.konkerlabs.platform.registry.test.data.services.publishers;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItems;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.MongoDbFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexCreator;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.RestDestination;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.ApplicationRepository;
+import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
+import com.konkerlabs.platform.registry.business.services.api.RestDestinationService;
+import com.konkerlabs.platform.registry.data.config.RestForwardOutboxConfig;
+import com.konkerlabs.platform.registry.data.services.publishers.PendingRestForward;
+import com.konkerlabs.platform.registry.data.services.publishers.RestForwardOutbox;
+import com.konkerlabs.platform.registry.integration.exceptions.IntegrationException;
+import com.konkerlabs.platform.registry.integration.gateways.HttpGateway;
+import com.konkerlabs.platform.registry.test.data.base.BusinessLayerTestSupport;
+import com.konkerlabs.platform.registry.test.data.base.BusinessTestConfiguration;
+import com.konkerlabs.platform.registry.test.data.base.MongoTestConfiguration;
+import com.konkerlabs.platform.registry.test.data.base.RedisTestConfiguration;
+import com.lordofthejars.nosqlunit.annotation.UsingDataSet;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = {
+        MongoTestConfiguration.class,
+        BusinessTestConfiguration.class,
+        RedisTestConfiguration.class
+})
+@UsingDataSet(locations = {"/fixtures/tenants.json", "/fixtures/applications.json", "/fixtures/rest-destinations.json"})
+public class RestForwardOutboxTest extends BusinessLayerTestSupport {
+
+    private static final String REGISTERED_AND_ACTIVE_DESTINATION_GUID = "dda64780-eb81-11e5-958b-a73dab8b32ee";
+
+    @Autowired
+    private TenantRepository tenantRepository;
+    @Autowired
+    private ApplicationRepository applicationRepository;
+    @Autowired
+    private RestDestinationService destinationService;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private MongoDbFactory mongoDbFactory;
+    @Autowired
+    private HttpGateway httpGateway;
+    @Autowired
+    private RestForwardOutbox subject;
+
+    private RestDestination destination;
+    private URI uri;
+
+    @Before
+    public void setUp() {
+        Tenant tenant = tenantRepository.findByDomainName("konker");
+        Application application = applicationRepository.findByTenantAndName(tenant.getId(), "konker");
+        destination = destinationService.getByGUID(tenant, application, REGISTERED_AND_ACTIVE_DESTINATION_GUID).getResult();
+        uri = URI.create("http://host/service/value");
+    }
+
+    @After
+    public void tearDown() {
+        Mockito.reset(httpGateway);
+        mongoTemplate.remove(new Query(), PendingRestForward.class);
+        subject.drain();
+    }
+
+    @Test
+    public void shouldDeliverQueuedForwardsInOrder() throws Exception {
+        subject.enqueue(destination, uri, "first");
+        subject.enqueue(destination, uri, "second");
+        awaitPending(2);
+
+        assertThat(subject.hasBacklog(destination), equalTo(true));
+
+        subject.drain();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Supplier<String>> bodies = ArgumentCaptor.forClass((Class) Supplier.class);
+        verify(httpGateway, times(2)).request(any(), any(), any(), any(), bodies.capture(), any(), any());
+        assertThat(bodies.getAllValues().get(0).get(), equalTo("first"));
+        assertThat(bodies.getAllValues().get(1).get(), equalTo("second"));
+
+        assertThat(pending(), equalTo(0L));
+        assertThat(subject.hasBacklog(destination), equalTo(false));
+    }
+
+    @Test
+    public void shouldBackOffAfterAFailedAttempt() throws Exception {
+        when(httpGateway.request(any(), any(), any(), any(), any(), any(), any()))
+                .thenThrow(new IntegrationException("unavailable"));
+
+        subject.enqueue(destination, uri, "first");
+        subject.enqueue(destination, uri, "second");
+        awaitPending(2);
+
+        subject.drain();
+        subject.drain();
+
+        InOrder inOrder = inOrder(httpGateway);
+        inOrder.verify(httpGateway, times(1)).request(any(), any(), any(), any(), any(), any(), any());
+        inOrder.verifyNoMoreInteractions();
+
+        PendingRestForward first = mongoTemplate.findOne(
+                Query.query(where("body").is("first")),
+                PendingRestForward.class);
+        assertThat(first.getAttempts(), equalTo(1));
+        assertThat(first.getNextAttemptAt().after(new Date()), equalTo(true));
+        assertThat(pending(), equalTo(2L));
+        assertThat(subject.hasBacklog(destination), equalTo(true));
+    }
+
+    @Test
+    public void shouldDiscardForwardsThatAreTooOld() throws Exception {
+        Date createdAt = Date.from(Instant.now().minusSeconds(TimeUnit.DAYS.toSeconds(2)));
+        mongoTemplate.insert(PendingRestForward.builder()
+                .tenantId(destination.getTenant().getId())
+                .applicationName(destination.getApplication().getName())
+                .destinationGuid(destination.getGuid())
+                .uri(uri.toString())
+                .body("stale")
+                .createdAt(createdAt)
+                .nextAttemptAt(createdAt)
+                .build());
+
+        subject.drain();
+
+        verify(httpGateway, times(0)).request(any(), any(), any(), any(), any(), any(), any());
+        assertThat(pending(), equalTo(0L));
+        assertThat(subject.getDiscardedCount() > 0, equalTo(true));
+    }
+
+    @Test
+    public void shouldDiscardForwardsRefusedWithAClientError() throws Exception {
+        when(httpGateway.request(any(), any(), any(), any(), any(), any(), any()))
+                .thenThrow(new IntegrationException("Bad Request", 400));
+
+        subject.enqueue(destination, uri, "first");
+        subject.enqueue(destination, uri, "second");
+        awaitPending(2);
+
+        long discarded = subject.getDiscardedCount();
+        subject.drain();
+
+        verify(httpGateway, times(2)).request(any(), any(), any(), any(), any(), any(), any());
+        assertThat(pending(), equalTo(0L));
+        assertThat(subject.getDiscardedCount(), equalTo(discarded + 2));
+        assertThat(subject.hasBacklog(destination), equalTo(false));
+    }
+
+    @Test
+    public void shouldKeepDrainingPastTheBatchSizeWhileDeliveriesSucceed() throws Exception {
+        int forwards = new RestForwardOutboxConfig().getBatchSize() * 2 + 1;
+        for (int i = 0; i < forwards; i++) {
+            subject.enqueue(destination, uri, "forward " + i);
+        }
+        awaitPending(forwards);
+
+        subject.drain();
+
+        verify(httpGateway, times(forwards)).request(any(), any(), any(), any(), any(), any(), any());
+        assertThat(pending(), equalTo(0L));
+        assertThat(subject.hasBacklog(destination), equalTo(false));
+    }
+
+    @Test
+    public void shouldIndexTheOutboxForEachQuery() throws Exception {
+        // the data sets drop the collection before each test, along with the indexes created on startup
+        new MongoPersistentEntityIndexCreator(
+                (MongoMappingContext) mongoTemplate.getConverter().getMappingContext(), mongoDbFactory);
+
+        List<String> indexes = mongoTemplate.indexOps(PendingRestForward.class).getIndexInfo()
+                .stream()
+                .map(IndexInfo::getName)
+                .collect(Collectors.toList());
+
+        assertThat(indexes, hasItems("destination_created", "nextAttemptAt"));
+    }
+
+    private long pending() {
+        return mongoTemplate.count(new Query(), PendingRestForward.class);
+    }
+
+    private void awaitPending(long expected) throws InterruptedException {
+        for (int i = 0; i < 100 && pending() < expected; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(pending(), equalTo(expected));
+    }
+
+}
@@ -34,6 +34,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import static com.konkerlabs.platform.registry.data.services.publishers.EventPublisherDevice.DEVICE_MQTT_CHANNEL;
@@ -150,7 +151,7 @@ public class EventTransformationServiceTest {
         String url = transformationUrl.replaceAll("\\@\\{.*}", "value");
         URI uri = URI.create(url);
         when(
-                httpGateway.request(
+                httpGateway.requestAsync(
                         eq(HttpMethod.POST),
                         Mockito.any(HttpHeaders.class),
                         eq(uri),
@@ -158,7 +159,7 @@ public class EventTransformationServiceTest {
                         bodyCaptor.capture(),
                         eq(transformationServiceUsername),
                         eq(transformationServicePassword))
-        ).thenThrow(IntegrationException.class);
+        ).thenReturn(failedRequest());
 
         Optional<Event> transformed = subject.transform(event, transformation);
 
@@ -168,7 +169,7 @@ public class EventTransformationServiceTest {
     @Test
     public void shouldReturnEmptyEventIfStepResponseBodyIsEmpty() throws Exception {
         when(
-                httpGateway.request(
+                httpGateway.requestAsync(
                         eq(HttpMethod.POST),
                         Mockito.any(HttpHeaders.class),
                         Mockito.any(URI.class),
@@ -176,7 +177,7 @@ public class EventTransformationServiceTest {
                         bodyCaptor.capture(),
                         eq(transformationServiceUsername),
                         eq(transformationServicePassword))
-        ).thenReturn("");
+        ).thenReturn(CompletableFuture.completedFuture(""));
 
         Optional<Event> transformed = subject.transform(event, transformation);
         assertThat(transformed, equalTo(Optional.empty()));
@@ -185,7 +186,7 @@ public class EventTransformationServiceTest {
     @Test
     public void shouldReturnEmptyEventIfStepResponseIsAnEmptyJsonArray() throws Exception {
         when(
-                httpGateway.request(
+                httpGateway.requestAsync(
                         eq(HttpMethod.POST),
                         Mockito.any(HttpHeaders.class),
                         Mockito.any(URI.class),
@@ -193,7 +194,7 @@ public class EventTransformationServiceTest {
                         bodyCaptor.capture(),
                         eq(transformationServiceUsername),
                         eq(transformationServicePassword))
-        ).thenReturn("[]");
+        ).thenReturn(CompletableFuture.completedFuture("[]"));
 
         Optional<Event> transformed = subject.transform(event, transformation);
         assertThat(transformed, equalTo(Optional.empty()));
@@ -202,7 +203,7 @@ public class EventTransformationServiceTest {
     @Test
     public void shouldReturnEmptyEventIfStepResponseIsAnEmptyJsonObject() throws Exception {
         when(
-                httpGateway.request(
+                httpGateway.requestAsync(
                         eq(HttpMethod.POST),
                         Mockito.any(HttpHeaders.class),
                         Mockito.any(URI.class),
@@ -210,7 +211,7 @@ public class EventTransformationServiceTest {
                         bodyCaptor.capture(),
                         eq(transformationServiceUsername),
                         eq(transformationServicePassword))
-        ).thenReturn("{}");
+        ).thenReturn(CompletableFuture.completedFuture("{}"));
 
         Optional<Event> transformed = subject.transform(event, transformation);
         assertThat(transformed, equalTo(Optional.empty()));
@@ -226,7 +227,7 @@ public class EventTransformationServiceTest {
                 "  }";
 
         when(
-                httpGateway.request(
+                httpGateway.requestAsync(
                         eq(HttpMethod.POST),
                         Mockito.any(HttpHeaders.class),
                         Mockito.any(URI.class),
@@ -234,7 +235,7 @@ public class EventTransformationServiceTest {
                         bodyCaptor.capture(),
                         eq(transformationServiceUsername),
                         eq(transformationServicePassword))
-        ).thenReturn(firstStepResponseJson);
+        ).thenReturn(CompletableFuture.completedFuture(firstStepResponseJson));
 
         Optional<Event> transformed = subject.transform(event, transformation);
 
@@ -263,7 +264,7 @@ public class EventTransformationServiceTest {
         URI firstURI = URI.create(transformationUrl.replaceAll("\\@\\{.*}", "value"));
 
         when(
-                httpGateway.request(
+                httpGateway.requestAsync(
                         eq(HttpMethod.POST),
                         Mockito.any(HttpHeaders.class),
                         eq(firstURI),
@@ -271,7 +272,7 @@ public class EventTransformationServiceTest {
                         bodyCaptor.capture(),
                         eq(transformationServiceUsername),
                         eq(transformationServicePassword))
-        ).thenReturn(firstStepResponseJson);
+        ).thenReturn(CompletableFuture.completedFuture(firstStepResponseJson));
 
         String secondStepURI = "http://server:8080/service/@{#customerId}/verify";
 
@@ -291,7 +292,7 @@ public class EventTransformationServiceTest {
         URI secondURI = URI.create(secondStepURI.replaceAll("\\@\\{.*}", "123456"));
 
         when(
-                httpGateway.request(
+                httpGateway.requestAsync(
                         eq(HttpMethod.POST),
                         Mockito.any(HttpHeaders.class),
                         eq(secondURI),
@@ -299,7 +300,7 @@ public class EventTransformationServiceTest {
                         bodyCaptor.capture(),
                         eq(""),
                         eq(""))
-        ).thenReturn(secondStepResponseJson);
+        ).thenReturn(CompletableFuture.completedFuture(secondStepResponseJson));
 
         Optional<Event> transformed = subject.transform(event, transformation);
 
@@ -310,4 +311,63 @@ public class EventTransformationServiceTest {
             assertThat(e.getPayload(), equalTo(secondStepResponseJson));
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldReuseTheStepResponseWhenTheResponseCacheIsOn() throws Exception {
+        String stepResponseJson = "{\n" +
+                "    \"field\" : \"valueOne\"\n" +
+                "  }";
+
+        Mockito.reset(httpGateway);
+        when(
+                httpGateway.requestAsync(
+                        eq(HttpMethod.POST),
+                        Mockito.any(HttpHeaders.class),
+                        Mockito.any(URI.class),
+                        eq(MediaType.APPLICATION_JSON),
+                        Mockito.any(),
+                        eq(transformationServiceUsername),
+                        eq(transformationServicePassword))
+        ).thenReturn(CompletableFuture.completedFuture(stepResponseJson));
+
+        transformation.setGuid("cached-transformation");
+        transformation.setResponseCacheTtl(60);
+
+        assertThat(subject.transform(event, transformation).get().getPayload(), equalTo(stepResponseJson));
+        assertThat(subject.transform(event, transformation).get().getPayload(), equalTo(stepResponseJson));
+
+        Mockito.verify(httpGateway, Mockito.times(1)).requestAsync(
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void shouldNotCacheAFailedStepResponse() throws Exception {
+        Mockito.reset(httpGateway);
+        when(
+                httpGateway.requestAsync(
+                        eq(HttpMethod.POST),
+                        Mockito.any(HttpHeaders.class),
+                        Mockito.any(URI.class),
+                        eq(MediaType.APPLICATION_JSON),
+                        Mockito.any(),
+                        eq(transformationServiceUsername),
+                        eq(transformationServicePassword))
+        ).thenReturn(failedRequest());
+
+        transformation.setGuid("failing-transformation");
+        transformation.setResponseCacheTtl(60);
+
+        assertThat(subject.transform(event, transformation), equalTo(Optional.empty()));
+        assertThat(subject.transform(event, transformation), equalTo(Optional.empty()));
+
+        Mockito.verify(httpGateway, Mockito.times(2)).requestAsync(
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    private CompletableFuture<String> failedRequest() {
+        CompletableFuture<String> response = new CompletableFuture<>();
+        response.completeExceptionally(new IntegrationException("Service unavailable"));
+        return response;
+    }
+
+}
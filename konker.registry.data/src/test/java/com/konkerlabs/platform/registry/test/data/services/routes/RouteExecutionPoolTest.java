@@ -0,0 +1,215 @@
+package com.konkerlabs.platform.registry.test.data.services.routes;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.konkerlabs.platform.registry.data.config.RouteExecutionConfig;
+import com.konkerlabs.platform.registry.data.services.routes.RouteExecutionPool;
+
+public class RouteExecutionPoolTest {
+
+    private RouteExecutionPool subject;
+
+    @Before
+    public void setUp() {
+        RouteExecutionConfig config = new RouteExecutionConfig();
+        config.setThreads(8);
+        config.setQueueCapacity(100);
+        config.setMaxConcurrencyPerTenant(2);
+
+        subject = new RouteExecutionPool(config);
+    }
+
+    @After
+    public void tearDown() {
+        subject.shutdown();
+    }
+
+    @Test
+    public void shouldLimitTheRoutesRunningAtOnceForATenant() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        Executor executor = subject.forTenant("tenant");
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(CompletableFuture.runAsync(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            }, executor));
+        }
+
+        for (int i = 0; i < 100 && running.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+
+        assertThat(subject.getWaitingCount(), equalTo(4));
+        release.countDown();
+
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[results.size()])).get(5, TimeUnit.SECONDS);
+        assertThat(maxRunning.get(), equalTo(2));
+        assertThat(subject.getDeferredCount(), equalTo(4L));
+        assertThat(subject.getWaitingCount(), equalTo(0));
+    }
+
+    @Test
+    public void shouldNotHoldOtherTenantsBehindABusyOne() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        Executor busy = subject.forTenant("busy");
+        for (int i = 0; i < 4; i++) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, busy);
+        }
+
+        String result = CompletableFuture.supplyAsync(() -> "done", subject.forTenant("other"))
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(result, equalTo("done"));
+        release.countDown();
+    }
+
+    @Test
+    public void shouldRunRoutesOnTheSubmittingThreadOnceTheWaitingRoutesFillTheCapacity() throws Exception {
+        RouteExecutionConfig config = new RouteExecutionConfig();
+        config.setThreads(8);
+        config.setQueueCapacity(10);
+        config.setMaxConcurrencyPerTenant(2);
+        subject.shutdown();
+        subject = new RouteExecutionPool(config);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Executor executor = subject.forTenant("flooding");
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        Thread submitter = Thread.currentThread();
+        AtomicInteger ranBySubmitter = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1000);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                if (Thread.currentThread() == submitter) {
+                    ranBySubmitter.incrementAndGet();
+                }
+                done.countDown();
+            });
+            assertThat(subject.getWaitingCount() <= 10, equalTo(true));
+        }
+
+        assertThat(subject.getWaitingCount(), equalTo(10));
+        assertThat(ranBySubmitter.get(), equalTo(990));
+        assertThat(subject.getCallerRunsCount(), equalTo(990L));
+
+        release.countDown();
+
+        assertThat(done.await(5, TimeUnit.SECONDS), equalTo(true));
+        assertThat(subject.getWaitingCount(), equalTo(0));
+    }
+
+    @Test
+    public void shouldDropContinuationsOnceTheOverflowIsFull() throws Exception {
+        RouteExecutionConfig config = new RouteExecutionConfig();
+        config.setThreads(1);
+        config.setQueueCapacity(1);
+        config.setMaxConcurrencyPerTenant(10);
+        config.setOverflowCapacity(2);
+        subject.shutdown();
+        subject = new RouteExecutionPool(config);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocked = () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        subject.forTenant("tenant").execute(blocked);
+        subject.forTenant("tenant").execute(blocked);
+
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            subject.continuationsForTenant("tenant").execute(ran::incrementAndGet);
+        }
+
+        assertThat(subject.getOverflowSize(), equalTo(2));
+        assertThat(subject.getOverflowedCount(), equalTo(2L));
+        assertThat(subject.getOverflowDroppedCount(), equalTo(3L));
+
+        release.countDown();
+
+        for (int i = 0; i < 100 && ran.get() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(ran.get(), equalTo(2));
+        assertThat(subject.getOverflowSize(), equalTo(0));
+    }
+
+    @Test
+    public void shouldNotRunContinuationsOnTheSubmittingThreadWhenThePoolIsFull() throws Exception {
+        RouteExecutionConfig config = new RouteExecutionConfig();
+        config.setThreads(1);
+        config.setQueueCapacity(1);
+        config.setMaxConcurrencyPerTenant(10);
+        subject.shutdown();
+        subject = new RouteExecutionPool(config);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocked = () -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // one route running and one queued fill the pool
+        subject.forTenant("tenant").execute(blocked);
+        subject.forTenant("tenant").execute(blocked);
+
+        Thread submitter = Thread.currentThread();
+        CompletableFuture<Thread> continuation = CompletableFuture.supplyAsync(
+                Thread::currentThread, subject.continuationsForTenant("tenant"));
+
+        assertThat(continuation.isDone(), equalTo(false));
+        assertThat(subject.getOverflowSize(), equalTo(1));
+
+        release.countDown();
+
+        assertThat(continuation.get(5, TimeUnit.SECONDS) == submitter, equalTo(false));
+        assertThat(subject.getOverflowedCount(), equalTo(1L));
+        assertThat(subject.getCallerRunsCount(), equalTo(0L));
+    }
+
+}
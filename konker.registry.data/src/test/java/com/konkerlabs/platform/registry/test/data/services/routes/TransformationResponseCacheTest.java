@@ -0,0 +1,84 @@
+package com.konkerlabs.platform.registry.test.data.services.routes;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.konkerlabs.platform.registry.business.model.Transformation;
+import com.konkerlabs.platform.registry.data.config.TransformationCacheConfig;
+import com.konkerlabs.platform.registry.data.services.routes.TransformationResponseCache;
+
+public class TransformationResponseCacheTest {
+
+    private static final String URL = "http://server:8080/path/value";
+
+    private AtomicLong clock;
+    private AtomicInteger requests;
+    private TransformationResponseCache subject;
+    private Transformation transformation;
+
+    @Before
+    public void setUp() {
+        TransformationCacheConfig config = new TransformationCacheConfig();
+        config.setMaxSize(100);
+
+        clock = new AtomicLong(1);
+        requests = new AtomicInteger();
+        subject = new TransformationResponseCache(config, clock::get);
+        transformation = Transformation.builder().guid("transformation").responseCacheTtl(60).build();
+    }
+
+    @Test
+    public void shouldReuseTheResponseOfTheSameRequest() {
+        assertThat(subject.get(transformation, 0, "GET", URL, "{}", respond("first")).join(), equalTo("first"));
+        assertThat(subject.get(transformation, 0, "GET", URL, "{}", respond("second")).join(), equalTo("first"));
+
+        assertThat(requests.get(), equalTo(1));
+        assertThat(subject.getHitCount(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldKeepTheResponsesOfDifferentRequestsApart() {
+        subject.get(transformation, 0, "GET", URL, "{}", respond("first")).join();
+
+        assertThat(subject.get(transformation, 0, "GET", URL, "{\"a\":1}", respond("body")).join(), equalTo("body"));
+        assertThat(subject.get(transformation, 0, "POST", URL, "{}", respond("method")).join(), equalTo("method"));
+        assertThat(subject.get(transformation, 1, "GET", URL, "{}", respond("step")).join(), equalTo("step"));
+        assertThat(requests.get(), equalTo(4));
+    }
+
+    @Test
+    public void shouldRequestAgainOnceTheResponseExpires() {
+        subject.get(transformation, 0, "GET", URL, "{}", respond("first")).join();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertThat(subject.get(transformation, 0, "GET", URL, "{}", respond("second")).join(), equalTo("second"));
+    }
+
+    @Test
+    public void shouldNotCacheWithoutATtl() {
+        transformation.setResponseCacheTtl(null);
+
+        subject.get(transformation, 0, "GET", URL, "{}", respond("first")).join();
+        subject.get(transformation, 0, "GET", URL, "{}", respond("second")).join();
+
+        assertThat(requests.get(), equalTo(2));
+        assertThat(subject.getSize(), equalTo(0L));
+    }
+
+    private Supplier<CompletableFuture<String>> respond(String response) {
+        return () -> {
+            requests.incrementAndGet();
+            return CompletableFuture.completedFuture(response);
+        };
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.konkerlabs.platform.registry.test.integration.endpoints;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import com.konkerlabs.platform.registry.integration.endpoints.BatchingMessageListener;
+import com.rabbitmq.client.Channel;
+
+public class BatchingMessageListenerTest {
+
+    private Channel channel;
+    private List<List<Message>> batches;
+
+    @Before
+    public void setUp() {
+        channel = mock(Channel.class);
+        when(channel.isOpen()).thenReturn(true);
+        batches = new CopyOnWriteArrayList<>();
+    }
+
+    private Message message(long deliveryTag) {
+        return message(deliveryTag, false);
+    }
+
+    private Message message(long deliveryTag, boolean redelivered) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        properties.setRedelivered(redelivered);
+        return new Message(new byte[0], properties);
+    }
+
+    private List<Message> collect(List<Message> messages) {
+        batches.add(messages);
+        return Collections.emptyList();
+    }
+
+    @Test
+    public void shouldFlushAndAckWhenBatchIsFull() throws Exception {
+        BatchingMessageListener subject = new BatchingMessageListener(3, 60000, 1, this::collect);
+
+        Message first = message(1);
+        Message second = message(2);
+        Message third = message(3);
+
+        subject.onMessage(first, channel);
+        subject.onMessage(second, channel);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+
+        subject.onMessage(third, channel);
+
+        assertThat(batches, hasSize(1));
+        assertThat(batches.get(0), contains(first, second, third));
+        verify(channel).basicAck(3, true);
+    }
+
+    @Test
+    public void shouldFlushAndAckWhenLingerExpires() throws Exception {
+        BatchingMessageListener subject = new BatchingMessageListener(100, 10, 1, this::collect);
+
+        subject.onMessage(message(1), channel);
+        subject.onMessage(message(2), channel);
+
+        verify(channel, timeout(1000)).basicAck(2, true);
+        assertThat(batches, hasSize(1));
+        assertThat(batches.get(0), hasSize(2));
+    }
+
+    @Test
+    public void shouldRequeueEachMessageOnceWhenDelegateFails() throws Exception {
+        BatchingMessageListener subject = new BatchingMessageListener(2, 60000, 1, messages -> {
+            throw new IllegalStateException("failed");
+        });
+
+        subject.onMessage(message(1), channel);
+        subject.onMessage(message(2, true), channel);
+
+        verify(channel).basicNack(1, false, true);
+        verify(channel).basicNack(2, false, false);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+    @Test
+    public void shouldAckProcessedAndRejectOnlyFailedMessages() throws Exception {
+        Message first = message(1);
+        Message second = message(2);
+        Message third = message(3, true);
+
+        BatchingMessageListener subject = new BatchingMessageListener(3, 60000, 1,
+                messages -> Arrays.asList(second, third));
+
+        subject.onMessage(first, channel);
+        subject.onMessage(second, channel);
+        subject.onMessage(third, channel);
+
+        verify(channel).basicAck(1, false);
+        verify(channel).basicNack(2, false, true);
+        verify(channel).basicNack(3, false, false);
+        verify(channel, never()).basicAck(anyLong(), eq(true));
+    }
+
+    @Test
+    public void shouldFlushPendingBatchesOnClose() throws Exception {
+        BatchingMessageListener subject = new BatchingMessageListener(100, 60000, 1, this::collect);
+
+        subject.onMessage(message(1), channel);
+        subject.onMessage(message(2), channel);
+        subject.close();
+
+        assertThat(batches, hasSize(1));
+        assertThat(batches.get(0), hasSize(2));
+        verify(channel).basicAck(2, true);
+    }
+
+    @Test
+    public void shouldNotAckWhenChannelIsClosed() throws Exception {
+        BatchingMessageListener subject = new BatchingMessageListener(2, 60000, 1, this::collect);
+        when(channel.isOpen()).thenReturn(false);
+
+        subject.onMessage(message(1), channel);
+        subject.onMessage(message(2), channel);
+
+        assertThat(batches, hasSize(0));
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+    }
+
+}
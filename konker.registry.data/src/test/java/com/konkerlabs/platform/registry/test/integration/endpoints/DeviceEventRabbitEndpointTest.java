@@ -1,10 +1,13 @@
 package com.konkerlabs.platform.registry.test.integration.endpoints;
 
+import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.time.Instant;
+import java.util.Arrays;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -20,6 +23,7 @@ import org.springframework.test.context.web.WebAppConfiguration;
 
 import com.konkerlabs.platform.registry.integration.endpoints.DeviceEventRabbitEndpoint;
 import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor;
+import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor.IncomingEvent;
 
 @RunWith(SpringJUnit4ClassRunner.class)
 @WebAppConfiguration
@@ -39,6 +43,11 @@ public class DeviceEventRabbitEndpointTest {
 
     }
 
+    @After
+    public void tearDown() {
+        reset(deviceEventProcessor);
+    }
+
     @Test
     public void shouldReceiveOnConfigPub() throws Exception {
 
@@ -60,6 +69,38 @@ public class DeviceEventRabbitEndpointTest {
 
     }
 
+    @Test
+    public void shouldProcessBatchOnDataPub() throws Exception {
+
+        final String apiKey = "jV5bnJWK";
+        final String channel = "temp";
+        final String payload = "{ 'a' : '52T' }";
+        final Long epochMilli = 1490001001000L;
+
+        MessageProperties messageProperties = new MessageProperties();
+        messageProperties.setHeader("apiKey", apiKey);
+        messageProperties.setHeader("channel", channel);
+        messageProperties.setHeader("ts", epochMilli);
+
+        MessageProperties invalidProperties = new MessageProperties();
+        invalidProperties.setHeader("apiKey", apiKey);
+
+        Message message = new Message(payload.getBytes("UTF-8"), messageProperties);
+        Message invalid = new Message(payload.getBytes("UTF-8"), invalidProperties);
+
+        deviceEventRabbitEndpoint.onDataPub(Arrays.asList(message, invalid, message));
+
+        IncomingEvent incomingEvent = IncomingEvent.builder()
+                .apiKey(apiKey)
+                .channel(channel)
+                .payload(payload)
+                .timestamp(Instant.ofEpochMilli(epochMilli))
+                .build();
+
+        verify(deviceEventProcessor, times(1)).process(Arrays.asList(incomingEvent, incomingEvent));
+
+    }
+
     @Configuration
     static class DeviceConfigRabbitEndpointTestConfig {
 
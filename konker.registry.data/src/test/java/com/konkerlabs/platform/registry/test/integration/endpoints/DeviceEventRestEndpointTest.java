@@ -1,14 +1,23 @@
 package com.konkerlabs.platform.registry.test.integration.endpoints;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Executor;
 
@@ -18,6 +27,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
@@ -36,6 +46,7 @@ import org.springframework.test.context.web.WebAppConfiguration;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.DeviceModel;
+import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Location;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.services.api.DeviceConfigSetupService;
@@ -47,6 +58,7 @@ import com.konkerlabs.platform.registry.data.config.WebMvcConfig;
 import com.konkerlabs.platform.registry.data.services.JedisTaskService;
 import com.konkerlabs.platform.registry.integration.endpoints.DeviceEventRestEndpoint;
 import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor;
+import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor.IncomingEvent;
 import com.konkerlabs.platform.registry.test.data.base.BusinessTestConfiguration;
 import com.konkerlabs.platform.registry.test.data.base.SecurityTestConfiguration;
 import com.konkerlabs.platform.registry.test.data.base.WebLayerTestContext;
@@ -75,9 +87,6 @@ public class DeviceEventRestEndpointTest extends WebLayerTestContext {
     @Autowired
     private ApplicationContext applicationContext;
 
-    @Autowired
-    private JsonParsingService jsonParsingService;
-
     @Autowired
     private DeviceEventService deviceEventService;
 
@@ -107,7 +116,6 @@ public class DeviceEventRestEndpointTest extends WebLayerTestContext {
         deviceEventRestEndpoint = new DeviceEventRestEndpoint(
                 applicationContext,
                 deviceEventProcessor,
-                jsonParsingService,
                 deviceEventService,
                 deviceRegisterService,
                 executor,
@@ -117,11 +125,11 @@ public class DeviceEventRestEndpointTest extends WebLayerTestContext {
 
 	@After
 	public void tearDown() {
-		Mockito.reset(jsonParsingService);
 		Mockito.reset(deviceEventService);
 		Mockito.reset(deviceRegisterService);
 		Mockito.reset(jedisTaskService);
 		Mockito.reset(deviceConfigSetupService);
+		Mockito.reset(applicationContext.getBean(DeviceEventProcessor.class));
 	}
 
     @Test
@@ -173,8 +181,6 @@ public class DeviceEventRestEndpointTest extends WebLayerTestContext {
         Authentication auth = new UsernamePasswordAuthenticationToken(device, null);
         context.setAuthentication(auth);
 
-        when(jsonParsingService.isValid(json)).thenReturn(true);
-
 		getMockMvc().perform(
                 post("/pub/"+ device.getApiKey() +"/"+ VALID_CHANNEL)
                 	.flashAttr("principal", device)
@@ -305,6 +311,140 @@ public class DeviceEventRestEndpointTest extends WebLayerTestContext {
    
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldPublishBulkEventsFromJsonArray() throws Exception {
+        Device device = Device.builder().deviceId("tug6g6essh4m")
+                .active(true)
+                .apiKey("e4399b2ed998")
+                .guid("67014de6-81db-11e6-a5bc-3f99b38315c6").build();
+
+        SecurityContext context = SecurityContextHolder.getContext();
+        Authentication auth = new UsernamePasswordAuthenticationToken(device, null);
+        context.setAuthentication(auth);
+
+        DeviceEventProcessor processor = applicationContext.getBean(DeviceEventProcessor.class);
+        when(processor.process(anyListOf(IncomingEvent.class))).thenReturn(Arrays.asList(
+                ServiceResponseBuilder.<Event>ok().build(),
+                ServiceResponseBuilder.<Event>error()
+                        .withMessage(DeviceEventProcessor.Messages.DEVICE_NOT_FOUND.getCode()).build()));
+
+        String json = "[" +
+                "{\"channel\": \"temp\", \"timestamp\": 1490001001000, \"payload\": {\"temperature\": 18}}," +
+                "{\"timestamp\": 1490001002000, \"payload\": {\"temperature\": 19}}," +
+                "{\"channel\": \"temp\"}," +
+                "{\"channel\": \"temp/room\", \"payload\": {\"temperature\": 20}}," +
+                "{\"channel\": \"temp\", \"payload\": {\"temperature\": 21}}" +
+                "]";
+
+        getMockMvc().perform(
+                post("/pub/" + device.getApiKey())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(5)))
+                .andExpect(jsonPath("$.accepted", is(1)))
+                .andExpect(jsonPath("$.rejected", is(4)))
+                .andExpect(jsonPath("$.results", hasSize(5)))
+                .andExpect(jsonPath("$.results[0].code", is("200")))
+                .andExpect(jsonPath("$.results[1].code", is(DeviceEventProcessor.Messages.CHANNEL_MISSING.getCode())))
+                .andExpect(jsonPath("$.results[2].code", is(DeviceEventRestEndpoint.Messages.INVALID_BULK_ITEM.getCode())))
+                .andExpect(jsonPath("$.results[3].code", is(DeviceEventRestEndpoint.Messages.INVALID_CHANNEL_PATTERN.getCode())))
+                .andExpect(jsonPath("$.results[4].code", is(DeviceEventProcessor.Messages.DEVICE_NOT_FOUND.getCode())));
+
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(processor).process(captor.capture());
+
+        List<IncomingEvent> incomingEvents = captor.getValue();
+        assertThat(incomingEvents, hasSize(2));
+        assertThat(incomingEvents.get(0).getChannel(), is("temp"));
+        assertThat(incomingEvents.get(0).getTimestamp(), is(Instant.ofEpochMilli(1490001001000L)));
+        assertThat(incomingEvents.get(0).getPayload(), is("{\"temperature\":18}"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldPublishBulkEventsFromNdjsonWithDefaultChannel() throws Exception {
+        Device device = Device.builder().deviceId("tug6g6essh4m")
+                .active(true)
+                .apiKey("e4399b2ed998")
+                .guid("67014de6-81db-11e6-a5bc-3f99b38315c6").build();
+
+        SecurityContext context = SecurityContextHolder.getContext();
+        Authentication auth = new UsernamePasswordAuthenticationToken(device, null);
+        context.setAuthentication(auth);
+
+        DeviceEventProcessor processor = applicationContext.getBean(DeviceEventProcessor.class);
+        when(processor.process(anyListOf(IncomingEvent.class))).thenReturn(Arrays.asList(
+                ServiceResponseBuilder.<Event>ok().build(),
+                ServiceResponseBuilder.<Event>ok().build()));
+
+        String ndjson = "{\"payload\": {\"temperature\": 18}}\n" +
+                "{\"channel\": \"humidity\", \"payload\": {\"humidity\": 60}}\n";
+
+        getMockMvc().perform(
+                post("/pub/" + device.getApiKey())
+                        .param("channel", "temp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.accepted", is(2)));
+
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(processor).process(captor.capture());
+
+        List<IncomingEvent> incomingEvents = captor.getValue();
+        assertThat(incomingEvents.get(0).getChannel(), is("temp"));
+        assertThat(incomingEvents.get(1).getChannel(), is("humidity"));
+    }
+
+    @Test
+    public void shouldReturnBadRequestOnMalformedBulkBody() throws Exception {
+        Device device = Device.builder().deviceId("tug6g6essh4m")
+                .active(true)
+                .apiKey("e4399b2ed998")
+                .guid("67014de6-81db-11e6-a5bc-3f99b38315c6").build();
+
+        SecurityContext context = SecurityContextHolder.getContext();
+        Authentication auth = new UsernamePasswordAuthenticationToken(device, null);
+        context.setAuthentication(auth);
+
+        getMockMvc().perform(
+                post("/pub/" + device.getApiKey())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"channel\": \"temp\", "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code", is(DeviceEventRestEndpoint.Messages.INVALID_REQUEST_BODY.getCode())));
+    }
+
+    @Test
+    public void shouldStoreNothingWhenTheBulkBodyIsMalformedPastTheFirstChunk() throws Exception {
+        Device device = Device.builder().deviceId("tug6g6essh4m")
+                .active(true)
+                .apiKey("e4399b2ed998")
+                .guid("67014de6-81db-11e6-a5bc-3f99b38315c6").build();
+
+        SecurityContext context = SecurityContextHolder.getContext();
+        Authentication auth = new UsernamePasswordAuthenticationToken(device, null);
+        context.setAuthentication(auth);
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            ndjson.append("{\"channel\": \"temp\", \"payload\": {\"temperature\": ").append(i).append("}}\n");
+        }
+        ndjson.append("{\"channel\": \"temp\", ");
+
+        getMockMvc().perform(
+                post("/pub/" + device.getApiKey())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(ndjson.toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code", is(DeviceEventRestEndpoint.Messages.INVALID_REQUEST_BODY.getCode())));
+
+        verify(applicationContext.getBean(DeviceEventProcessor.class), never()).process(anyListOf(IncomingEvent.class));
+    }
+
     @Configuration
     static class DeviceEventRestEndpointTestContextConfig {
         @Bean
@@ -0,0 +1,133 @@
+package com.konkerlabs.platform.registry.test.integration.gateways;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import com.konkerlabs.platform.registry.data.config.RabbitMQConfig;
+import com.konkerlabs.platform.registry.integration.gateways.BatchingRabbitPublisher;
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.ConfirmListener;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.ConnectionFactory;
+
+public class BatchingRabbitPublisherTest {
+
+    private ConnectionFactory connectionFactory;
+    private Channel channel;
+    private AtomicLong sequence;
+    private BatchingRabbitPublisher subject;
+
+    @Before
+    public void setUp() throws Exception {
+        connectionFactory = mock(ConnectionFactory.class);
+        Connection connection = mock(Connection.class);
+        channel = mock(Channel.class);
+        sequence = new AtomicLong(1);
+
+        when(connectionFactory.newConnection(anyString())).thenReturn(connection);
+        when(connection.isOpen()).thenReturn(true);
+        when(connection.createChannel()).thenReturn(channel);
+        when(channel.isOpen()).thenReturn(true);
+        when(channel.getNextPublishSeqNo()).thenAnswer(invocation -> sequence.get());
+        doAnswer(invocation -> sequence.incrementAndGet())
+                .when(channel).basicPublish(anyString(), anyString(), any(AMQP.BasicProperties.class), any(byte[].class));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        subject.stop();
+    }
+
+    @Test
+    public void shouldNotAcceptMessagesWhenDisabled() {
+        subject = new BatchingRabbitPublisher(connectionFactory, false, 10, 10, 10, 1000);
+        subject.start();
+
+        assertThat(subject.publish("data.sub", message("0")), equalTo(false));
+    }
+
+    @Test
+    public void shouldPublishWithTheMessageHeadersAndCountTheConfirms() throws Exception {
+        subject = new BatchingRabbitPublisher(connectionFactory, true, 10, 10, 10, 1000);
+        subject.start();
+
+        assertThat(subject.publish("data.sub", message("0")), equalTo(true));
+        assertThat(subject.publish("data.sub", message("1")), equalTo(true));
+
+        ArgumentCaptor<AMQP.BasicProperties> properties = ArgumentCaptor.forClass(AMQP.BasicProperties.class);
+        verify(channel, timeout(1000).times(2)).basicPublish(eq(""), eq("data.sub"), properties.capture(), any(byte[].class));
+        verify(channel).confirmSelect();
+        assertThat(properties.getValue().getHeaders().get(RabbitMQConfig.MSG_HEADER_APIKEY).toString(), equalTo("apiKey"));
+        assertThat(subject.getInFlight(), equalTo(2));
+
+        confirmListener().handleAck(2, true);
+
+        assertThat(subject.getInFlight(), equalTo(0));
+        assertThat(subject.getConfirmedCount(), equalTo(2L));
+    }
+
+    @Test
+    public void shouldWaitForConfirmsBeyondTheInFlightWindow() throws Exception {
+        subject = new BatchingRabbitPublisher(connectionFactory, true, 10, 2, 10, 5000);
+        subject.start();
+
+        subject.publish("data.sub", message("0"));
+        subject.publish("data.sub", message("1"));
+        subject.publish("data.sub", message("2"));
+
+        verify(channel, timeout(1000).times(2)).basicPublish(anyString(), anyString(), any(AMQP.BasicProperties.class), any(byte[].class));
+        Thread.sleep(100);
+        verify(channel, times(2)).basicPublish(anyString(), anyString(), any(AMQP.BasicProperties.class), any(byte[].class));
+
+        confirmListener().handleAck(1, false);
+
+        verify(channel, timeout(1000).times(3)).basicPublish(anyString(), anyString(), any(AMQP.BasicProperties.class), any(byte[].class));
+    }
+
+    @Test
+    public void shouldPublishRejectedMessagesAgain() throws Exception {
+        subject = new BatchingRabbitPublisher(connectionFactory, true, 10, 10, 10, 1000);
+        subject.start();
+
+        subject.publish("data.sub", message("0"));
+        verify(channel, timeout(1000).times(1)).basicPublish(anyString(), anyString(), any(AMQP.BasicProperties.class), any(byte[].class));
+
+        confirmListener().handleNack(1, false);
+
+        verify(channel, timeout(1000).times(2)).basicPublish(anyString(), anyString(), any(AMQP.BasicProperties.class), any(byte[].class));
+        assertThat(subject.getRejectedCount(), equalTo(1L));
+    }
+
+    private ConfirmListener confirmListener() {
+        ArgumentCaptor<ConfirmListener> listener = ArgumentCaptor.forClass(ConfirmListener.class);
+        verify(channel).addConfirmListener(listener.capture());
+        return listener.getValue();
+    }
+
+    private Message message(String payload) {
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader(RabbitMQConfig.MSG_HEADER_APIKEY, "apiKey");
+        properties.setHeader(RabbitMQConfig.MSG_HEADER_CHANNEL, "data");
+        return new Message(payload.getBytes(), properties);
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.konkerlabs.platform.registry.test.integration.gateways;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.notNullValue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.net.ssl.SSLHandshakeException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import com.konkerlabs.platform.registry.data.config.HttpGatewayConfig;
+import com.konkerlabs.platform.registry.integration.exceptions.IntegrationException;
+import com.konkerlabs.platform.registry.integration.gateways.HttpGateway;
+import com.konkerlabs.platform.registry.integration.gateways.PooledHttpGatewayImpl;
+
+public class PooledHttpGatewayTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private Server server;
+    private PooledHttpGatewayImpl subject;
+    private URI baseUri;
+    private int httpsPort;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new Server(0);
+
+        // certificate issued to "localhost" only, so requests to 127.0.0.1 do not match it
+        SslContextFactory serverSsl = new SslContextFactory();
+        serverSsl.setKeyStorePath(getClass().getResource("/gateway-test.jks").toExternalForm());
+        serverSsl.setKeyStorePassword("changeit");
+        ServerConnector httpsConnector = new ServerConnector(server, serverSsl);
+        httpsConnector.setPort(0);
+        server.addConnector(httpsConnector);
+
+        server.setHandler(new AbstractHandler() {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+                response.setStatus("/fail".equals(target) ? 500 : 200);
+                response.getWriter().write(
+                        request.getMethod() + " " +
+                        request.getHeader("Authorization") + " " +
+                        request.getHeader(HttpGateway.KONKER_VERSION_HEADER) + " " +
+                        request.getReader().lines().collect(Collectors.joining()));
+                baseRequest.setHandled(true);
+            }
+        });
+        server.start();
+
+        baseUri = URI.create("http://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort());
+        httpsPort = httpsConnector.getLocalPort();
+
+        SslContextFactory clientSsl = new SslContextFactory();
+        clientSsl.setTrustStorePath(getClass().getResource("/gateway-test.jks").toExternalForm());
+        clientSsl.setTrustStorePassword("changeit");
+        subject = new PooledHttpGatewayImpl(new HttpGatewayConfig(), 5000, clientSsl);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        subject.stop();
+        server.stop();
+    }
+
+    @Test
+    public void shouldCompleteWithTheResponseBody() throws Exception {
+        String response = subject.requestAsync(HttpMethod.POST, new HttpHeaders(), baseUri.resolve("/ok"),
+                MediaType.APPLICATION_JSON, () -> "{\"value\":1}", "Username", "Password")
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(response, equalTo("POST Basic VXNlcm5hbWU6UGFzc3dvcmQ= 0.1 {\"value\":1}"));
+    }
+
+    @Test
+    public void shouldCompleteExceptionallyIfResponseStatusIsNotA2xxStatus() throws Exception {
+        try {
+            subject.requestAsync(HttpMethod.GET, new HttpHeaders(), baseUri.resolve("/fail"),
+                    MediaType.APPLICATION_JSON, null, null, null).get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IntegrationException.class));
+            assertThat(e.getCause().getMessage(), containsString("Status Code: 500"));
+            return;
+        }
+
+        throw new AssertionError("Request should have failed");
+    }
+
+    @Test
+    public void shouldRaiseAnIntegrationExceptionOnBlockingRequests() throws Exception {
+        thrown.expect(IntegrationException.class);
+        thrown.expectMessage("Status Code: 500");
+
+        subject.request(HttpMethod.GET, new HttpHeaders(), baseUri.resolve("/fail"),
+                MediaType.APPLICATION_JSON, null, null, null);
+    }
+
+    @Test
+    public void shouldRequestHttpsDestinationsWhoseCertificateMatchesTheHost() throws Exception {
+        String response = subject.requestAsync(HttpMethod.GET, new HttpHeaders(),
+                URI.create("https://localhost:" + httpsPort + "/ok"),
+                MediaType.APPLICATION_JSON, null, null, null).get(5, TimeUnit.SECONDS);
+
+        assertThat(response, containsString("GET"));
+    }
+
+    @Test
+    public void shouldFailOnCertificateNotIssuedToTheHost() throws Exception {
+        try {
+            subject.requestAsync(HttpMethod.GET, new HttpHeaders(),
+                    URI.create("https://127.0.0.1:" + httpsPort + "/ok"),
+                    MediaType.APPLICATION_JSON, null, null, null).get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IntegrationException.class));
+            Throwable cause = e.getCause().getCause();
+            while (cause != null && !(cause instanceof SSLHandshakeException)) {
+                cause = cause.getCause();
+            }
+            assertThat(cause, notNullValue());
+            return;
+        }
+
+        throw new AssertionError("Request should have failed");
+    }
+
+    @Test
+    public void shouldRaiseAnExceptionIfHttpMethodIsNull() throws Exception {
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("HTTP method must be provided");
+
+        subject.requestAsync(null, null, baseUri, MediaType.APPLICATION_JSON, null, null, null);
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.konkerlabs.platform.registry.test.integration.gateways;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import com.konkerlabs.platform.registry.data.config.RabbitMQConfig;
+import com.konkerlabs.platform.registry.integration.gateways.RabbitSpillBuffer;
+
+public class RabbitSpillBufferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> sent = new ArrayList<>();
+    private int failAfter = Integer.MAX_VALUE;
+    private RabbitSpillBuffer subject;
+
+    @After
+    public void tearDown() {
+        subject.close();
+    }
+
+    @Test
+    public void shouldReplayTheSpilledMessagesInOrder() throws IOException {
+        subject = open(1024, 4096);
+
+        assertThat(subject.append("data.sub", message("first")), equalTo(true));
+        assertThat(subject.append("mgmt.config.sub", message("second")), equalTo(true));
+        assertThat(subject.append("data.sub", message("third")), equalTo(true));
+        assertThat(subject.getPendingCount(), equalTo(3L));
+
+        assertThat(subject.replay(), equalTo(3));
+        assertThat(sent, contains("data.sub first apiKey", "mgmt.config.sub second apiKey", "data.sub third apiKey"));
+        assertThat(subject.hasPending(), equalTo(false));
+        assertThat(subject.getSpilledCount(), equalTo(3L));
+        assertThat(subject.getReplayedCount(), equalTo(3L));
+    }
+
+    @Test
+    public void shouldStopReplayingWhenTheBrokerIsStillUnreachable() throws IOException {
+        subject = open(1024, 4096);
+        subject.append("data.sub", message("first"));
+        subject.append("data.sub", message("second"));
+        subject.append("data.sub", message("third"));
+
+        failAfter = 1;
+        assertThat(subject.replay(), equalTo(1));
+        assertThat(subject.getPendingCount(), equalTo(2L));
+
+        failAfter = Integer.MAX_VALUE;
+        assertThat(subject.replay(), equalTo(2));
+        assertThat(sent, contains("data.sub first apiKey", "data.sub second apiKey", "data.sub third apiKey"));
+    }
+
+    @Test
+    public void shouldReplayOnlyTheMessagesNotSentBeforeARestart() throws IOException {
+        subject = open(128, 4096);
+        for (int i = 0; i < 5; i++) {
+            subject.append("data.sub", message("message-" + i));
+        }
+
+        failAfter = 3;
+        subject.replay();
+        subject.close();
+        sent.clear();
+
+        failAfter = Integer.MAX_VALUE;
+        subject = open(128, 4096);
+        assertThat(subject.getPendingCount(), equalTo(2L));
+        assertThat(subject.replay(), equalTo(2));
+        assertThat(sent, contains("data.sub message-3 apiKey", "data.sub message-4 apiKey"));
+        assertThat(folder.getRoot().listFiles((dir, name) -> name.endsWith(".seg")).length, equalTo(1));
+    }
+
+    @Test
+    public void shouldDropMessagesWhenTheBufferIsFull() throws IOException {
+        subject = open(64, 128);
+
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            accepted += subject.append("data.sub", message("message-" + i)) ? 1 : 0;
+        }
+
+        assertThat(accepted < 10, equalTo(true));
+        assertThat(subject.getDroppedCount(), equalTo(10L - accepted));
+        assertThat(subject.getDiskUsage() <= 128, equalTo(true));
+
+        subject.replay();
+        assertThat(sent.size(), equalTo(accepted));
+        assertThat(subject.hasPending(), equalTo(false));
+    }
+
+    @Test
+    public void shouldRefuseADirectoryInUseByAnotherBuffer() throws IOException {
+        subject = open(1024, 4096);
+
+        RabbitSpillBuffer other = new RabbitSpillBuffer(true, folder.getRoot().toPath(), 1024, 4096, TimeUnit.HOURS.toMillis(1));
+        try {
+            other.open();
+            fail("the spill directory should be locked");
+        } catch (IOException e) {
+            assertThat(e.getMessage(), containsString("in use"));
+        }
+
+        subject.close();
+        other.open();
+        other.close();
+    }
+
+    @Test
+    public void shouldNotSpillWhenDisabled() throws IOException {
+        subject = new RabbitSpillBuffer(false, folder.getRoot().toPath(), 1024, 4096, TimeUnit.HOURS.toMillis(1));
+        subject.open();
+
+        assertThat(subject.append("data.sub", message("first")), equalTo(false));
+        assertThat(folder.getRoot().list(), equalTo(new String[0]));
+        assertThat(sent, empty());
+    }
+
+    private RabbitSpillBuffer open(int segmentSize, long maxSize) throws IOException {
+        RabbitSpillBuffer buffer = new RabbitSpillBuffer(true, folder.getRoot().toPath(), segmentSize, maxSize, TimeUnit.HOURS.toMillis(1));
+        buffer.open();
+        buffer.startReplay((routingKey, message) -> {
+            if (sent.size() >= failAfter) {
+                throw new AmqpConnectException(new IOException("connection refused"));
+            }
+            sent.add(routingKey + ' ' + new String(message.getBody(), StandardCharsets.UTF_8) + ' '
+                    + message.getMessageProperties().getHeaders().get(RabbitMQConfig.MSG_HEADER_APIKEY));
+        });
+        return buffer;
+    }
+
+    private Message message(String body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader(RabbitMQConfig.MSG_HEADER_APIKEY, "apiKey");
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+}
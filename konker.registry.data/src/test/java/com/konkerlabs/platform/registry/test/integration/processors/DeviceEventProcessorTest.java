@@ -1,5 +1,8 @@
 package com.konkerlabs.platform.registry.test.integration.processors;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -13,7 +16,9 @@ import static org.mockito.Mockito.when;
 import java.net.URI;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 import com.konkerlabs.platform.registry.config.EventStorageConfig;
 import org.junit.After;
@@ -43,6 +48,7 @@ import com.konkerlabs.platform.registry.data.config.RedisConfig;
 import com.konkerlabs.platform.registry.data.services.api.DeviceLogEventService;
 import com.konkerlabs.platform.registry.data.services.routes.api.EventRouteExecutor;
 import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor;
+import com.konkerlabs.platform.registry.integration.processors.DeviceEventProcessor.IncomingEvent;
 import com.konkerlabs.platform.registry.test.data.base.BusinessTestConfiguration;
 import com.konkerlabs.platform.registry.test.data.base.IntegrationTestConfiguration;
 import com.konkerlabs.platform.registry.test.data.base.MongoTestConfiguration;
@@ -210,6 +216,81 @@ public class DeviceEventProcessorTest {
         verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class));
     }
 
+    @Test
+    public void shouldProcessBatchResolvingDeviceOnce() throws Exception {
+        when(deviceRegisterService.findByApiKey(sourceApiKey)).thenReturn(device);
+        when(deviceLogEventService.logIncomingEvent(any(Device.class), any(Event.class))).thenReturn(
+                ServiceResponseBuilder.<Event>ok().withResult(event).build()
+        );
+
+        IncomingEvent incomingEvent = IncomingEvent.builder()
+                .apiKey(sourceApiKey)
+                .channel(incomingChannel)
+                .payload(originalPayload)
+                .timestamp(firstEventTimestamp)
+                .build();
+        IncomingEvent withoutChannel = IncomingEvent.builder()
+                .apiKey(sourceApiKey)
+                .payload(originalPayload)
+                .build();
+
+        List<ServiceResponse<Event>> responses = subject.process(
+                Arrays.asList(incomingEvent, withoutChannel, incomingEvent));
+
+        assertThat(responses, hasSize(3));
+        assertThat(responses.get(0).isOk(), equalTo(true));
+        assertThat(responses.get(0).getResult().getTimestamp(), equalTo(firstEventTimestamp));
+        assertThat(responses.get(1).isOk(), equalTo(false));
+        assertThat(responses.get(1).getResponseMessages().containsKey(
+                DeviceEventProcessor.Messages.CHANNEL_MISSING.getCode()), equalTo(true));
+        assertThat(responses.get(2).isOk(), equalTo(true));
+
+        verify(deviceRegisterService, times(1)).findByApiKey(sourceApiKey);
+        verify(eventRouteExecutor, times(2)).execute(any(Event.class), any(Device.class));
+    }
+
+    @Test
+    public void shouldReportUnexpectedFailuresPerItemInBatch() throws Exception {
+        when(deviceRegisterService.findByApiKey(sourceApiKey)).thenReturn(device);
+        when(deviceLogEventService.logIncomingEvent(any(Device.class), any(Event.class)))
+                .thenThrow(new IllegalStateException("storage unavailable"))
+                .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
+
+        IncomingEvent incomingEvent = IncomingEvent.builder()
+                .apiKey(sourceApiKey)
+                .channel(incomingChannel)
+                .payload(originalPayload)
+                .build();
+
+        List<ServiceResponse<Event>> responses = subject.process(Arrays.asList(incomingEvent, incomingEvent));
+
+        assertThat(responses, hasSize(2));
+        assertThat(responses.get(0).isOk(), equalTo(false));
+        assertThat(responses.get(0).getResponseMessages().containsKey(
+                DeviceEventProcessor.Messages.PROCESSING_FAILED.getCode()), equalTo(true));
+        assertThat(responses.get(1).isOk(), equalTo(true));
+    }
+
+    @Test
+    public void shouldNotReportEventsAlreadyStoredAsFailedWhenRoutingThrows() throws Exception {
+        when(deviceRegisterService.findByApiKey(sourceApiKey)).thenReturn(device);
+        when(deviceLogEventService.logIncomingEvent(any(Device.class), any(Event.class)))
+                .thenReturn(ServiceResponseBuilder.<Event>ok().withResult(event).build());
+        when(eventRouteExecutor.execute(any(Event.class), any(Device.class)))
+                .thenThrow(new RejectedExecutionException("route pool is shut down"));
+
+        IncomingEvent incomingEvent = IncomingEvent.builder()
+                .apiKey(sourceApiKey)
+                .channel(incomingChannel)
+                .payload(originalPayload)
+                .build();
+
+        List<ServiceResponse<Event>> responses = subject.process(Collections.singletonList(incomingEvent));
+
+        assertThat(responses.get(0).isOk(), equalTo(true));
+        verify(deviceLogEventService, times(1)).logIncomingEvent(any(Device.class), any(Event.class));
+    }
+
     @Configuration
     static class BusinessLayerConfiguration {
         @Bean
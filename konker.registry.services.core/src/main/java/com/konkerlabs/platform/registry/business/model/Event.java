@@ -1,12 +1,19 @@
 package com.konkerlabs.platform.registry.business.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonView;
 import com.konkerlabs.platform.registry.business.model.behaviors.URIDealer;
 import com.konkerlabs.platform.registry.integration.serializers.EventJsonView;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.time.Instant;
 import java.time.ZoneId;
@@ -14,6 +21,8 @@ import java.time.ZonedDateTime;
 
 @Data
 @Builder
+@EqualsAndHashCode(exclude = "parsedPayload")
+@ToString(exclude = "parsedPayload")
 public class Event {
 
     private Long epochTime;
@@ -29,6 +38,25 @@ public class Event {
     @JsonView(EventJsonView.class)
     private String payload;
 
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient volatile ParsedJson parsedPayload;
+
+    /**
+     * Returns the payload parsed on first use. Every stage of the pipeline handling this
+     * event shares the same parse, as long as the payload is not replaced.
+     */
+    @JsonIgnore
+    public ParsedJson getParsedPayload() {
+        ParsedJson parsed = parsedPayload;
+        if (parsed == null || !parsed.isFor(payload)) {
+            parsed = new ParsedJson(payload);
+            parsedPayload = parsed;
+        }
+        return parsed;
+    }
+
     @Data
     @Builder
     @NoArgsConstructor
@@ -71,6 +99,7 @@ public class Event {
                 .incoming(this.incoming)
                 .outgoing(this.outgoing)
                 .payload(this.payload)
+                .parsedPayload(this.parsedPayload)
                 .build();
     }
 
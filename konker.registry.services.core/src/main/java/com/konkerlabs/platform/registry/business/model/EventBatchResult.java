@@ -0,0 +1,20 @@
+package com.konkerlabs.platform.registry.business.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of saving a batch of events: the events saved and, for each event that was not,
+ * its position in the batch and the code of the reason.
+ */
+@Data
+@Builder
+public class EventBatchResult {
+
+    private List<Event> saved;
+    private Map<Integer, String> failures;
+
+}
@@ -0,0 +1,19 @@
+package com.konkerlabs.platform.registry.business.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A page of events, with the opaque cursor that continues the same query on the next
+ * page. The cursor is null on the last page.
+ */
+@Data
+@Builder
+public class EventPage {
+
+    private List<Event> events;
+    private String next;
+
+}
@@ -30,7 +30,8 @@ public class RestDestination implements URIDealer, Validatable {
         URL_NULL("model.rest_destination.url.not_null"),
         GUID_NOT_EMPTY("model.rest_destination.guid.not_empty"),
         SERVICE_USERNAME_WITHOUT_PASSWORD("model.rest_destination.service.user_without_password"),
-        CUSTOM_BODY_INVALID("model.rest_destination.custom.body.invalid");
+        CUSTOM_BODY_INVALID("model.rest_destination.custom.body.invalid"),
+        BATCH_INVALID("model.rest_destination.batch.invalid");
 
         private String code;
 
@@ -43,6 +44,9 @@ public class RestDestination implements URIDealer, Validatable {
         }
     }
 
+    public static final int MAX_BATCH_SIZE = 1000;
+    public static final int MAX_BATCH_LINGER = 60000;
+
     public enum RestDestinationType {
     	FORWARD_MESSAGE,
     	CUSTOM_BODY;
@@ -64,6 +68,14 @@ public class RestDestination implements URIDealer, Validatable {
     private RestDestinationType type;
     private String body;
     private boolean active;
+    /**
+     * Events forwarded together in a single JSON array, batching is off below 2.
+     */
+    private Integer batchSize;
+    /**
+     * Milliseconds an incomplete batch waits for more events before it is sent.
+     */
+    private Integer batchLinger;
 
     public static final String URI_SCHEME = "rest";
 
@@ -86,6 +98,11 @@ public class RestDestination implements URIDealer, Validatable {
         return type == null ? RestDestinationType.FORWARD_MESSAGE : type;
     }
 
+    public boolean isBatched() {
+        return Optional.ofNullable(batchSize).orElse(0) > 1
+                && RestDestinationType.FORWARD_MESSAGE.equals(getType());
+    }
+
     public Optional<Map<String, Object[]>> applyValidations() {
         Map<String, Object[]> validations = new HashMap<>();
 
@@ -121,6 +138,12 @@ public class RestDestination implements URIDealer, Validatable {
         	validations.put(Validations.CUSTOM_BODY_INVALID.getCode(), null);
         }
 
+        int size = Optional.ofNullable(batchSize).orElse(0);
+        int linger = Optional.ofNullable(batchLinger).orElse(0);
+        if (size < 0 || size > MAX_BATCH_SIZE || linger < 0 || linger > MAX_BATCH_LINGER) {
+            validations.put(Validations.BATCH_INVALID.getCode(), new Object[] {MAX_BATCH_SIZE, MAX_BATCH_LINGER});
+        }
+
         return Optional.of(validations).filter(stringMap -> !stringMap.isEmpty());
     }
 
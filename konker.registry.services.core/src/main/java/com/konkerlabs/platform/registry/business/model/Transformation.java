@@ -19,7 +19,8 @@ public class Transformation implements URIDealer, Validatable {
 
     public enum Validations {
         NAME_NULL("model.transformation.name.not_null"),
-        STEPS_EMPTY("model.tranformation.steps.not_empty");
+        STEPS_EMPTY("model.tranformation.steps.not_empty"),
+        RESPONSE_CACHE_TTL_INVALID("model.transformation.response_cache_ttl.invalid");
 
         public String getCode() {
             return code;
@@ -43,9 +44,15 @@ public class Transformation implements URIDealer, Validatable {
     private Application application;
     @Singular
     private List<TransformationStep> steps = new LinkedList<>();
+    /**
+     * Seconds a step response is reused for events that lead to the same request, no
+     * caching when empty or zero.
+     */
+    private Integer responseCacheTtl;
 
 
     public static final String URI_SCHEME = "transformation";
+    public static final int MAX_RESPONSE_CACHE_TTL = 86400;
 
     @Override
     public String getUriScheme() {
@@ -71,6 +78,8 @@ public class Transformation implements URIDealer, Validatable {
             validations.put(Validations.NAME_NULL.getCode(),null);
         if (Optional.of(getSteps()).filter(transformationSteps -> transformationSteps.isEmpty()).isPresent())
             validations.put(Validations.STEPS_EMPTY.getCode(),null);
+        if (Optional.ofNullable(getResponseCacheTtl()).filter(ttl -> ttl < 0 || ttl > MAX_RESPONSE_CACHE_TTL).isPresent())
+            validations.put(Validations.RESPONSE_CACHE_TTL_INVALID.getCode(), new Object[] {MAX_RESPONSE_CACHE_TTL});
 
         steps.stream()
             .forEach(transformationStep -> {
@@ -4,16 +4,27 @@ import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.EventBatchResult;
+import com.konkerlabs.platform.registry.business.model.EventPage;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.model.validation.CommonValidations;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 public abstract class BaseEventRepositoryImpl implements EventRepository {
 
+    protected static final int READ_PAGE_SIZE = 1000;
+
     protected enum Type {
         INCOMING("incoming", EVENTS_INCOMING_COLLECTION_NAME),
         OUTGOING("outgoing", EVENTS_OUTGOING_COLLECTION_NAME);
@@ -52,24 +63,31 @@ public abstract class BaseEventRepositoryImpl implements EventRepository {
         Instant endInstant = ZonedDateTime.now().plusYears(100).toInstant();
 
         // incoming
-        List<Event> incomingEvents = findIncomingBy(tenant, originDevice.getApplication(), originDevice.getGuid(), null, startInstant, endInstant, false, null);
-        for (Event event : incomingEvents) {
-            event.getIncoming().setApplicationName(destDevice.getApplication().getName());
-            event.getIncoming().setDeviceGuid(destDevice.getGuid());
-            event.getIncoming().setDeviceId(destDevice.getDeviceId());
-
-            saveIncoming(tenant, destDevice.getApplication(), event);
-        }
+        String cursor = null;
+        do {
+            EventPage page = findIncomingPage(tenant, originDevice.getApplication(), originDevice.getGuid(), null, startInstant, endInstant, false, READ_PAGE_SIZE, cursor);
+            for (Event event : page.getEvents()) {
+                event.getIncoming().setApplicationName(destDevice.getApplication().getName());
+                event.getIncoming().setDeviceGuid(destDevice.getGuid());
+                event.getIncoming().setDeviceId(destDevice.getDeviceId());
+            }
+
+            checkCopied(saveIncomingBatch(tenant, destDevice.getApplication(), page.getEvents()));
+            cursor = page.getNext();
+        } while (cursor != null);
 
         // outgoing
-        List<Event> outgoingEvents = findOutgoingBy(tenant, originDevice.getApplication(), originDevice.getGuid(), null, startInstant, endInstant, false, null);
-        for (Event event : outgoingEvents) {
-            event.getOutgoing().setApplicationName(destDevice.getApplication().getName());
-            event.getOutgoing().setDeviceGuid(destDevice.getGuid());
-            event.getOutgoing().setDeviceId(destDevice.getDeviceId());
-
-            saveOutgoing(tenant, destDevice.getApplication(), event);
-        }
+        do {
+            EventPage page = findOutgoingPage(tenant, originDevice.getApplication(), originDevice.getGuid(), null, startInstant, endInstant, false, READ_PAGE_SIZE, cursor);
+            for (Event event : page.getEvents()) {
+                event.getOutgoing().setApplicationName(destDevice.getApplication().getName());
+                event.getOutgoing().setDeviceGuid(destDevice.getGuid());
+                event.getOutgoing().setDeviceId(destDevice.getDeviceId());
+            }
+
+            checkCopied(saveOutgoingBatch(tenant, destDevice.getApplication(), page.getEvents()));
+            cursor = page.getNext();
+        } while (cursor != null);
     }
 
     @Override
@@ -98,6 +116,57 @@ public abstract class BaseEventRepositoryImpl implements EventRepository {
                 Type.OUTGOING, false);
     }
 
+    @Override
+    public EventPage findIncomingPage(Tenant tenant,
+                                      Application application,
+                                      String deviceGuid,
+                                      String channel,
+                                      Instant startInstant,
+                                      Instant endInstant,
+                                      boolean ascending,
+                                      int pageSize,
+                                      String cursor) throws BusinessException {
+        return doFindPageCommon(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, pageSize,
+                cursor, Type.INCOMING);
+    }
+
+    @Override
+    public EventPage findOutgoingPage(Tenant tenant,
+                                      Application application,
+                                      String deviceGuid,
+                                      String channel,
+                                      Instant startInstant,
+                                      Instant endInstant,
+                                      boolean ascending,
+                                      int pageSize,
+                                      String cursor) throws BusinessException {
+        return doFindPageCommon(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending, pageSize,
+                cursor, Type.OUTGOING);
+    }
+
+    @Override
+    public Stream<Event> streamIncomingBy(Tenant tenant,
+                                          Application application,
+                                          String deviceGuid,
+                                          String channel,
+                                          Instant startInstant,
+                                          Instant endInstant,
+                                          boolean ascending) throws BusinessException {
+        return doStreamCommon(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending,
+                Type.INCOMING);
+    }
+
+    @Override
+    public Stream<Event> streamOutgoingBy(Tenant tenant,
+                                          Application application,
+                                          String deviceGuid,
+                                          String channel,
+                                          Instant startInstant,
+                                          Instant endInstant,
+                                          boolean ascending) throws BusinessException {
+        return doStreamCommon(tenant, application, deviceGuid, channel, startInstant, endInstant, ascending,
+                Type.OUTGOING);
+    }
 
     @Override
     public Event saveIncoming(Tenant tenant, Application application, Event event) throws BusinessException {
@@ -109,20 +178,156 @@ public abstract class BaseEventRepositoryImpl implements EventRepository {
         return doSaveCommon(tenant, application, event, Type.OUTGOING);
     }
 
+    @Override
+    public EventBatchResult saveIncomingBatch(Tenant tenant, Application application, List<Event> events) throws BusinessException {
+        return doSaveBatchCommon(tenant, application, events, Type.INCOMING);
+    }
+
+    @Override
+    public EventBatchResult saveOutgoingBatch(Tenant tenant, Application application, List<Event> events) throws BusinessException {
+        return doSaveBatchCommon(tenant, application, events, Type.OUTGOING);
+    }
+
     protected abstract Event doSave(Tenant tenant, Application application, Event event, Type incoming) throws BusinessException;
 
+    /**
+     * Saves the events, given by their position in the batch, one at a time. Stores that
+     * can write many events at once override it; the events saved are returned and those
+     * that were not are added to the failures.
+     */
+    protected List<Event> doSaveBatch(Tenant tenant, Application application, Map<Integer, Event> events,
+            Map<Integer, String> failures, Type type) throws BusinessException {
+
+        List<Event> saved = new ArrayList<>(events.size());
+        for (Map.Entry<Integer, Event> entry : events.entrySet()) {
+            try {
+                saved.add(doSave(tenant, application, entry.getValue(), type));
+            } catch (BusinessException e) {
+                failures.put(entry.getKey(), e.getMessage());
+            }
+        }
+
+        return saved;
+
+    }
+
     protected abstract void doRemoveBy(Tenant tenant, Application application, String deviceGuid, Type incoming) throws Exception;
 
     protected abstract List<Event> doFindBy(Tenant tenant, Application application, String deviceGuid, String channel,
             Instant startInstant, Instant endInstant, boolean ascending,
             Integer limit, Type incoming, boolean b) throws BusinessException;
 
+    /**
+     * Streams the events of the query through a cursor of the store that fetches at most
+     * READ_PAGE_SIZE events at a time, releasing the cursor when the stream is closed.
+     */
+    protected abstract Stream<Event> doStream(Tenant tenant, Application application, String deviceGuid, String channel,
+            Instant startInstant, Instant endInstant, boolean ascending, Type type) throws BusinessException;
+
+    /**
+     * Pages through the events by their timestamp. The cursor holds the timestamp of the
+     * last event returned and how many events with that timestamp were returned so far,
+     * which the next page skips. This only holds when the store returns the events with the
+     * same timestamp in the same order on every query, so stores that can sort them by a
+     * unique key page with it instead.
+     */
+    protected EventPage doFindPage(Tenant tenant, Application application, String deviceGuid, String channel,
+            Instant startInstant, Instant endInstant, boolean ascending,
+            int pageSize, String cursor, Type type) throws BusinessException {
+
+        Instant boundary = null;
+        int skip = 0;
+
+        if (cursor != null) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+                boundary = Instant.ofEpochMilli(Long.parseLong(position[0]));
+                skip = Integer.parseInt(position[1]);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new BusinessException(Validations.CURSOR_INVALID.getCode());
+            }
+
+            if (ascending) {
+                startInstant = boundary.minusMillis(1);
+            } else {
+                endInstant = boundary;
+            }
+        }
+
+        List<Event> events = doFindBy(tenant, application, deviceGuid, channel,
+                startInstant, endInstant, ascending,
+                pageSize + skip + 1, type, false);
+
+        int from = 0;
+        while (from < skip && from < events.size() && events.get(from).getTimestamp().equals(boundary)) {
+            from++;
+        }
+
+        int to = Math.min(events.size(), from + pageSize);
+        List<Event> page = events.subList(from, to);
+
+        String next = null;
+        if (events.size() > to) {
+            Instant last = page.get(page.size() - 1).getTimestamp();
+            long returned = page.stream().filter(event -> event.getTimestamp().equals(last)).count();
+            if (last.equals(boundary)) {
+                returned += skip;
+            }
+
+            String position = last.toEpochMilli() + ":" + returned;
+            next = Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return EventPage.builder()
+                .events(page)
+                .next(next)
+                .build();
+
+    }
+
     private Event doSaveCommon(Tenant tenant, Application application, Event event, Type incoming) throws BusinessException {
 
         Optional.ofNullable(tenant)
                 .filter(tenant1 -> Optional.ofNullable(tenant1.getDomainName()).filter(s -> !s.isEmpty()).isPresent())
                 .orElseThrow(() -> new BusinessException(CommonValidations.TENANT_NULL.getCode()));
-                Optional.ofNullable(event)
+
+        validateEvent(event);
+
+        return doSave(tenant, application, event, incoming);
+
+    }
+
+    private EventBatchResult doSaveBatchCommon(Tenant tenant, Application application, List<Event> events, Type type) throws BusinessException {
+
+        Optional.ofNullable(tenant)
+                .filter(tenant1 -> Optional.ofNullable(tenant1.getDomainName()).filter(s -> !s.isEmpty()).isPresent())
+                .orElseThrow(() -> new BusinessException(CommonValidations.TENANT_NULL.getCode()));
+        Optional.ofNullable(events)
+                .orElseThrow(() -> new BusinessException(CommonValidations.RECORD_NULL.getCode()));
+
+        Map<Integer, Event> valid = new LinkedHashMap<>();
+        Map<Integer, String> failures = new TreeMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            try {
+                validateEvent(events.get(i));
+                valid.put(i, events.get(i));
+            } catch (BusinessException e) {
+                failures.put(i, e.getMessage());
+            }
+        }
+
+        List<Event> saved = valid.isEmpty() ? new ArrayList<>() : doSaveBatch(tenant, application, valid, failures, type);
+
+        return EventBatchResult.builder()
+                .saved(saved)
+                .failures(failures)
+                .build();
+
+    }
+
+    private void validateEvent(Event event) throws BusinessException {
+
+        Optional.ofNullable(event)
                 .orElseThrow(() -> new BusinessException(CommonValidations.RECORD_NULL.getCode()));
         Optional.ofNullable(event.getIncoming())
                 .orElseThrow(() -> new BusinessException(Validations.EVENT_INCOMING_NULL.getCode()));
@@ -131,7 +336,13 @@ public abstract class BaseEventRepositoryImpl implements EventRepository {
         Optional.ofNullable(event.getIncoming().getChannel()).filter(s -> !s.isEmpty())
                 .orElseThrow(() -> new BusinessException(Validations.EVENT_INCOMING_CHANNEL_NULL.getCode()));
 
-        return doSave(tenant, application, event, incoming);
+    }
+
+    private void checkCopied(EventBatchResult result) throws BusinessException {
+
+        Optional<String> failure = result.getFailures().values().stream().findFirst();
+        if (failure.isPresent())
+            throw new BusinessException(failure.get());
 
     }
 
@@ -147,6 +358,35 @@ public abstract class BaseEventRepositoryImpl implements EventRepository {
 
     }
 
+    private EventPage doFindPageCommon(Tenant tenant, Application application, String deviceGuid, String channel,
+            Instant startInstant, Instant endInstant, boolean ascending,
+            int pageSize, String cursor, Type type) throws BusinessException {
+
+        Optional.ofNullable(tenant)
+                .filter(tenant1 -> Optional.ofNullable(tenant1.getDomainName()).filter(s -> !s.isEmpty()).isPresent())
+                .orElseThrow(() -> new IllegalArgumentException("Tenant cannot be null"));
+
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("Page size must be positive");
+
+        return doFindPage(tenant, application, deviceGuid, channel,
+                startInstant, endInstant, ascending,
+                pageSize, cursor, type);
+
+    }
+
+    private Stream<Event> doStreamCommon(Tenant tenant, Application application, String deviceGuid, String channel,
+            Instant startInstant, Instant endInstant, boolean ascending, Type type) throws BusinessException {
+
+        Optional.ofNullable(tenant)
+                .filter(tenant1 -> Optional.ofNullable(tenant1.getDomainName()).filter(s -> !s.isEmpty()).isPresent())
+                .orElseThrow(() -> new IllegalArgumentException("Tenant cannot be null"));
+
+        return doStream(tenant, application, deviceGuid, channel,
+                startInstant, endInstant, ascending, type);
+
+    }
+
     private List<Event> doFindByCommon(Tenant tenant, Application application, String deviceGuid, String channel,
             Instant startInstant, Instant endInstant, boolean ascending,
             Integer limit, Type incoming, boolean isDeleted) throws BusinessException {
@@ -4,10 +4,13 @@ import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.EventBatchResult;
+import com.konkerlabs.platform.registry.business.model.EventPage;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface EventRepository {
 
@@ -23,7 +26,8 @@ public interface EventRepository {
         EVENT_INCOMING_CHANNEL_NULL("repository.events.incoming_channel.not_null"),
         EVENT_OUTGOING_NULL("repository.events.outgoing.not_null"),
         EVENT_OUTGOING_CHANNEL_NULL("repository.events.outgoing_channel.not_null"),
-        EVENT_TIMESTAMP_NULL("repository.events.timestamp.not_null");
+        EVENT_TIMESTAMP_NULL("repository.events.timestamp.not_null"),
+        CURSOR_INVALID("repository.events.cursor.invalid");
 
         private String code;
 
@@ -41,6 +45,14 @@ public interface EventRepository {
 
     Event saveOutgoing(Tenant tenant, Application application, Event event) throws BusinessException;
 
+    /**
+     * Saves a batch of incoming events of the tenant. Events that cannot be saved are
+     * reported in the result by their position in the batch and do not stop the others.
+     */
+    EventBatchResult saveIncomingBatch(Tenant tenant, Application application, List<Event> events) throws BusinessException;
+
+    EventBatchResult saveOutgoingBatch(Tenant tenant, Application application, List<Event> events) throws BusinessException;
+
     List<Event> findIncomingBy(Tenant tenant,
                                Application application,
                                String deviceGuid,
@@ -59,6 +71,51 @@ public interface EventRepository {
                                boolean ascending,
                                Integer limit) throws BusinessException;
 
+    /**
+     * Returns a page of at most pageSize incoming events. The query continues where the
+     * given cursor, taken from a previous page of the same query, left off, or starts
+     * over if it is null.
+     */
+    EventPage findIncomingPage(Tenant tenant,
+                               Application application,
+                               String deviceGuid,
+                               String channel,
+                               Instant startInstant,
+                               Instant endInstant,
+                               boolean ascending,
+                               int pageSize,
+                               String cursor) throws BusinessException;
+
+    EventPage findOutgoingPage(Tenant tenant,
+                               Application application,
+                               String deviceGuid,
+                               String channel,
+                               Instant startInstant,
+                               Instant endInstant,
+                               boolean ascending,
+                               int pageSize,
+                               String cursor) throws BusinessException;
+
+    /**
+     * Streams every incoming event of the query, reading it from the store a bounded number
+     * of events at a time. The stream holds a cursor open and must be closed once read.
+     */
+    Stream<Event> streamIncomingBy(Tenant tenant,
+                                   Application application,
+                                   String deviceGuid,
+                                   String channel,
+                                   Instant startInstant,
+                                   Instant endInstant,
+                                   boolean ascending) throws BusinessException;
+
+    Stream<Event> streamOutgoingBy(Tenant tenant,
+                                   Application application,
+                                   String deviceGuid,
+                                   String channel,
+                                   Instant startInstant,
+                                   Instant endInstant,
+                                   boolean ascending) throws BusinessException;
+
     void removeBy(Tenant tenant, Application application, String deviceGuid) throws BusinessException;
 
     void copy(Tenant tenant, Device originDevice, Device destDevice) throws BusinessException;
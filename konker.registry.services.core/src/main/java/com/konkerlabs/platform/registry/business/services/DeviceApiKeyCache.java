@@ -0,0 +1,73 @@
+package com.konkerlabs.platform.registry.business.services;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.config.DeviceCacheConfig;
+
+/**
+ * Bounded, time limited cache of devices resolved by API key.
+ *
+ * Only found devices are cached. Entries are invalidated by the services that change a
+ * device; changes made by other instances are seen once the entry expires. Cached devices
+ * are shared between callers and must not be modified.
+ */
+@Component
+public class DeviceApiKeyCache {
+
+    private final Cache<String, Device> cache;
+
+    public DeviceApiKeyCache() {
+        this(new DeviceCacheConfig());
+    }
+
+    public DeviceApiKeyCache(DeviceCacheConfig config) {
+        if (config.isEnabled()) {
+            cache = CacheBuilder.newBuilder()
+                    .maximumSize(config.getMaxSize())
+                    .expireAfterWrite(config.getExpireAfterWrite(), TimeUnit.SECONDS)
+                    .build();
+        } else {
+            cache = null;
+        }
+    }
+
+    public Device get(String apiKey, Function<String, Device> loader) {
+        if (cache == null || apiKey == null) {
+            return loader.apply(apiKey);
+        }
+
+        Device device = cache.getIfPresent(apiKey);
+        if (device == null) {
+            device = loader.apply(apiKey);
+            if (device != null) {
+                cache.put(apiKey, device);
+            }
+        }
+
+        return device;
+    }
+
+    public void invalidate(String apiKey) {
+        if (cache != null && apiKey != null) {
+            cache.invalidate(apiKey);
+        }
+    }
+
+    public void invalidate(Device device) {
+        Optional.ofNullable(device).map(Device::getApiKey).ifPresent(this::invalidate);
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+}
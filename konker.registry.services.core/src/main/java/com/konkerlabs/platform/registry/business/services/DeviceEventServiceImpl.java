@@ -3,6 +3,7 @@ package com.konkerlabs.platform.registry.business.services;
 import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.EventPage;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.model.validation.CommonValidations;
 import com.konkerlabs.platform.registry.business.repositories.events.api.EventRepository;
@@ -139,4 +140,78 @@ public class DeviceEventServiceImpl implements DeviceEventService {
                     .build();
         }
     }
+
+    @Override
+    public ServiceResponse<EventPage> findIncomingPage(Tenant tenant,
+                                                       Application application,
+                                                       String deviceGuid,
+                                                       String channel,
+                                                       Instant startingTimestamp,
+                                                       Instant endTimestamp,
+                                                       boolean ascending,
+                                                       Integer pageSize,
+                                                       String cursor) {
+        return findPage(tenant, application, pageSize, () -> eventRepository.findIncomingPage(tenant,
+                application,
+                deviceGuid,
+                channel,
+                startingTimestamp,
+                endTimestamp,
+                ascending,
+                pageSize,
+                cursor));
+    }
+
+    @Override
+    public ServiceResponse<EventPage> findOutgoingPage(Tenant tenant,
+                                                       Application application,
+                                                       String deviceGuid,
+                                                       String channel,
+                                                       Instant startingTimestamp,
+                                                       Instant endTimestamp,
+                                                       boolean ascending,
+                                                       Integer pageSize,
+                                                       String cursor) {
+        return findPage(tenant, application, pageSize, () -> eventRepository.findOutgoingPage(tenant,
+                application,
+                deviceGuid,
+                channel,
+                startingTimestamp,
+                endTimestamp,
+                ascending,
+                pageSize,
+                cursor));
+    }
+
+    private ServiceResponse<EventPage> findPage(Tenant tenant, Application application, Integer pageSize, PageQuery query) {
+        if (!Optional.ofNullable(tenant).isPresent())
+            return ServiceResponseBuilder.<EventPage>error()
+                    .withMessage(CommonValidations.TENANT_NULL.getCode())
+                    .build();
+
+        if (!Optional.ofNullable(application).isPresent())
+            return ServiceResponseBuilder.<EventPage>error()
+                    .withMessage(ApplicationService.Validations.APPLICATION_DOES_NOT_EXIST.getCode())
+                    .build();
+
+        if (!Optional.ofNullable(pageSize).filter(size -> size > 0).isPresent())
+            return ServiceResponseBuilder.<EventPage>error()
+                    .withMessage(Validations.LIMIT_NULL.getCode())
+                    .build();
+
+        try {
+            return ServiceResponseBuilder.<EventPage>ok()
+                    .withResult(query.find()).build();
+        } catch (BusinessException e) {
+            return ServiceResponseBuilder.<EventPage>error()
+                    .withMessage(e.getMessage())
+                    .build();
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageQuery {
+        EventPage find() throws BusinessException;
+    }
+
 }
@@ -44,6 +44,12 @@ public class DeviceModelServiceImpl implements DeviceModelService {
     @Autowired
     private DeviceRepository deviceRepository;
 
+    @Autowired
+    private ModelLocationCache modelLocationCache;
+
+    @Autowired
+    private ModelLocationDeviceIndex modelLocationDeviceIndex;
+
     private ServiceResponse<DeviceModel> basicValidate(Tenant tenant, Application application, DeviceModel deviceModel) {
 		if (!Optional.ofNullable(tenant).isPresent()) {
 			Application app = Application.builder()
@@ -228,6 +234,8 @@ public class DeviceModelServiceImpl implements DeviceModelService {
 		}
 
 		DeviceModel updated = deviceModelRepository.save(devModelFromDB);
+		modelLocationCache.invalidate(tenant, application);
+		modelLocationDeviceIndex.invalidate(tenant, application);
 
 		LOGGER.info("DeviceModel updated. Name: {}", devModelFromDB.getName(), tenant.toURI(), tenant.getLogLevel());
 
@@ -277,6 +285,8 @@ public class DeviceModelServiceImpl implements DeviceModelService {
 		}
 
 		deviceModelRepository.delete(deviceModel);
+		modelLocationCache.invalidate(tenant, application);
+		modelLocationDeviceIndex.invalidate(tenant, application);
 
 		return ServiceResponseBuilder.<DeviceModel>ok()
 				.withMessage(Messages.DEVICE_MODEL_REMOVED_SUCCESSFULLY.getCode())
@@ -70,6 +70,12 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
     @Autowired
     private DeviceModelService deviceModelService;
 
+    @Autowired
+    private DeviceApiKeyCache deviceApiKeyCache;
+
+    @Autowired
+    private ModelLocationDeviceIndex modelLocationDeviceIndex;
+
     @PostConstruct
     public void init() {
         try {
@@ -168,6 +174,7 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         LOGGER.info("Device created. Id: {}", device.getDeviceId(), tenant.toURI(), tenant.getLogLevel());
 
         Device saved = deviceRepository.save(device);
+        modelLocationDeviceIndex.update(tenant, application, saved);
 
         return ServiceResponseBuilder.<Device>ok().withResult(saved).build();
     }
@@ -226,7 +233,7 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
 
     @Override
     public Device findByApiKey(String apiKey) {
-        return deviceRepository.findByApiKey(apiKey);
+        return deviceApiKeyCache.get(apiKey, deviceRepository::findByApiKey);
     }
 
     @Override
@@ -254,6 +261,8 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         found.setActive(!found.isActive());
 
         Device updated = deviceRepository.save(found);
+        deviceApiKeyCache.invalidate(found);
+        modelLocationDeviceIndex.update(tenant, application, updated);
 
         return ServiceResponseBuilder.<Device>ok()
                 .withResult(updated)
@@ -267,11 +276,14 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         if (serviceResponse.isOk()) {
             try {
                 Device existingDevice = serviceResponse.getResult();
+                String previousApiKey = existingDevice.getApiKey();
                 PasswordManager passwordManager = new PasswordManager();
                 String randomPassword = passwordManager.generateRandomPassword(12);
                 existingDevice.setSecurityHash(passwordManager.createHash(randomPassword));
                 existingDevice.regenerateApiKey();
                 Device saved = deviceRepository.save(existingDevice);
+                deviceApiKeyCache.invalidate(previousApiKey);
+                modelLocationDeviceIndex.update(tenant, application, saved);
 
                 LOGGER.info("Password generated for device id: {}", existingDevice.getDeviceId(), tenant.toURI(), tenant.getLogLevel());
 
@@ -333,6 +345,8 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         }
 
         Device saved = deviceRepository.save(deviceFromDB);
+        deviceApiKeyCache.invalidate(deviceFromDB);
+        modelLocationDeviceIndex.update(tenant, application, saved);
 
         LOGGER.info("Device updated. Id: {}", deviceFromDB.getDeviceId(), tenant.toURI(), tenant.getLogLevel());
 
@@ -372,6 +386,8 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         try {
             eventRepository.removeBy(tenant, application, device.getGuid());
             deviceRepository.delete(device);
+            deviceApiKeyCache.invalidate(device);
+            modelLocationDeviceIndex.remove(tenant, application, device);
         } catch (BusinessException e) {
             return ServiceResponseBuilder.<Device>error()
                     .withMessage(Messages.DEVICE_REMOVED_UNSUCCESSFULLY.getCode())
@@ -563,8 +579,11 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
 
         // changes the origin key to stop receiving messages from the old device
         originDevice = deviceRepository.findByTenantAndApplicationAndGuid(tenant.getId(), originApplication.getName(), guid);
-        originDevice.setApiKey(String.format("%s-TOBEDELETED", originDevice.getApiKey()));
+        String originApiKey = originDevice.getApiKey();
+        originDevice.setApiKey(String.format("%s-TOBEDELETED", originApiKey));
         deviceRepository.save(originDevice);
+        deviceApiKeyCache.invalidate(originApiKey);
+        modelLocationDeviceIndex.update(tenant, originApplication, originDevice);
 
         // copy the events to the new device
         Device newDevice = cloneResponse.getResult();
@@ -628,6 +647,7 @@ public class DeviceRegisterServiceImpl implements DeviceRegisterService {
         LOGGER.info("Device created. Id: {}", device.getDeviceId(), tenant.toURI(), tenant.getLogLevel());
 
         Device saved = deviceRepository.save(device);
+        modelLocationDeviceIndex.update(tenant, destApplication, saved);
 
         return ServiceResponseBuilder.<Device>ok().withResult(saved).build();
 
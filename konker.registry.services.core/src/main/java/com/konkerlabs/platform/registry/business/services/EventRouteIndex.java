@@ -0,0 +1,156 @@
+package com.konkerlabs.platform.registry.business.services;
+
+import static com.konkerlabs.platform.registry.business.model.EventRoute.DEVICE_MQTT_CHANNEL;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.EventRoute;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
+import com.konkerlabs.platform.registry.config.EventRouteCacheConfig;
+
+/**
+ * In memory index of the active event routes of each application, keyed by incoming actor
+ * URI and channel. Model location routes are kept apart by channel, since any device may
+ * belong to them.
+ *
+ * An application's routes are loaded on first use and dropped by the services that change
+ * them; changes made by other instances are seen once the entry expires. Indexed routes are
+ * shared between callers and must not be modified.
+ */
+@Component
+public class EventRouteIndex {
+
+    private final Cache<String, RouteTable> cache;
+
+    public EventRouteIndex() {
+        this(new EventRouteCacheConfig());
+    }
+
+    public EventRouteIndex(EventRouteCacheConfig config) {
+        if (config.isEnabled()) {
+            cache = CacheBuilder.newBuilder()
+                    .maximumSize(config.getMaxSize())
+                    .expireAfterWrite(config.getExpireAfterWrite(), TimeUnit.SECONDS)
+                    .build();
+        } else {
+            cache = null;
+        }
+    }
+
+    /**
+     * Returns the active routes of the application whose incoming actor is the given URI,
+     * or a model location, and whose incoming channel is the given one. Routes are taken
+     * from <code>loader</code> when the application is not indexed yet; failed responses
+     * are returned as they are and not indexed.
+     */
+    public ServiceResponse<List<EventRoute>> getMatching(Tenant tenant,
+                                                         Application application,
+                                                         URI incomingUri,
+                                                         String channel,
+                                                         Supplier<ServiceResponse<List<EventRoute>>> loader) {
+        String key = keyFor(tenant, application);
+        RouteTable routeTable = Optional.ofNullable(cache)
+                .filter(c -> key != null)
+                .map(c -> c.getIfPresent(key))
+                .orElse(null);
+
+        if (routeTable == null) {
+            ServiceResponse<List<EventRoute>> response = loader.get();
+            if (!response.isOk()) {
+                return response;
+            }
+
+            routeTable = new RouteTable(response.getResult());
+            if (cache != null && key != null) {
+                cache.put(key, routeTable);
+            }
+        }
+
+        return ServiceResponseBuilder.<List<EventRoute>>ok()
+                .withResult(routeTable.getMatching(incomingUri, channel))
+                .build();
+    }
+
+    public void invalidate(Tenant tenant, Application application) {
+        String key = keyFor(tenant, application);
+        if (cache != null && key != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private String keyFor(Tenant tenant, Application application) {
+        if (tenant == null || tenant.getId() == null || application == null || application.getName() == null) {
+            return null;
+        }
+
+        return tenant.getId() + ":" + application.getName();
+    }
+
+    private static class RouteTable {
+
+        private final Map<URI, Map<String, List<EventRoute>>> byIncomingUri = new HashMap<>();
+        private final Map<String, List<EventRoute>> modelLocationByChannel = new HashMap<>();
+
+        RouteTable(List<EventRoute> eventRoutes) {
+            Optional.ofNullable(eventRoutes).orElse(Collections.emptyList()).stream()
+                    .filter(EventRoute::isActive)
+                    .filter(route -> route.getIncoming() != null && route.getIncoming().getUri() != null)
+                    .forEach(this::add);
+        }
+
+        private void add(EventRoute eventRoute) {
+            String channel = Optional.ofNullable(eventRoute.getIncoming().getData())
+                    .map(data -> data.get(DEVICE_MQTT_CHANNEL))
+                    .orElse(null);
+            if (channel == null) {
+                return;
+            }
+
+            Map<String, List<EventRoute>> byChannel = eventRoute.getIncoming().isModelLocation()
+                    ? modelLocationByChannel
+                    : byIncomingUri.computeIfAbsent(eventRoute.getIncoming().getUri(), uri -> new HashMap<>());
+
+            byChannel.computeIfAbsent(channel, c -> new ArrayList<>()).add(eventRoute);
+        }
+
+        List<EventRoute> getMatching(URI incomingUri, String channel) {
+            List<EventRoute> deviceRoutes = Optional.ofNullable(byIncomingUri.get(incomingUri))
+                    .map(byChannel -> byChannel.get(channel))
+                    .orElse(Collections.emptyList());
+            List<EventRoute> modelLocationRoutes = modelLocationByChannel.getOrDefault(channel, Collections.emptyList());
+
+            if (modelLocationRoutes.isEmpty()) {
+                return Collections.unmodifiableList(deviceRoutes);
+            }
+
+            List<EventRoute> matching = new ArrayList<>(deviceRoutes.size() + modelLocationRoutes.size());
+            matching.addAll(deviceRoutes);
+            matching.addAll(modelLocationRoutes);
+
+            return matching;
+        }
+
+    }
+
+}
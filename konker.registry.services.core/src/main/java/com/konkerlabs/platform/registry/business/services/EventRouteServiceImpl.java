@@ -57,6 +57,8 @@ public class EventRouteServiceImpl implements EventRouteService {
     private LocationRepository locationRepository;
     @Autowired
     private RestDestinationRepository restRepository;
+    @Autowired
+    private EventRouteIndex eventRouteIndex;
 
     @Override
     public ServiceResponse<EventRoute> save(Tenant tenant, Application application, EventRoute route) {
@@ -98,6 +100,7 @@ public class EventRouteServiceImpl implements EventRouteService {
         }
 
         EventRoute saved = eventRouteRepository.save(route);
+        eventRouteIndex.invalidate(tenant, application);
 
         LOGGER.info("Route created. Name: {}", route.getName(), tenant.toURI(), tenant.getLogLevel());
 
@@ -168,6 +171,7 @@ public class EventRouteServiceImpl implements EventRouteService {
         }
 
         EventRoute saved = eventRouteRepository.save(current);
+        eventRouteIndex.invalidate(tenant, application);
 
         LOGGER.info("Route updated. Name: {}", saved.getName(), tenant.toURI(), tenant.getLogLevel());
 
@@ -341,6 +345,7 @@ public class EventRouteServiceImpl implements EventRouteService {
                     .build();
 
         eventRouteRepository.delete(route);
+        eventRouteIndex.invalidate(tenant, application);
 
         LOGGER.info("Route removed. Name: {}", route.getName(), tenant.toURI(), tenant.getLogLevel());
 
@@ -20,6 +20,7 @@ import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBui
 import com.konkerlabs.platform.registry.config.EventStorageConfig;
 import com.konkerlabs.platform.registry.type.EventStorageConfigType;
 import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -60,9 +61,6 @@ public class EventSchemaServiceImpl implements EventSchemaService {
     @Autowired
     private DeviceRegisterService deviceRegisterService;
 
-    @Autowired
-    private JsonParsingService jsonParsingService;
-
     @Autowired
     private MongoTemplate mongoTemplate;
 
@@ -112,7 +110,7 @@ public class EventSchemaServiceImpl implements EventSchemaService {
         EventSchema toBeSaved = null;
         try {
             EventActor incoming = event.getIncoming();
-            toBeSaved = prepareSchemaFor(incoming.getTenantDomain(), incoming.getApplicationName(), incoming.getDeviceGuid(), incoming.getChannel(),event.getPayload());
+            toBeSaved = prepareSchemaFor(incoming.getTenantDomain(), incoming.getApplicationName(), incoming.getDeviceGuid(), incoming.getChannel(),event.getParsedPayload());
         } catch (JsonProcessingException e) {
             return ServiceResponseBuilder.<EventSchema>error()
                     .withMessage(Validations.EVENT_INVALID_PAYLOAD.getCode()).build();
@@ -128,12 +126,12 @@ public class EventSchemaServiceImpl implements EventSchemaService {
         return ServiceResponseBuilder.<EventSchema>ok().build();
     }
 
-    private EventSchema prepareSchemaFor(String tenantDomain, String applicationName, String deviceId, String channel, String payload) throws JsonProcessingException {
+    private EventSchema prepareSchemaFor(String tenantDomain, String applicationName, String deviceId, String channel, ParsedJson payload) throws JsonProcessingException {
         Tenant tenant = tenantRepository.findByDomainName(tenantDomain);
         Application application = applicationRepository.findByTenantAndName(tenant.getId(), applicationName);
         ServiceResponse<EventSchema> existing = findIncomingBy(tenant, application, deviceId, channel);
 
-        Map<String,JsonParsingService.JsonPathData> data = jsonParsingService.toFlatMap(payload);
+        Map<String,JsonParsingService.JsonPathData> data = payload.getFlatMap();
 
         EventSchema eventSchema = Optional.of(existing)
                 .filter(eventSchemaServiceResponse -> eventSchemaServiceResponse.isOk())
@@ -52,6 +52,12 @@ public class LocationServiceImpl implements LocationService {
     @Autowired
     private MongoTemplate mongoTemplate;
 
+    @Autowired
+    private ModelLocationCache modelLocationCache;
+
+    @Autowired
+    private ModelLocationDeviceIndex modelLocationDeviceIndex;
+
     @Override
     public ServiceResponse<Location> save(Tenant tenant, Application application, Location location) {
 
@@ -93,6 +99,8 @@ public class LocationServiceImpl implements LocationService {
         }
 
         Location saved = locationRepository.save(location);
+        modelLocationCache.invalidate(tenant, application);
+        modelLocationDeviceIndex.invalidate(tenant, application);
 
         LOGGER.info("Location created. Id: {}", location.getId(), tenant.toURI(), tenant.getLogLevel());
 
@@ -153,6 +161,8 @@ public class LocationServiceImpl implements LocationService {
         locationFromDB.setParent(updatingLocation.getParent());
 
         Location saved = locationRepository.save(locationFromDB);
+        modelLocationCache.invalidate(tenant, application);
+        modelLocationDeviceIndex.invalidate(tenant, application);
 
         LOGGER.info("Location updated. Id: {}", locationFromDB.getId(), tenant.toURI(), tenant.getLogLevel());
 
@@ -231,6 +241,8 @@ public class LocationServiceImpl implements LocationService {
         for (Location node: allTreeNodes) {
             locationRepository.delete(node);
         }
+        modelLocationCache.invalidate(tenant, application);
+        modelLocationDeviceIndex.invalidate(tenant, application);
 
         LOGGER.info("Location removed. Id: {}", location.getId(), tenant.toURI(), tenant.getLogLevel());
 
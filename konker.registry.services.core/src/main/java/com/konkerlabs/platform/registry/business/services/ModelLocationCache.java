@@ -0,0 +1,195 @@
+package com.konkerlabs.platform.registry.business.services;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.model.DeviceModel;
+import com.konkerlabs.platform.registry.business.model.Location;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.DeviceModelRepository;
+import com.konkerlabs.platform.registry.business.services.api.LocationSearchService;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import com.konkerlabs.platform.registry.config.ModelLocationCacheConfig;
+
+/**
+ * Cache of the device model and location subtree addressed by model location URIs, so
+ * that telling whether a device belongs to one is a couple of hash lookups.
+ *
+ * Memberships are resolved on first use and kept per application. The services that
+ * change device models or locations drop the whole application, since moving a location
+ * changes every subtree above it; changes made by other instances are seen once the
+ * application expires. A membership resolved while its application is dropped lands in
+ * the dropped map and is never served. Unknown models or locations are not cached.
+ */
+@Component
+public class ModelLocationCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModelLocationCache.class);
+
+    @Autowired
+    private DeviceModelRepository deviceModelRepository;
+    @Autowired
+    private LocationSearchService locationSearchService;
+
+    private final Cache<String, ConcurrentMap<String, Membership>> cache;
+
+    public ModelLocationCache() {
+        this(new ModelLocationCacheConfig());
+    }
+
+    public ModelLocationCache(ModelLocationCacheConfig config) {
+        if (config.isEnabled()) {
+            cache = CacheBuilder.newBuilder()
+                    .maximumSize(config.getMaxSize())
+                    .expireAfterWrite(config.getExpireAfterWrite(), TimeUnit.SECONDS)
+                    .build();
+        } else {
+            cache = null;
+        }
+    }
+
+    public Optional<Membership> getMembership(Tenant tenant, Application application, URI modelLocationUri) {
+        String uriPath = modelLocationUri.getPath();
+        if (uriPath.startsWith("/")) {
+            uriPath = uriPath.substring(1);
+        }
+
+        String guids[] = uriPath.split("/");
+        if (guids.length < 2) {
+            LOGGER.warn("Invalid model location URI: {}", uriPath);
+            return Optional.empty();
+        }
+
+        return getMembership(tenant, application, guids[0], guids[1]);
+    }
+
+    public Optional<Membership> getMembership(Tenant tenant, Application application, String deviceModelGuid, String locationGuid) {
+        ConcurrentMap<String, Membership> memberships = membershipsOf(tenant, application);
+        String key = deviceModelGuid + "/" + locationGuid;
+
+        Membership membership = memberships != null ? memberships.get(key) : null;
+        if (membership == null) {
+            membership = load(tenant, application, deviceModelGuid, locationGuid);
+            if (membership != null && memberships != null) {
+                memberships.put(key, membership);
+            }
+        }
+
+        return Optional.ofNullable(membership);
+    }
+
+    public void invalidate(Tenant tenant, Application application) {
+        String key = keyFor(tenant, application);
+        if (cache != null && key != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private ConcurrentMap<String, Membership> membershipsOf(Tenant tenant, Application application) {
+        String key = keyFor(tenant, application);
+        if (cache == null || key == null) {
+            return null;
+        }
+
+        try {
+            return cache.get(key, ConcurrentHashMap::new);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private Membership load(Tenant tenant, Application application, String deviceModelGuid, String locationGuid) {
+        DeviceModel deviceModel = deviceModelRepository.findByTenantIdApplicationNameAndGuid(
+                tenant.getId(), application.getName(), deviceModelGuid);
+        if (deviceModel == null) {
+            return null;
+        }
+
+        ServiceResponse<Location> locationService = locationSearchService.findByGuid(tenant, application, locationGuid);
+        if (!locationService.isOk()) {
+            return null;
+        }
+
+        Location location = locationService.getResult();
+        locationService = locationSearchService.findByName(tenant, application, location.getName(), true);
+        if (!locationService.isOk()) {
+            return null;
+        }
+
+        List<Location> nodes = Optional.ofNullable(LocationTreeUtils.getNodesList(locationService.getResult()))
+                .orElse(Collections.emptyList());
+
+        return new Membership(deviceModel, locationGuid, nodes.stream().map(Location::getGuid).collect(Collectors.toSet()));
+    }
+
+    private String keyFor(Tenant tenant, Application application) {
+        if (tenant == null || tenant.getId() == null || application == null || application.getName() == null) {
+            return null;
+        }
+
+        return tenant.getId() + ":" + application.getName();
+    }
+
+    public static class Membership {
+
+        private final DeviceModel deviceModel;
+        private final String locationGuid;
+        private final Set<String> locationGuids;
+
+        public Membership(DeviceModel deviceModel, String locationGuid, Set<String> locationGuids) {
+            this.deviceModel = deviceModel;
+            this.locationGuid = locationGuid;
+            this.locationGuids = Collections.unmodifiableSet(locationGuids);
+        }
+
+        public DeviceModel getDeviceModel() {
+            return deviceModel;
+        }
+
+        /**
+         * GUID of the addressed location.
+         */
+        public String getLocationGuid() {
+            return locationGuid;
+        }
+
+        /**
+         * GUIDs of the addressed location and all of its descendants.
+         */
+        public Set<String> getLocationGuids() {
+            return locationGuids;
+        }
+
+        public boolean contains(Device device) {
+            return device.getDeviceModel() != null
+                    && device.getLocation() != null
+                    && deviceModel.getGuid().equals(device.getDeviceModel().getGuid())
+                    && locationGuids.contains(device.getLocation().getGuid());
+        }
+
+    }
+
+}
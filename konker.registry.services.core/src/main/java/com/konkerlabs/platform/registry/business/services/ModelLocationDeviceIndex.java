@@ -0,0 +1,181 @@
+package com.konkerlabs.platform.registry.business.services;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.DeviceRepository;
+import com.konkerlabs.platform.registry.business.services.ModelLocationCache.Membership;
+import com.konkerlabs.platform.registry.config.ModelLocationCacheConfig;
+
+/**
+ * Index of the active devices that belong to each model location, so that fanning an
+ * event out to one only touches its own devices.
+ *
+ * Devices are loaded by model on first use and kept per application. A device that is
+ * registered, changed or removed is replaced in or removed from the model locations
+ * already indexed, while changes to device models or locations drop the whole
+ * application; changes made by other instances are seen once the application expires.
+ * Indexed devices are shared between callers and must not be modified.
+ */
+@Component
+public class ModelLocationDeviceIndex {
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    private final Cache<String, ConcurrentMap<String, IndexedDevices>> cache;
+
+    public ModelLocationDeviceIndex() {
+        this(new ModelLocationCacheConfig());
+    }
+
+    public ModelLocationDeviceIndex(ModelLocationCacheConfig config) {
+        if (config.isEnabled()) {
+            cache = CacheBuilder.newBuilder()
+                    .maximumSize(config.getMaxSize())
+                    .expireAfterWrite(config.getExpireAfterWrite(), TimeUnit.SECONDS)
+                    .build();
+        } else {
+            cache = null;
+        }
+    }
+
+    public List<Device> getActiveDevices(Tenant tenant, Application application, Membership membership) {
+        ConcurrentMap<String, IndexedDevices> devicesByMembership = devicesOf(tenant, application);
+        if (devicesByMembership == null) {
+            return load(tenant, application, membership);
+        }
+
+        String key = membership.getDeviceModel().getGuid() + "/" + membership.getLocationGuid();
+
+        IndexedDevices indexed = devicesByMembership.get(key);
+        if (indexed == null) {
+            indexed = new IndexedDevices(membership, load(tenant, application, membership));
+            IndexedDevices previous = devicesByMembership.putIfAbsent(key, indexed);
+            if (previous != null) {
+                indexed = previous;
+            }
+        }
+
+        return indexed.devices;
+    }
+
+    /**
+     * Replaces the device in every model location of its application already indexed,
+     * adding it to those it now belongs to while active and removing it from the others.
+     */
+    public void update(Tenant tenant, Application application, Device device) {
+        ConcurrentMap<String, IndexedDevices> devicesByMembership = indexedDevicesOf(tenant, application);
+        if (devicesByMembership == null || device == null || device.getGuid() == null) {
+            return;
+        }
+
+        for (String key : devicesByMembership.keySet()) {
+            devicesByMembership.computeIfPresent(key, (membershipKey, indexed) ->
+                    indexed.with(device, device.isActive() && indexed.membership.contains(device)));
+        }
+    }
+
+    public void remove(Tenant tenant, Application application, Device device) {
+        ConcurrentMap<String, IndexedDevices> devicesByMembership = indexedDevicesOf(tenant, application);
+        if (devicesByMembership == null || device == null || device.getGuid() == null) {
+            return;
+        }
+
+        for (String key : devicesByMembership.keySet()) {
+            devicesByMembership.computeIfPresent(key, (membershipKey, indexed) -> indexed.with(device, false));
+        }
+    }
+
+    public void invalidate(Tenant tenant, Application application) {
+        String key = keyFor(tenant, application);
+        if (cache != null && key != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    private ConcurrentMap<String, IndexedDevices> indexedDevicesOf(Tenant tenant, Application application) {
+        String key = keyFor(tenant, application);
+        if (cache == null || key == null) {
+            return null;
+        }
+
+        return cache.getIfPresent(key);
+    }
+
+    private ConcurrentMap<String, IndexedDevices> devicesOf(Tenant tenant, Application application) {
+        String key = keyFor(tenant, application);
+        if (cache == null || key == null) {
+            return null;
+        }
+
+        try {
+            return cache.get(key, ConcurrentHashMap::new);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private List<Device> load(Tenant tenant, Application application, Membership membership) {
+        List<Device> devices = deviceRepository.findAllByTenantIdApplicationNameAndDeviceModel(
+                tenant.getId(), application.getName(), membership.getDeviceModel().getId());
+
+        return Collections.unmodifiableList(Optional.ofNullable(devices).orElse(Collections.emptyList())
+                .stream()
+                .filter(Device::isActive)
+                .filter(membership::contains)
+                .collect(Collectors.toList()));
+    }
+
+    private String keyFor(Tenant tenant, Application application) {
+        if (tenant == null || tenant.getId() == null || application == null || application.getName() == null) {
+            return null;
+        }
+
+        return tenant.getId() + ":" + application.getName();
+    }
+
+    private static class IndexedDevices {
+
+        private final Membership membership;
+        private final List<Device> devices;
+
+        private IndexedDevices(Membership membership, List<Device> devices) {
+            this.membership = membership;
+            this.devices = devices;
+        }
+
+        private IndexedDevices with(Device device, boolean member) {
+            List<Device> updated = devices.stream()
+                    .filter(indexed -> !device.getGuid().equals(indexed.getGuid()))
+                    .collect(Collectors.toList());
+            if (member) {
+                updated.add(device);
+            }
+
+            return new IndexedDevices(membership, Collections.unmodifiableList(updated));
+        }
+
+    }
+
+}
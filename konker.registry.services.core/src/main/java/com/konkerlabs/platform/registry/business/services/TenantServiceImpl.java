@@ -32,6 +32,9 @@ public class TenantServiceImpl implements TenantService {
 
 	@Autowired
 	private DeviceRepository deviceRepository;
+
+	@Autowired
+	private DeviceApiKeyCache deviceApiKeyCache;
 	
 	@Autowired
 	private TenantDailyUsageRepository tenantDailyUsageRepository;
@@ -72,6 +75,7 @@ public class TenantServiceImpl implements TenantService {
 				for (Device device : devices) {
 					device.setLogLevel(newLogLevel);
 					deviceRepository.save(device);
+					deviceApiKeyCache.invalidate(device);
 				}
 			}
 
@@ -36,6 +36,8 @@ public class TransformationServiceImpl
     private TransformationRepository transformationRepository;
     @Autowired
     private EventRouteRepository eventRouteRepository;
+    @Autowired
+    private EventRouteIndex eventRouteIndex;
 
     @Override
     public ServiceResponse<List<Transformation>> getAll(Tenant tenant, Application application) {
@@ -180,6 +182,7 @@ public class TransformationServiceImpl
         fromDb.setName(transformation.getName());
         fromDb.setDescription(transformation.getDescription());
         fromDb.setSteps(transformation.getSteps());
+        fromDb.setResponseCacheTtl(transformation.getResponseCacheTtl());
 
         Optional<Map<String, Object[]>> validations = fromDb.applyValidations();
 
@@ -200,6 +203,8 @@ public class TransformationServiceImpl
             return ServiceResponseBuilder.<Transformation>error().withMessages(blacklistValidations.get()).build();
 
         Transformation saved = transformationRepository.save(fromDb);
+        // routes hold the transformation they apply
+        eventRouteIndex.invalidate(tenant, application);
 
         LOGGER.info("Transformation updated. Name: {}", saved.getName(), tenant.toURI(), tenant.getLogLevel());
 
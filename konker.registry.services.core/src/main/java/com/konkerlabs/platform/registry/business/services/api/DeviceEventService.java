@@ -5,6 +5,7 @@ import java.util.List;
 
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.EventPage;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 
 public interface DeviceEventService {
@@ -66,4 +67,48 @@ public interface DeviceEventService {
                                                 Instant endTimestamp,
                                                 boolean ascending,
                                                 Integer limit);
+
+    /**
+     * Return a page of incoming device events by provided arguments
+     *
+     * @param tenant
+     * @param application
+     * @param deviceGuid
+     * @param startingTimestamp
+     * @param endTimestamp
+     * @param pageSize
+     * @param cursor the next cursor of the previous page, or null for the first page
+     * @return Found events and the cursor to the next page
+     */
+    ServiceResponse<EventPage> findIncomingPage(Tenant tenant,
+                                                Application application,
+                                                String deviceGuid,
+                                                String channel,
+                                                Instant startingTimestamp,
+                                                Instant endTimestamp,
+                                                boolean ascending,
+                                                Integer pageSize,
+                                                String cursor);
+
+    /**
+     * Return a page of outgoing device events by provided arguments
+     *
+     * @param tenant
+     * @param application
+     * @param deviceGuid
+     * @param startingTimestamp
+     * @param endTimestamp
+     * @param pageSize
+     * @param cursor the next cursor of the previous page, or null for the first page
+     * @return Found events and the cursor to the next page
+     */
+    ServiceResponse<EventPage> findOutgoingPage(Tenant tenant,
+                                                Application application,
+                                                String deviceGuid,
+                                                String channel,
+                                                Instant startingTimestamp,
+                                                Instant endTimestamp,
+                                                boolean ascending,
+                                                Integer pageSize,
+                                                String cursor);
 }
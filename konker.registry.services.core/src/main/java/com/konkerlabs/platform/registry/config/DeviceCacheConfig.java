@@ -0,0 +1,33 @@
+package com.konkerlabs.platform.registry.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class DeviceCacheConfig {
+
+    private boolean enabled;
+    private long maxSize;
+    private long expireAfterWrite;
+
+    public DeviceCacheConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("deviceCache.enabled", true);
+        defaultMap.put("deviceCache.maxSize", 10000);
+        // seconds, also bounds how long changes made by other instances take to be seen
+        defaultMap.put("deviceCache.expireAfterWrite", 30);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setEnabled(config.getBoolean("deviceCache.enabled"));
+        setMaxSize(config.getLong("deviceCache.maxSize"));
+        setExpireAfterWrite(config.getLong("deviceCache.expireAfterWrite"));
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.konkerlabs.platform.registry.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class ModelLocationCacheConfig {
+
+    private boolean enabled;
+    private long maxSize;
+    private long expireAfterWrite;
+
+    public ModelLocationCacheConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("modelLocationCache.enabled", true);
+        // applications, each holding the memberships already resolved for it
+        defaultMap.put("modelLocationCache.maxSize", 1000);
+        // seconds, also bounds how long changes made by other instances take to be seen
+        defaultMap.put("modelLocationCache.expireAfterWrite", 30);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setEnabled(config.getBoolean("modelLocationCache.enabled"));
+        setMaxSize(config.getLong("modelLocationCache.maxSize"));
+        setExpireAfterWrite(config.getLong("modelLocationCache.expireAfterWrite"));
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.konkerlabs.platform.registry.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import lombok.Data;
+
+@Data
+public class MongoEventsConfig {
+
+    private boolean ensureIndexes;
+    private boolean hints;
+    private long slowQueryThreshold;
+
+    public MongoEventsConfig() {
+        Map<String, Object> defaultMap = new HashMap<>();
+        defaultMap.put("eventstorage.mongo.ensureIndexes", true);
+        defaultMap.put("eventstorage.mongo.hints", true);
+        // milliseconds, 0 disables the slow query log
+        defaultMap.put("eventstorage.mongo.slowQueryThreshold", 500);
+
+        Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
+
+        setEnsureIndexes(config.getBoolean("eventstorage.mongo.ensureIndexes"));
+        setHints(config.getBoolean("eventstorage.mongo.hints"));
+        setSlowQueryThreshold(config.getLong("eventstorage.mongo.slowQueryThreshold"));
+    }
+
+}
@@ -89,6 +89,17 @@ public class TransformationTest {
         assertThat(transformation.applyValidations().get(),hasEntry(expectedMessage,null));
     }
 
+    @Test
+    public void shouldReturnAValidationMessageIfResponseCacheTtlIsOutOfRange() throws Exception {
+        transformation.setResponseCacheTtl(Transformation.MAX_RESPONSE_CACHE_TTL + 1);
+
+        String expectedMessage = Transformation.Validations.RESPONSE_CACHE_TTL_INVALID.getCode();
+        Optional<Map<String, Object[]>> validations = transformation.applyValidations();
+
+        assertThat(validations, not(sameInstance(Optional.empty())));
+        assertThat(transformation.applyValidations().get().containsKey(expectedMessage), equalTo(true));
+    }
+
     @Test
     public void shouldForwardValidationMessagesFromAnyOfItsSteps() throws Exception {
         Map<String,Object[]> expectedStepErrors = new HashMap() {{
@@ -0,0 +1,82 @@
+package com.konkerlabs.platform.registry.test.business.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.services.DeviceApiKeyCache;
+import com.konkerlabs.platform.registry.config.DeviceCacheConfig;
+
+public class DeviceApiKeyCacheTest {
+
+    private static final String THE_API_KEY = "e4399b2ed998";
+
+    private DeviceCacheConfig config;
+    private AtomicInteger loads;
+    private Function<String, Device> loader;
+
+    @Before
+    public void setUp() {
+        config = new DeviceCacheConfig();
+        config.setEnabled(true);
+        config.setMaxSize(10);
+        config.setExpireAfterWrite(60);
+
+        loads = new AtomicInteger();
+        loader = apiKey -> {
+            loads.incrementAndGet();
+            return THE_API_KEY.equals(apiKey) ? Device.builder().apiKey(apiKey).build() : null;
+        };
+    }
+
+    @Test
+    public void shouldLoadDeviceOnlyOnce() {
+        DeviceApiKeyCache cache = new DeviceApiKeyCache(config);
+
+        Device first = cache.get(THE_API_KEY, loader);
+        Device second = cache.get(THE_API_KEY, loader);
+
+        assertThat(second, sameInstance(first));
+        assertThat(loads.get(), equalTo(1));
+    }
+
+    @Test
+    public void shouldNotCacheUnknownApiKeys() {
+        DeviceApiKeyCache cache = new DeviceApiKeyCache(config);
+
+        assertThat(cache.get("unknown", loader), nullValue());
+        assertThat(cache.get("unknown", loader), nullValue());
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldReloadDeviceAfterInvalidation() {
+        DeviceApiKeyCache cache = new DeviceApiKeyCache(config);
+
+        Device first = cache.get(THE_API_KEY, loader);
+        cache.invalidate(first);
+        cache.get(THE_API_KEY, loader);
+
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldAlwaysLoadWhenDisabled() {
+        config.setEnabled(false);
+        DeviceApiKeyCache cache = new DeviceApiKeyCache(config);
+
+        cache.get(THE_API_KEY, loader);
+        cache.get(THE_API_KEY, loader);
+
+        assertThat(loads.get(), equalTo(2));
+    }
+
+}
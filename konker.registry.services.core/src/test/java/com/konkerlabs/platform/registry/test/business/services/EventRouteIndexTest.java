@@ -0,0 +1,134 @@
+package com.konkerlabs.platform.registry.test.business.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.DeviceModelLocation;
+import com.konkerlabs.platform.registry.business.model.EventRoute;
+import com.konkerlabs.platform.registry.business.model.EventRoute.RouteActor;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.services.EventRouteIndex;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponse;
+import com.konkerlabs.platform.registry.business.services.api.ServiceResponseBuilder;
+import com.konkerlabs.platform.registry.config.EventRouteCacheConfig;
+
+public class EventRouteIndexTest {
+
+    private static final URI THE_DEVICE_URI = URI.create("device://konker/1af9be20-441e-419b-84a9-cb84efd4f49d");
+    private static final URI ANOTHER_DEVICE_URI = URI.create("device://konker/0000000000000009");
+    private static final URI THE_MODEL_LOCATION_URI = URI.create(
+            DeviceModelLocation.URI_SCHEME + "://konker/96fbd654-8240-4003-b5f2-a4aa366b7b18/d1e9beb7-046a-4796-b1dd-41aec85f4a94");
+
+    private EventRouteCacheConfig config;
+    private Tenant tenant;
+    private Application application;
+
+    private EventRoute deviceRoute;
+    private EventRoute otherChannelRoute;
+    private EventRoute inactiveRoute;
+    private EventRoute modelLocationRoute;
+
+    private AtomicInteger loads;
+    private Supplier<ServiceResponse<List<EventRoute>>> loader;
+
+    @Before
+    public void setUp() {
+        config = new EventRouteCacheConfig();
+        config.setEnabled(true);
+        config.setMaxSize(10);
+        config.setExpireAfterWrite(60);
+
+        tenant = Tenant.builder().id("71fb0d48-674b-4f64-a3e5-0256ff3a63af").domainName("konker").build();
+        application = Application.builder().name("konker").build();
+
+        deviceRoute = route("route1", THE_DEVICE_URI, "data", true);
+        otherChannelRoute = route("route2", THE_DEVICE_URI, "command", true);
+        inactiveRoute = route("route3", THE_DEVICE_URI, "data", false);
+        modelLocationRoute = route("route4", THE_MODEL_LOCATION_URI, "data", true);
+
+        loads = new AtomicInteger();
+        loader = () -> {
+            loads.incrementAndGet();
+            return ServiceResponseBuilder.<List<EventRoute>>ok()
+                    .withResult(Arrays.asList(deviceRoute, otherChannelRoute, inactiveRoute, modelLocationRoute))
+                    .build();
+        };
+    }
+
+    @Test
+    public void shouldReturnOnlyActiveRoutesForTheIncomingDeviceAndChannel() {
+        EventRouteIndex index = new EventRouteIndex(config);
+
+        assertThat(index.getMatching(tenant, application, THE_DEVICE_URI, "data", loader).getResult(),
+                containsInAnyOrder(deviceRoute, modelLocationRoute));
+        assertThat(index.getMatching(tenant, application, THE_DEVICE_URI, "command", loader).getResult(),
+                contains(otherChannelRoute));
+        assertThat(index.getMatching(tenant, application, ANOTHER_DEVICE_URI, "data", loader).getResult(),
+                contains(modelLocationRoute));
+        assertThat(index.getMatching(tenant, application, ANOTHER_DEVICE_URI, "command", loader).getResult(),
+                empty());
+        assertThat(loads.get(), equalTo(1));
+    }
+
+    @Test
+    public void shouldNotIndexFailedResponses() {
+        EventRouteIndex index = new EventRouteIndex(config);
+        Supplier<ServiceResponse<List<EventRoute>>> failingLoader = () -> {
+            loads.incrementAndGet();
+            return ServiceResponseBuilder.<List<EventRoute>>error().withMessage("error").build();
+        };
+
+        assertThat(index.getMatching(tenant, application, THE_DEVICE_URI, "data", failingLoader).isOk(), equalTo(false));
+        assertThat(index.getMatching(tenant, application, THE_DEVICE_URI, "data", loader).isOk(), equalTo(true));
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldReloadRoutesAfterInvalidation() {
+        EventRouteIndex index = new EventRouteIndex(config);
+
+        index.getMatching(tenant, application, THE_DEVICE_URI, "data", loader);
+        index.invalidate(tenant, application);
+        index.getMatching(tenant, application, THE_DEVICE_URI, "data", loader);
+
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    public void shouldAlwaysLoadWhenDisabled() {
+        config.setEnabled(false);
+        EventRouteIndex index = new EventRouteIndex(config);
+
+        index.getMatching(tenant, application, THE_DEVICE_URI, "data", loader);
+        index.getMatching(tenant, application, THE_DEVICE_URI, "data", loader);
+
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    private EventRoute route(String name, URI incomingUri, String channel, boolean active) {
+        Map<String, String> data = new HashMap<>();
+        data.put(EventRoute.DEVICE_MQTT_CHANNEL, channel);
+
+        return EventRoute.builder()
+                .name(name)
+                .incoming(RouteActor.builder().uri(incomingUri).data(data).build())
+                .active(active)
+                .build();
+    }
+
+}
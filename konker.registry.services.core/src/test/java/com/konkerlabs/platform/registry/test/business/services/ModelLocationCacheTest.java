@@ -0,0 +1,130 @@
+package com.konkerlabs.platform.registry.test.business.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.model.DeviceModel;
+import com.konkerlabs.platform.registry.business.model.Location;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.ApplicationRepository;
+import com.konkerlabs.platform.registry.business.repositories.DeviceModelRepository;
+import com.konkerlabs.platform.registry.business.repositories.LocationRepository;
+import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
+import com.konkerlabs.platform.registry.business.services.ModelLocationCache;
+import com.konkerlabs.platform.registry.business.services.ModelLocationCache.Membership;
+import com.konkerlabs.platform.registry.business.services.api.LocationService;
+import com.konkerlabs.platform.registry.test.base.BusinessLayerTestSupport;
+import com.konkerlabs.platform.registry.test.base.BusinessTestConfiguration;
+import com.konkerlabs.platform.registry.test.base.MongoTestConfiguration;
+import com.lordofthejars.nosqlunit.annotation.UsingDataSet;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = { MongoTestConfiguration.class, BusinessTestConfiguration.class})
+@UsingDataSet(locations = { "/fixtures/tenants.json", "/fixtures/applications.json", "/fixtures/locations.json" })
+public class ModelLocationCacheTest extends BusinessLayerTestSupport {
+
+    private static final String BR_GUID = "d75758a6-235b-413b-85b3-d218404f8c11";
+    private static final String SP_GUID = "55fe5b24-be8a-4d33-8cdf-fd08c14175b4";
+    private static final String RJ_GUID = "8f07f5e4-b411-45d4-90b5-a5228f7e0361";
+    private static final String SALA_101_GUID = "a14e671f-32d7-4ec0-8006-8d93eeed401c";
+
+    @Autowired
+    private ModelLocationCache subject;
+
+    @Autowired
+    private LocationService locationService;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private DeviceModelRepository deviceModelRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    private Tenant tenant;
+    private Application application;
+    private DeviceModel deviceModel;
+
+    @Before
+    public void setUp() {
+        subject.invalidateAll();
+
+        tenant = tenantRepository.findByName("Konker");
+        application = applicationRepository.findByTenantAndName(tenant.getId(), "konker");
+
+        deviceModel = deviceModelRepository.save(DeviceModel.builder()
+                .tenant(tenant)
+                .application(application)
+                .name("sensor")
+                .guid("96fbd654-8240-4003-b5f2-a4aa366b7b18")
+                .build());
+    }
+
+    @Test
+    public void shouldResolveTheLocationSubtree() {
+        Membership membership = subject.getMembership(tenant, application, deviceModel.getGuid(), RJ_GUID).get();
+
+        assertThat(membership.getLocationGuids(), containsInAnyOrder(RJ_GUID, SALA_101_GUID));
+        assertThat(subject.getMembership(tenant, application, deviceModel.getGuid(), BR_GUID).get().getLocationGuids(),
+                containsInAnyOrder(BR_GUID, SP_GUID, RJ_GUID, SALA_101_GUID));
+    }
+
+    @Test
+    public void shouldTellWhetherADeviceBelongsToTheModelLocation() {
+        Membership membership = subject.getMembership(tenant, application, deviceModel.getGuid(), RJ_GUID).get();
+
+        assertThat(membership.contains(device(deviceModel, SALA_101_GUID)), equalTo(true));
+        assertThat(membership.contains(device(deviceModel, SP_GUID)), equalTo(false));
+        assertThat(membership.contains(device(DeviceModel.builder().guid("dqfAnF7b").build(), SALA_101_GUID)), equalTo(false));
+        assertThat(membership.contains(Device.builder().build()), equalTo(false));
+    }
+
+    @Test
+    public void shouldNotResolveUnknownModelsOrLocations() {
+        assertThat(subject.getMembership(tenant, application, "unknown", RJ_GUID).isPresent(), equalTo(false));
+        assertThat(subject.getMembership(tenant, application, deviceModel.getGuid(), "unknown").isPresent(), equalTo(false));
+    }
+
+    @Test
+    public void shouldResolveEachMembershipOnlyOnce() {
+        Membership membership = subject.getMembership(tenant, application, deviceModel.getGuid(), RJ_GUID).get();
+
+        assertThat(subject.getMembership(tenant, application, deviceModel.getGuid(), RJ_GUID).get(), sameInstance(membership));
+    }
+
+    @Test
+    public void shouldSeeLocationsSavedAfterTheMembershipWasResolved() {
+        subject.getMembership(tenant, application, deviceModel.getGuid(), RJ_GUID);
+
+        Location rj = locationRepository.findByTenantAndApplicationAndGuid(tenant.getId(), application.getName(), RJ_GUID);
+        Location sala102 = Location.builder().name("sala-102").parent(rj).build();
+        assertThat(locationService.save(tenant, application, sala102).isOk(), equalTo(true));
+
+        assertThat(subject.getMembership(tenant, application, deviceModel.getGuid(), RJ_GUID).get().getLocationGuids(),
+                containsInAnyOrder(RJ_GUID, SALA_101_GUID, sala102.getGuid()));
+    }
+
+    private Device device(DeviceModel deviceModel, String locationGuid) {
+        return Device.builder()
+                .deviceModel(deviceModel)
+                .location(Location.builder().guid(locationGuid).build())
+                .build();
+    }
+
+}
@@ -0,0 +1,163 @@
+package com.konkerlabs.platform.registry.test.business.services;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.konkerlabs.platform.registry.business.model.Application;
+import com.konkerlabs.platform.registry.business.model.Device;
+import com.konkerlabs.platform.registry.business.model.DeviceModel;
+import com.konkerlabs.platform.registry.business.model.Tenant;
+import com.konkerlabs.platform.registry.business.repositories.ApplicationRepository;
+import com.konkerlabs.platform.registry.business.repositories.DeviceModelRepository;
+import com.konkerlabs.platform.registry.business.repositories.DeviceRepository;
+import com.konkerlabs.platform.registry.business.repositories.LocationRepository;
+import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
+import com.konkerlabs.platform.registry.business.services.ModelLocationCache;
+import com.konkerlabs.platform.registry.business.services.ModelLocationCache.Membership;
+import com.konkerlabs.platform.registry.business.services.ModelLocationDeviceIndex;
+import com.konkerlabs.platform.registry.test.base.BusinessLayerTestSupport;
+import com.konkerlabs.platform.registry.test.base.BusinessTestConfiguration;
+import com.konkerlabs.platform.registry.test.base.MongoTestConfiguration;
+import com.lordofthejars.nosqlunit.annotation.UsingDataSet;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = { MongoTestConfiguration.class, BusinessTestConfiguration.class})
+@UsingDataSet(locations = { "/fixtures/tenants.json", "/fixtures/applications.json", "/fixtures/locations.json" })
+public class ModelLocationDeviceIndexTest extends BusinessLayerTestSupport {
+
+    private static final String SP_GUID = "55fe5b24-be8a-4d33-8cdf-fd08c14175b4";
+    private static final String RJ_GUID = "8f07f5e4-b411-45d4-90b5-a5228f7e0361";
+    private static final String SALA_101_GUID = "a14e671f-32d7-4ec0-8006-8d93eeed401c";
+
+    @Autowired
+    private ModelLocationDeviceIndex subject;
+
+    @Autowired
+    private ModelLocationCache modelLocationCache;
+
+    @Autowired
+    private TenantRepository tenantRepository;
+
+    @Autowired
+    private ApplicationRepository applicationRepository;
+
+    @Autowired
+    private DeviceModelRepository deviceModelRepository;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    private Tenant tenant;
+    private Application application;
+    private DeviceModel deviceModel;
+    private DeviceModel otherDeviceModel;
+    private Membership membership;
+
+    @Before
+    public void setUp() {
+        subject.invalidateAll();
+        modelLocationCache.invalidateAll();
+
+        tenant = tenantRepository.findByName("Konker");
+        application = applicationRepository.findByTenantAndName(tenant.getId(), "konker");
+
+        deviceModel = deviceModelRepository.save(DeviceModel.builder()
+                .tenant(tenant)
+                .application(application)
+                .name("sensor")
+                .guid("96fbd654-8240-4003-b5f2-a4aa366b7b18")
+                .build());
+        otherDeviceModel = deviceModelRepository.save(DeviceModel.builder()
+                .tenant(tenant)
+                .application(application)
+                .name("actuator")
+                .guid("0b4a7c1e-2b58-4b8c-9a0d-6fa1c25f2f36")
+                .build());
+
+        saveDevice("0000000000000001", deviceModel, SALA_101_GUID, true);
+        saveDevice("0000000000000002", deviceModel, RJ_GUID, true);
+        saveDevice("0000000000000003", deviceModel, SP_GUID, true);
+        saveDevice("0000000000000004", deviceModel, SALA_101_GUID, false);
+        saveDevice("0000000000000005", otherDeviceModel, SALA_101_GUID, true);
+
+        membership = modelLocationCache.getMembership(tenant, application, deviceModel.getGuid(), RJ_GUID).get();
+    }
+
+    @Test
+    public void shouldReturnOnlyTheActiveDevicesOfTheModelLocation() {
+        assertThat(deviceIds(subject.getActiveDevices(tenant, application, membership)),
+                containsInAnyOrder("0000000000000001", "0000000000000002"));
+    }
+
+    @Test
+    public void shouldKeepDevicesIndexedUntilTheApplicationIsInvalidated() {
+        subject.getActiveDevices(tenant, application, membership);
+        saveDevice("0000000000000006", deviceModel, RJ_GUID, true);
+
+        assertThat(deviceIds(subject.getActiveDevices(tenant, application, membership)),
+                containsInAnyOrder("0000000000000001", "0000000000000002"));
+
+        subject.invalidate(tenant, application);
+
+        assertThat(deviceIds(subject.getActiveDevices(tenant, application, membership)),
+                containsInAnyOrder("0000000000000001", "0000000000000002", "0000000000000006"));
+    }
+
+    @Test
+    public void shouldUpdateOnlyTheChangedDeviceInTheIndexedModelLocations() {
+        Membership sp = modelLocationCache.getMembership(tenant, application, deviceModel.getGuid(), SP_GUID).get();
+        subject.getActiveDevices(tenant, application, membership);
+        subject.getActiveDevices(tenant, application, sp);
+
+        subject.update(tenant, application, saveDevice("0000000000000006", deviceModel, RJ_GUID, true));
+        subject.update(tenant, application, saveDevice("0000000000000002", deviceModel, SP_GUID, true));
+        subject.update(tenant, application, saveDevice("0000000000000004", deviceModel, SALA_101_GUID, true));
+        subject.update(tenant, application, saveDevice("0000000000000003", deviceModel, SP_GUID, false));
+        saveDevice("0000000000000007", deviceModel, RJ_GUID, true);
+
+        assertThat(deviceIds(subject.getActiveDevices(tenant, application, membership)),
+                containsInAnyOrder("0000000000000001", "0000000000000004", "0000000000000006"));
+        assertThat(deviceIds(subject.getActiveDevices(tenant, application, sp)),
+                containsInAnyOrder("0000000000000002"));
+
+        Device removed = deviceRepository.findByTenantAndGuid(tenant.getId(), "guid-0000000000000001");
+        deviceRepository.delete(removed);
+        subject.remove(tenant, application, removed);
+
+        assertThat(deviceIds(subject.getActiveDevices(tenant, application, membership)),
+                containsInAnyOrder("0000000000000004", "0000000000000006"));
+    }
+
+    private Device saveDevice(String deviceId, DeviceModel deviceModel, String locationGuid, boolean active) {
+        Device existing = deviceRepository.findByTenantAndGuid(tenant.getId(), "guid-" + deviceId);
+
+        return deviceRepository.save(Device.builder()
+                .id(existing != null ? existing.getId() : null)
+                .tenant(tenant)
+                .application(application)
+                .deviceId(deviceId)
+                .guid("guid-" + deviceId)
+                .deviceModel(deviceModel)
+                .location(locationRepository.findByTenantAndApplicationAndGuid(tenant.getId(), application.getName(), locationGuid))
+                .active(active)
+                .build());
+    }
+
+    private List<String> deviceIds(List<Device> devices) {
+        return devices.stream().map(Device::getDeviceId).collect(Collectors.toList());
+    }
+
+}
@@ -2,6 +2,7 @@ package com.konkerlabs.platform.registry.business.repositories.config;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +14,7 @@ import com.datastax.driver.core.Host;
 import com.datastax.driver.core.Metadata;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.konkerlabs.platform.registry.business.repositories.events.TimeBucket;
 import com.typesafe.config.Config;
 import com.typesafe.config.ConfigFactory;
 
@@ -20,11 +22,25 @@ public class CassandraRegistryConfig {
 
     private Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
+    // partitions of a bucketed table within the retention, which an open range may span
+    private static final long MAX_RETENTION_BUCKETS = 1000;
+
     private String keyspace;
     private String seedHosts[];
     private String username;
     private String password;
     private int seedPort;
+    private int batchSize;
+    private long batchMaxBytes;
+    private long batchLinger;
+    private int writeMaxInFlight;
+    private int writeRetries;
+    private long writeRetryDelay;
+    private long writeAcquireTimeout;
+    private TimeBucket bucketSize;
+    private long bucketRetention;
+    private int bucketMaxPerPage;
+    private int bucketParallelism;
 
     @Bean
     public Cluster cluster() {
@@ -33,9 +49,26 @@ public class CassandraRegistryConfig {
         defaultMap.put("cassandra.keyspace", "registrykeyspace");
         defaultMap.put("cassandra.hostname", "localhost");
         defaultMap.put("cassandra.port", 9042);
+        // denormalized event rows are written in unlogged batches of a single partition
+        defaultMap.put("cassandra.batch.size", 50);
+        // values in a batch, kept below batch_size_fail_threshold_in_kb of the cluster
+        defaultMap.put("cassandra.batch.maxBytes", "40K");
+        defaultMap.put("cassandra.batch.linger", 100);
+        // asynchronous writes waiting for Cassandra, callers block beyond it
+        defaultMap.put("cassandra.write.maxInFlight", 256);
+        defaultMap.put("cassandra.write.retries", 3);
+        defaultMap.put("cassandra.write.retryDelay", 100);
+        defaultMap.put("cassandra.write.acquireTimeout", 10000);
+        // none, hour or day; anything but none reads and writes the *_bucketed tables
+        defaultMap.put("cassandra.bucket.size", "none");
+        // cassandra.bucket.retention, how far back in time queries over bucketed tables look,
+        // is 30d for hour buckets and 365d for day buckets unless set
+        // buckets read for a single page, a page reaching it ends with a cursor to the next one
+        defaultMap.put("cassandra.bucket.maxPerPage", 168);
+        defaultMap.put("cassandra.bucket.parallelism", 4);
         Config defaultConf = ConfigFactory.parseMap(defaultMap);
+        Config config = ConfigFactory.load().withFallback(defaultConf);
         try {
-            Config config = ConfigFactory.load().withFallback(defaultConf);
             setKeyspace(config.getString("cassandra.keyspace"));
             setSeedHosts(config.getString("cassandra.hostname").split("[,;]"));
             setSeedPort(config.getInt("cassandra.port"));
@@ -50,6 +83,23 @@ public class CassandraRegistryConfig {
             );
         }
 
+        // these have defaults, so a malformed value fails the startup instead of leaving them unset
+        setBatchSize(config.getInt("cassandra.batch.size"));
+        setBatchMaxBytes(config.getBytes("cassandra.batch.maxBytes"));
+        setBatchLinger(config.getLong("cassandra.batch.linger"));
+        setWriteMaxInFlight(config.getInt("cassandra.write.maxInFlight"));
+        setWriteRetries(config.getInt("cassandra.write.retries"));
+        setWriteRetryDelay(config.getLong("cassandra.write.retryDelay"));
+        setWriteAcquireTimeout(config.getLong("cassandra.write.acquireTimeout"));
+        setBucketSize(bucketSizeOf(config.getString("cassandra.bucket.size")));
+        setBucketRetention(config.hasPath("cassandra.bucket.retention")
+                ? config.getDuration("cassandra.bucket.retention", TimeUnit.MILLISECONDS)
+                : getBucketSize().getDefaultRetention());
+        setBucketMaxPerPage(config.getInt("cassandra.bucket.maxPerPage"));
+        setBucketParallelism(config.getInt("cassandra.bucket.parallelism"));
+        validateWriteSettings();
+        validateBucketRetention();
+
         Cluster cluster = null;
 
         if (StringUtils.hasText(getUsername())) {
@@ -69,6 +119,36 @@ public class CassandraRegistryConfig {
 
     }
 
+    private TimeBucket bucketSizeOf(String value) {
+        try {
+            return TimeBucket.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format(
+                    "cassandra.bucket.size must be none, hour or day, it is %s", value), e);
+        }
+    }
+
+    private void validateWriteSettings() {
+        if (getBatchSize() < 1 || getBatchMaxBytes() < 1 || getWriteMaxInFlight() < 1 || getBucketMaxPerPage() < 1) {
+            throw new IllegalArgumentException(
+                    "cassandra.batch.size, cassandra.batch.maxBytes, cassandra.write.maxInFlight and "
+                            + "cassandra.bucket.maxPerPage must be at least 1");
+        }
+    }
+
+    private void validateBucketRetention() {
+        if (!getBucketSize().isEnabled()) {
+            return;
+        }
+
+        long buckets = getBucketRetention() / getBucketSize().getSize();
+        if (buckets < 1 || buckets > MAX_RETENTION_BUCKETS) {
+            throw new IllegalArgumentException(String.format(
+                    "cassandra.bucket.retention must span from 1 to %d buckets of a %s, it spans %d",
+                    MAX_RETENTION_BUCKETS, getBucketSize().name().toLowerCase(), buckets));
+        }
+    }
+
     @Bean
     public Session session() {
 
@@ -118,6 +198,94 @@ public class CassandraRegistryConfig {
         this.seedPort = seedPort;
     }
 
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getBatchMaxBytes() {
+        return batchMaxBytes;
+    }
+
+    public void setBatchMaxBytes(long batchMaxBytes) {
+        this.batchMaxBytes = batchMaxBytes;
+    }
+
+    public long getBatchLinger() {
+        return batchLinger;
+    }
+
+    public void setBatchLinger(long batchLinger) {
+        this.batchLinger = batchLinger;
+    }
+
+    public int getWriteMaxInFlight() {
+        return writeMaxInFlight;
+    }
+
+    public void setWriteMaxInFlight(int writeMaxInFlight) {
+        this.writeMaxInFlight = writeMaxInFlight;
+    }
+
+    public int getWriteRetries() {
+        return writeRetries;
+    }
+
+    public void setWriteRetries(int writeRetries) {
+        this.writeRetries = writeRetries;
+    }
+
+    public long getWriteRetryDelay() {
+        return writeRetryDelay;
+    }
+
+    public void setWriteRetryDelay(long writeRetryDelay) {
+        this.writeRetryDelay = writeRetryDelay;
+    }
+
+    public long getWriteAcquireTimeout() {
+        return writeAcquireTimeout;
+    }
+
+    public void setWriteAcquireTimeout(long writeAcquireTimeout) {
+        this.writeAcquireTimeout = writeAcquireTimeout;
+    }
+
+    public TimeBucket getBucketSize() {
+        return bucketSize;
+    }
+
+    public void setBucketSize(TimeBucket bucketSize) {
+        this.bucketSize = bucketSize;
+    }
+
+    public long getBucketRetention() {
+        return bucketRetention;
+    }
+
+    public void setBucketRetention(long bucketRetention) {
+        this.bucketRetention = bucketRetention;
+    }
+
+    public int getBucketMaxPerPage() {
+        return bucketMaxPerPage;
+    }
+
+    public void setBucketMaxPerPage(int bucketMaxPerPage) {
+        this.bucketMaxPerPage = bucketMaxPerPage;
+    }
+
+    public int getBucketParallelism() {
+        return bucketParallelism;
+    }
+
+    public void setBucketParallelism(int bucketParallelism) {
+        this.bucketParallelism = bucketParallelism;
+    }
+
     public String getUsername() {
         return username;
     }
@@ -0,0 +1,369 @@
+package com.konkerlabs.platform.registry.business.repositories.events;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.InvalidQueryException;
+import com.datastax.driver.core.utils.Bytes;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.konkerlabs.platform.registry.business.repositories.config.CassandraRegistryConfig;
+
+/**
+ * Writes statements to Cassandra in unlogged batches, each holding only statements of a
+ * single partition of a table, so a batch is applied by the replicas of that partition
+ * without going through a batch log.
+ *
+ * Statements are grouped across many events and a batch is sent once it holds enough
+ * statements or bytes of bound values, or has waited for the linger time. Statements
+ * whose partition or size is not known are sent on their own. At most a fixed number of
+ * writes may be waiting for Cassandra; beyond that the caller waits for one to complete,
+ * and gives the write up if it waits too long. Failed writes are retried a few times with
+ * a growing delay, except for batches Cassandra refuses, whose statements are sent one by
+ * one instead, and the rows pending, written, retried and failed are counted for each
+ * table.
+ */
+public class EventBatchWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventBatchWriter.class);
+
+    private final Session session;
+    private final int batchSize;
+    private final long batchMaxBytes;
+    private final long linger;
+    private final int retries;
+    private final long retryDelay;
+    private final long acquireTimeout;
+    private final int maxInFlight;
+    private final Semaphore window;
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private final Map<String, TableStats> stats = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cassandra-batch-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // kept apart from the linger flushes, which may block waiting for a retried write
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cassandra-write-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EventBatchWriter(Session session, CassandraRegistryConfig config) {
+        this.session = session;
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.batchMaxBytes = config.getBatchMaxBytes();
+        this.linger = config.getBatchLinger();
+        this.retries = Math.max(0, config.getWriteRetries());
+        this.retryDelay = config.getWriteRetryDelay();
+        this.acquireTimeout = config.getWriteAcquireTimeout();
+        this.maxInFlight = Math.max(1, config.getWriteMaxInFlight());
+        this.window = new Semaphore(maxInFlight);
+    }
+
+    public void add(String table, Statement statement) {
+        statsOf(table).pending.increment();
+
+        ByteBuffer routingKey = statement.getRoutingKey(protocolVersion(), codecRegistry());
+        long size = sizeOf(statement);
+        if (routingKey == null || batchSize == 1 || size < 0 || size >= batchMaxBytes) {
+            execute(table, statement, 1);
+            return;
+        }
+
+        String key = table + ':' + Bytes.toHexString(routingKey);
+        List<Batch> full = new ArrayList<>(2);
+
+        batches.compute(key, (k, batch) -> {
+            if (batch != null && batch.bytes + size > batchMaxBytes) {
+                if (batch.linger != null) {
+                    batch.linger.cancel(false);
+                }
+                full.add(batch);
+                batch = null;
+            }
+
+            if (batch == null) {
+                Batch created = new Batch(table);
+                try {
+                    created.linger = scheduler.schedule(() -> flush(k, created), linger, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // shutting down, the statement goes out right away
+                }
+                batch = created;
+            }
+
+            batch.statements.add(statement);
+            batch.bytes += size;
+            if (batch.linger != null && batch.statements.size() < batchSize && batch.bytes < batchMaxBytes) {
+                return batch;
+            }
+
+            if (batch.linger != null) {
+                batch.linger.cancel(false);
+            }
+            full.add(batch);
+            return null;
+        });
+
+        for (Batch batch : full) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Sends every pending batch and waits up to the given time for all writes to complete,
+     * including their retries.
+     */
+    public void flush(long timeout, TimeUnit unit) {
+        for (String key : new ArrayList<>(batches.keySet())) {
+            Batch batch = batches.remove(key);
+            if (batch != null) {
+                if (batch.linger != null) {
+                    batch.linger.cancel(false);
+                }
+                send(batch);
+            }
+        }
+
+        try {
+            if (window.tryAcquire(maxInFlight, timeout, unit)) {
+                window.release(maxInFlight);
+            } else {
+                LOGGER.warn("Timed out waiting for {} event writes to Cassandra", getInFlightCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public void close(long timeout, TimeUnit unit) {
+        // lingering batches and the statements of refused batches still go out
+        scheduler.shutdownNow().forEach(Runnable::run);
+        flush(timeout, unit);
+        retryScheduler.shutdownNow();
+    }
+
+    public int getInFlightCount() {
+        return maxInFlight - window.availablePermits();
+    }
+
+    /**
+     * Tables written to so far.
+     */
+    public Set<String> getTables() {
+        return new TreeSet<>(stats.keySet());
+    }
+
+    /**
+     * Rows of the table waiting to be sent or waiting for Cassandra.
+     */
+    public long getPendingCount(String table) {
+        return statsOf(table).pending.sum();
+    }
+
+    public long getWrittenCount(String table) {
+        return statsOf(table).written.sum();
+    }
+
+    public long getRetriedCount(String table) {
+        return statsOf(table).retried.sum();
+    }
+
+    public long getFailedCount(String table) {
+        return statsOf(table).failed.sum();
+    }
+
+    private void flush(String key, Batch batch) {
+        if (batches.remove(key, batch)) {
+            send(batch);
+        }
+    }
+
+    private void send(Batch batch) {
+        List<Statement> statements = batch.statements;
+        if (statements.size() == 1) {
+            execute(batch.table, statements.get(0), 1);
+        } else {
+            BatchStatement statement = new BatchStatement(BatchStatement.Type.UNLOGGED);
+            statement.addAll(statements);
+            execute(batch.table, statement, statements.size());
+        }
+    }
+
+    private void execute(String table, Statement statement, int rows) {
+        try {
+            if (!window.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+                giveUp(table, rows, "too many writes are waiting for Cassandra", null);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            giveUp(table, rows, "interrupted while waiting to write", e);
+            return;
+        }
+
+        attempt(table, statement, rows, 0);
+    }
+
+    /**
+     * Runs one attempt of a write that holds a permit of the window, releasing the permit
+     * once the write succeeds or is given up.
+     */
+    private void attempt(String table, Statement statement, int rows, int retry) {
+        ResultSetFuture future;
+        try {
+            future = session.executeAsync(statement);
+        } catch (RuntimeException e) {
+            onFailure(table, statement, rows, retry, e);
+            return;
+        }
+
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            @Override
+            public void onSuccess(ResultSet result) {
+                TableStats tableStats = statsOf(table);
+                tableStats.pending.add(-rows);
+                tableStats.written.add(rows);
+                window.release();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                EventBatchWriter.this.onFailure(table, statement, rows, retry, t);
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private void onFailure(String table, Statement statement, int rows, int retry, Throwable cause) {
+        if (cause instanceof InvalidQueryException) {
+            // sending it again would fail the same way, for instance a batch that is too large
+            window.release();
+            if (statement instanceof BatchStatement) {
+                split(table, (BatchStatement) statement, cause);
+            } else {
+                giveUp(table, rows, "the write was refused", cause);
+            }
+            return;
+        }
+
+        if (retry < retries) {
+            statsOf(table).retried.add(rows);
+            try {
+                retryScheduler.schedule(() -> attempt(table, statement, rows, retry + 1), retryDelay << retry, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                // shutting down, the write is not retried
+            }
+        }
+
+        window.release();
+        giveUp(table, rows, "the write failed", cause);
+    }
+
+    /**
+     * Sends the statements of a refused batch one by one, from the scheduler thread as
+     * they may have to wait for the window.
+     */
+    private void split(String table, BatchStatement batch, Throwable cause) {
+        Collection<Statement> statements = batch.getStatements();
+        LOGGER.warn("Cassandra refused a batch of {} event rows to {}, sending them one by one: {}",
+                statements.size(), table, cause.getMessage());
+        try {
+            scheduler.execute(() -> {
+                for (Statement statement : statements) {
+                    execute(table, statement, 1);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            giveUp(table, statements.size(), "the batch was refused while shutting down", cause);
+        }
+    }
+
+    private void giveUp(String table, int rows, String reason, Throwable cause) {
+        TableStats tableStats = statsOf(table);
+        tableStats.pending.add(-rows);
+        tableStats.failed.add(rows);
+        LOGGER.error("Failed to write {} event rows to {}, {}", rows, table, reason, cause);
+    }
+
+    private TableStats statsOf(String table) {
+        return stats.computeIfAbsent(table, name -> new TableStats());
+    }
+
+    /**
+     * Bytes of the values bound to the statement, or -1 if they are not known.
+     */
+    private static long sizeOf(Statement statement) {
+        if (!(statement instanceof BoundStatement)) {
+            return -1;
+        }
+
+        BoundStatement bound = (BoundStatement) statement;
+        long size = 0;
+        for (int i = 0; i < bound.preparedStatement().getVariables().size(); i++) {
+            ByteBuffer value = bound.getBytesUnsafe(i);
+            if (value != null) {
+                size += value.remaining();
+            }
+        }
+        return size;
+    }
+
+    private ProtocolVersion protocolVersion() {
+        return session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersion();
+    }
+
+    private CodecRegistry codecRegistry() {
+        return session.getCluster().getConfiguration().getCodecRegistry();
+    }
+
+    private static class Batch {
+
+        private final String table;
+        private final List<Statement> statements = new ArrayList<>();
+        private long bytes;
+        private ScheduledFuture<?> linger;
+
+        private Batch(String table) {
+            this.table = table;
+        }
+
+    }
+
+    private static class TableStats {
+
+        private final LongAdder pending = new LongAdder();
+        private final LongAdder written = new LongAdder();
+        private final LongAdder retried = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+    }
+
+}
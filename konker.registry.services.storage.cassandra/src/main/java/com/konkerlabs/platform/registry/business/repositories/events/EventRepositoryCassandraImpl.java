@@ -2,26 +2,42 @@ package com.konkerlabs.platform.registry.business.repositories.events;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongBiFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Repository;
 
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.PagingState;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.exceptions.PagingStateException;
 import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Event;
 import com.konkerlabs.platform.registry.business.model.Event.EventActor;
+import com.konkerlabs.platform.registry.business.model.EventPage;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.repositories.config.CassandraRegistryConfig;
 import com.konkerlabs.platform.registry.business.repositories.events.api.BaseEventRepositoryImpl;
 
 @Repository("cassandraEvents")
+@ManagedResource(objectName = "com.konkerlabs.platform.registry.business:type=EventRepositoryCassandra")
 public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implements DisposableBean {
 
     private static final String INCOMING_EVENTS = "incoming_events";
@@ -36,6 +52,8 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
     private static final String OUTGOING_EVENTS_DEVICE_GUID_CHANNEL = "outgoing_events_device_guid_channel";
     private static final String OUTGOING_EVENTS_DELETED = "outgoing_events_deleted";
 
+    private static final String BUCKETED_SUFFIX = "_bucketed";
+
     @Autowired
     private CassandraRegistryConfig config;
 
@@ -47,11 +65,62 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
 
     private Random rnd = new Random(System.nanoTime());
 
-    private Map<String, PreparedStatement> insertIncomingMap = new HashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventRepositoryCassandraImpl.class);
+
+    // statements are keyed by their query, which holds no values, so their number is bounded
+    private Map<String, PreparedStatement> insertIncomingMap = new ConcurrentHashMap<>();
+
+    private Map<String, PreparedStatement> insertOutgoingMap = new ConcurrentHashMap<>();
+
+    private Map<String, PreparedStatement> selectStatementCache = new ConcurrentHashMap<>();
 
-    private Map<String, PreparedStatement> insertOutgoingMap = new HashMap<>();
+    private volatile EventBatchWriter batchWriter;
+
+    /**
+     * Prepares the statements for every insert and every shape of query up front, so
+     * reading and writing events never has to wait for a statement to be prepared.
+     */
+    @PostConstruct
+    public void prepareStatements() {
+        if (session == null) {
+            return;
+        }
+
+        try {
+            for (String table : Arrays.asList(INCOMING_EVENTS, INCOMING_EVENTS_DEVICE_GUID, INCOMING_EVENTS_DEVICE_GUID_CHANNEL,
+                                              INCOMING_EVENTS_CHANNEL, INCOMING_EVENTS_DELETED)) {
+                getInsertIncomingPreparedStatement(table);
+            }
+            for (String table : Arrays.asList(OUTGOING_EVENTS, OUTGOING_EVENTS_DEVICE_GUID, OUTGOING_EVENTS_DEVICE_GUID_CHANNEL,
+                                              OUTGOING_EVENTS_CHANNEL, OUTGOING_EVENTS_DELETED)) {
+                getInsertOutgoingPreparedStatement(table);
+            }
 
-    private Map<String, PreparedStatement> selectStatementCache = new HashMap<>();
+            Tenant tenant = Tenant.builder().build();
+            Application application = Application.builder().build();
+            Instant instant = Instant.now();
+            Long bucket = timeBucket().isEnabled() ? 0L : null;
+            for (Type type : Type.values()) {
+                for (String deviceGuid : Arrays.asList(null, "")) {
+                    for (String channel : Arrays.asList(null, "")) {
+                        for (Instant startInstant : Arrays.asList(null, instant)) {
+                            for (Instant endInstant : Arrays.asList(null, instant)) {
+                                for (Integer limit : Arrays.asList(null, 0)) {
+                                    for (boolean ascending : new boolean[] {true, false}) {
+                                        String query = getQuery(tenant, application, deviceGuid, channel, startInstant,
+                                                endInstant, ascending, limit, bucket, type, null, new ArrayList<>());
+                                        selectStatementCache.computeIfAbsent(query, session::prepare);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to prepare the Cassandra event statements, they will be prepared on first use", e);
+        }
+    }
 
     @Override
     protected Event doSave(Tenant tenant, Application application, Event event, Type type) {
@@ -87,10 +156,15 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
                                                event.getIncoming().getDeviceGuid(),
                                                event.getIncoming().getDeviceId(),
                                                event.getPayload());
+            Long bucket = bucketOf(event);
+            if (bucket != null) {
+                statement.setLong("bucket", bucket);
+            }
+
             if (synchronous) {
                 session.execute(statement);
             } else {
-                session.executeAsync(statement);
+                getBatchWriter().add(table, statement);
             }
         } else if (type == Type.OUTGOING) {
 
@@ -106,112 +180,293 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
                                                event.getIncoming().getDeviceGuid(),
                                                event.getIncoming().getDeviceId(),
                                                event.getPayload());
+            Long bucket = bucketOf(event);
+            if (bucket != null) {
+                statement.setLong("bucket", bucket);
+            }
+
             if (synchronous) {
                 session.execute(statement);
             } else {
-                session.executeAsync(statement);
+                getBatchWriter().add(table, statement);
             }
         }
 
     }
 
     private PreparedStatement getInsertOutgoingPreparedStatement(String table) {
+        return insertOutgoingMap.computeIfAbsent(table, this::prepareInsertOutgoing);
+    }
 
-        PreparedStatement ps = insertOutgoingMap.get(table);
+    private PreparedStatement prepareInsertOutgoing(String table) {
 
-        if (ps == null) {
+        StringBuilder query = new StringBuilder();
+        query.append("INSERT INTO ");
+        query.append(config.getKeyspace());
+        query.append(".");
+        query.append(tableOf(table));
+        query.append(" (");
+        query.append("tenant_domain, ");
+        query.append("application_name, ");
+        query.append("timestamp, ");
+        query.append("channel, ");
+        query.append("device_guid, ");
+
+        query.append("incoming_channel, ");
+        query.append("incoming_device_guid, ");
+        query.append("incoming_device_id, ");
+
+        query.append("device_id, ");
+        query.append("payload");
+        if (timeBucket().isEnabled()) {
+            query.append(", bucket");
+        }
+        query.append(") VALUES (");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?");
+        if (timeBucket().isEnabled()) {
+            query.append(", ?");
+        }
+        query.append(")");
 
-            StringBuilder query = new StringBuilder();
-            query.append("INSERT INTO ");
-            query.append(config.getKeyspace());
-            query.append(".");
-            query.append(table);
-            query.append(" (");
-            query.append("tenant_domain, ");
-            query.append("application_name, ");
-            query.append("timestamp, ");
-            query.append("channel, ");
-            query.append("device_guid, ");
+        return session.prepare(query.toString());
 
-            query.append("incoming_channel, ");
-            query.append("incoming_device_guid, ");
-            query.append("incoming_device_id, ");
+    }
 
-            query.append("device_id, ");
-            query.append("payload");
-            query.append(") VALUES (");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?");
-            query.append(")");
+    private PreparedStatement getInsertIncomingPreparedStatement(String table) {
+        return insertIncomingMap.computeIfAbsent(table, this::prepareInsertIncoming);
+    }
 
-            ps = session.prepare(query.toString());
-            insertOutgoingMap.put(table, ps);
+    private PreparedStatement prepareInsertIncoming(String table) {
 
+        StringBuilder query = new StringBuilder();
+        query.append("INSERT INTO ");
+        query.append(config.getKeyspace());
+        query.append(".");
+        query.append(tableOf(table));
+        query.append(" (");
+        query.append("tenant_domain, ");
+        query.append("application_name, ");
+        query.append("timestamp, ");
+        query.append("channel, ");
+        query.append("device_guid, ");
+        query.append("device_id, ");
+        query.append("payload");
+        if (timeBucket().isEnabled()) {
+            query.append(", bucket");
+        }
+        query.append(") VALUES (");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?, ");
+        query.append("?");
+        if (timeBucket().isEnabled()) {
+            query.append(", ?");
         }
+        query.append(")");
 
-        return ps;
+        return session.prepare(query.toString());
 
     }
 
-    private PreparedStatement getInsertIncomingPreparedStatement(String table) {
+    /**
+     * Reads the buckets of the range in the order of the query, keeping up to the configured
+     * parallelism of them in flight at a time, and concatenates their rows until the limit is
+     * reached or the range, bounded by the retention of the buckets, is exhausted. Buckets are
+     * disjoint ranges of time, so no merge of the rows is needed.
+     */
+    @Override
+    protected List<Event> doFindBy(Tenant tenant,
+                                   Application application,
+                                   String deviceGuid,
+                                   String channel,
+                                   Instant startInstant,
+                                   Instant endInstant,
+                                   boolean ascending,
+                                   Integer limit,
+                                   Type type,
+                                   boolean isDeleted) throws BusinessException {
 
-        PreparedStatement ps = insertIncomingMap.get(table);
+        Iterator<Long> buckets = bucketsOf(startInstant, endInstant, ascending).iterator();
+        int parallelism = Math.max(1, config.getBucketParallelism());
+        Deque<ResultSetFuture> pending = new ArrayDeque<>(parallelism);
 
-        if (ps == null) {
+        List<Event> events = new LinkedList<>();
 
-            StringBuilder query = new StringBuilder();
-            query.append("INSERT INTO ");
-            query.append(config.getKeyspace());
-            query.append(".");
-            query.append(table);
-            query.append(" (");
-            query.append("tenant_domain, ");
-            query.append("application_name, ");
-            query.append("timestamp, ");
-            query.append("channel, ");
-            query.append("device_guid, ");
-            query.append("device_id, ");
-            query.append("payload");
-            query.append(") VALUES (");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?, ");
-            query.append("?");
-            query.append(")");
+        try {
+            while (limit == null || events.size() < limit) {
+                while (pending.size() < parallelism && buckets.hasNext()) {
+                    BoundStatement statement = selectStatement(tenant, application, deviceGuid, channel,
+                            startInstant, endInstant, ascending, limit, buckets.next(), type);
+                    pending.add(session.executeAsync(statement));
+                }
 
-            ps = session.prepare(query.toString());
-            insertIncomingMap.put(table, ps);
+                ResultSetFuture future = pending.poll();
+                if (future == null) {
+                    break;
+                }
 
+                final ResultSet rs = future.getUninterruptibly();
+
+                while (!rs.isExhausted() && (limit == null || events.size() < limit)) {
+                    events.add(toEvent(rs.one(), type));
+                }
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
         }
 
-        return ps;
+        return events;
 
     }
 
+    /**
+     * Pages through the events with the paging state of the driver, which is handed out as
+     * the cursor and only fetched rows are read, so a page never holds more than pageSize
+     * rows. On bucketed tables the cursor is prefixed with the bucket it continues in, and a
+     * page that ends a bucket goes on to read the next ones, up to the configured number of
+     * buckets per page; a page that reaches it may hold fewer rows and still have a cursor.
+     */
     @Override
-    protected List<Event> doFindBy(Tenant tenant,
+    protected EventPage doFindPage(Tenant tenant,
                                    Application application,
                                    String deviceGuid,
                                    String channel,
                                    Instant startInstant,
                                    Instant endInstant,
                                    boolean ascending,
-                                   Integer limit,
-                                   Type type,
-                                   boolean isDeleted) throws BusinessException {
+                                   int pageSize,
+                                   String cursor,
+                                   Type type) throws BusinessException {
+
+        List<Long> buckets = bucketsOf(startInstant, endInstant, ascending);
+        int index = 0;
+        PagingState pagingState = null;
+
+        if (cursor != null) {
+            try {
+                if (timeBucket().isEnabled()) {
+                    int separator = cursor.indexOf('.');
+                    index = buckets.indexOf(Long.valueOf(cursor.substring(0, separator)));
+                    if (index < 0) {
+                        throw new IllegalArgumentException("Bucket out of the range of the query");
+                    }
+                    String state = cursor.substring(separator + 1);
+                    pagingState = state.isEmpty() ? null : PagingState.fromString(state);
+                } else {
+                    pagingState = PagingState.fromString(cursor);
+                }
+            } catch (PagingStateException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new BusinessException(Validations.CURSOR_INVALID.getCode());
+            }
+        }
+
+        List<Event> events = new ArrayList<>(pageSize);
+        String next = null;
+        int scanned = 0;
+
+        while (index < buckets.size()) {
+            Long bucket = buckets.get(index++);
+
+            BoundStatement statement = selectStatement(tenant, application, deviceGuid, channel,
+                    startInstant, endInstant, ascending, null, bucket, type);
+            statement.setFetchSize(pageSize - events.size());
+
+            if (pagingState != null) {
+                try {
+                    statement.setPagingState(pagingState);
+                } catch (PagingStateException e) {
+                    throw new BusinessException(Validations.CURSOR_INVALID.getCode());
+                }
+                pagingState = null;
+            }
+
+            final ResultSet rs = session.execute(statement);
+
+            for (int available = rs.getAvailableWithoutFetching(); available > 0; available--) {
+                events.add(toEvent(rs.one(), type));
+            }
+
+            PagingState more = rs.getExecutionInfo().getPagingState();
+            if (more != null) {
+                next = cursorOf(bucket, more);
+                break;
+            }
+            if (events.size() == pageSize || ++scanned == maxBucketsPerPage()) {
+                next = index < buckets.size() ? cursorOf(buckets.get(index), null) : null;
+                break;
+            }
+        }
+
+        return EventPage.builder()
+                .events(events)
+                .next(next)
+                .build();
+
+    }
+
+    /**
+     * Streams the events as the driver pages through them, fetching the next page in the
+     * background once half of the current one has been read. Buckets are read one after
+     * the other, each only once the previous one is exhausted.
+     */
+    @Override
+    protected Stream<Event> doStream(Tenant tenant,
+                                     Application application,
+                                     String deviceGuid,
+                                     String channel,
+                                     Instant startInstant,
+                                     Instant endInstant,
+                                     boolean ascending,
+                                     Type type) throws BusinessException {
+
+        Iterator<Long> buckets = bucketsOf(startInstant, endInstant, ascending).iterator();
+
+        Iterator<Event> events = new Iterator<Event>() {
+            private ResultSet rs;
+
+            @Override
+            public boolean hasNext() {
+                while ((rs == null || rs.isExhausted()) && buckets.hasNext()) {
+                    BoundStatement statement = selectStatement(tenant, application, deviceGuid, channel,
+                            startInstant, endInstant, ascending, null, buckets.next(), type);
+                    statement.setFetchSize(READ_PAGE_SIZE);
+                    rs = session.execute(statement);
+                }
+                return rs != null && !rs.isExhausted();
+            }
+
+            @Override
+            public Event next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
 
-        String table = null;
+                if (rs.getAvailableWithoutFetching() == READ_PAGE_SIZE / 2 && !rs.isFullyFetched()) {
+                    rs.fetchMoreResults();
+                }
+
+                return toEvent(rs.one(), type);
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(events, Spliterator.ORDERED | Spliterator.NONNULL), false);
+
+    }
+
+    private BoundStatement selectStatement(Tenant tenant, Application application, String deviceGuid, String channel,
+            Instant startInstant, Instant endInstant, boolean ascending, Integer limit, Long bucket, Type type) {
 
         List<Object> filters = new ArrayList<>();
 
@@ -223,75 +478,73 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
                                 endInstant,
                                 ascending,
                                 limit,
+                                bucket,
                                 type,
-                                table,
+                                null,
                                 filters);
 
-        PreparedStatement ps = selectStatementCache.get(query);
-        if (ps == null) {
-            ps = session.prepare(query);
-            selectStatementCache.put(query, ps);
-        }
-        BoundStatement statement = ps.bind(filters.toArray(new Object[filters.size()]));
-
-        final ResultSet rs = session.execute(statement);
-
-        List<Event> events = new LinkedList<>();
+        PreparedStatement ps = selectStatementCache.computeIfAbsent(query, session::prepare);
+        return ps.bind(filters.toArray(new Object[filters.size()]));
 
-        while (!rs.isExhausted()) {
-            final Row row = rs.one();
+    }
 
-            EventActor outgoingActor = null;
-            EventActor incomingActor = null;
+    private String cursorOf(Long bucket, PagingState pagingState) {
+        if (bucket == null) {
+            return pagingState.toString();
+        }
+        return bucket + "." + (pagingState != null ? pagingState.toString() : "");
+    }
 
-            if (type == Type.INCOMING) {
+    private Event toEvent(Row row, Type type) {
 
-                incomingActor = EventActor.builder()
-                                          .tenantDomain(row.getString("tenant_domain"))
-                                          .applicationName(row.getString("application_name"))
-                                          .deviceGuid(row.getString("device_guid"))
-                                          .deviceId(row.getString("device_id"))
-                                          .channel(row.getString("channel"))
-                                          .build();
+        EventActor outgoingActor = null;
+        EventActor incomingActor = null;
 
-            } else if (type == Type.OUTGOING) {
+        if (type == Type.INCOMING) {
 
-                outgoingActor = EventActor.builder()
-                        .tenantDomain(row.getString("tenant_domain"))
-                        .applicationName(row.getString("application_name"))
-                        .deviceGuid(row.getString("device_guid"))
-                        .deviceId(row.getString("device_id"))
-                        .channel(row.getString("channel"))
-                        .build();
-
-                incomingActor = EventActor.builder()
-                        .tenantDomain(row.getString("tenant_domain"))
-                        .applicationName(row.getString("application_name"))
-                        .deviceGuid(row.getString("incoming_device_guid"))
-                        .deviceId(row.getString("incoming_device_id"))
-                        .channel(row.getString("incoming_channel"))
-                        .build();
+            incomingActor = EventActor.builder()
+                                      .tenantDomain(row.getString("tenant_domain"))
+                                      .applicationName(row.getString("application_name"))
+                                      .deviceGuid(row.getString("device_guid"))
+                                      .deviceId(row.getString("device_id"))
+                                      .channel(row.getString("channel"))
+                                      .build();
 
-            }
+        } else if (type == Type.OUTGOING) {
 
-            Event event = Event.builder()
-                               .epochTime(row.getLong("timestamp"))
-                               .timestamp(Instant.ofEpochMilli(row.getLong("timestamp") / 1000000))
-                               .incoming(incomingActor)
-                               .outgoing(outgoingActor)
-                               .payload(row.getString("payload"))
-                               .build();
+            outgoingActor = EventActor.builder()
+                    .tenantDomain(row.getString("tenant_domain"))
+                    .applicationName(row.getString("application_name"))
+                    .deviceGuid(row.getString("device_guid"))
+                    .deviceId(row.getString("device_id"))
+                    .channel(row.getString("channel"))
+                    .build();
+
+            incomingActor = EventActor.builder()
+                    .tenantDomain(row.getString("tenant_domain"))
+                    .applicationName(row.getString("application_name"))
+                    .deviceGuid(row.getString("incoming_device_guid"))
+                    .deviceId(row.getString("incoming_device_id"))
+                    .channel(row.getString("incoming_channel"))
+                    .build();
 
-            events.add(event);
         }
 
-        return events;
+        Event event = Event.builder()
+                           .epochTime(row.getLong("timestamp"))
+                           .timestamp(Instant.ofEpochMilli(row.getLong("timestamp") / 1000000))
+                           .incoming(incomingActor)
+                           .outgoing(outgoingActor)
+                           .payload(row.getString("payload"))
+                           .build();
+
+        return event;
 
     }
 
     private String getQuery(Tenant tenant, Application application, String deviceGuid, String channel,
-            Instant startInstant, Instant endInstant, boolean ascending, Integer limit, Type type,
-            String table, List<Object> filters) {
+            Instant startInstant, Instant endInstant, boolean ascending, Integer limit, Long bucket,
+            Type type, String table, List<Object> filters) {
 
         StringBuilder query = new StringBuilder();
 
@@ -323,7 +576,7 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
 
         query.append(config.getKeyspace());
         query.append(".");
-        query.append(table);
+        query.append(bucket != null ? table + BUCKETED_SUFFIX : table);
         query.append(" WHERE ");
 
         query.append(" tenant_domain = ?");
@@ -332,6 +585,11 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
         query.append(" AND application_name = ?");
         filters.add(application.getName());
 
+        if (bucket != null) {
+            query.append(" AND bucket = ?");
+            filters.add(bucket);
+        }
+
         if (deviceGuid != null) {
             query.append(" AND device_guid = ?");
             filters.add(deviceGuid);
@@ -359,8 +617,8 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
         }
 
         if (limit != null) {
-            query.append(" LIMIT ");
-            query.append(limit);
+            query.append(" LIMIT ?");
+            filters.add(limit);
         }
 
         return query.toString();
@@ -370,28 +628,40 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
     @Override
     protected void doRemoveBy(Tenant tenant, Application application, String deviceGuid, Type type) throws Exception {
 
-        List<Event> keys = doFindBy(tenant, application, deviceGuid, null, null, null, false, null, type, false);
-
-        Set<String> channels = new HashSet<>();
+        // channels written to by the device, by bucket
+        Map<Long, Set<String>> channels = new HashMap<>();
+        if (!timeBucket().isEnabled()) {
+            channels.put(null, new HashSet<>());
+        }
 
-        for (Event key: keys) {
-            if (type == Type.INCOMING) {
-                channels.add(key.getIncoming().getChannel());
-                removeFromTableByKey(key, type);
-                saveEvent(tenant, application, key, type, INCOMING_EVENTS_DELETED, false);
-            } else if (type == Type.OUTGOING) {
-                channels.add(key.getOutgoing().getChannel());
-                removeFromTableByKey(key, type);
-                saveEvent(tenant, application, key, type, OUTGOING_EVENTS_DELETED, false);
+        String cursor = null;
+        do {
+            EventPage page = doFindPage(tenant, application, deviceGuid, null, null, null, false, READ_PAGE_SIZE, cursor, type);
+
+            for (Event key: page.getEvents()) {
+                Set<String> bucketChannels = channels.computeIfAbsent(bucketOf(key), bucket -> new HashSet<>());
+                if (type == Type.INCOMING) {
+                    bucketChannels.add(key.getIncoming().getChannel());
+                    removeFromTableByKey(key, type);
+                    saveEvent(tenant, application, key, type, INCOMING_EVENTS_DELETED, false);
+                } else if (type == Type.OUTGOING) {
+                    bucketChannels.add(key.getOutgoing().getChannel());
+                    removeFromTableByKey(key, type);
+                    saveEvent(tenant, application, key, type, OUTGOING_EVENTS_DELETED, false);
+                }
             }
-        }
 
-        removeFromGuidTable(tenant, application, deviceGuid, type);
-        removeFromGuidChannelTable(tenant, application, deviceGuid, type, channels);
+            cursor = page.getNext();
+        } while (cursor != null);
+
+        for (Map.Entry<Long, Set<String>> bucketChannels : channels.entrySet()) {
+            removeFromGuidTable(tenant, application, deviceGuid, type, bucketChannels.getKey());
+            removeFromGuidChannelTable(tenant, application, deviceGuid, type, bucketChannels.getKey(), bucketChannels.getValue());
+        }
 
     }
 
-    private void removeFromGuidChannelTable(Tenant tenant, Application application, String deviceGuid, Type type, Set<String> channels) {
+    private void removeFromGuidChannelTable(Tenant tenant, Application application, String deviceGuid, Type type, Long bucket, Set<String> channels) {
 
         for (String channel: channels) {
 
@@ -407,9 +677,9 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
             query.append(config.getKeyspace());
             query.append(".");
             if (type == Type.INCOMING) {
-                query.append(INCOMING_EVENTS_DEVICE_GUID_CHANNEL);
+                query.append(tableOf(INCOMING_EVENTS_DEVICE_GUID_CHANNEL));
             } else if (type == Type.OUTGOING) {
-                query.append(OUTGOING_EVENTS_DEVICE_GUID_CHANNEL);
+                query.append(tableOf(OUTGOING_EVENTS_DEVICE_GUID_CHANNEL));
             }
             query.append(" WHERE ");
 
@@ -419,6 +689,11 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
             query.append(" AND application_name = ?");
             filters.add(applicationName);
 
+            if (bucket != null) {
+                query.append(" AND bucket = ?");
+                filters.add(bucket);
+            }
+
             query.append(" AND device_guid = ?");
             filters.add(deviceGuid);
 
@@ -431,7 +706,7 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
 
     }
 
-    private void removeFromGuidTable(Tenant tenant, Application application, String deviceGuid, Type type) {
+    private void removeFromGuidTable(Tenant tenant, Application application, String deviceGuid, Type type, Long bucket) {
 
         String tenantDomain = tenant.getDomainName();
         String applicationName = application.getName();
@@ -445,9 +720,9 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
         query.append(config.getKeyspace());
         query.append(".");
         if (type == Type.INCOMING) {
-            query.append(INCOMING_EVENTS_DEVICE_GUID);
+            query.append(tableOf(INCOMING_EVENTS_DEVICE_GUID));
         } else if (type == Type.OUTGOING) {
-            query.append(OUTGOING_EVENTS_DEVICE_GUID);
+            query.append(tableOf(OUTGOING_EVENTS_DEVICE_GUID));
         }
         query.append(" WHERE ");
 
@@ -457,6 +732,11 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
         query.append(" AND application_name = ?");
         filters.add(applicationName);
 
+        if (bucket != null) {
+            query.append(" AND bucket = ?");
+            filters.add(bucket);
+        }
+
         query.append(" AND device_guid = ?");
         filters.add(deviceGuid);
 
@@ -470,6 +750,7 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
         String applicationName = key.getIncoming().getApplicationName();
         String channel = key.getIncoming().getChannel();
         Long epochTs = key.getEpochTime();
+        Long bucket = bucketOf(key);
 
         // remove from tables: INCOMING_EVENTS or OUTGOING_EVENTS
 
@@ -480,9 +761,9 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
         query.append(config.getKeyspace());
         query.append(".");
         if (type == Type.INCOMING) {
-            query.append(INCOMING_EVENTS);
+            query.append(tableOf(INCOMING_EVENTS));
         } else if (type == Type.OUTGOING) {
-            query.append(OUTGOING_EVENTS);
+            query.append(tableOf(OUTGOING_EVENTS));
         }
         query.append(" WHERE ");
 
@@ -492,6 +773,11 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
         query.append(" AND application_name = ?");
         filters.add(applicationName);
 
+        if (bucket != null) {
+            query.append(" AND bucket = ?");
+            filters.add(bucket);
+        }
+
         query.append(" AND timestamp = ?");
         filters.add(epochTs);
 
@@ -506,9 +792,9 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
         query.append(config.getKeyspace());
         query.append(".");
         if (type == Type.INCOMING) {
-            query.append(INCOMING_EVENTS_CHANNEL);
+            query.append(tableOf(INCOMING_EVENTS_CHANNEL));
         } else if (type == Type.OUTGOING) {
-            query.append(OUTGOING_EVENTS_CHANNEL);
+            query.append(tableOf(OUTGOING_EVENTS_CHANNEL));
         }
         query.append(" WHERE ");
 
@@ -518,6 +804,11 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
         query.append(" AND application_name = ?");
         filters.add(applicationName);
 
+        if (bucket != null) {
+            query.append(" AND bucket = ?");
+            filters.add(bucket);
+        }
+
         query.append(" AND channel = ?");
         filters.add(channel);
 
@@ -528,12 +819,114 @@ public class EventRepositoryCassandraImpl extends BaseEventRepositoryImpl implem
 
     }
 
+    private int maxBucketsPerPage() {
+        return Math.max(1, config.getBucketMaxPerPage());
+    }
+
+    private TimeBucket timeBucket() {
+        return Optional.ofNullable(config.getBucketSize()).orElse(TimeBucket.NONE);
+    }
+
+    private String tableOf(String table) {
+        return timeBucket().isEnabled() ? table + BUCKETED_SUFFIX : table;
+    }
+
+    private Long bucketOf(Event event) {
+        return timeBucket().isEnabled() ? timeBucket().bucketOf(event.getTimestamp().toEpochMilli()) : null;
+    }
+
+    /**
+     * Lists the buckets a range of time spans, in the order of the query, or a single null
+     * bucket if the tables are not bucketed. Open or wide ranges are bounded to the retention
+     * of the buckets and one bucket ahead of now, as no event is kept beyond them; the
+     * retention spans at most a thousand buckets.
+     */
+    private List<Long> bucketsOf(Instant startInstant, Instant endInstant, boolean ascending) {
+
+        TimeBucket timeBucket = timeBucket();
+        if (!timeBucket.isEnabled()) {
+            return Collections.singletonList(null);
+        }
+
+        long now = System.currentTimeMillis();
+        long earliest = now - config.getBucketRetention();
+        long latest = now + timeBucket.getSize();
+
+        long first = timeBucket.bucketOf(startInstant != null ? Math.max(startInstant.toEpochMilli(), earliest) : earliest);
+        long last = timeBucket.bucketOf(endInstant != null ? Math.min(endInstant.toEpochMilli(), latest) : latest);
+
+        List<Long> buckets = new ArrayList<>();
+        for (long bucket = first; bucket <= last; bucket += timeBucket.getSize()) {
+            buckets.add(bucket);
+        }
+
+        if (!ascending) {
+            Collections.reverse(buckets);
+        }
+
+        return buckets;
+
+    }
+
+    private EventBatchWriter getBatchWriter() {
+        if (batchWriter == null) {
+            synchronized (this) {
+                if (batchWriter == null) {
+                    batchWriter = new EventBatchWriter(session, config);
+                }
+            }
+        }
+        return batchWriter;
+    }
+
+    @ManagedAttribute
+    public int getWritesInFlight() {
+        return batchWriter == null ? 0 : batchWriter.getInFlightCount();
+    }
+
+    /**
+     * Rows of each table waiting to be sent or waiting for Cassandra.
+     */
+    @ManagedAttribute
+    public Map<String, Long> getPendingRows() {
+        return rowsByTable(EventBatchWriter::getPendingCount);
+    }
+
+    @ManagedAttribute
+    public Map<String, Long> getWrittenRows() {
+        return rowsByTable(EventBatchWriter::getWrittenCount);
+    }
+
+    @ManagedAttribute
+    public Map<String, Long> getRetriedRows() {
+        return rowsByTable(EventBatchWriter::getRetriedCount);
+    }
+
+    @ManagedAttribute
+    public Map<String, Long> getFailedRows() {
+        return rowsByTable(EventBatchWriter::getFailedCount);
+    }
+
+    private Map<String, Long> rowsByTable(ToLongBiFunction<EventBatchWriter, String> count) {
+        Map<String, Long> rows = new TreeMap<>();
+        EventBatchWriter writer = batchWriter;
+        if (writer != null) {
+            for (String table : writer.getTables()) {
+                rows.put(table, count.applyAsLong(writer, table));
+            }
+        }
+        return rows;
+    }
+
     public void setSession(Session session) {
         this.session = session;
     }
 
     @Override
     public void destroy() throws Exception {
+        if (batchWriter != null) {
+            batchWriter.close(10, TimeUnit.SECONDS);
+        }
         if (cluster != null) {
             cluster.close();
         }
@@ -0,0 +1,43 @@
+package com.konkerlabs.platform.registry.business.repositories.events;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time span of the partitions of the bucketed event tables. An event is stored in the
+ * partition of the bucket its timestamp falls in, identified by the start of the bucket in
+ * epoch milliseconds, so a partition only grows for as long as its bucket lasts.
+ *
+ * Each size has a default retention, how far back queries look, that keeps the number of
+ * partitions a query may have to read within a few hundred.
+ */
+public enum TimeBucket {
+
+    NONE(0, 0),
+    HOUR(TimeUnit.HOURS.toMillis(1), TimeUnit.DAYS.toMillis(30)),
+    DAY(TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(365));
+
+    private final long size;
+    private final long defaultRetention;
+
+    TimeBucket(long size, long defaultRetention) {
+        this.size = size;
+        this.defaultRetention = defaultRetention;
+    }
+
+    public boolean isEnabled() {
+        return size > 0;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getDefaultRetention() {
+        return defaultRetention;
+    }
+
+    public long bucketOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, size) * size;
+    }
+
+}
@@ -1,34 +1,73 @@
 package com.konkerlabs.platform.registry.business.repositories.events;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.EventPage;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.model.validation.CommonValidations;
 import com.konkerlabs.platform.registry.business.repositories.DeviceRepository;
 import com.konkerlabs.platform.registry.business.repositories.TenantRepository;
 import com.konkerlabs.platform.registry.business.repositories.events.api.BaseEventRepositoryImpl;
+import com.konkerlabs.platform.registry.config.DeviceCacheConfig;
+import com.konkerlabs.platform.registry.config.MongoEventsConfig;
 import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteError;
+import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.IndexOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Events stored in MongoDB.
+ *
+ * The tenant and devices of the events saved are looked up once and remembered for a
+ * while, as with {@link DeviceCacheConfig}, so a device removed by another instance may
+ * still receive events until its entry expires. Only actors that were found are cached.
+ *
+ * Every query is made on the tenant, optionally on the device and channel, and sorted by
+ * timestamp and then by id, so each of these four shapes has its own compound index,
+ * created at startup, which the queries are hinted to use. Queries slower than a threshold
+ * are logged with their query plan.
+ */
 @Repository("mongoEvents")
 public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventRepositoryMongoImpl.class);
+
     @Autowired
     private MongoTemplate mongoTemplate;
     @Autowired
@@ -36,16 +75,140 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
     @Autowired
     private DeviceRepository deviceRepository;
 
+    private final Cache<String, String> tenantIds;
+    private final Cache<String, Boolean> knownDevices;
+    private final MongoEventsConfig eventsConfig = new MongoEventsConfig();
+    private volatile boolean indexed;
+
+    public EventRepositoryMongoImpl() {
+        DeviceCacheConfig config = new DeviceCacheConfig();
+        long maxSize = config.isEnabled() ? config.getMaxSize() : 0;
+
+        tenantIds = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(config.getExpireAfterWrite(), TimeUnit.SECONDS)
+                .build();
+        knownDevices = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(config.getExpireAfterWrite(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    @PostConstruct
+    public void ensureIndexes() {
+        if (!eventsConfig.isEnsureIndexes()) {
+            return;
+        }
+
+        try {
+            for (Type type : Type.values()) {
+                IndexOperations indexOperations = mongoTemplate.indexOps(type.getCollectionName());
+                for (boolean byDevice : new boolean[] {true, false}) {
+                    for (boolean byChannel : new boolean[] {true, false}) {
+                        indexOperations.ensureIndex(queryIndex(type, byDevice, byChannel));
+                    }
+                }
+            }
+            indexed = true;
+        } catch (RuntimeException e) {
+            LOGGER.warn("Failed to create the indexes of the event collections, queries will not be hinted", e);
+        }
+    }
+
     @Override
     protected Event doSave(Tenant tenant, Application application, Event event, Type type) throws BusinessException {
-        Optional.ofNullable(tenantRepository.findByDomainName(tenant.getDomainName()))
-                .orElseThrow(() -> new BusinessException(CommonValidations.TENANT_DOES_NOT_EXIST.getCode()));
+        String tenantId = findTenantId(tenant);
+
+        validateActors(tenantId, event, type);
+
+        mongoTemplate.save(toDocument(tenant, event, type), type.getCollectionName());
+
+        return event;
+    }
 
-        Tenant existingTenant = tenantRepository.findByDomainName(tenant.getDomainName());
+    /**
+     * Checks every event against the cached actors and writes the valid ones with a single
+     * unordered bulk insert, so an event the server rejects does not stop the others.
+     */
+    @Override
+    protected List<Event> doSaveBatch(Tenant tenant, Application application, Map<Integer, Event> events,
+                                      Map<Integer, String> failures, Type type) throws BusinessException {
+        String tenantId = findTenantId(tenant);
+
+        List<Integer> positions = new ArrayList<>(events.size());
+        List<Event> accepted = new ArrayList<>(events.size());
+        List<DBObject> documents = new ArrayList<>(events.size());
 
-        Optional.ofNullable(
-                deviceRepository.findByTenantAndGuid(existingTenant.getId(), event.getIncoming().getDeviceGuid())
-        ).orElseThrow(() -> new BusinessException(Validations.INCOMING_DEVICE_ID_DOES_NOT_EXIST.getCode()));
+        for (Map.Entry<Integer, Event> entry : events.entrySet()) {
+            try {
+                validateActors(tenantId, entry.getValue(), type);
+            } catch (BusinessException e) {
+                failures.put(entry.getKey(), e.getMessage());
+                continue;
+            }
+
+            positions.add(entry.getKey());
+            accepted.add(entry.getValue());
+            documents.add(toDocument(tenant, entry.getValue(), type));
+        }
+
+        if (documents.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Integer> rejected = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type.getCollectionName())
+                    .insert(documents)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                rejected.add(error.getIndex());
+                failures.put(positions.get(error.getIndex()), error.getMessage());
+            }
+        }
+
+        List<Event> saved = new ArrayList<>(accepted.size() - rejected.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            if (!rejected.contains(i)) {
+                saved.add(accepted.get(i));
+            }
+        }
+
+        return saved;
+    }
+
+    private String findTenantId(Tenant tenant) throws BusinessException {
+        String tenantId = tenantIds.getIfPresent(tenant.getDomainName());
+        if (tenantId == null) {
+            Tenant existingTenant = Optional.ofNullable(tenantRepository.findByDomainName(tenant.getDomainName()))
+                    .orElseThrow(() -> new BusinessException(CommonValidations.TENANT_DOES_NOT_EXIST.getCode()));
+
+            tenantId = existingTenant.getId();
+            tenantIds.put(tenant.getDomainName(), tenantId);
+        }
+
+        return tenantId;
+    }
+
+    private boolean deviceExists(String tenantId, String deviceGuid) {
+        String key = tenantId + ':' + deviceGuid;
+        if (knownDevices.getIfPresent(key) != null) {
+            return true;
+        }
+
+        boolean exists = deviceRepository.findByTenantAndGuid(tenantId, deviceGuid) != null;
+        if (exists) {
+            knownDevices.put(key, Boolean.TRUE);
+        }
+
+        return exists;
+    }
+
+    private void validateActors(String tenantId, Event event, Type type) throws BusinessException {
+        if (!deviceExists(tenantId, event.getIncoming().getDeviceGuid())) {
+            throw new BusinessException(Validations.INCOMING_DEVICE_ID_DOES_NOT_EXIST.getCode());
+        }
 
         Optional.ofNullable(event.getTimestamp())
                 .orElseThrow(() -> new BusinessException(Validations.EVENT_TIMESTAMP_NULL.getCode()));
@@ -58,11 +221,13 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
             Optional.ofNullable(event.getOutgoing().getChannel()).filter(s -> !s.isEmpty())
                     .orElseThrow(() -> new BusinessException(Validations.EVENT_OUTGOING_CHANNEL_NULL.getCode()));
 
-            Optional.ofNullable(
-                    deviceRepository.findByTenantAndGuid(existingTenant.getId(),event.getOutgoing().getDeviceGuid())
-            ).orElseThrow(() -> new BusinessException(Validations.OUTGOING_DEVICE_ID_DOES_NOT_EXIST.getCode()));
+            if (!deviceExists(tenantId, event.getOutgoing().getDeviceGuid())) {
+                throw new BusinessException(Validations.OUTGOING_DEVICE_ID_DOES_NOT_EXIST.getCode());
+            }
         }
+    }
 
+    private DBObject toDocument(Tenant tenant, Event event, Type type) {
         event.getIncoming().setTenantDomain(tenant.getDomainName());
 
         DBObject incoming = new BasicDBObject();
@@ -74,7 +239,6 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
 
         DBObject toSave = new BasicDBObject();
 
-        toSave.removeField("ts");
         toSave.put("ts", event.getTimestamp().toEpochMilli());
         toSave.put(Type.INCOMING.getActorFieldName(), incoming);
         toSave.put("payload", event.getPayload());
@@ -90,9 +254,7 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
             toSave.put(Type.OUTGOING.getActorFieldName(), outgoing);
         }
 
-        mongoTemplate.save(toSave, type.getCollectionName());
-
-        return event;
+        return toSave;
     }
 
     protected List<Event> doFindBy(Tenant tenant,
@@ -106,6 +268,118 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
                                  Type type,
                                  boolean isDeleted) throws BusinessException {
 
+        Query query = eventQuery(tenant, deviceGuid, channel, startInstant, endInstant, ascending, type, isDeleted, null);
+
+        Optional.ofNullable(limit).filter(integer -> integer > 0).ifPresent(integer -> query.limit(integer));
+
+        return find(query, type).stream()
+                .map(this::toEvent)
+                .collect(Collectors.toList());
+
+    }
+
+    /**
+     * Pages through the events by their timestamp and id, which together order them the
+     * same way on every page. The cursor holds the timestamp and the id of the last event
+     * returned, and the next page starts right after it.
+     */
+    @Override
+    protected EventPage doFindPage(Tenant tenant, Application application, String deviceGuid, String channel,
+                                   Instant startInstant, Instant endInstant, boolean ascending,
+                                   int pageSize, String cursor, Type type) throws BusinessException {
+
+        Criteria after = null;
+
+        if (cursor != null) {
+            long boundary;
+            ObjectId lastId;
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+                boundary = Long.parseLong(position[0]);
+                lastId = new ObjectId(position[1]);
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new BusinessException(Validations.CURSOR_INVALID.getCode());
+            }
+
+            after = ascending ?
+                    new Criteria().orOperator(
+                            Criteria.where("ts").gt(boundary),
+                            Criteria.where("ts").is(boundary).and("_id").gt(lastId)) :
+                    new Criteria().orOperator(
+                            Criteria.where("ts").lt(boundary),
+                            Criteria.where("ts").is(boundary).and("_id").lt(lastId));
+        }
+
+        Query query = eventQuery(tenant, deviceGuid, channel, startInstant, endInstant, ascending, type, false, after);
+        query.limit(pageSize + 1);
+
+        List<DBObject> result = find(query, type);
+        List<DBObject> page = result.subList(0, Math.min(result.size(), pageSize));
+
+        String next = null;
+        if (result.size() > pageSize) {
+            DBObject last = page.get(page.size() - 1);
+            String position = last.get("ts") + ":" + last.get("_id");
+            next = Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        return EventPage.builder()
+                .events(page.stream().map(this::toEvent).collect(Collectors.toList()))
+                .next(next)
+                .build();
+
+    }
+
+    private List<DBObject> find(Query query, Type type) {
+
+        long start = System.nanoTime();
+        List<DBObject> result = mongoTemplate.find(query,
+                DBObject.class,
+                type.getCollectionName());
+
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (eventsConfig.getSlowQueryThreshold() > 0 && elapsed >= eventsConfig.getSlowQueryThreshold()) {
+            logSlowQuery(query, type, elapsed);
+        }
+
+        return result;
+
+    }
+
+    @Override
+    protected Stream<Event> doStream(Tenant tenant,
+                                     Application application,
+                                     String deviceGuid,
+                                     String channel,
+                                     Instant startInstant,
+                                     Instant endInstant,
+                                     boolean ascending,
+                                     Type type) throws BusinessException {
+
+        Query query = eventQuery(tenant, deviceGuid, channel, startInstant, endInstant, ascending, type, false, null);
+
+        DBCursor cursor = mongoTemplate.getCollection(type.getCollectionName())
+                .find(query.getQueryObject())
+                .sort(query.getSortObject())
+                .batchSize(READ_PAGE_SIZE);
+        Optional.ofNullable(query.getHint()).ifPresent(cursor::hint);
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .map(this::toEvent)
+                .onClose(cursor::close);
+
+    }
+
+    private Query eventQuery(Tenant tenant,
+                             String deviceGuid,
+                             String channel,
+                             Instant startInstant,
+                             Instant endInstant,
+                             boolean ascending,
+                             Type type,
+                             boolean isDeleted,
+                             Criteria after) {
+
         List<Criteria> criterias = new ArrayList<>();
 
         Optional.ofNullable(deviceGuid).ifPresent(instant -> criterias.add(Criteria.where(MessageFormat.format("{0}.{1}", type.getActorFieldName(),"deviceGuid")).is(deviceGuid)));
@@ -120,6 +394,7 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
                                     .is(ch)
                     );
                 });
+        Optional.ofNullable(after).ifPresent(criterias::add);
 
         Query query = Query.query(
                 Criteria.where(
@@ -127,19 +402,22 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
                         ).is(tenant.getDomainName())
                         .andOperator(criterias.toArray(new Criteria[criterias.size()])));
 
-        Optional.ofNullable(limit).filter(integer -> integer > 0).ifPresent(integer -> query.limit(integer));
-
         Sort.Direction sort = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        query.with(new Sort(new Sort.Order(sort, "ts"), new Sort.Order(sort, "_id")));
 
-        List<DBObject> result = mongoTemplate.find(query.with(new Sort(new Sort.Order(sort, "ts"))),
-                DBObject.class,
-                type.getCollectionName());
+        if (indexed && eventsConfig.isHints()) {
+            query.withHint(indexName(deviceGuid != null, channel != null));
+        }
+
+        return query;
 
-        return result.stream().map(dbObject -> {
-            dbObject.removeField("_id");
-            dbObject.removeField("_class");
-            return dbObject;
-        }).map(dbObject -> Event.builder()
+    }
+
+    private Event toEvent(DBObject dbObject) {
+        dbObject.removeField("_id");
+        dbObject.removeField("_class");
+
+        return Event.builder()
                 .incoming(
                         ((Supplier<Event.EventActor>) () -> {
                             return Optional.ofNullable((DBObject) dbObject.get(Type.INCOMING.getActorFieldName()))
@@ -171,9 +449,42 @@ public class EventRepositoryMongoImpl extends BaseEventRepositoryImpl {
                 )
                 .payload(dbObject.get("payload").toString())
                 .timestamp(Instant.ofEpochMilli((Long) dbObject.get("ts")))
-                .build())
-        .collect(Collectors.toList());
+                .build();
+    }
+
+    private Index queryIndex(Type type, boolean byDevice, boolean byChannel) {
+        Index index = new Index().on(MessageFormat.format("{0}.{1}", type.getActorFieldName(), "tenantDomain"), Sort.Direction.ASC);
+        if (byDevice) {
+            index.on(MessageFormat.format("{0}.{1}", type.getActorFieldName(), "deviceGuid"), Sort.Direction.ASC);
+        }
+        if (byChannel) {
+            index.on(MessageFormat.format("{0}.{1}", type.getActorFieldName(), "channel"), Sort.Direction.ASC);
+        }
 
+        return index.on("ts", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named(indexName(byDevice, byChannel))
+                .background();
+    }
+
+    private String indexName(boolean byDevice, boolean byChannel) {
+        return "tenant" + (byDevice ? "_device" : "") + (byChannel ? "_channel" : "") + "_ts_id";
+    }
+
+    private void logSlowQuery(Query query, Type type, long elapsed) {
+        try {
+            DBCursor cursor = mongoTemplate.getCollection(type.getCollectionName())
+                    .find(query.getQueryObject())
+                    .sort(query.getSortObject())
+                    .limit(query.getLimit());
+            Optional.ofNullable(query.getHint()).ifPresent(cursor::hint);
+
+            LOGGER.warn("Slow query on {} took {} ms: {} sorted by {}, plan: {}",
+                    type.getCollectionName(), elapsed, query.getQueryObject(), query.getSortObject(), cursor.explain());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Slow query on {} took {} ms: {} sorted by {}",
+                    type.getCollectionName(), elapsed, query.getQueryObject(), query.getSortObject(), e);
+        }
     }
 
     /**
@@ -4,6 +4,8 @@ import com.konkerlabs.platform.registry.business.exceptions.BusinessException;
 import com.konkerlabs.platform.registry.business.model.Application;
 import com.konkerlabs.platform.registry.business.model.Device;
 import com.konkerlabs.platform.registry.business.model.Event;
+import com.konkerlabs.platform.registry.business.model.EventBatchResult;
+import com.konkerlabs.platform.registry.business.model.EventPage;
 import com.konkerlabs.platform.registry.business.model.Tenant;
 import com.konkerlabs.platform.registry.business.model.validation.CommonValidations;
 import com.konkerlabs.platform.registry.business.repositories.DeviceRepository;
@@ -24,6 +26,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.test.context.ContextConfiguration;
@@ -31,8 +34,13 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -57,6 +65,8 @@ public class EventRepositoryMongoTest extends BusinessLayerTestSupport {
     @Qualifier("mongoEvents")
     private EventRepository eventRepository;
     @Autowired
+    private EventRepositoryMongoImpl mongoEventRepository;
+    @Autowired
     private MongoTemplate mongoTemplate;
 
     private Tenant tenant;
@@ -232,6 +242,45 @@ public class EventRepositoryMongoTest extends BusinessLayerTestSupport {
         assertThat(saved,equalTo(persisted));
     }
 
+    @Test
+    public void shouldSaveTheValidEventsAndReportTheOthersWhenSavingIncomingBatch() throws Exception {
+        Event unknownDevice = Event.builder()
+                .incoming(Event.EventActor.builder().channel("command").deviceGuid("unknown_device").build())
+                .timestamp(secondEventTimestamp)
+                .payload(incomingPayload).build();
+        Event secondEvent = Event.builder()
+                .incoming(Event.EventActor.builder().channel("command").deviceGuid(deviceGuid).build())
+                .timestamp(thirdEventTimestamp)
+                .payload(incomingPayload).build();
+
+        EventBatchResult result = eventRepository.saveIncomingBatch(tenant, application,
+                Arrays.asList(incomingEvent, unknownDevice, null, secondEvent));
+
+        assertThat(result.getSaved(), contains(incomingEvent, secondEvent));
+        assertThat(result.getFailures().size(), equalTo(2));
+        assertThat(result.getFailures(), hasEntry(1, EventRepository.Validations.INCOMING_DEVICE_ID_DOES_NOT_EXIST.getCode()));
+        assertThat(result.getFailures(), hasEntry(2, CommonValidations.RECORD_NULL.getCode()));
+
+        List<DBObject> saved = mongoTemplate.find(
+                Query.query(Criteria.where("incoming.tenantDomain").is(tenant.getDomainName())),
+                DBObject.class,
+                EventRepositoryMongoImpl.EVENTS_INCOMING_COLLECTION_NAME
+        );
+        assertThat(saved.size(), equalTo(2));
+        saved.get(0).removeField("_id");
+        assertThat(saved.get(0), equalTo(persisted));
+    }
+
+    @Test
+    public void shouldRaiseAnExceptionIfTenantDoesNotExistsWhenSavingIncomingBatch() throws Exception {
+        thrown.expect(BusinessException.class);
+        thrown.expectMessage(CommonValidations.TENANT_DOES_NOT_EXIST.getCode());
+
+        eventRepository.saveIncomingBatch(Tenant.builder().domainName("fake").build(),
+                                          Application.builder().name("fake").build(),
+                                          Arrays.asList(incomingEvent));
+    }
+
     @Test
     @UsingDataSet(locations = {"/fixtures/tenants.json","/fixtures/devices.json","/fixtures/deviceEvents.json"})
     public void shouldRetrieveLastTwoEventsByTenantAndDeviceWhenFindingIncomingBy() throws Exception {
@@ -246,6 +295,23 @@ public class EventRepositoryMongoTest extends BusinessLayerTestSupport {
         assertThat(events.get(1).getTimestamp().toEpochMilli(),equalTo(secondEventTimestamp.toEpochMilli()));
     }
 
+    @Test
+    @UsingDataSet(locations = {"/fixtures/tenants.json","/fixtures/devices.json","/fixtures/deviceEvents.json"})
+    public void shouldCreateAnIndexForEachQueryShapeAndHintTheQueries() throws Exception {
+        mongoEventRepository.ensureIndexes();
+
+        List<String> indexes = mongoTemplate.indexOps(EventRepository.EVENTS_INCOMING_COLLECTION_NAME).getIndexInfo()
+                .stream().map(IndexInfo::getName).collect(Collectors.toList());
+        assertThat(indexes, hasItems("tenant_device_channel_ts_id", "tenant_device_ts_id", "tenant_channel_ts_id", "tenant_ts_id"));
+
+        List<Event> events = eventRepository.findIncomingBy(tenant, application, deviceGuid, null,
+                firstEventTimestamp.plus(1,ChronoUnit.SECONDS),
+                null,false,2);
+
+        assertThat(events,hasSize(2));
+        assertThat(events.get(0).getTimestamp().toEpochMilli(),equalTo(thirdEventTimestamp.toEpochMilli()));
+    }
+
     @Test
     @UsingDataSet(locations = {"/fixtures/tenants.json","/fixtures/devices.json","/fixtures/deviceEvents.json"})
     public void shouldRemoveEvents() throws Exception {
@@ -339,4 +405,74 @@ public class EventRepositoryMongoTest extends BusinessLayerTestSupport {
 
         assertThat(events.get(0).getTimestamp().toEpochMilli(),equalTo(thirdEventTimestamp.toEpochMilli()));
     }
-}
\ No newline at end of file
+
+    @Test
+    @UsingDataSet(locations = {"/fixtures/tenants.json","/fixtures/devices.json","/fixtures/deviceEvents.json"})
+    public void shouldPageThroughEventsWhenFindingIncomingPage() throws Exception {
+        EventPage first = eventRepository.findIncomingPage(tenant, application, deviceGuid, "command",
+                firstEventTimestamp, null, true, 2, null);
+
+        assertThat(first.getEvents(), hasSize(2));
+        assertThat(first.getEvents().get(0).getTimestamp().toEpochMilli(), equalTo(firstEventTimestamp.toEpochMilli() + 1));
+        assertThat(first.getEvents().get(1).getTimestamp().toEpochMilli(), equalTo(secondEventTimestamp.toEpochMilli()));
+        assertThat(first.getNext(), notNullValue());
+
+        EventPage second = eventRepository.findIncomingPage(tenant, application, deviceGuid, "command",
+                firstEventTimestamp, null, true, 2, first.getNext());
+
+        assertThat(second.getEvents(), hasSize(1));
+        assertThat(second.getEvents().get(0).getTimestamp().toEpochMilli(), equalTo(thirdEventTimestamp.toEpochMilli()));
+        assertThat(second.getNext(), nullValue());
+    }
+
+    @Test
+    public void shouldReturnEachEventOnceWhenPagingThroughEventsWithTheSameTimestamp() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            eventRepository.saveIncoming(tenant, application, Event.builder()
+                    .incoming(incomingEvent.getIncoming())
+                    .timestamp(firstEventTimestamp)
+                    .payload("{\"index\" : " + i + "}").build());
+        }
+        eventRepository.saveIncoming(tenant, application, Event.builder()
+                .incoming(incomingEvent.getIncoming())
+                .timestamp(secondEventTimestamp)
+                .payload("{\"index\" : 5}").build());
+
+        for (boolean ascending : new boolean[] {true, false}) {
+            List<String> payloads = new ArrayList<>();
+            String cursor = null;
+            do {
+                EventPage page = eventRepository.findIncomingPage(tenant, application, deviceGuid, "command",
+                        null, null, ascending, 2, cursor);
+                page.getEvents().forEach(event -> payloads.add(event.getPayload()));
+                cursor = page.getNext();
+            } while (cursor != null);
+
+            assertThat(payloads, hasSize(6));
+            assertThat(new HashSet<>(payloads), hasSize(6));
+            assertThat(payloads.get(ascending ? 5 : 0), equalTo("{\"index\" : 5}"));
+        }
+    }
+
+    @Test
+    @UsingDataSet(locations = {"/fixtures/tenants.json","/fixtures/devices.json","/fixtures/deviceEvents.json"})
+    public void shouldStreamEventsWhenStreamingIncomingBy() throws Exception {
+        List<Long> timestamps;
+        try (Stream<Event> events = eventRepository.streamIncomingBy(tenant, application, deviceGuid, "command",
+                firstEventTimestamp, null, true)) {
+            timestamps = events.map(event -> event.getTimestamp().toEpochMilli()).collect(Collectors.toList());
+        }
+
+        assertThat(timestamps, contains(firstEventTimestamp.toEpochMilli() + 1,
+                secondEventTimestamp.toEpochMilli(),
+                thirdEventTimestamp.toEpochMilli()));
+    }
+
+    @Test
+    public void shouldRaiseAnExceptionIfCursorIsInvalidWhenFindingIncomingPage() throws Exception {
+        thrown.expect(BusinessException.class);
+        thrown.expectMessage(EventRepository.Validations.CURSOR_INVALID.getCode());
+
+        eventRepository.findIncomingPage(tenant, application, deviceGuid, null, null, null, false, 2, "not a cursor");
+    }
+}
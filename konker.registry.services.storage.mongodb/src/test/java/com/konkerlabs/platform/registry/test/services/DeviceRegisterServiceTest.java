@@ -4,6 +4,7 @@ import com.konkerlabs.platform.registry.business.model.*;
 import com.konkerlabs.platform.registry.business.model.enumerations.LogLevel;
 import com.konkerlabs.platform.registry.business.model.validation.CommonValidations;
 import com.konkerlabs.platform.registry.business.repositories.*;
+import com.konkerlabs.platform.registry.business.services.DeviceApiKeyCache;
 import com.konkerlabs.platform.registry.business.services.api.ApplicationService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceEventService;
 import com.konkerlabs.platform.registry.business.services.api.DeviceRegisterService;
@@ -94,6 +95,8 @@ public class DeviceRegisterServiceTest extends BusinessLayerTestSupport {
     private ApplicationRepository applicationRepository;
     @Autowired
     private DeviceEventService deviceEventService;
+    @Autowired
+    private DeviceApiKeyCache deviceApiKeyCache;
 
     private Device device;
     private Tenant currentTenant;
@@ -105,6 +108,8 @@ public class DeviceRegisterServiceTest extends BusinessLayerTestSupport {
 
     @Before
     public void setUp() {
+        deviceApiKeyCache.invalidateAll();
+
         currentTenant = tenantRepository.findByName("Konker");
         emptyTenant = tenantRepository.findByName("EmptyTenant");
         currentApplication = applicationRepository.findByTenantAndName(currentTenant.getId(), "smartffkonker");
@@ -643,6 +648,19 @@ public class DeviceRegisterServiceTest extends BusinessLayerTestSupport {
     	assertThat(credentials.getResult().getDevice().getSecurityHash(), is(not(device.getSecurityHash())));
     }
 
+    @Test
+    @UsingDataSet(locations = {"/fixtures/tenants.json", "/fixtures/devices.json", "/fixtures/applications.json"})
+    public void shouldNotFindByPreviousApiKeyAfterGeneratingSecurityCredentials() {
+    	Device device = deviceRegisterService.findByApiKey(THE_DEVICE_API_KEY);
+    	assertThat(device, notNullValue());
+
+    	ServiceResponse<DeviceSecurityCredentials> credentials = deviceRegisterService.generateSecurityPassword(device.getTenant(), currentApplication, device.getGuid());
+    	assertThat(credentials.getStatus(), equalTo(ServiceResponse.Status.OK));
+
+    	assertThat(deviceRegisterService.findByApiKey(THE_DEVICE_API_KEY), nullValue());
+    	assertThat(deviceRegisterService.findByApiKey(credentials.getResult().getDevice().getApiKey()).getGuid(), equalTo(THE_DEVICE_GUID));
+    }
+
     @Test
     @UsingDataSet(locations = {"/fixtures/tenants.json", "/fixtures/devices.json", "/fixtures/applications.json"})
     public void shouldReturnErrorWhenGenerateSecurityCredentials() {
@@ -31,6 +31,8 @@ public class RestDestinationForm implements ModelBuilder<RestDestination, RestDe
     private String servicePassword;
     private RestDestinationType type = RestDestinationType.FORWARD_MESSAGE;
     private String body;
+    private Integer batchSize;
+    private Integer batchLinger;
     private boolean active;
 
     public RestDestinationForm() {
@@ -49,6 +51,8 @@ public class RestDestinationForm implements ModelBuilder<RestDestination, RestDe
                 .headers(headersMapToList(getHeaders()))
                 .type(getType())
                 .body(getBody() != null ? getBody().replaceAll("[\n\r]", "") : null)
+                .batchSize(getBatchSize())
+                .batchLinger(getBatchLinger())
                 .build();
     }
 
@@ -65,6 +69,8 @@ public class RestDestinationForm implements ModelBuilder<RestDestination, RestDe
         setHeaders(headersListToMap(model.getHeaders()));
         setType(model.getType());
         setBody(model.getBody());
+        setBatchSize(model.getBatchSize());
+        setBatchLinger(model.getBatchLinger());
         setApplicationName(model.getApplication() != null ? model.getApplication().getName() : null);
 
         return this;
@@ -20,6 +20,7 @@ public class TransformationForm implements ModelBuilder<Transformation, Transfor
     private String name;
     private String description;
     private Application application;
+    private Integer responseCacheTtl;
     private List<TransformationStepForm> steps = new LinkedList() {
         {
             add(new TransformationStepForm());
@@ -149,6 +150,7 @@ public class TransformationForm implements ModelBuilder<Transformation, Transfor
                 .name(getName())
                 .description(getDescription())
                 .application(getApplication())
+                .responseCacheTtl(getResponseCacheTtl())
                 .steps(
                         steps.stream()
                                 .map(transformationStep -> RestTransformationStep.builder()
@@ -170,6 +172,7 @@ public class TransformationForm implements ModelBuilder<Transformation, Transfor
         setName(model.getName());
         setDescription(model.getDescription());
         setApplication(model.getApplication());
+        setResponseCacheTtl(model.getResponseCacheTtl());
         getSteps().clear();
         model.getSteps().stream().forEachOrdered(transformationStep ->
                 getSteps().add(
@@ -103,6 +103,8 @@ public class RestDestinationControllerTest extends WebLayerTestContext {
                 .headers(new HashMap<String, String>())
                 .method("POST")
                 .type(RestDestinationType.FORWARD_MESSAGE)
+                .batchSize(10)
+                .batchLinger(500)
                 .servicePassword("password").active(true).build();
 
         savedDestination = RestDestination.builder()
@@ -115,6 +117,8 @@ public class RestDestinationControllerTest extends WebLayerTestContext {
                 .method(destination.getMethod())
                 .application(application)
                 .type(RestDestinationType.FORWARD_MESSAGE)
+                .batchSize(destination.getBatchSize())
+                .batchLinger(destination.getBatchLinger())
                 .build();
 
         registeredDestinations = new ArrayList<>();
@@ -126,6 +130,8 @@ public class RestDestinationControllerTest extends WebLayerTestContext {
         destinationData.add("serviceURI", destination.getServiceURI());
         destinationData.add("serviceUsername", destination.getServiceUsername());
         destinationData.add("servicePassword", destination.getServicePassword());
+        destinationData.add("batchSize", destination.getBatchSize().toString());
+        destinationData.add("batchLinger", destination.getBatchLinger().toString());
         destinationData.add("active", Boolean.valueOf(destination.isActive()).toString());
 
         destinationForm = new RestDestinationForm();
@@ -136,6 +142,8 @@ public class RestDestinationControllerTest extends WebLayerTestContext {
         destinationForm.setServicePassword(destination.getServicePassword());
         destinationForm.setActive(destination.isActive());
         destinationForm.setType(destination.getType());
+        destinationForm.setBatchSize(destination.getBatchSize());
+        destinationForm.setBatchLinger(destination.getBatchLinger());
         destinationForm.setApplicationName(application.getName());
     }
 
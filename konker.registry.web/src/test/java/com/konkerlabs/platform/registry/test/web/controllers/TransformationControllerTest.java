@@ -107,6 +107,7 @@ public class TransformationControllerTest extends WebLayerTestContext {
                     }
                 }).build())
                 .application(application)
+                .responseCacheTtl(60)
                 .build();
 
         transformations.add(transformation);
@@ -114,6 +115,7 @@ public class TransformationControllerTest extends WebLayerTestContext {
         transformationForm = new TransformationForm();
         transformationForm.setName(transformation.getName());
         transformationForm.setDescription(transformation.getDescription());
+        transformationForm.setResponseCacheTtl(transformation.getResponseCacheTtl());
         transformationForm.setSteps(transformation.getSteps().stream()
                 .map(transformationStep -> new TransformationForm.TransformationStepForm(method, url, username, password))
                 .collect(Collectors.toList()));
@@ -122,6 +124,7 @@ public class TransformationControllerTest extends WebLayerTestContext {
         transformationData = new LinkedMultiValueMap<>();
         transformationData.add("name", transformation.getName());
         transformationData.add("description", transformation.getDescription());
+        transformationData.add("responseCacheTtl", transformation.getResponseCacheTtl().toString());
         transformationData.add("steps[0].method", method);
         transformationData.add("steps[0].url", url);
         transformationData.add("steps[0].username", username);
@@ -0,0 +1,126 @@
+package com.konkerlabs.platform.utilities.expressions;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, least recently used cache of parsed SpEL expressions keyed by their text.
+ *
+ * Expressions are parsed in {@link SpelCompilerMode#MIXED} mode unless the
+ * <code>spring.expression.compiler.mode</code> property says otherwise, so the ones
+ * evaluated often are compiled to bytecode and fall back to interpretation on failure.
+ */
+@Component
+@ManagedResource(objectName = "com.konkerlabs.platform.utilities:type=ExpressionCache")
+public class ExpressionCache {
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private static final String COMPILER_MODE_PROPERTY = "spring.expression.compiler.mode";
+    private static final ParserContext TEMPLATE_PARSER_CONTEXT = new TemplateParserContext("@{","}");
+
+    private final SpelExpressionParser parser;
+    private final int maxSize;
+    private final Map<String, Expression> conditionals;
+    private final Map<String, Expression> templates;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpressionCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public ExpressionCache(int maxSize) {
+        SpelCompilerMode compilerMode = Optional.ofNullable(SpringProperties.getProperty(COMPILER_MODE_PROPERTY))
+                .map(mode -> SpelCompilerMode.valueOf(mode.toUpperCase()))
+                .orElse(SpelCompilerMode.MIXED);
+
+        this.parser = new SpelExpressionParser(
+                new SpelParserConfiguration(compilerMode, getClass().getClassLoader()));
+        this.maxSize = maxSize;
+        this.conditionals = newLruMap();
+        this.templates = newLruMap();
+    }
+
+    public Expression getConditional(String expression) {
+        return get(conditionals, expression, null);
+    }
+
+    public Expression getTemplate(String expressionTemplate) {
+        return get(templates, expressionTemplate, TEMPLATE_PARSER_CONTEXT);
+    }
+
+    @ManagedAttribute
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @ManagedAttribute
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @ManagedAttribute
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @ManagedAttribute
+    public int getSize() {
+        return conditionals.size() + templates.size();
+    }
+
+    @ManagedOperation
+    public void clear() {
+        conditionals.clear();
+        templates.clear();
+    }
+
+    private Expression get(Map<String, Expression> cache, String text, ParserContext parserContext) {
+        Expression expression = cache.get(text);
+        if (expression != null) {
+            hits.increment();
+            return expression;
+        }
+
+        misses.increment();
+        expression = parserContext != null
+                ? parser.parseExpression(text, parserContext)
+                : parser.parseExpression(text);
+        cache.put(text, expression);
+
+        return expression;
+    }
+
+    @SuppressWarnings("serial")
+    private Map<String, Expression> newLruMap() {
+        return Collections.synchronizedMap(new LinkedHashMap<String, Expression>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+}
@@ -1,20 +1,16 @@
 package com.konkerlabs.platform.utilities.expressions;
 
 import com.konkerlabs.platform.utilities.support.Functions;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.context.expression.MapAccessor;
-import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
-import org.springframework.expression.common.TemplateParserContext;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
+import org.springframework.util.ReflectionUtils;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
+import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Optional;
 
@@ -22,6 +18,13 @@ import java.util.Optional;
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
 public class ExpressionEvaluationServiceImpl implements ExpressionEvaluationService {
 
+    private static final MapAccessor MAP_ACCESSOR = new MapAccessor();
+    private static final Method URL_ENCODE_FUNCTION =
+            ReflectionUtils.findMethod(Functions.class, "urlEncode", String.class);
+
+    @Autowired
+    private ExpressionCache expressionCache;
+
     @Override
     public String evaluateTemplate(String expressionTemplate, Map<String, Object> evaluationContext) {
         Optional.ofNullable(expressionTemplate)
@@ -31,17 +34,11 @@ public class ExpressionEvaluationServiceImpl implements ExpressionEvaluationServ
         Optional.ofNullable(evaluationContext)
             .orElseThrow(() -> new IllegalArgumentException("Evaluation context cannot be null"));
 
-        Expression expression = new SpelExpressionParser().parseExpression(expressionTemplate
-                ,new TemplateParserContext("@{","}"));
+        Expression expression = expressionCache.getTemplate(expressionTemplate);
 
         StandardEvaluationContext standardEvaluationContext = new StandardEvaluationContext();
-        try {
-            standardEvaluationContext.registerFunction("urlEncode",
-                    Functions.class.getDeclaredMethod("urlEncode", new Class[] {String.class}));
-        } catch (NoSuchMethodException e) {
-            throw new EvaluationException("Fail to register function to evaluation context", e);
-        }
-        standardEvaluationContext.addPropertyAccessor(new MapAccessor());
+        standardEvaluationContext.registerFunction("urlEncode", URL_ENCODE_FUNCTION);
+        standardEvaluationContext.addPropertyAccessor(MAP_ACCESSOR);
         standardEvaluationContext.setVariables(evaluationContext);
 
         return expression.getValue(standardEvaluationContext,String.class);
@@ -56,10 +53,10 @@ public class ExpressionEvaluationServiceImpl implements ExpressionEvaluationServ
         Optional.ofNullable(evaluationContext)
                 .orElseThrow(() -> new IllegalArgumentException("Evaluation context cannot be null"));
 
-        Expression expression = new SpelExpressionParser().parseExpression(conditionalExpression);
+        Expression expression = expressionCache.getConditional(conditionalExpression);
 
         StandardEvaluationContext standardEvaluationContext = new StandardEvaluationContext();
-        standardEvaluationContext.addPropertyAccessor(new MapAccessor());
+        standardEvaluationContext.addPropertyAccessor(MAP_ACCESSOR);
         standardEvaluationContext.setVariables(evaluationContext);
 
         return expression.getValue(standardEvaluationContext,Boolean.class);
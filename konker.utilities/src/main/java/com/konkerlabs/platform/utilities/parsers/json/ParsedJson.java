@@ -0,0 +1,156 @@
+package com.konkerlabs.platform.utilities.parsers.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.ValueNode;
+import com.konkerlabs.platform.utilities.parsers.json.JsonParsingService.JsonPathData;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * A JSON document that is parsed at most once. The tree, map and flat map views are
+ * built on first use and shared by every later caller, so they must not be modified.
+ */
+public class ParsedJson {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String json;
+
+    private JsonNode tree;
+    private JsonProcessingException failure;
+    private Map<String, Object> map;
+    private Map<String, JsonPathData> flatMap;
+
+    public ParsedJson(String json) {
+        this.json = json;
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    public boolean isFor(String json) {
+        return this.json == json || (this.json != null && this.json.equals(json));
+    }
+
+    public boolean isValid() {
+        try {
+            getTree();
+            return true;
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public synchronized JsonNode getTree() throws JsonProcessingException {
+        Optional.ofNullable(json)
+                .filter(s -> !s.isEmpty())
+                .orElseThrow(() -> new IllegalArgumentException("JSON cannot be null or empty"));
+
+        if (failure != null)
+            throw failure;
+
+        if (tree == null) {
+            try {
+                tree = OBJECT_MAPPER.readTree(json);
+            } catch (IOException e) {
+                failure = new JsonParseException("Failed to parse json", null, e);
+                throw failure;
+            }
+
+            if (tree == null) {
+                failure = new JsonParseException("Failed to parse json", null);
+                throw failure;
+            }
+        }
+
+        return tree;
+    }
+
+    public synchronized Map<String, Object> getMap() throws JsonProcessingException {
+        if (map == null) {
+            try {
+                Map<String, Object> values = OBJECT_MAPPER.convertValue(getTree(),
+                        new TypeReference<Map<String, Object>>() {
+                        });
+                map = values != null ? Collections.unmodifiableMap(values) : null;
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException("Failed to parse json", null, e);
+            }
+        }
+
+        return map;
+    }
+
+    public synchronized Map<String, JsonPathData> getFlatMap() throws JsonProcessingException {
+        if (flatMap == null) {
+            Map<String, JsonPathData> paths = new HashMap<>();
+            addKeys("", getTree(), paths, null);
+            flatMap = Collections.unmodifiableMap(paths);
+        }
+
+        return flatMap;
+    }
+
+    private static void addKeys(String currentPath, JsonNode jsonNode, Map<String, JsonPathData> map, List<JsonNodeType> knownTypes) {
+        if (jsonNode.isObject()) {
+            ObjectNode objectNode = (ObjectNode) jsonNode;
+            Iterator<Map.Entry<String, JsonNode>> iterator = objectNode.fields();
+            String pathPrefix = currentPath.isEmpty() ? "" : currentPath + ".";
+
+            if (knownTypes == null)
+                knownTypes = new ArrayList<>();
+
+            knownTypes.add(JsonNodeType.OBJECT);
+
+            while (iterator.hasNext()) {
+                Map.Entry<String, JsonNode> entry = iterator.next();
+                addKeys(pathPrefix + entry.getKey(), entry.getValue(), map, new ArrayList<>(knownTypes));
+            }
+        } else if (jsonNode.isArray()) {
+            ArrayNode arrayNode = (ArrayNode) jsonNode;
+
+            if (currentPath.isEmpty())
+                currentPath = "root";
+
+            if (knownTypes == null)
+                knownTypes = new ArrayList<>();
+
+            knownTypes.add(JsonNodeType.ARRAY);
+
+            for (int i = 0; i < arrayNode.size(); i++) {
+                addKeys(currentPath + "." + i, arrayNode.get(i), map, new ArrayList<>(knownTypes));
+            }
+        } else if (jsonNode.isValueNode()) {
+            ValueNode valueNode = (ValueNode) jsonNode;
+            knownTypes.add(valueNode.getNodeType());
+            JsonPathData.JsonPathDataBuilder data = JsonPathData.builder().types(knownTypes);
+            switch (valueNode.getNodeType()) {
+                case NUMBER: {
+                    if (valueNode.asText().contains("."))
+                        map.put(currentPath, data.value(valueNode.asDouble()).build());
+                    else
+                        map.put(currentPath, data.value(valueNode.asLong()).build());
+                    break;
+                }
+                case BOOLEAN: {
+                    map.put(currentPath, data.value(valueNode.asBoolean()).build());
+                    break;
+                }
+                default: {
+                    map.put(currentPath, data.value(valueNode.asText()).build());
+                    break;
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.konkerlabs.platform.utilities.test.expressions;
+
+import com.konkerlabs.platform.utilities.expressions.ExpressionCache;
+import org.junit.Test;
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ExpressionCacheTest {
+
+    @Test
+    public void shouldParseEachExpressionOnlyOnce() {
+        ExpressionCache subject = new ExpressionCache(10);
+
+        Expression first = subject.getConditional("#value > 30");
+        Expression second = subject.getConditional("#value > 30");
+
+        assertThat(second, sameInstance(first));
+        assertThat(subject.getMissCount(), equalTo(1L));
+        assertThat(subject.getHitCount(), equalTo(1L));
+    }
+
+    @Test
+    public void shouldKeepTemplatesAndConditionalsApart() {
+        ExpressionCache subject = new ExpressionCache(10);
+
+        Expression conditional = subject.getConditional("#value");
+        Expression template = subject.getTemplate("#value");
+
+        assertThat(template, not(sameInstance(conditional)));
+        assertThat(subject.getSize(), equalTo(2));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedExpressions() {
+        ExpressionCache subject = new ExpressionCache(2);
+
+        Expression first = subject.getConditional("#value > 1");
+        subject.getConditional("#value > 2");
+        subject.getConditional("#value > 1");
+        subject.getConditional("#value > 3");
+
+        assertThat(subject.getEvictionCount(), equalTo(1L));
+        assertThat(subject.getConditional("#value > 1"), sameInstance(first));
+    }
+
+    @Test
+    public void shouldKeepEvaluatingAfterBeingCompiled() {
+        ExpressionCache subject = new ExpressionCache(10);
+        Expression expression = subject.getConditional("#complex.value > 30");
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(expression.getValue(context(i), Boolean.class), equalTo(i > 30));
+        }
+
+        assertThat(expression.getValue(context(31.5), Boolean.class), equalTo(true));
+    }
+
+    private StandardEvaluationContext context(Object value) {
+        Map<String, Object> complex = new HashMap<>();
+        complex.put("value", value);
+
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.addPropertyAccessor(new MapAccessor());
+        context.setVariable("complex", complex);
+        return context;
+    }
+
+}
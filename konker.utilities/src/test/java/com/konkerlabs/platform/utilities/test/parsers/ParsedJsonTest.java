@@ -0,0 +1,73 @@
+package com.konkerlabs.platform.utilities.test.parsers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.konkerlabs.platform.utilities.parsers.json.JsonParsingServiceImpl;
+import com.konkerlabs.platform.utilities.parsers.json.ParsedJson;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ParsedJsonTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private String validJson = "{\"ts\" : \"2016-03-03T18:15:00Z\", \"value\" : 31.0, " +
+            "\"command\" : {\"type\" : \"ButtonPressed\"}, " +
+            "\"data\" : {\"channels\" : [{\"name\" : \"channel_0\"}]}, \"time\" : 123}";
+
+    private String invalidJson = "{\"ts\" : \"2016-03-03T18:15:00Z\" \"value\" : 31.0}";
+
+    @Test
+    public void shouldParseOnlyOnce() throws Exception {
+        ParsedJson parsed = new ParsedJson(validJson);
+
+        assertThat(parsed.getTree(), sameInstance(parsed.getTree()));
+        assertThat(parsed.getMap(), sameInstance(parsed.getMap()));
+        assertThat(parsed.getFlatMap(), sameInstance(parsed.getFlatMap()));
+    }
+
+    @Test
+    public void shouldBuildTheSameViewsAsTheParsingService() throws Exception {
+        ParsedJson parsed = new ParsedJson(validJson);
+        JsonParsingServiceImpl service = new JsonParsingServiceImpl();
+
+        assertThat(parsed.getMap(), equalTo(service.toMap(validJson)));
+        assertThat(parsed.getFlatMap(), equalTo(service.toFlatMap(validJson)));
+    }
+
+    @Test
+    public void shouldNotBeValidIfJsonIsMalformed() {
+        assertThat(new ParsedJson(invalidJson).isValid(), is(false));
+        assertThat(new ParsedJson(null).isValid(), is(false));
+        assertThat(new ParsedJson(validJson).isValid(), is(true));
+    }
+
+    @Test
+    public void shouldRaiseAnExceptionIfJsonIsMalformed() throws Exception {
+        thrown.expect(JsonProcessingException.class);
+
+        new ParsedJson(invalidJson).getMap();
+    }
+
+    @Test
+    public void shouldRaiseAnExceptionIfJsonIsEmpty() throws Exception {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("JSON cannot be null or empty");
+
+        new ParsedJson("").getTree();
+    }
+
+    @Test
+    public void shouldTellWhetherItWasParsedFromTheGivenJson() {
+        ParsedJson parsed = new ParsedJson(validJson);
+
+        assertThat(parsed.isFor(validJson), is(true));
+        assertThat(parsed.isFor(new String(validJson)), is(true));
+        assertThat(parsed.isFor(invalidJson), is(false));
+    }
+
+}